@@ -0,0 +1,65 @@
+package com.agentfactory;
+
+import com.agentfactory.models.Message;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Canned model and Serper payloads of realistic size, shared by the benchmarks.
+ */
+public final class BenchmarkPayloads {
+
+    private BenchmarkPayloads() {}
+
+    /**
+     * Loads a model response with a "Thought" preamble followed by a search action.
+     *
+     * @return the model response text
+     */
+    public static String modelResponse() {
+        return load("payloads/model_response.txt");
+    }
+
+    /**
+     * Loads a raw Serper search response with ten organic results.
+     *
+     * @return the Serper JSON
+     */
+    public static String serperResponse() {
+        return load("payloads/serper_response.json");
+    }
+
+    /**
+     * Builds an agent conversation with the given number of completed steps.
+     *
+     * @param steps the number of action/observation pairs
+     * @param observation the observation text used for every step
+     * @return the conversation, starting with the system prompt and the task
+     */
+    public static List<Message> conversation(int steps, String observation) {
+        List<Message> messages = new ArrayList<>();
+        messages.add(new Message("system", load("toolcalling_agent.yaml")));
+        messages.add(new Message("user", "Search for 'Java programming' and summarize the results."));
+        for (int i = 0; i < steps; i++) {
+            messages.add(new Message(
+                    "assistant", "Action:\n{\"name\":\"search\",\"arguments\":{\"query\":\"java step " + i + "\"}}"));
+            messages.add(new Message("user", "Observation: " + observation));
+        }
+        return messages;
+    }
+
+    private static String load(String resource) {
+        try (InputStream in = BenchmarkPayloads.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Benchmark payload not found: " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
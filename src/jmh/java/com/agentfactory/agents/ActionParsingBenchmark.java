@@ -0,0 +1,107 @@
+package com.agentfactory.agents;
+
+import com.agentfactory.BenchmarkPayloads;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures how the agent finds and decodes the action in a model response.
+ */
+@State(Scope.Benchmark)
+public class ActionParsingBenchmark {
+    private static final int TOKEN_CHARS = 4;
+    private static final Gson GSON = new Gson();
+
+    private String response;
+    private List<String> tokens;
+
+    @Setup
+    public void setUp() {
+        response = BenchmarkPayloads.modelResponse();
+        tokens = new ArrayList<>();
+        for (int i = 0; i < response.length(); i += TOKEN_CHARS) {
+            tokens.add(response.substring(i, Math.min(response.length(), i + TOKEN_CHARS)));
+        }
+    }
+
+    /**
+     * The per-step path: locate the action and decode its tool calls in one pass.
+     */
+    @Benchmark
+    public ParsedAction parse() {
+        return ActionParser.parse(response);
+    }
+
+    /**
+     * Baseline for {@link #parse()}: the original approach of extracting a substring, building a
+     * Gson tree and then converting the arguments to a map.
+     */
+    @Benchmark
+    public Map<?, ?> gsonTreeDecode() {
+        String actionJson = extractAction(response);
+        JsonObject action = JsonParser.parseString(actionJson).getAsJsonObject();
+        return GSON.fromJson(action.get("arguments"), Map.class);
+    }
+
+    /**
+     * Locating the action while the response arrives as small streamed tokens.
+     */
+    @Benchmark
+    public String extractStreamed() {
+        IncrementalActionParser parser = new IncrementalActionParser();
+        for (String token : tokens) {
+            if (parser.append(token)) {
+                break;
+            }
+        }
+        return parser.getAction();
+    }
+
+    /**
+     * Extracts a JSON action from the model's response.
+     *
+     * @param response the model's response
+     * @return the extracted JSON action as a string
+     * @throws RuntimeException if no valid action JSON is found
+     */
+    private String extractAction(String response) {
+        int actionStart = response.indexOf("{");
+        int actionEnd = findMatchingBrace(response, actionStart);
+
+        if (actionStart == -1 || actionEnd == -1) {
+            throw new RuntimeException("No valid action JSON found in response: " + response);
+        }
+
+        return response.substring(actionStart, actionEnd + 1);
+    }
+
+    /**
+     * Finds the matching closing brace for an opening brace.
+     *
+     * @param text the text to search in
+     * @param openBraceIndex the index of the opening brace
+     * @return the index of the matching closing brace, or -1 if not found
+     */
+    private int findMatchingBrace(String text, int openBraceIndex) {
+        if (openBraceIndex == -1) return -1;
+
+        int count = 1;
+        for (int i = openBraceIndex + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{') count++;
+            else if (c == '}') count--;
+
+            if (count == 0) return i;
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,67 @@
+package com.agentfactory.agents;
+
+import com.agentfactory.BenchmarkPayloads;
+import com.agentfactory.models.AIModel;
+import com.agentfactory.models.Message;
+import com.agentfactory.tools.FinalAnswerTool;
+import com.agentfactory.tools.Tool;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the agent loop's own overhead with an instant model and an instant search tool,
+ * so the numbers reflect parsing, dispatch and conversation growth only.
+ */
+@State(Scope.Benchmark)
+public class AgentLoopBenchmark {
+
+    @Param({"1", "5", "9"})
+    public int steps;
+
+    private String searchResponse;
+    private String finalResponse;
+    private String observation;
+
+    @Setup
+    public void setUp() {
+        searchResponse = BenchmarkPayloads.modelResponse();
+        finalResponse = "Action:\n{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"Java is a language.\"}}";
+        observation = BenchmarkPayloads.serperResponse();
+    }
+
+    @Benchmark
+    public String run() {
+        AIModel model = new ScriptedModel();
+        Tool search = new Tool() {
+            @Override
+            public String getName() {
+                return "search";
+            }
+
+            @Override
+            public Object execute(Map<String, Object> args) {
+                return observation;
+            }
+        };
+        ToolCallingAgent agent = new ToolCallingAgent(model, "system", Arrays.asList(search, new FinalAnswerTool()));
+        return agent.run("Search for 'Java programming' and summarize the results.");
+    }
+
+    /**
+     * Answers with a search action until the configured number of steps is reached.
+     */
+    private class ScriptedModel implements AIModel {
+        private int calls = 0;
+
+        @Override
+        public String generateResponse(List<Message> messages) {
+            return calls++ < steps ? searchResponse : finalResponse;
+        }
+    }
+}
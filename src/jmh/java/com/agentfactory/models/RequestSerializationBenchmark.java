@@ -0,0 +1,34 @@
+package com.agentfactory.models;
+
+import com.agentfactory.BenchmarkPayloads;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures serializing the chat completion request, which is redone for the whole
+ * conversation on every step.
+ */
+@State(Scope.Benchmark)
+public class RequestSerializationBenchmark {
+
+    @Param({"0", "5", "10"})
+    public int steps;
+
+    private OpenAIModel model;
+    private List<Message> conversation;
+
+    @Setup
+    public void setUp() {
+        model = new OpenAIModel("benchmark-key", "gpt-4");
+        conversation = BenchmarkPayloads.conversation(steps, BenchmarkPayloads.serperResponse());
+    }
+
+    @Benchmark
+    public String serializeRequest() {
+        return model.toRequestJson(conversation, false);
+    }
+}
@@ -0,0 +1,27 @@
+package com.agentfactory.tools;
+
+import com.agentfactory.BenchmarkPayloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures turning a raw Serper response into the observation text given to the model.
+ */
+@State(Scope.Benchmark)
+public class SearchFormattingBenchmark {
+    private SearchTool tool;
+    private String serperResponse;
+
+    @Setup
+    public void setUp() {
+        tool = new SearchTool("benchmark-key");
+        serperResponse = BenchmarkPayloads.serperResponse();
+    }
+
+    @Benchmark
+    public String formatResults() {
+        return tool.formatResults(serperResponse);
+    }
+}
@@ -2,6 +2,7 @@ package com.agentfactory;
 
 import com.agentfactory.agents.ToolCallingAgent;
 import com.agentfactory.config.ApiConfig;
+import com.agentfactory.http.HttpTransport;
 import com.agentfactory.models.AIModel;
 import com.agentfactory.models.OpenAIModel;
 import com.agentfactory.tools.FinalAnswerTool;
@@ -42,11 +43,14 @@ public class Main {
      * @param config API configuration containing necessary API keys
      */
     private static void runBasicAgent(ApiConfig config) {
+        // Share one connection pool between the model and the tools
+        HttpTransport transport = HttpTransport.shared();
+
         // Initialize the model with configuration
-        AIModel model = new OpenAIModel(config, "gpt-4");
+        AIModel model = new OpenAIModel(config, "gpt-4", transport);
 
         // Create tools with configuration
-        List<Tool> tools = Arrays.asList(new SearchTool(config), new FinalAnswerTool());
+        List<Tool> tools = Arrays.asList(new SearchTool(config, transport), new FinalAnswerTool());
 
         // Create agent
         ToolCallingAgent agent = new ToolCallingAgent(model, tools);
@@ -0,0 +1,428 @@
+package com.agentfactory.agents;
+
+import com.agentfactory.models.FunctionCall;
+import com.agentfactory.models.Message;
+import com.google.gson.Gson;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the action in a model response and decodes it in a single pass.
+ * The JSON is read directly into tool calls with plain Java argument values, without building
+ * an intermediate substring or JSON tree first. String literals are handled properly, so braces
+ * inside arguments never confuse the parser.
+ *
+ * <p>An action is a single {@code {"name", "arguments"}} object, an array of such objects, or an
+ * object holding a {@code tool_calls} array; OpenAI-style {@code {"function": {...}}} entries are
+ * accepted too. Decoded values follow Gson's untyped mapping: numbers are doubles, objects are maps
+ * and arrays are lists. If a candidate is not a valid action, scanning resumes after it.
+ *
+ * <p>With native function calling the calls arrive already separated in the assistant message's
+ * {@code tool_calls}; only their argument strings need decoding, see {@link #parse(Message)}.
+ */
+final class ActionParser {
+    private static final String NO_ACTION = "No valid action JSON found in response: ";
+    private static final Gson GSON = new Gson();
+
+    private final CharSequence text;
+    private int pos;
+
+    private ActionParser(CharSequence text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses the first valid action in the given text.
+     *
+     * @param text the model response
+     * @return the action and its tool calls
+     * @throws RuntimeException if the text contains no valid action
+     */
+    static ParsedAction parse(CharSequence text) {
+        ActionParser parser = new ActionParser(text);
+        int start = parser.findStart(0);
+        while (start != -1) {
+            parser.pos = start;
+            try {
+                List<ToolCall> calls = toCalls(parser.readValue());
+                return new ParsedAction(text.subSequence(start, parser.pos).toString(), calls);
+            } catch (MalformedActionException e) {
+                start = parser.findStart(start + 1);
+            }
+        }
+        throw new RuntimeException(NO_ACTION + text);
+    }
+
+    /**
+     * Returns whether the given text, from its first character, is a valid action.
+     *
+     * @param text the candidate action
+     * @return true if the text starts with an action object or array
+     */
+    static boolean isAction(CharSequence text) {
+        try {
+            toCalls(new ActionParser(text).readValue());
+            return true;
+        } catch (MalformedActionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the action of an assistant message from a native function calling response.
+     * The action JSON is rebuilt from the message's tool calls in the same shape a text action
+     * has, a call object or an array of them, for the conversation log. A message without tool
+     * calls is parsed as text, since models may still answer in plain text. A call whose
+     * arguments are not a JSON object is kept with an {@link ToolCall#getError() error}, so it can
+     * be answered like any invalid call instead of ending the run.
+     *
+     * @param message the assistant message
+     * @return the action and its tool calls, keeping the message
+     * @throws RuntimeException if the message has no tool calls and no valid text action
+     */
+    static ParsedAction parse(Message message) {
+        List<FunctionCall> functionCalls = message.getToolCalls();
+        if (functionCalls == null || functionCalls.isEmpty()) {
+            ParsedAction action = parse(message.getContent() == null ? "" : message.getContent());
+            return new ParsedAction(action.getJson(), action.getCalls(), null);
+        }
+        List<ToolCall> calls = new ArrayList<>(functionCalls.size());
+        StringBuilder json = new StringBuilder();
+        for (FunctionCall functionCall : functionCalls) {
+            String arguments = functionCall.getArguments();
+            String argumentsJson = arguments == null || arguments.trim().isEmpty() ? "{}" : arguments.trim();
+            try {
+                calls.add(new ToolCall(functionCall.getName(), toArguments(arguments)));
+            } catch (MalformedActionException e) {
+                String error = "Invalid call to " + functionCall.getName()
+                        + ": arguments are not a JSON object: " + arguments;
+                calls.add(new ToolCall(functionCall.getName(), new LinkedHashMap<>(), error));
+                argumentsJson = GSON.toJson(arguments);
+            }
+            json.append(json.length() == 0 ? "" : ",")
+                    .append("{\"name\":")
+                    .append(GSON.toJson(functionCall.getName()))
+                    .append(",\"arguments\":")
+                    .append(argumentsJson)
+                    .append('}');
+        }
+        String action = calls.size() == 1 ? json.toString() : "[" + json + "]";
+        return new ParsedAction(action, calls, message);
+    }
+
+    /**
+     * Parses a single complete tool call object, such as one element of an action array, while the
+     * rest of the action may still be arriving. The call must state its arguments; a call without
+     * them is most likely still being written.
+     *
+     * @param text the call object
+     * @return the tool call, or null if the text is not a call object with arguments
+     */
+    static ToolCall parseCall(CharSequence text) {
+        ActionParser parser = new ActionParser(text);
+        try {
+            Object value = parser.readValue();
+            if (!(value instanceof Map)) {
+                return null;
+            }
+            Map<?, ?> call = (Map<?, ?>) value;
+            if (call.get("function") instanceof Map) {
+                call = (Map<?, ?>) call.get("function");
+            }
+            return call.get("arguments") == null ? null : toCall(call);
+        } catch (MalformedActionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Finds the next position where an action may start: an opening brace, or an opening
+     * bracket whose first non-whitespace content is an opening brace.
+     */
+    private int findStart(int from) {
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{') {
+                return i;
+            }
+            if (c == '[') {
+                int next = i + 1;
+                while (next < text.length() && Character.isWhitespace(text.charAt(next))) {
+                    next++;
+                }
+                if (next < text.length() && text.charAt(next) == '{') {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static List<ToolCall> toCalls(Object value) {
+        List<?> entries;
+        if (value instanceof List) {
+            entries = (List<?>) value;
+        } else if (value instanceof Map && ((Map<?, ?>) value).get("tool_calls") instanceof List) {
+            entries = (List<?>) ((Map<?, ?>) value).get("tool_calls");
+        } else {
+            return Collections.singletonList(toCall(value));
+        }
+        if (entries.isEmpty()) {
+            throw new MalformedActionException();
+        }
+        List<ToolCall> calls = new ArrayList<>(entries.size());
+        for (Object entry : entries) {
+            calls.add(toCall(entry));
+        }
+        return calls;
+    }
+
+    private static ToolCall toCall(Object value) {
+        if (!(value instanceof Map)) {
+            throw new MalformedActionException();
+        }
+        Map<?, ?> action = (Map<?, ?>) value;
+        if (action.get("function") instanceof Map) {
+            action = (Map<?, ?>) action.get("function");
+        }
+        Object name = action.get("name");
+        if (!(name instanceof String)) {
+            throw new MalformedActionException();
+        }
+        return new ToolCall((String) name, toArguments(action.get("arguments")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> toArguments(Object arguments) {
+        if (arguments == null) {
+            return new LinkedHashMap<>();
+        }
+        if (arguments instanceof String) {
+            if (((String) arguments).trim().isEmpty()) {
+                return new LinkedHashMap<>();
+            }
+            ActionParser nested = new ActionParser((String) arguments);
+            arguments = nested.readValue();
+        }
+        if (!(arguments instanceof Map)) {
+            throw new MalformedActionException();
+        }
+        return (Map<String, Object>) arguments;
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (pos >= text.length()) {
+            throw new MalformedActionException();
+        }
+        char c = text.charAt(pos);
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                return readLiteral("true", Boolean.TRUE);
+            case 'f':
+                return readLiteral("false", Boolean.FALSE);
+            case 'n':
+                return readLiteral("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw new MalformedActionException();
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        pos++;
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw new MalformedActionException();
+            }
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            object.put(key, readValue());
+            skipWhitespace();
+            char c = peek();
+            pos++;
+            if (c == '}') {
+                return object;
+            }
+            if (c != ',') {
+                throw new MalformedActionException();
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        pos++;
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return array;
+        }
+        while (true) {
+            array.add(readValue());
+            skipWhitespace();
+            char c = peek();
+            pos++;
+            if (c == ']') {
+                return array;
+            }
+            if (c != ',') {
+                throw new MalformedActionException();
+            }
+        }
+    }
+
+    private String readString() {
+        int start = ++pos;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c == '"') {
+                return text.subSequence(start, pos++).toString();
+            }
+            if (c == '\\') {
+                return readEscapedString(start);
+            }
+            pos++;
+        }
+        throw new MalformedActionException();
+    }
+
+    private String readEscapedString(int start) {
+        StringBuilder value = new StringBuilder(pos - start + 16);
+        value.append(text, start, pos);
+        while (pos < text.length()) {
+            char c = text.charAt(pos++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (pos >= text.length()) {
+                break;
+            }
+            char escape = text.charAt(pos++);
+            switch (escape) {
+                case '"':
+                case '\\':
+                case '/':
+                    value.append(escape);
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    value.append(readUnicodeEscape());
+                    break;
+                default:
+                    throw new MalformedActionException();
+            }
+        }
+        throw new MalformedActionException();
+    }
+
+    private char readUnicodeEscape() {
+        if (pos + 4 > text.length()) {
+            throw new MalformedActionException();
+        }
+        int code = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(text.charAt(pos++), 16);
+            if (digit < 0) {
+                throw new MalformedActionException();
+            }
+            code = (code << 4) | digit;
+        }
+        return (char) code;
+    }
+
+    private Double readNumber() {
+        int start = pos;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                pos++;
+            } else {
+                break;
+            }
+        }
+        try {
+            return Double.valueOf(text.subSequence(start, pos).toString());
+        } catch (NumberFormatException e) {
+            throw new MalformedActionException();
+        }
+    }
+
+    private Object readLiteral(String literal, Object value) {
+        int end = pos + literal.length();
+        if (end > text.length() || !literal.contentEquals(text.subSequence(pos, end))) {
+            throw new MalformedActionException();
+        }
+        pos = end;
+        return value;
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private char peek() {
+        if (pos >= text.length()) {
+            throw new MalformedActionException();
+        }
+        return text.charAt(pos);
+    }
+
+    private void expect(char expected) {
+        if (peek() != expected) {
+            throw new MalformedActionException();
+        }
+        pos++;
+    }
+
+    /**
+     * Signals that a candidate is not a valid action. Carries no stack trace, since it is used
+     * to move on to the next candidate rather than to report an error.
+     */
+    private static final class MalformedActionException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        MalformedActionException() {
+            super(null, null, false, false);
+        }
+    }
+}
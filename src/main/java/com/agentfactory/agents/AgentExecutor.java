@@ -0,0 +1,242 @@
+package com.agentfactory.agents;
+
+import com.agentfactory.memory.AgentMemory;
+import com.agentfactory.metrics.MetricsRecorder;
+import com.agentfactory.models.AIModel;
+import com.agentfactory.prompts.PromptRegistry;
+import com.agentfactory.tools.Tool;
+import com.agentfactory.tools.ToolRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs many agent tasks concurrently on a bounded pool of worker threads.
+ * The model, tools and system prompt are shared between tasks; each task runs in its own
+ * {@link ToolCallingAgent} so conversation state and memory never leak between tasks.
+ * Submission blocks once the number of running and queued tasks reaches the configured limit.
+ */
+public class AgentExecutor implements AutoCloseable {
+    private final AIModel model;
+    private final ToolRegistry tools;
+    private final String systemPrompt;
+    private final PromptRegistry prompts;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore permits;
+    private volatile MetricsRecorder metrics = MetricsRecorder.NOOP;
+    private volatile RunBudget budget = RunBudget.DEFAULT;
+
+    /**
+     * Creates a new executor that uses the default system prompt.
+     *
+     * @param model the AI model shared by all tasks; must be safe for concurrent use
+     * @param tools the tools shared by all tasks; must be safe for concurrent use
+     * @param concurrency the maximum number of tasks running at the same time
+     * @param queueCapacity the maximum number of tasks waiting for a worker
+     */
+    public AgentExecutor(AIModel model, List<Tool> tools, int concurrency, int queueCapacity) {
+        this(model, PromptRegistry.getDefault(), ToolRegistry.of(tools), concurrency, queueCapacity);
+    }
+
+    /**
+     * Creates a new executor whose tasks read the default system prompt from the given prompt
+     * registry, so edits picked up by a {@link PromptRegistry#watch() watching} registry apply to
+     * every task started afterwards.
+     *
+     * @param model the AI model shared by all tasks; must be safe for concurrent use
+     * @param prompts the registry the system prompt is read from
+     * @param tools the tools shared by all tasks; must be safe for concurrent use
+     * @param concurrency the maximum number of tasks running at the same time
+     * @param queueCapacity the maximum number of tasks waiting for a worker
+     * @throws IllegalArgumentException if concurrency is not positive or queueCapacity is negative
+     */
+    public AgentExecutor(
+            AIModel model, PromptRegistry prompts, ToolRegistry tools, int concurrency, int queueCapacity) {
+        this(model, null, prompts, tools, concurrency, queueCapacity);
+    }
+
+    /**
+     * Creates a new executor with the specified system prompt.
+     *
+     * @param model the AI model shared by all tasks; must be safe for concurrent use
+     * @param systemPrompt the system prompt used for every task
+     * @param tools the tools shared by all tasks; must be safe for concurrent use
+     * @param concurrency the maximum number of tasks running at the same time
+     * @param queueCapacity the maximum number of tasks waiting for a worker
+     * @throws IllegalArgumentException if concurrency is not positive or queueCapacity is negative
+     */
+    public AgentExecutor(AIModel model, String systemPrompt, List<Tool> tools, int concurrency, int queueCapacity) {
+        this(model, systemPrompt, ToolRegistry.of(tools), concurrency, queueCapacity);
+    }
+
+    /**
+     * Creates a new executor with the specified system prompt and a prebuilt tool registry.
+     *
+     * @param model the AI model shared by all tasks; must be safe for concurrent use
+     * @param systemPrompt the system prompt used for every task
+     * @param tools the tools shared by all tasks; must be safe for concurrent use
+     * @param concurrency the maximum number of tasks running at the same time
+     * @param queueCapacity the maximum number of tasks waiting for a worker
+     * @throws IllegalArgumentException if concurrency is not positive or queueCapacity is negative
+     */
+    public AgentExecutor(
+            AIModel model, String systemPrompt, ToolRegistry tools, int concurrency, int queueCapacity) {
+        this(model, systemPrompt, null, tools, concurrency, queueCapacity);
+    }
+
+    private AgentExecutor(
+            AIModel model,
+            String systemPrompt,
+            PromptRegistry prompts,
+            ToolRegistry tools,
+            int concurrency,
+            int queueCapacity) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("Queue capacity must not be negative: " + queueCapacity);
+        }
+        this.model = model;
+        this.tools = tools;
+        this.systemPrompt = systemPrompt;
+        this.prompts = prompts;
+        this.permits = new Semaphore(concurrency + queueCapacity);
+        this.executor = new ThreadPoolExecutor(
+                concurrency,
+                concurrency,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new DaemonThreadFactory("agent-executor"));
+    }
+
+    /**
+     * Sets the recorder passed to the agent of every task submitted afterwards.
+     *
+     * @param metrics the metrics recorder; must be safe for concurrent use
+     */
+    public void setMetrics(MetricsRecorder metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the budget of every task submitted afterwards. A task's deadline starts when a worker
+     * picks it up, so time spent queued is not counted.
+     *
+     * @param budget the budget of each run
+     */
+    public void setBudget(RunBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Submits a task for execution.
+     * Blocks while the executor is saturated, which pushes back on callers producing tasks
+     * faster than they can be completed.
+     *
+     * @param task the task for the agent to perform
+     * @return a future completed with the final answer, or exceptionally if the run fails
+     * @throws RejectedExecutionException if the executor has been closed
+     * @throws IllegalStateException if the calling thread is interrupted while waiting
+     */
+    public CompletableFuture<String> submit(String task) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to submit task", e);
+        }
+        return dispatch(task);
+    }
+
+    /**
+     * Submits a task for execution if there is capacity, without blocking.
+     *
+     * @param task the task for the agent to perform
+     * @return a future completed with the final answer, or null if the executor is saturated
+     * @throws RejectedExecutionException if the executor has been closed
+     */
+    public CompletableFuture<String> trySubmit(String task) {
+        if (!permits.tryAcquire()) {
+            return null;
+        }
+        return dispatch(task);
+    }
+
+    /**
+     * Submits all tasks for execution, blocking whenever the executor is saturated.
+     *
+     * @param tasks the tasks to perform
+     * @return futures for the tasks, in the same order
+     */
+    public List<CompletableFuture<String>> submitAll(List<String> tasks) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(tasks.size());
+        for (String task : tasks) {
+            futures.add(submit(task));
+        }
+        return futures;
+    }
+
+    /**
+     * Stops accepting new tasks and waits for submitted tasks to finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands a task to the worker pool; the caller must already hold a permit.
+     *
+     * @param task the task for the agent to perform
+     * @return a future completed with the final answer
+     */
+    private CompletableFuture<String> dispatch(String task) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        MetricsRecorder taskMetrics = metrics;
+        RunBudget taskBudget = budget;
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(newAgent(taskMetrics, taskBudget).run(task));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Creates a fresh agent for a single task, sharing the model, tools and prompt.
+     *
+     * @param metrics the recorder in effect when the task was submitted
+     * @param budget the budget in effect when the task was submitted
+     * @return a new agent with empty memory
+     */
+    private ToolCallingAgent newAgent(MetricsRecorder metrics, RunBudget budget) {
+        ToolCallingAgent agent = prompts == null
+                ? new ToolCallingAgent(model, systemPrompt, tools, new AgentMemory())
+                : new ToolCallingAgent(model, prompts, tools, new AgentMemory());
+        agent.setMetrics(metrics);
+        agent.setBudget(budget);
+        return agent;
+    }
+}
@@ -0,0 +1,18 @@
+package com.agentfactory.agents;
+
+/**
+ * Thrown when an agent run reaches a limit of its {@link RunBudget} without a final answer.
+ * Model and tool calls the run was waiting for have been cancelled.
+ */
+public class BudgetExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a new exception.
+     *
+     * @param message the limit that was reached
+     */
+    public BudgetExceededException(String message) {
+        super(message);
+    }
+}
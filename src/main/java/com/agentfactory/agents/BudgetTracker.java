@@ -0,0 +1,183 @@
+package com.agentfactory.agents;
+
+import com.agentfactory.context.TokenEstimator;
+import com.agentfactory.models.FunctionCall;
+import com.agentfactory.models.Message;
+import java.util.List;
+
+/**
+ * What one run has spent of its {@link RunBudget}: time since it started, and the estimated
+ * tokens of its model calls. Also remembers what the previous step spent, to tell whether the
+ * run can afford more steps like it.
+ */
+final class BudgetTracker {
+    private final RunBudget budget;
+    private final long start = System.nanoTime();
+    private long promptTokens;
+    private long completionTokens;
+    private long stepStart;
+    private long stepPromptStart;
+    private long stepCompletionStart;
+    private long lastStepNanos;
+    private long lastStepPromptTokens;
+    private long lastStepCompletionTokens;
+
+    BudgetTracker(RunBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Marks the start of a step.
+     */
+    void startStep() {
+        stepStart = System.nanoTime();
+        stepPromptStart = promptTokens;
+        stepCompletionStart = completionTokens;
+    }
+
+    /**
+     * Marks the end of a step, remembering what it spent.
+     */
+    void endStep() {
+        lastStepNanos = System.nanoTime() - stepStart;
+        lastStepPromptTokens = promptTokens - stepPromptStart;
+        lastStepCompletionTokens = completionTokens - stepCompletionStart;
+    }
+
+    /**
+     * Counts the estimated tokens of a model call.
+     *
+     * @param messages the messages sent
+     * @param response the response text, or null if there is none
+     */
+    void recordModelCall(List<Message> messages, String response) {
+        TokenEstimator estimator = budget.getTokenEstimator();
+        for (Message message : messages) {
+            if (message.getContent() != null) {
+                promptTokens += estimator.estimate(message.getContent());
+            }
+            promptTokens += estimateToolCalls(estimator, message.getToolCalls());
+        }
+        completionTokens += response == null ? 0 : estimator.estimate(response);
+    }
+
+    /**
+     * Counts the estimated tokens of a native function calling response.
+     *
+     * @param messages the messages sent
+     * @param response the assistant message
+     */
+    void recordModelCall(List<Message> messages, Message response) {
+        recordModelCall(messages, response.getContent());
+        completionTokens += estimateToolCalls(budget.getTokenEstimator(), response.getToolCalls());
+    }
+
+    /**
+     * Describes the limit the run has reached, if any.
+     *
+     * @param steps the number of steps completed
+     * @return the reason the run must stop, or null if it may take another step
+     */
+    String exhausted(int steps) {
+        if (steps >= budget.getMaxSteps()) {
+            return "Max steps reached without final answer.";
+        }
+        if (!budget.getMaxDuration().isZero() && remainingNanos() <= 0) {
+            return deadlineReached();
+        }
+        if (budget.getMaxPromptTokens() > 0 && promptTokens >= budget.getMaxPromptTokens()) {
+            return "Prompt token budget of " + budget.getMaxPromptTokens() + " reached without final answer.";
+        }
+        if (budget.getMaxCompletionTokens() > 0 && completionTokens >= budget.getMaxCompletionTokens()) {
+            return "Completion token budget of " + budget.getMaxCompletionTokens()
+                    + " reached without final answer.";
+        }
+        if (budget.getMaxCost() > 0 && getCost() >= budget.getMaxCost()) {
+            return "Cost budget of " + budget.getMaxCost() + " reached without final answer.";
+        }
+        return null;
+    }
+
+    /**
+     * Describes the deadline having passed.
+     *
+     * @return the reason the run must stop
+     */
+    String deadlineReached() {
+        return "Deadline of " + budget.getMaxDuration().toMillis() + " ms reached without final answer.";
+    }
+
+    /**
+     * Returns whether the next step should be the last: it is the last step allowed, or two more
+     * steps like the previous one, the next step and a final answer after it, would overrun a limit.
+     *
+     * @param steps the number of steps completed
+     * @return true if the model should give its final answer now
+     */
+    boolean isLow(int steps) {
+        if (steps + 1 >= budget.getMaxSteps()) {
+            return true;
+        }
+        if (!budget.getMaxDuration().isZero() && remainingNanos() < 2 * lastStepNanos) {
+            return true;
+        }
+        long nextPrompt = promptTokens + 2 * lastStepPromptTokens;
+        long nextCompletion = completionTokens + 2 * lastStepCompletionTokens;
+        return (budget.getMaxPromptTokens() > 0 && nextPrompt > budget.getMaxPromptTokens())
+                || (budget.getMaxCompletionTokens() > 0 && nextCompletion > budget.getMaxCompletionTokens())
+                || (budget.getMaxCost() > 0 && budget.cost(nextPrompt, nextCompletion) > budget.getMaxCost());
+    }
+
+    /**
+     * Gets the time left before the deadline.
+     *
+     * @return the remaining time in nanoseconds, which may be negative, or {@link Long#MAX_VALUE}
+     *     if the run has no deadline
+     */
+    long remainingNanos() {
+        if (budget.getMaxDuration().isZero()) {
+            return Long.MAX_VALUE;
+        }
+        return budget.getMaxDuration().toNanos() - (System.nanoTime() - start);
+    }
+
+    /**
+     * Gets the estimated prompt tokens spent so far.
+     *
+     * @return the prompt tokens
+     */
+    long getPromptTokens() {
+        return promptTokens;
+    }
+
+    /**
+     * Gets the estimated completion tokens spent so far.
+     *
+     * @return the completion tokens
+     */
+    long getCompletionTokens() {
+        return completionTokens;
+    }
+
+    /**
+     * Gets the estimated cost so far.
+     *
+     * @return the cost
+     */
+    double getCost() {
+        return budget.cost(promptTokens, completionTokens);
+    }
+
+    private static long estimateToolCalls(TokenEstimator estimator, List<FunctionCall> calls) {
+        long tokens = 0;
+        if (calls != null) {
+            for (FunctionCall call : calls) {
+                tokens += estimator.estimate(call.getName());
+                if (call.getArguments() != null) {
+                    tokens += estimator.estimate(call.getArguments());
+                }
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,182 @@
+package com.agentfactory.agents;
+
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Locates the first JSON action in model output that may arrive in chunks.
+ * An action is either a single object or an array of objects for parallel tool calls.
+ * Text is scanned once as it is appended; brackets inside string literals are ignored.
+ * A balanced candidate that is not a valid action, such as an example object in the model's
+ * prose, is discarded and scanning resumes just after its start, as {@link ActionParser} does.
+ * Once a valid action closes, further input is ignored.
+ *
+ * <p>A parser can also report tool calls that may already be complete before the action is:
+ * each element of an array as soon as it closes, and for a single object, the object so far
+ * (closed with a brace) whenever one of its values has been read. Candidates are reported with
+ * the index of the call they belong to and may not be valid calls yet. When a candidate action
+ * turns out to be invalid, the parser reports the reset before it reports calls of the next one,
+ * whose indexes start again from zero.
+ */
+class IncrementalActionParser {
+    private static final ObjIntConsumer<String> IGNORE_CALLS = (call, index) -> {};
+
+    private final ObjIntConsumer<String> callListener;
+    private final Runnable resetListener;
+    private final StringBuilder buffer = new StringBuilder();
+    private int scanned = 0;
+    private int start = -1;
+    private int pendingArray = -1;
+    private int end = -1;
+    private int depth = 0;
+    private boolean inString = false;
+    private boolean escaped = false;
+    private boolean array = false;
+    private int elementStart = -1;
+    private int elements = 0;
+    private char lastToken = 0;
+    private boolean valueString = false;
+
+    /**
+     * Creates a parser that only locates the action.
+     */
+    IncrementalActionParser() {
+        this(IGNORE_CALLS, () -> {});
+    }
+
+    /**
+     * Creates a parser that also reports candidate tool calls while the action is incomplete.
+     *
+     * @param callListener receives the JSON text of each candidate call and the call's index
+     * @param resetListener called when a candidate action is discarded, so the calls reported
+     *     for it no longer belong to the action
+     */
+    IncrementalActionParser(ObjIntConsumer<String> callListener, Runnable resetListener) {
+        this.callListener = callListener;
+        this.resetListener = resetListener;
+    }
+
+    /**
+     * Appends a chunk of model output and continues scanning.
+     *
+     * @param chunk the next chunk of text
+     * @return true if a complete action has been found
+     */
+    boolean append(CharSequence chunk) {
+        if (isComplete()) {
+            return true;
+        }
+        buffer.append(chunk);
+        for (; scanned < buffer.length(); scanned++) {
+            char c = buffer.charAt(scanned);
+            if (start == -1) {
+                if (pendingArray != -1 && !Character.isWhitespace(c)) {
+                    if (c == '{') {
+                        start = pendingArray;
+                        depth = 2;
+                        pendingArray = -1;
+                        array = true;
+                        elementStart = scanned;
+                        continue;
+                    }
+                    pendingArray = -1;
+                }
+                if (c == '{') {
+                    start = scanned;
+                    depth = 1;
+                } else if (c == '[') {
+                    pendingArray = scanned;
+                }
+                continue;
+            }
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                    if (depth == 1 && !array && valueString) {
+                        reportCall(start, true, 0);
+                    }
+                }
+                continue;
+            }
+            if (c == '"') {
+                inString = true;
+                valueString = lastToken == ':';
+            } else if (c == '{' || c == '[') {
+                depth++;
+                if (depth == 2 && array && c == '{') {
+                    elementStart = scanned;
+                }
+            } else if (c == '}' || c == ']') {
+                depth--;
+                if (depth == 0) {
+                    if (ActionParser.isAction(buffer.subSequence(start, scanned + 1))) {
+                        end = scanned;
+                        scanned++;
+                        return true;
+                    }
+                    scanned = start;
+                    reset();
+                    resetListener.run();
+                    continue;
+                }
+                if (depth == 1 && array && c == '}') {
+                    reportCall(elementStart, false, elements++);
+                } else if (depth == 1 && !array) {
+                    reportCall(start, true, 0);
+                }
+            }
+            if (depth == 1 && !Character.isWhitespace(c)) {
+                lastToken = c;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Forgets the current candidate, so scanning looks for the next one.
+     */
+    private void reset() {
+        start = -1;
+        pendingArray = -1;
+        depth = 0;
+        inString = false;
+        escaped = false;
+        array = false;
+        elementStart = -1;
+        elements = 0;
+        lastToken = 0;
+        valueString = false;
+    }
+
+    /**
+     * Reports the text from the given position to the current one as a candidate call,
+     * optionally closing the object.
+     */
+    private void reportCall(int from, boolean close, int index) {
+        if (callListener != IGNORE_CALLS) {
+            String call = buffer.substring(from, scanned + 1);
+            callListener.accept(close ? call + "}" : call, index);
+        }
+    }
+
+    /**
+     * Returns whether a complete action has been found.
+     *
+     * @return true if the action is complete
+     */
+    boolean isComplete() {
+        return end != -1;
+    }
+
+    /**
+     * Returns the complete action JSON, either an object or an array of objects.
+     *
+     * @return the action JSON, or null if no complete action has been found yet
+     */
+    String getAction() {
+        return isComplete() ? buffer.substring(start, end + 1) : null;
+    }
+}
@@ -0,0 +1,258 @@
+package com.agentfactory.agents;
+
+import com.agentfactory.metrics.MetricNames;
+import com.agentfactory.metrics.MetricsRecorder;
+import com.agentfactory.metrics.TraceEvent;
+import com.agentfactory.models.AIModel;
+import com.agentfactory.models.Message;
+import com.agentfactory.prompts.PromptRegistry;
+import com.agentfactory.tools.Tool;
+import com.agentfactory.tools.ToolRegistry;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * An agent that splits a task into independent subtasks, runs a {@link ToolCallingAgent} for each
+ * of them in parallel, and merges their final answers. A broad task then takes about as long as
+ * its slowest subtask instead of one long chain of steps, and each worker has its own step limit.
+ *
+ * <p>The orchestrator makes two model calls of its own: one to plan the subtasks and one to merge
+ * the answers. A task the planner does not split runs as a single worker and needs no merge.
+ * Workers run on an {@link AgentExecutor} with bounded concurrency and share the orchestrator's
+ * model and tools, so they also share whatever the model and tools share: build them with one
+ * {@link com.agentfactory.http.HttpTransport} and one {@link com.agentfactory.cache.ResponseCache}
+ * so that workers reuse connections and cached searches. A failed subtask does not fail the
+ * task; its error is passed to the merge instead.
+ */
+public class OrchestratorAgent implements AutoCloseable {
+    private static final String PLAN_PROMPT = "orchestrator_plan.yaml";
+    private static final String MERGE_PROMPT = "orchestrator_merge.yaml";
+    private static final int DEFAULT_MAX_SUBTASKS = 8;
+
+    private final AIModel model;
+    private final PromptRegistry prompts;
+    private final AgentExecutor workers;
+    private final int maxSubtasks;
+    private MetricsRecorder metrics = MetricsRecorder.NOOP;
+
+    /**
+     * Creates a new orchestrator that splits tasks into at most 8 subtasks.
+     *
+     * @param model the AI model used for planning, the workers and merging; must be safe for concurrent use
+     * @param tools the tools available to the workers; must be safe for concurrent use
+     * @param concurrency the maximum number of workers running at the same time
+     */
+    public OrchestratorAgent(AIModel model, List<Tool> tools, int concurrency) {
+        this(model, ToolRegistry.of(tools), concurrency, DEFAULT_MAX_SUBTASKS);
+    }
+
+    /**
+     * Creates a new orchestrator.
+     *
+     * @param model the AI model used for planning, the workers and merging; must be safe for concurrent use
+     * @param tools the tools available to the workers; must be safe for concurrent use
+     * @param concurrency the maximum number of workers running at the same time
+     * @param maxSubtasks the maximum number of subtasks a task is split into
+     * @throws IllegalArgumentException if concurrency or maxSubtasks is not positive
+     */
+    public OrchestratorAgent(AIModel model, ToolRegistry tools, int concurrency, int maxSubtasks) {
+        this(model, PromptRegistry.getDefault(), tools, concurrency, maxSubtasks);
+    }
+
+    /**
+     * Creates a new orchestrator whose plan, merge and worker prompts are read from the given
+     * prompt registry, so edits picked up by a {@link PromptRegistry#watch() watching} registry
+     * apply to every task started afterwards.
+     *
+     * @param model the AI model used for planning, the workers and merging; must be safe for concurrent use
+     * @param prompts the registry the prompts are read from
+     * @param tools the tools available to the workers; must be safe for concurrent use
+     * @param concurrency the maximum number of workers running at the same time
+     * @param maxSubtasks the maximum number of subtasks a task is split into
+     * @throws IllegalArgumentException if concurrency or maxSubtasks is not positive
+     */
+    public OrchestratorAgent(
+            AIModel model, PromptRegistry prompts, ToolRegistry tools, int concurrency, int maxSubtasks) {
+        if (maxSubtasks <= 0) {
+            throw new IllegalArgumentException("Max subtasks must be positive: " + maxSubtasks);
+        }
+        this.model = model;
+        this.prompts = prompts;
+        this.maxSubtasks = maxSubtasks;
+        this.workers = new AgentExecutor(model, prompts, tools, concurrency, maxSubtasks);
+    }
+
+    /**
+     * Sets the recorder for the orchestrator's plan, worker and merge times, also passed to the
+     * agents of workers started afterwards.
+     *
+     * @param metrics the metrics recorder; must be safe for concurrent use
+     */
+    public void setMetrics(MetricsRecorder metrics) {
+        this.metrics = metrics;
+        workers.setMetrics(metrics);
+    }
+
+    /**
+     * Sets the budget of each worker started afterwards. The plan and merge calls are not bounded
+     * by it.
+     *
+     * @param budget the budget of each worker's run
+     */
+    public void setBudget(RunBudget budget) {
+        workers.setBudget(budget);
+    }
+
+    /**
+     * Runs the orchestrator on the specified task: plans subtasks, runs a worker for each one and
+     * merges their answers.
+     *
+     * @param task the task to perform
+     * @return the final answer
+     * @throws RuntimeException if the planning or merging model call fails, or the task was not
+     *     split and its only worker failed
+     */
+    public String run(String task) {
+        long start = System.nanoTime();
+        List<String> subtasks = plan(task);
+        long planned = System.nanoTime();
+        metrics.recordTime(MetricNames.ORCHESTRATOR_PLAN_TIME, planned - start);
+
+        List<CompletableFuture<String>> futures = new ArrayList<>(subtasks.size());
+        for (String subtask : subtasks) {
+            futures.add(workers.submit(subtasks.size() == 1 ? subtask : workerTask(task, subtask)));
+        }
+        List<String> answers = new ArrayList<>(subtasks.size());
+        int failures = 0;
+        for (CompletableFuture<String> future : futures) {
+            try {
+                answers.add(future.join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (subtasks.size() == 1) {
+                    throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+                }
+                answers.add("Error: " + (cause.getMessage() != null ? cause.getMessage() : cause.toString()));
+                failures++;
+            }
+        }
+        long worked = System.nanoTime();
+        metrics.recordTime(MetricNames.ORCHESTRATOR_WORKERS_TIME, worked - planned);
+        if (failures > 0) {
+            metrics.increment(MetricNames.ORCHESTRATOR_SUBTASK_FAILURES, failures);
+        }
+
+        String answer = subtasks.size() == 1 ? answers.get(0) : merge(task, subtasks, answers);
+        long merged = System.nanoTime();
+        metrics.recordTime(MetricNames.ORCHESTRATOR_MERGE_TIME, merged - worked);
+        metrics.trace(new TraceEvent("orchestrator")
+                .with("subtasks", subtasks.size())
+                .with("failures", failures)
+                .with("planMicros", (planned - start) / 1_000)
+                .with("workersMicros", (worked - planned) / 1_000)
+                .with("mergeMicros", (merged - worked) / 1_000));
+        return answer;
+    }
+
+    /**
+     * Asks the model to split a task into independent subtasks.
+     * If the response is not a JSON array of strings, or the array is empty, the task is not split.
+     * Extra subtasks beyond the maximum are dropped.
+     *
+     * @param task the task to split
+     * @return the subtasks, at least one
+     */
+    public List<String> plan(String task) {
+        String prompt = prompts.render(PLAN_PROMPT, Collections.singletonMap("max_subtasks", maxSubtasks));
+        String response = model.generateResponse(
+                Arrays.asList(new Message("system", prompt), new Message("user", "Task: " + task)));
+        List<String> subtasks = parseSubtasks(response);
+        if (subtasks.isEmpty()) {
+            return Collections.singletonList(task);
+        }
+        return subtasks.size() > maxSubtasks ? subtasks.subList(0, maxSubtasks) : subtasks;
+    }
+
+    /**
+     * Stops accepting tasks and waits for running workers to finish.
+     */
+    @Override
+    public void close() {
+        workers.close();
+    }
+
+    /**
+     * Merges the answers of the subtasks into the final answer.
+     *
+     * @param task the original task
+     * @param subtasks the subtasks
+     * @param answers the answer or error of each subtask, in the same order
+     * @return the final answer
+     */
+    private String merge(String task, List<String> subtasks, List<String> answers) {
+        StringBuilder results = new StringBuilder("Task: ").append(task).append("\n\nSubtask answers:\n");
+        for (int i = 0; i < subtasks.size(); i++) {
+            results.append("\n[")
+                    .append(i + 1)
+                    .append("] ")
+                    .append(subtasks.get(i))
+                    .append("\n")
+                    .append(answers.get(i))
+                    .append("\n");
+        }
+        String prompt = prompts.get(MERGE_PROMPT).getSource();
+        return model.generateResponse(
+                        Arrays.asList(new Message("system", prompt), new Message("user", results.toString())))
+                .trim();
+    }
+
+    /**
+     * Gives a worker its subtask together with the task it is part of, for context.
+     */
+    private static String workerTask(String task, String subtask) {
+        return subtask + "\n\nThis is part of a larger task, which other assistants are working on in parallel: "
+                + task + "\nAnswer only your part.";
+    }
+
+    /**
+     * Reads the first JSON array of strings in a planner response.
+     *
+     * @return the non-blank subtasks, or an empty list if there is no such array
+     */
+    static List<String> parseSubtasks(String response) {
+        int start = response == null ? -1 : response.indexOf('[');
+        int end = response == null ? -1 : response.lastIndexOf(']');
+        if (start == -1 || end < start) {
+            return Collections.emptyList();
+        }
+        JsonArray array;
+        try {
+            JsonElement element = JsonParser.parseString(response.substring(start, end + 1));
+            if (!element.isJsonArray()) {
+                return Collections.emptyList();
+            }
+            array = element.getAsJsonArray();
+        } catch (JsonParseException e) {
+            return Collections.emptyList();
+        }
+        List<String> subtasks = new ArrayList<>(array.size());
+        for (JsonElement item : array) {
+            if (!item.isJsonPrimitive() || !item.getAsJsonPrimitive().isString()) {
+                return Collections.emptyList();
+            }
+            String subtask = item.getAsString().trim();
+            if (!subtask.isEmpty()) {
+                subtasks.add(subtask);
+            }
+        }
+        return subtasks;
+    }
+}
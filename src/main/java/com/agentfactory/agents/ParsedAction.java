@@ -0,0 +1,51 @@
+package com.agentfactory.agents;
+
+import com.agentfactory.models.Message;
+import java.util.List;
+
+/**
+ * The action found in a model response: its JSON text and the tool calls it contains.
+ */
+final class ParsedAction {
+    private final String json;
+    private final List<ToolCall> calls;
+    private final Message message;
+
+    ParsedAction(String json, List<ToolCall> calls) {
+        this(json, calls, null);
+    }
+
+    ParsedAction(String json, List<ToolCall> calls, Message message) {
+        this.json = json;
+        this.calls = calls;
+        this.message = message;
+    }
+
+    /**
+     * Gets the action JSON exactly as the model wrote it.
+     *
+     * @return the action JSON
+     */
+    String getJson() {
+        return json;
+    }
+
+    /**
+     * Gets the tool calls in the order they were given.
+     *
+     * @return the tool calls; never empty
+     */
+    List<ToolCall> getCalls() {
+        return calls;
+    }
+
+    /**
+     * Gets the assistant message the calls came from, when the model used native function calling.
+     * Its tool call ids are needed to answer each call with a {@code tool} message.
+     *
+     * @return the assistant message with tool calls, or null for a text action
+     */
+    Message getMessage() {
+        return message;
+    }
+}
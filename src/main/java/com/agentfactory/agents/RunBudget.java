@@ -0,0 +1,245 @@
+package com.agentfactory.agents;
+
+import com.agentfactory.context.TokenEstimator;
+import java.time.Duration;
+
+/**
+ * Limits on a single agent run: how many steps it may take, how long it may run, and how many
+ * tokens it may spend and what they may cost. Enforced by {@link ToolCallingAgent} before every
+ * model call and while waiting for the model and for tools; a run that reaches a limit fails
+ * with a {@link BudgetExceededException}.
+ *
+ * <p>When only one step is left, or the next step and a final answer after it would overrun a
+ * limit if they cost as much as the previous step, the agent asks the model for its final answer
+ * instead, so a run that is running low usually ends with an answer rather than an exception.
+ *
+ * <p>Tokens are estimated from the text sent to and received from the model with the budget's
+ * {@link TokenEstimator}, so the limits apply to any model; the usage reported by the API is
+ * still recorded in the model metrics.
+ */
+public final class RunBudget {
+    /**
+     * The budget used by agents that declare none: ten steps and no other limit.
+     */
+    public static final RunBudget DEFAULT = builder().build();
+
+    private final int maxSteps;
+    private final Duration maxDuration;
+    private final long maxPromptTokens;
+    private final long maxCompletionTokens;
+    private final double maxCost;
+    private final double promptTokenPrice;
+    private final double completionTokenPrice;
+    private final TokenEstimator tokenEstimator;
+
+    private RunBudget(Builder builder) {
+        this.maxSteps = builder.maxSteps;
+        this.maxDuration = builder.maxDuration;
+        this.maxPromptTokens = builder.maxPromptTokens;
+        this.maxCompletionTokens = builder.maxCompletionTokens;
+        this.maxCost = builder.maxCost;
+        this.promptTokenPrice = builder.promptTokenPrice;
+        this.completionTokenPrice = builder.completionTokenPrice;
+        this.tokenEstimator = builder.tokenEstimator;
+    }
+
+    /**
+     * Creates a builder initialized with the default limits.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the maximum number of steps, including the final answer step.
+     *
+     * @return the step limit
+     */
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+
+    /**
+     * Gets the maximum wall-clock time of a run, measured from the moment it starts or resumes.
+     *
+     * @return the time limit, or zero for none
+     */
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
+    /**
+     * Gets the maximum number of prompt tokens sent over all model calls of a run.
+     *
+     * @return the prompt token limit, or zero for none
+     */
+    public long getMaxPromptTokens() {
+        return maxPromptTokens;
+    }
+
+    /**
+     * Gets the maximum number of completion tokens received over all model calls of a run.
+     *
+     * @return the completion token limit, or zero for none
+     */
+    public long getMaxCompletionTokens() {
+        return maxCompletionTokens;
+    }
+
+    /**
+     * Gets the maximum estimated cost of a run, in the currency of the token prices.
+     *
+     * @return the cost limit, or zero for none
+     */
+    public double getMaxCost() {
+        return maxCost;
+    }
+
+    /**
+     * Estimates the cost of the given token counts.
+     *
+     * @param promptTokens the prompt tokens
+     * @param completionTokens the completion tokens
+     * @return the estimated cost
+     */
+    public double cost(long promptTokens, long completionTokens) {
+        return (promptTokens * promptTokenPrice + completionTokens * completionTokenPrice) / 1_000_000;
+    }
+
+    /**
+     * Gets the estimator used to count the tokens of model calls.
+     *
+     * @return the token estimator
+     */
+    public TokenEstimator getTokenEstimator() {
+        return tokenEstimator;
+    }
+
+    /**
+     * Builder for {@link RunBudget} limits.
+     */
+    public static class Builder {
+        private int maxSteps = 10;
+        private Duration maxDuration = Duration.ZERO;
+        private long maxPromptTokens = 0;
+        private long maxCompletionTokens = 0;
+        private double maxCost = 0;
+        private double promptTokenPrice = 0;
+        private double completionTokenPrice = 0;
+        private TokenEstimator tokenEstimator = TokenEstimator.DEFAULT;
+
+        private Builder() {}
+
+        /**
+         * Sets the maximum number of steps, including the final answer step. Defaults to 10.
+         *
+         * @param maxSteps the step limit
+         * @return this builder
+         */
+        public Builder maxSteps(int maxSteps) {
+            this.maxSteps = maxSteps;
+            return this;
+        }
+
+        /**
+         * Sets the maximum wall-clock time of a run. Model and tool calls still running when it
+         * expires are cancelled.
+         *
+         * @param maxDuration the time limit, or zero for none
+         * @return this builder
+         */
+        public Builder maxDuration(Duration maxDuration) {
+            this.maxDuration = maxDuration;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of prompt tokens sent over all model calls of a run.
+         *
+         * @param maxPromptTokens the prompt token limit, or zero for none
+         * @return this builder
+         */
+        public Builder maxPromptTokens(long maxPromptTokens) {
+            this.maxPromptTokens = maxPromptTokens;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of completion tokens received over all model calls of a run.
+         *
+         * @param maxCompletionTokens the completion token limit, or zero for none
+         * @return this builder
+         */
+        public Builder maxCompletionTokens(long maxCompletionTokens) {
+            this.maxCompletionTokens = maxCompletionTokens;
+            return this;
+        }
+
+        /**
+         * Sets the maximum estimated cost of a run. Requires token prices.
+         *
+         * @param maxCost the cost limit, or zero for none
+         * @return this builder
+         */
+        public Builder maxCost(double maxCost) {
+            this.maxCost = maxCost;
+            return this;
+        }
+
+        /**
+         * Sets the token prices used to estimate the cost of a run.
+         *
+         * @param promptPerMillion the price of a million prompt tokens
+         * @param completionPerMillion the price of a million completion tokens
+         * @return this builder
+         */
+        public Builder tokenPrices(double promptPerMillion, double completionPerMillion) {
+            this.promptTokenPrice = promptPerMillion;
+            this.completionTokenPrice = completionPerMillion;
+            return this;
+        }
+
+        /**
+         * Sets the estimator used to count the tokens of model calls. Defaults to
+         * {@link TokenEstimator#DEFAULT}.
+         *
+         * @param tokenEstimator the token estimator
+         * @return this builder
+         */
+        public Builder tokenEstimator(TokenEstimator tokenEstimator) {
+            this.tokenEstimator = tokenEstimator;
+            return this;
+        }
+
+        /**
+         * Builds the budget.
+         *
+         * @return a new budget
+         * @throws IllegalArgumentException if a limit is out of range, or a cost limit is set
+         *     without token prices
+         */
+        public RunBudget build() {
+            if (maxSteps <= 0) {
+                throw new IllegalArgumentException("Max steps must be positive: " + maxSteps);
+            }
+            if (maxDuration == null || maxDuration.isNegative()) {
+                throw new IllegalArgumentException("Max duration must not be negative: " + maxDuration);
+            }
+            if (maxPromptTokens < 0 || maxCompletionTokens < 0) {
+                throw new IllegalArgumentException("Token limits must not be negative");
+            }
+            if (maxCost < 0 || promptTokenPrice < 0 || completionTokenPrice < 0) {
+                throw new IllegalArgumentException("Cost limit and token prices must not be negative");
+            }
+            if (maxCost > 0 && promptTokenPrice == 0 && completionTokenPrice == 0) {
+                throw new IllegalArgumentException("A cost limit requires token prices");
+            }
+            if (tokenEstimator == null) {
+                throw new IllegalArgumentException("Token estimator must not be null");
+            }
+            return new RunBudget(this);
+        }
+    }
+}
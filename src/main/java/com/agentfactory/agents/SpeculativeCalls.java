@@ -0,0 +1,98 @@
+package com.agentfactory.agents;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The tool calls started speculatively during one step, while the model was still writing the
+ * action. Each call of the action is started at most once, from the first candidate that parses
+ * and is eligible. When the action is complete, a started call is used only if the action
+ * contains exactly the same call, same name and equal arguments; the others are discarded.
+ *
+ * <p>Candidates arrive on the thread that reads the model's stream; claiming and discarding
+ * happen on the agent's thread after the stream has ended.
+ */
+final class SpeculativeCalls {
+    private final Predicate<ToolCall> eligible;
+    private final Function<ToolCall, CompletableFuture<Object>> launcher;
+    private final BitSet offered = new BitSet();
+    private final List<ToolCall> calls = new ArrayList<>();
+    private final List<CompletableFuture<Object>> results = new ArrayList<>();
+
+    /**
+     * Creates a new set of speculative calls.
+     *
+     * @param eligible decides whether a parsed candidate may be started
+     * @param launcher starts a call
+     */
+    SpeculativeCalls(Predicate<ToolCall> eligible, Function<ToolCall, CompletableFuture<Object>> launcher) {
+        this.eligible = eligible;
+        this.launcher = launcher;
+    }
+
+    /**
+     * Offers a candidate call reported by {@link IncrementalActionParser}, starting it if it is the
+     * first valid, eligible candidate for its index.
+     *
+     * @param json the candidate call JSON
+     * @param index the index of the call in the action
+     */
+    synchronized void offer(String json, int index) {
+        if (offered.get(index)) {
+            return;
+        }
+        ToolCall call = ActionParser.parseCall(json);
+        if (call == null) {
+            return;
+        }
+        offered.set(index);
+        if (eligible.test(call)) {
+            calls.add(call);
+            results.add(launcher.apply(call));
+        }
+    }
+
+    /**
+     * Forgets which indexes were offered, when the parser discards the candidate action they
+     * came from. Calls already started stay available to {@link #claim(ToolCall)}.
+     */
+    synchronized void reset() {
+        offered.clear();
+    }
+
+    /**
+     * Takes the started call that matches the given call.
+     *
+     * @param call a call of the complete action
+     * @return the started call's result, or null if no unclaimed started call matches
+     */
+    synchronized CompletableFuture<Object> claim(ToolCall call) {
+        for (int i = 0; i < calls.size(); i++) {
+            ToolCall started = calls.get(i);
+            if (started.getName().equals(call.getName()) && started.getArguments().equals(call.getArguments())) {
+                calls.remove(i);
+                return results.remove(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cancels all unclaimed calls.
+     *
+     * @return the number of calls discarded
+     */
+    synchronized int discard() {
+        int discarded = results.size();
+        for (CompletableFuture<Object> result : results) {
+            result.cancel(true);
+        }
+        calls.clear();
+        results.clear();
+        return discarded;
+    }
+}
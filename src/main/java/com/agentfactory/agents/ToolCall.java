@@ -0,0 +1,75 @@
+package com.agentfactory.agents;
+
+import java.util.Map;
+
+/**
+ * A single tool call requested by the model: the tool name and its decoded arguments. A native
+ * tool call whose arguments could not be decoded keeps the reason instead, so it can be answered
+ * with an error the model can correct.
+ */
+final class ToolCall {
+    private final String name;
+    private final Map<String, Object> arguments;
+    private final String error;
+
+    /**
+     * Creates a new tool call.
+     *
+     * @param name the name of the tool to call
+     * @param arguments the decoded arguments; numbers are doubles, objects are maps, arrays are lists
+     */
+    ToolCall(String name, Map<String, Object> arguments) {
+        this(name, arguments, null);
+    }
+
+    /**
+     * Creates a tool call that cannot be executed.
+     *
+     * @param name the name of the tool to call
+     * @param arguments the decoded arguments, empty if they could not be decoded
+     * @param error why the call cannot be executed, or null if it can
+     */
+    ToolCall(String name, Map<String, Object> arguments, String error) {
+        this.name = name;
+        this.arguments = arguments;
+        this.error = error;
+    }
+
+    /**
+     * Gets why the call cannot be executed, such as arguments that are not a JSON object.
+     *
+     * @return the reason, or null if the call can be executed
+     */
+    String getError() {
+        return error;
+    }
+
+    /**
+     * Gets the name of the tool to call.
+     *
+     * @return the tool name
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the decoded arguments.
+     *
+     * @return the arguments by name
+     */
+    Map<String, Object> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Gets a string argument.
+     *
+     * @param argument the argument name
+     * @return the argument value, or null if it is absent or not a string
+     */
+    String getString(String argument) {
+        Object value = arguments.get(argument);
+        return value instanceof String ? (String) value : null;
+    }
+}
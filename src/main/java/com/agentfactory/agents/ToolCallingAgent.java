@@ -1,45 +1,114 @@
 package com.agentfactory.agents;
 
+import com.agentfactory.checkpoint.Checkpoint;
+import com.agentfactory.checkpoint.CheckpointStore;
+import com.agentfactory.context.ContextManager;
 import com.agentfactory.memory.ActionStep;
 import com.agentfactory.memory.AgentMemory;
+import com.agentfactory.memory.MemoryStep;
+import com.agentfactory.metrics.MetricNames;
+import com.agentfactory.metrics.MetricsRecorder;
+import com.agentfactory.metrics.TraceEvent;
 import com.agentfactory.models.AIModel;
+import com.agentfactory.models.FunctionCallingAIModel;
 import com.agentfactory.models.Message;
-import com.agentfactory.prompts.PromptLoader;
+import com.agentfactory.models.StreamingAIModel;
+import com.agentfactory.prompts.PromptRegistry;
 import com.agentfactory.tools.Tool;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.agentfactory.tools.ToolPolicy;
+import com.agentfactory.tools.ToolRegistry;
+import com.google.gson.JsonArray;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * An agent that can call tools to accomplish tasks.
  * The agent processes tasks by generating responses from an AI model and
  * executing tool calls until a final answer is reached.
+ * When the model supports streaming, the action is parsed while tokens arrive and
+ * generation is stopped as soon as the action is complete.
+ * A response may contain several independent tool calls, which are executed concurrently.
+ * Every tool call is dispatched under the tool's {@link com.agentfactory.tools.ToolPolicy}, so a slow
+ * or saturated tool yields an error observation instead of stalling the run. Calls are validated
+ * against the tools' declared parameters first, and a malformed call is answered with an error
+ * observation the model can correct.
+ * With {@link #setSpeculativeExecution(boolean) speculative execution}, calls to idempotent tools
+ * start as soon as they appear in the streamed response, while the model is still writing the
+ * rest of the action, and their results are used if the complete action makes the same calls.
+ * With {@link #setFunctionCalling(boolean) function calling}, the tools are declared to the model
+ * and its calls arrive as structured tool calls rather than JSON written into the response text.
+ * Every run is bounded by a {@link RunBudget} of steps, time, tokens and cost, checked before
+ * each model call and enforced while waiting for the model and tools; when the budget runs low
+ * the model is asked for its final answer.
+ * Step, model and tool latencies are reported to the configured {@link MetricsRecorder}.
  */
 public class ToolCallingAgent {
+    private static final ExecutorService DEFAULT_TOOL_EXECUTOR =
+            Executors.newCachedThreadPool(new DaemonThreadFactory("agent-tool"));
+    private static final Duration DEFAULT_STEP_TIMEOUT = Duration.ofSeconds(60);
+
     private final AIModel model;
     private final AgentMemory memory;
-    private final Map<String, Tool> tools;
+    private final ToolRegistry tools;
     private final String systemPrompt;
-    private final Gson gson = new Gson();
+    private final PromptRegistry prompts;
+    private Executor toolExecutor = DEFAULT_TOOL_EXECUTOR;
+    private Duration stepTimeout = DEFAULT_STEP_TIMEOUT;
+    private ContextManager contextManager;
+    private MetricsRecorder metrics = MetricsRecorder.NOOP;
+    private CheckpointStore checkpointStore;
+    private boolean speculativeExecution = false;
+    private JsonArray functionTools;
+    private RunBudget budget = RunBudget.DEFAULT;
+    private BudgetTracker tracker;
     private int stepCounter = 0;
-    private static final int MAX_STEPS = 10;
+    private static final String DEFAULT_PROMPT = "toolcalling_agent.yaml";
+    private static final String WRAP_UP = "You are about to run out of budget. Respond now with a final_answer"
+            + " action, based on what you have found so far.";
 
     /**
      * Creates a new tool calling agent with the specified model and tools.
-     * Loads the default system prompt from configuration.
+     * Uses the default system prompt, rendered with the descriptions of the tools.
      *
      * @param model the AI model to use for generating responses
      * @param tools the list of tools available to the agent
      */
     public ToolCallingAgent(AIModel model, List<Tool> tools) {
-        this.model = model;
-        this.memory = new AgentMemory();
-        this.tools = new HashMap<>();
-        for (Tool tool : tools) {
-            this.tools.put(tool.getName(), tool);
-        }
-        this.systemPrompt = PromptLoader.loadPrompt("toolcalling_agent.yaml");
+        this(model, ToolRegistry.of(tools));
+    }
+
+    /**
+     * Creates a new tool calling agent with the specified model and a prebuilt tool registry.
+     * Uses the default system prompt, rendered with the descriptions of the tools.
+     *
+     * @param model the AI model to use for generating responses
+     * @param tools the tools available to the agent
+     */
+    public ToolCallingAgent(AIModel model, ToolRegistry tools) {
+        this(model, PromptRegistry.getDefault(), tools, new AgentMemory());
+    }
+
+    /**
+     * Creates a new tool calling agent whose system prompt is the default prompt file from the
+     * given prompt registry, rendered at the start of every run with the {@code tools} and
+     * {@code task} variables. A prompt reloaded by a {@link PromptRegistry#watch() watching}
+     * registry takes effect from the next run.
+     *
+     * @param model the AI model to use for generating responses
+     * @param prompts the registry the system prompt is read from
+     * @param tools the tools available to the agent
+     * @param memory the memory that receives the agent's steps
+     */
+    public ToolCallingAgent(AIModel model, PromptRegistry prompts, ToolRegistry tools, AgentMemory memory) {
+        this(model, null, prompts, tools, memory);
     }
 
     /**
@@ -50,96 +119,767 @@ public class ToolCallingAgent {
      * @param tools the list of tools available to the agent
      */
     public ToolCallingAgent(AIModel model, String systemPrompt, List<Tool> tools) {
+        this(model, systemPrompt, tools, new AgentMemory());
+    }
+
+    /**
+     * Creates a new tool calling agent that records its steps in the given memory, for example
+     * a {@link com.agentfactory.memory.MappedAgentMemory} that persists them to disk.
+     *
+     * @param model the AI model to use for generating responses
+     * @param systemPrompt the system prompt to use for the agent
+     * @param tools the list of tools available to the agent
+     * @param memory the memory that receives the agent's steps
+     */
+    public ToolCallingAgent(AIModel model, String systemPrompt, List<Tool> tools, AgentMemory memory) {
+        this(model, systemPrompt, ToolRegistry.of(tools), memory);
+    }
+
+    /**
+     * Creates a new tool calling agent with a prebuilt tool registry. Agents sharing one registry
+     * are cheap to construct and share each tool's concurrency limit and queue.
+     *
+     * @param model the AI model to use for generating responses
+     * @param systemPrompt the system prompt to use for the agent
+     * @param tools the tools available to the agent
+     * @param memory the memory that receives the agent's steps
+     */
+    public ToolCallingAgent(AIModel model, String systemPrompt, ToolRegistry tools, AgentMemory memory) {
+        this(model, systemPrompt, null, tools, memory);
+    }
+
+    private ToolCallingAgent(
+            AIModel model, String systemPrompt, PromptRegistry prompts, ToolRegistry tools, AgentMemory memory) {
         this.model = model;
-        this.memory = new AgentMemory();
-        this.tools = new HashMap<>();
-        for (Tool tool : tools) {
-            this.tools.put(tool.getName(), tool);
-        }
+        this.memory = memory;
+        this.tools = tools;
         this.systemPrompt = systemPrompt;
+        this.prompts = prompts;
+    }
+
+    /**
+     * Sets the executor that runs blocking tool calls, so the agent can enforce their timeouts
+     * and run several calls from the same step concurrently. Defaults to a shared pool of daemon threads.
+     *
+     * @param toolExecutor the executor for blocking tool calls
+     */
+    public void setToolExecutor(Executor toolExecutor) {
+        this.toolExecutor = toolExecutor;
+    }
+
+    /**
+     * Sets how long a step with several tool calls may wait for all of them to finish.
+     * Calls still running after the timeout are reported to the model as timed out.
+     *
+     * @param stepTimeout the maximum time to wait for parallel tool calls
+     */
+    public void setStepTimeout(Duration stepTimeout) {
+        this.stepTimeout = stepTimeout;
+    }
+
+    /**
+     * Sets the context manager that bounds the conversation sent to the model on each step.
+     * The agent's own history is never reduced. By default the full conversation is sent.
+     *
+     * @param contextManager the context manager, or null to send the full conversation
+     */
+    public void setContextManager(ContextManager contextManager) {
+        this.contextManager = contextManager;
+    }
+
+    /**
+     * Sets the recorder that receives per-step latencies and a trace event for every step.
+     *
+     * @param metrics the metrics recorder
+     */
+    public void setMetrics(MetricsRecorder metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the store that receives a checkpoint after every step of runs started with
+     * {@link #run(String, String)}, and from which {@link #resume(String)} continues.
+     *
+     * @param checkpointStore the checkpoint store
+     */
+    public void setCheckpointStore(CheckpointStore checkpointStore) {
+        this.checkpointStore = checkpointStore;
+    }
+
+    /**
+     * Enables speculative execution of idempotent tools for streaming models. A tool call is
+     * started as soon as its name and arguments are complete in the streamed response, if the
+     * tool's {@link com.agentfactory.tools.ToolPolicy} declares it idempotent and the arguments
+     * are valid. If the complete action does not make the same call, the speculative call is
+     * cancelled and its result discarded. Launched, used and wasted calls are counted in the
+     * metrics. Disabled by default.
+     *
+     * @param speculativeExecution true to start idempotent tool calls speculatively
+     */
+    public void setSpeculativeExecution(boolean speculativeExecution) {
+        this.speculativeExecution = speculativeExecution;
+    }
+
+    /**
+     * Sets the limits on each run: steps, wall-clock time, tokens and cost. When a run is about to
+     * reach a limit, the model is asked for its final answer on the next step; a run that reaches a
+     * limit anyway fails with a {@link BudgetExceededException}, after cancelling the model and
+     * tool calls it was waiting for. Defaults to {@link RunBudget#DEFAULT}.
+     *
+     * @param budget the budget of each run
+     */
+    public void setBudget(RunBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Enables native function calling for models that implement {@link FunctionCallingAIModel}.
+     * The tools are sent with every request and the model must call one of them; when the
+     * {@link #setBudget(RunBudget) budget} runs low it must call {@code final_answer}, so a run
+     * ends with an answer rather than failing at the limit. Each call is answered with its own {@code tool} message.
+     * Models that answer in plain text anyway are still parsed as text actions. Speculative
+     * execution does not apply, as the calls are only known once the response is complete.
+     *
+     * <p>Context strategies only reduce steps in the text layout of an action followed by an
+     * observation, so steps that used native tool calls are sent to the model unchanged.
+     *
+     * @param functionCalling true to use native function calling
+     * @throws IllegalStateException if enabled for a model without function calling support
+     */
+    public void setFunctionCalling(boolean functionCalling) {
+        if (functionCalling && !(model instanceof FunctionCallingAIModel)) {
+            throw new IllegalStateException("The model does not support function calling: "
+                    + model.getClass().getName());
+        }
+        this.functionTools = functionCalling ? tools.getOpenAITools() : null;
     }
 
     /**
      * Runs the agent on the specified task.
      * The agent will generate responses and execute tool calls until a final answer is reached
-     * or the maximum number of steps is exceeded.
+     * or the {@link #setBudget(RunBudget) budget} is exhausted. Each run starts with a full budget.
+     * An agent runs one task at a time; use {@link AgentExecutor} to run tasks concurrently.
      *
      * @param task the task for the agent to perform
      * @return the final answer from the agent
-     * @throws IllegalArgumentException if an unknown tool is called
-     * @throws RuntimeException if the maximum number of steps is reached without a final answer
+     * @throws BudgetExceededException if the run's budget is exhausted without a final answer
      */
     public String run(String task) {
+        return run(null, task);
+    }
+
+    /**
+     * Runs the agent on the specified task, checkpointing after every completed step under the
+     * given run identifier. If the run fails, {@link #resume(String)} continues it without
+     * repeating the model and tool calls of completed steps.
+     *
+     * @param runId the run identifier, or null to run without checkpoints
+     * @param task the task for the agent to perform
+     * @return the final answer from the agent
+     * @throws IllegalStateException if a run identifier is given but no checkpoint store is set
+     * @throws BudgetExceededException if the run's budget is exhausted without a final answer
+     */
+    public String run(String runId, String task) {
+        if (runId != null && checkpointStore == null) {
+            throw new IllegalStateException("A checkpoint store is required to run with a run id");
+        }
+        stepCounter = 0;
+        tracker = new BudgetTracker(budget);
         List<Message> messages = new ArrayList<>();
-        messages.add(new Message("system", systemPrompt));
+        messages.add(new Message("system", systemPrompt(task)));
         messages.add(new Message("user", task));
+        return runSteps(runId, messages, new ArrayList<>());
+    }
+
+    /**
+     * Resumes a run from its last checkpoint. Resume with a new agent: the steps completed before
+     * the interruption are added to this agent's memory, except those it already holds, as a
+     * reopened {@link com.agentfactory.memory.MappedAgentMemory} does. Completed steps count towards the step
+     * limit; time and tokens are counted afresh. A finished run returns its final answer
+     * without calling the model again.
+     *
+     * @param runId the run identifier
+     * @return the final answer from the agent
+     * @throws IllegalStateException if no checkpoint store is set
+     * @throws IllegalArgumentException if the run has no checkpoint
+     * @throws BudgetExceededException if the run's budget is exhausted without a final answer
+     */
+    public String resume(String runId) {
+        if (checkpointStore == null) {
+            throw new IllegalStateException("A checkpoint store is required to resume a run");
+        }
+        Checkpoint checkpoint = checkpointStore.load(runId);
+        if (checkpoint == null) {
+            throw new IllegalArgumentException("No checkpoint for run: " + runId);
+        }
+        Set<Integer> held = new HashSet<>();
+        for (MemoryStep step : memory) {
+            held.add(step.getStepNumber());
+        }
+        for (ActionStep step : checkpoint.getSteps()) {
+            if (!held.contains(step.getStepNumber())) {
+                memory.addStep(step);
+            }
+        }
+        if (checkpoint.isFinished()) {
+            return checkpoint.getFinalAnswer();
+        }
+        stepCounter = checkpoint.getStepCounter();
+        tracker = new BudgetTracker(budget);
+        return runSteps(runId, new ArrayList<>(checkpoint.getMessages()), new ArrayList<>(checkpoint.getSteps()));
+    }
+
+    /**
+     * Runs steps from the current step counter until a final answer is reached or the budget is
+     * exhausted.
+     *
+     * @param runId the run identifier, or null to run without checkpoints
+     * @param messages the conversation so far; extended as steps complete
+     * @param runSteps the steps completed in this run so far; extended as steps complete
+     * @return the final answer from the agent
+     */
+    private String runSteps(String runId, List<Message> messages, List<ActionStep> runSteps) {
+        while (true) {
+            String exhausted = tracker.exhausted(stepCounter);
+            if (exhausted != null) {
+                throw budgetExceeded(exhausted);
+            }
+            boolean wrapUp = tools.contains("final_answer") && tracker.isLow(stepCounter);
+            if (wrapUp) {
+                metrics.increment(MetricNames.AGENT_BUDGET_WRAP_UPS, 1);
+            }
+            tracker.startStep();
+            long stepStart = System.nanoTime();
+            SpeculativeCalls speculative =
+                    speculativeExecution && functionTools == null && model instanceof StreamingAIModel
+                    ? new SpeculativeCalls(this::isSpeculative, this::launchSpeculative)
+                    : null;
+            try {
+                ParsedAction action = generateAction(messages, speculative, wrapUp);
+                long modelNanos = System.nanoTime() - stepStart;
+                List<ToolCall> calls = action.getCalls();
+
+                ToolCall finalCall = findFinalAnswer(calls);
+                if (finalCall != null && finalCall.getError() == null
+                        && tools.validate(finalCall.getName(), finalCall.getArguments()) == null) {
+                    String answer = (String) executeTool(finalCall);
+                    recordStep(calls, stepStart, modelNanos, answer, true);
+                    ActionStep step = new ActionStep(stepCounter++, action.getJson(), answer);
+                    memory.addStep(step);
+                    runSteps.add(step);
+                    checkpoint(runId, messages, runSteps, answer);
+                    return answer;
+                }
+
+                List<String> observations = calls.size() == 1
+                        ? Collections.singletonList(executeSingle(calls.get(0), speculative))
+                        : executeParallel(calls, speculative);
+                String observation = calls.size() == 1 ? observations.get(0) : mergeObservations(calls, observations);
+                recordStep(calls, stepStart, modelNanos, observation, false);
+                ActionStep step = new ActionStep(stepCounter++, action.getJson(), observation);
+                memory.addStep(step);
+                runSteps.add(step);
+                addStepMessages(messages, action, observations, observation);
+                checkpoint(runId, messages, runSteps, null);
+                tracker.endStep();
+            } finally {
+                discardSpeculative(speculative);
+            }
+        }
+    }
+
+    /**
+     * Counts a run that ended without a final answer because it reached a budget limit.
+     *
+     * @param reason the limit that was reached
+     * @return the exception to throw
+     */
+    private BudgetExceededException budgetExceeded(String reason) {
+        metrics.increment(MetricNames.AGENT_BUDGET_EXHAUSTED, 1);
+        metrics.trace(new TraceEvent("budget")
+                .with("step", stepCounter)
+                .with("reason", reason)
+                .with("promptTokens", tracker.getPromptTokens())
+                .with("completionTokens", tracker.getCompletionTokens())
+                .with("cost", tracker.getCost()));
+        return new BudgetExceededException(reason);
+    }
+
+    /**
+     * Adds a completed step to the conversation. Native tool calls are answered with one
+     * {@code tool} message per call; text actions with a single observation message.
+     *
+     * @param messages the conversation
+     * @param action the action of the step
+     * @param observations the observation of each call, in call order
+     * @param observation the merged observation
+     */
+    private static void addStepMessages(
+            List<Message> messages, ParsedAction action, List<String> observations, String observation) {
+        Message assistant = action.getMessage();
+        if (assistant == null) {
+            messages.add(new Message("assistant", "Action:\n" + action.getJson()));
+            messages.add(new Message("user", "Observation: " + observation));
+            return;
+        }
+        String content = assistant.getContent() == null ? "" : assistant.getContent();
+        messages.add(new Message("assistant", content, assistant.getToolCalls(), null));
+        for (int i = 0; i < observations.size(); i++) {
+            messages.add(new Message("tool", observations.get(i), null, assistant.getToolCalls().get(i).getId()));
+        }
+    }
+
+    /**
+     * Saves a checkpoint of the run, if it is checkpointed.
+     *
+     * @param runId the run identifier, or null if the run is not checkpointed
+     * @param messages the conversation so far
+     * @param runSteps the steps completed in this run
+     * @param finalAnswer the final answer, or null if the run has not finished
+     */
+    private void checkpoint(String runId, List<Message> messages, List<ActionStep> runSteps, String finalAnswer) {
+        if (runId != null) {
+            checkpointStore.save(new Checkpoint(runId, messages, stepCounter, runSteps, finalAnswer));
+        }
+    }
+
+    /**
+     * Reports the timings of the current step and emits its trace event.
+     *
+     * @param calls the tool calls of the step
+     * @param stepStart the {@link System#nanoTime()} at which the step started
+     * @param modelNanos the time spent waiting for the model's action
+     * @param observation the observation or final answer produced by the step
+     * @param finalAnswer whether the step produced the final answer
+     */
+    private void recordStep(
+            List<ToolCall> calls, long stepStart, long modelNanos, String observation, boolean finalAnswer) {
+        long stepNanos = System.nanoTime() - stepStart;
+        long toolNanos = stepNanos - modelNanos;
+        metrics.recordTime(MetricNames.AGENT_STEP_TIME, stepNanos);
+        metrics.recordTime(MetricNames.AGENT_MODEL_TIME, modelNanos);
+        metrics.recordTime(MetricNames.AGENT_TOOL_TIME, toolNanos);
+        metrics.increment(MetricNames.AGENT_STEPS, 1);
+
+        List<String> toolNames = new ArrayList<>(calls.size());
+        for (ToolCall call : calls) {
+            toolNames.add(call.getName());
+        }
+        metrics.trace(new TraceEvent("step")
+                .with("step", stepCounter)
+                .with("tools", toolNames)
+                .with("modelMicros", modelNanos / 1_000)
+                .with("toolMicros", toolNanos / 1_000)
+                .with("observationChars", observation == null ? 0 : observation.length())
+                .with("final", finalAnswer));
+    }
+
+    /**
+     * Finds the final answer call among the tool calls of a step.
+     *
+     * @param calls the tool calls of the step
+     * @return the final answer call, or null if there is none
+     */
+    private ToolCall findFinalAnswer(List<ToolCall> calls) {
+        for (ToolCall call : calls) {
+            if (call.getName().equals("final_answer")) {
+                return call;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Executes a tool call directly on the calling thread, bypassing its policy.
+     * Used for the final answer, which does no I/O.
+     *
+     * @param call the tool call
+     * @return the tool result
+     */
+    private Object executeTool(ToolCall call) {
+        long start = System.nanoTime();
+        try {
+            return tools.get(call.getName()).execute(call.getArguments());
+        } catch (RuntimeException e) {
+            metrics.increment(MetricNames.TOOL_ERRORS, 1);
+            throw e;
+        } finally {
+            metrics.recordTime(MetricNames.TOOL_TIME_PREFIX + call.getName(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Validates a tool call against its tool's declared parameters, unless its arguments could
+     * not be decoded at all or it names a tool that does not exist.
+     *
+     * @param call the tool call
+     * @return a message describing the problems, or null if the call is valid
+     */
+    private String validate(ToolCall call) {
+        String invalid;
+        if (call.getError() != null) {
+            invalid = call.getError();
+        } else if (!tools.contains(call.getName())) {
+            invalid = "Unknown tool: " + call.getName();
+        } else {
+            invalid = tools.validate(call.getName(), call.getArguments());
+        }
+        if (invalid != null) {
+            metrics.increment(MetricNames.TOOL_ERRORS, 1);
+        }
+        return invalid;
+    }
 
-        while (stepCounter < MAX_STEPS) {
-            String response = model.generateResponse(messages);
-            String actionJson = extractAction(response);
-            JsonObject action = JsonParser.parseString(actionJson).getAsJsonObject();
-            String toolName = action.get("name").getAsString();
+    /**
+     * Dispatches a tool call under its tool's policy and records its latency.
+     *
+     * @param call the tool call
+     * @param speculative whether the call is speculative; cancelling a speculative call is not an error
+     * @return a future completed with the tool result; cancelling it cancels the call
+     */
+    private CompletableFuture<Object> invokeTool(ToolCall call, boolean speculative) {
+        long start = System.nanoTime();
+        CompletableFuture<Object> result = tools.getInvoker(call.getName()).invoke(call.getArguments(), toolExecutor);
+        result.whenComplete((value, error) -> {
+            if (error != null && !(speculative && result.isCancelled())) {
+                metrics.increment(MetricNames.TOOL_ERRORS, 1);
+            }
+            metrics.recordTime(MetricNames.TOOL_TIME_PREFIX + call.getName(), System.nanoTime() - start);
+        });
+        return result;
+    }
 
-            if (!tools.containsKey(toolName)) {
-                throw new IllegalArgumentException("Unknown tool: " + toolName);
+    /**
+     * Uses the speculative call matching the given call if there is one, and dispatches the call
+     * otherwise.
+     *
+     * @param call the tool call
+     * @param speculative the speculative calls of the step, or null if there are none
+     * @return a future completed with the tool result; cancelling it cancels the call
+     */
+    private CompletableFuture<Object> claimOrInvoke(ToolCall call, SpeculativeCalls speculative) {
+        if (speculative != null) {
+            CompletableFuture<Object> started = speculative.claim(call);
+            if (started != null) {
+                metrics.increment(MetricNames.AGENT_SPECULATIVE_HITS, 1);
+                return started;
             }
+        }
+        return invokeTool(call, false);
+    }
+
+    /**
+     * Returns whether a call from an incomplete action may be started speculatively: its tool is
+     * idempotent and the arguments are valid. The final answer is never started early.
+     *
+     * @param call the candidate call
+     * @return true if the call may be started
+     */
+    private boolean isSpeculative(ToolCall call) {
+        if (!tools.contains(call.getName()) || call.getName().equals("final_answer")) {
+            return false;
+        }
+        ToolPolicy policy = tools.getInvoker(call.getName()).getPolicy();
+        return policy != null && policy.isIdempotent() && tools.validate(call.getName(), call.getArguments()) == null;
+    }
 
-            Map<String, Object> args = gson.fromJson(action.get("arguments"), Map.class);
-            String observation;
+    /**
+     * Starts a speculative call.
+     *
+     * @param call the call
+     * @return a future completed with the tool result; cancelling it cancels the call
+     */
+    private CompletableFuture<Object> launchSpeculative(ToolCall call) {
+        metrics.increment(MetricNames.AGENT_SPECULATIVE_LAUNCHED, 1);
+        return invokeTool(call, true);
+    }
 
-            if (toolName.equals("final_answer")) {
-                observation = (String) tools.get(toolName).execute(args);
-                memory.addStep(new ActionStep(stepCounter++, actionJson, observation));
-                return observation;
+    /**
+     * Cancels the speculative calls of a step that were not used, and counts them as wasted.
+     *
+     * @param speculative the speculative calls of the step, or null if there are none
+     */
+    private void discardSpeculative(SpeculativeCalls speculative) {
+        if (speculative != null) {
+            int wasted = speculative.discard();
+            if (wasted > 0) {
+                metrics.increment(MetricNames.AGENT_SPECULATIVE_WASTED, wasted);
+            }
+        }
+    }
+
+    /**
+     * Executes the only tool call of a step and waits for its result.
+     * A timed out or rejected call becomes an error observation; other failures end the run.
+     *
+     * @param call the tool call
+     * @param speculative the speculative calls of the step, or null if there are none
+     * @return the observation
+     */
+    private String executeSingle(ToolCall call, SpeculativeCalls speculative) {
+        String invalid = validate(call);
+        if (invalid != null) {
+            return "Error: " + invalid;
+        }
+        CompletableFuture<Object> result = claimOrInvoke(call, speculative);
+        try {
+            long remaining = tracker.remainingNanos();
+            return (String) (remaining == Long.MAX_VALUE ? result.get() : result.get(remaining, TimeUnit.NANOSECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for tool " + call.getName(), e);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw budgetExceeded(tracker.deadlineReached());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException || cause instanceof RejectedExecutionException) {
+                return "Error: " + cause.getMessage();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Executes independent tool calls concurrently and collects their observations.
+     * Observations are returned in the order the calls were given, regardless of completion order.
+     * Failed or timed out calls are reported in their observation rather than aborting the run.
+     * Besides each tool's own timeout, the whole step is bounded by the step timeout, and by the
+     * run's deadline, which cancels all calls and ends the run.
+     *
+     * @param calls the tool calls of the step
+     * @param speculative the speculative calls of the step, or null if there are none
+     * @return the observation of each call
+     */
+    private List<String> executeParallel(List<ToolCall> calls, SpeculativeCalls speculative) {
+        List<CompletableFuture<Object>> results = new ArrayList<>(calls.size());
+        for (ToolCall call : calls) {
+            String invalid = validate(call);
+            if (invalid != null) {
+                CompletableFuture<Object> rejected = new CompletableFuture<>();
+                rejected.completeExceptionally(new IllegalArgumentException(invalid));
+                results.add(rejected);
+            } else {
+                results.add(claimOrInvoke(call, speculative));
+            }
+        }
+
+        long remaining = tracker.remainingNanos();
+        boolean deadline = remaining < stepTimeout.toNanos();
+        try {
+            CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+                    .get(deadline ? remaining : stepTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (deadline) {
+                for (CompletableFuture<Object> result : results) {
+                    result.cancel(true);
+                }
+                throw budgetExceeded(tracker.deadlineReached());
+            }
+            // Calls still running are reported as timed out below.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for tool calls", e);
+        } catch (ExecutionException e) {
+            // Individual failures are reported per call below.
+        }
+
+        List<String> observations = new ArrayList<>(calls.size());
+        for (CompletableFuture<Object> result : results) {
+            if (!result.isDone()) {
+                result.cancel(true);
+                observations.add("Error: timed out after " + stepTimeout.toMillis() + " ms");
+            } else if (result.isCompletedExceptionally()) {
+                observations.add("Error: " + failureMessage(result));
             } else {
-                observation = (String) tools.get(toolName).execute(args);
-                memory.addStep(new ActionStep(stepCounter++, actionJson, observation));
-                messages.add(new Message("assistant", "Action:\n" + actionJson));
-                messages.add(new Message("user", "Observation: " + observation));
+                observations.add(String.valueOf(result.join()));
             }
         }
+        return observations;
+    }
 
-        throw new RuntimeException("Max steps reached without final answer.");
+    /**
+     * Merges the observations of several calls into one, numbered in call order.
+     *
+     * @param calls the tool calls of the step
+     * @param observations the observation of each call
+     * @return the merged observation
+     */
+    private static String mergeObservations(List<ToolCall> calls, List<String> observations) {
+        StringBuilder observation = new StringBuilder();
+        for (int i = 0; i < calls.size(); i++) {
+            observation
+                    .append("[")
+                    .append(i + 1)
+                    .append("] ")
+                    .append(calls.get(i).getName())
+                    .append(": ")
+                    .append(observations.get(i))
+                    .append("\n");
+        }
+        return observation.toString();
     }
 
     /**
-     * Extracts a JSON action from the model's response.
+     * Returns the message of the exception a failed tool call completed with.
      *
-     * @param response the model's response
-     * @return the extracted JSON action as a string
+     * @param result the failed result
+     * @return the failure message
+     */
+    private static String failureMessage(CompletableFuture<Object> result) {
+        try {
+            result.join();
+            return "unknown failure";
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return cause.getMessage();
+        }
+    }
+
+    /**
+     * Asks the model for the next action and decodes it.
+     * With function calling the model returns the calls directly; otherwise streaming models are
+     * cut off once the action is complete. Every kind of response is also cut off at the run's
+     * deadline.
+     *
+     * @param conversation the conversation so far
+     * @param speculative receives candidate calls while the action streams in, or null
+     * @param wrapUp whether to ask the model for its final answer
+     * @return the parsed action
+     * @throws BudgetExceededException if the deadline passes before the action is complete
      * @throws RuntimeException if no valid action JSON is found
      */
-    private String extractAction(String response) {
-        int actionStart = response.indexOf("{");
-        int actionEnd = findMatchingBrace(response, actionStart);
+    private ParsedAction generateAction(List<Message> conversation, SpeculativeCalls speculative, boolean wrapUp) {
+        List<Message> messages = contextManager == null ? conversation : contextManager.prepare(conversation);
+        if (functionTools != null) {
+            Message response = generateToolCalls((FunctionCallingAIModel) model, messages, toolChoice(wrapUp));
+            tracker.recordModelCall(messages, response);
+            return ActionParser.parse(response);
+        }
+        if (wrapUp) {
+            messages = new ArrayList<>(messages);
+            messages.add(new Message("user", WRAP_UP));
+        }
+        if (!(model instanceof StreamingAIModel)) {
+            String response = generateText(messages);
+            tracker.recordModelCall(messages, response);
+            return ActionParser.parse(response);
+        }
 
-        if (actionStart == -1 || actionEnd == -1) {
+        IncrementalActionParser parser =
+                speculative == null
+                ? new IncrementalActionParser()
+                : new IncrementalActionParser(speculative::offer, speculative::reset);
+        long remaining = tracker.remainingNanos();
+        Duration timeout = remaining == Long.MAX_VALUE ? Duration.ZERO : Duration.ofNanos(Math.max(remaining, 1));
+        String response = ((StreamingAIModel) model).generateResponseStream(
+                messages, token -> !parser.append(token), timeout);
+        tracker.recordModelCall(messages, response);
+        if (!parser.isComplete() && tracker.remainingNanos() <= 0) {
+            throw budgetExceeded(tracker.deadlineReached());
+        }
+        if (!parser.isComplete()) {
             throw new RuntimeException("No valid action JSON found in response: " + response);
         }
+        return ActionParser.parse(parser.getAction());
+    }
 
-        return response.substring(actionStart, actionEnd + 1);
+    /**
+     * Asks a text model for a response, waiting no longer than the run's deadline.
+     *
+     * @param messages the messages to send
+     * @return the response
+     * @throws BudgetExceededException if the deadline passes first; the call is cancelled
+     */
+    private String generateText(List<Message> messages) {
+        if (tracker.remainingNanos() == Long.MAX_VALUE) {
+            return model.generateResponse(messages);
+        }
+        return awaitModel(model.generateResponseAsync(messages));
     }
 
     /**
-     * Finds the matching closing brace for an opening brace.
+     * Asks a function calling model for tool calls, waiting no longer than the run's deadline.
      *
-     * @param text the text to search in
-     * @param openBraceIndex the index of the opening brace
-     * @return the index of the matching closing brace, or -1 if not found
+     * @param functionModel the model
+     * @param messages the messages to send
+     * @param toolChoice the tool choice for the request
+     * @return the assistant message
+     * @throws BudgetExceededException if the deadline passes first; the call is cancelled
      */
-    private int findMatchingBrace(String text, int openBraceIndex) {
-        if (openBraceIndex == -1) return -1;
+    private Message generateToolCalls(FunctionCallingAIModel functionModel, List<Message> messages, String toolChoice) {
+        if (tracker.remainingNanos() == Long.MAX_VALUE) {
+            return functionModel.generateToolCalls(messages, functionTools, toolChoice);
+        }
+        return awaitModel(functionModel.generateToolCallsAsync(messages, functionTools, toolChoice));
+    }
 
-        int count = 1;
-        for (int i = openBraceIndex + 1; i < text.length(); i++) {
-            char c = text.charAt(i);
-            if (c == '{') count++;
-            else if (c == '}') count--;
+    /**
+     * Waits for a model response until the run's deadline.
+     *
+     * @param response the pending response
+     * @return the response
+     * @throws BudgetExceededException if the deadline passes first; the response is cancelled
+     */
+    private <T> T awaitModel(CompletableFuture<T> response) {
+        long remaining = tracker.remainingNanos();
+        try {
+            return response.get(remaining, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the model", e);
+        } catch (TimeoutException e) {
+            response.cancel(true);
+            throw budgetExceeded(tracker.deadlineReached());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Chooses which tool the model must call on the current step: any tool, or the final answer
+     * when the budget runs low.
+     *
+     * @param wrapUp whether to ask the model for its final answer
+     * @return the tool choice for the request
+     */
+    private static String toolChoice(boolean wrapUp) {
+        return wrapUp ? "final_answer" : FunctionCallingAIModel.TOOL_CHOICE_REQUIRED;
+    }
 
-            if (count == 0) return i;
+    /**
+     * Gets the system prompt for a run: the fixed prompt if the agent was given one, and otherwise
+     * the default prompt file rendered from the agent's prompt registry.
+     *
+     * @param task the task of the run
+     * @return the system prompt
+     * @throws IllegalArgumentException if the prompt uses a variable other than tools and task
+     */
+    private String systemPrompt(String task) {
+        if (prompts == null) {
+            return systemPrompt;
         }
+        Map<String, String> values = new HashMap<>();
+        values.put("tools", tools.getDescription());
+        values.put("task", task);
+        return prompts.render(DEFAULT_PROMPT, values);
+    }
 
-        return -1;
+    /**
+     * Renders the default system prompt for the given tools. The prompt file is parsed and
+     * compiled once per process.
+     *
+     * @param tools the tools available to the agent
+     * @return the system prompt
+     */
+    static String defaultSystemPrompt(ToolRegistry tools) {
+        return PromptRegistry.getDefault()
+                .render(DEFAULT_PROMPT, Collections.singletonMap("tools", tools.getDescription()));
     }
 
     /**
@@ -0,0 +1,85 @@
+package com.agentfactory.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit, miss, eviction and write error counters for a cache.
+ */
+public class CacheStats {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong writeErrors = new AtomicLong();
+
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void recordEviction() {
+        evictions.incrementAndGet();
+    }
+
+    void recordWriteError() {
+        writeErrors.incrementAndGet();
+    }
+
+    /**
+     * Gets the number of lookups that found a live entry.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of lookups that found no live entry.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of entries removed because of size limits or expiry.
+     *
+     * @return the eviction count
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Gets the number of entries that could not be stored and were dropped.
+     *
+     * @return the write error count
+     */
+    public long getWriteErrors() {
+        return writeErrors.get();
+    }
+
+    /**
+     * Gets the fraction of lookups that were hits.
+     *
+     * @return the hit rate between 0 and 1, or 0 if there were no lookups
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d evictions=%d writeErrors=%d",
+                getHits(), getMisses(), getEvictions(), getWriteErrors());
+    }
+}
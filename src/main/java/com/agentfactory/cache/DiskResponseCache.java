@@ -0,0 +1,341 @@
+package com.agentfactory.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * File-backed cache that survives process restarts.
+ * Each entry is stored in its own file named after the SHA-256 hash of its key, together with
+ * its expiry time and the full key, which is checked on read. Writes go to a temporary file
+ * that is then moved into place, so readers never see a partially written entry.
+ *
+ * <p>The total size of the entry files is bounded; once a write takes it over the limit, the
+ * least recently used entries are deleted. Opening a cache sweeps its directory: expired and
+ * unreadable entries are deleted, as are temporary files left behind by writes that did not
+ * finish. A directory should be used by one cache at a time.
+ *
+ * <p>A failed write is counted in {@link CacheStats#getWriteErrors()} and otherwise ignored, so
+ * caching a response never fails the call that produced it.
+ */
+public class DiskResponseCache implements ResponseCache {
+    /**
+     * The size limit of caches created without one: 256 MiB.
+     */
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final String TEMP_PREFIX = "entry";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long ORPHAN_AGE_MILLIS = Duration.ofMinutes(1).toMillis();
+
+    private final Path directory;
+    private final long ttlMillis;
+    private final long maxBytes;
+    private final Clock clock;
+    private final CacheStats stats = new CacheStats();
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+
+    /**
+     * Creates a new disk cache in the specified directory, creating the directory if needed,
+     * bounded to {@link #DEFAULT_MAX_BYTES}.
+     *
+     * @param directory the directory holding cache entries
+     * @param ttl how long an entry stays valid after it is stored
+     * @throws UncheckedIOException if the directory cannot be created or read
+     */
+    public DiskResponseCache(Path directory, Duration ttl) {
+        this(directory, ttl, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Creates a new disk cache in the specified directory, creating the directory if needed.
+     *
+     * @param directory the directory holding cache entries
+     * @param ttl how long an entry stays valid after it is stored
+     * @param maxBytes the maximum total size of the entry files
+     * @throws IllegalArgumentException if maxBytes is not positive
+     * @throws UncheckedIOException if the directory cannot be created or read
+     */
+    public DiskResponseCache(Path directory, Duration ttl, long maxBytes) {
+        this(directory, ttl, maxBytes, Clock.systemUTC());
+    }
+
+    DiskResponseCache(Path directory, Duration ttl, Clock clock) {
+        this(directory, ttl, DEFAULT_MAX_BYTES, clock);
+    }
+
+    DiskResponseCache(Path directory, Duration ttl, long maxBytes, Clock clock) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Max bytes must be positive: " + maxBytes);
+        }
+        this.directory = directory;
+        this.ttlMillis = ttl.toMillis();
+        this.maxBytes = maxBytes;
+        this.clock = clock;
+        try {
+            Files.createDirectories(directory);
+            sweep();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open cache directory: " + directory, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Unreadable or corrupt entries are treated as misses and removed.
+     */
+    @Override
+    public String get(String key) {
+        Path file = fileFor(key);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            long expiresAt = in.readLong();
+            byte[] storedKey = new byte[in.readInt()];
+            in.readFully(storedKey);
+            if (!key.equals(new String(storedKey, StandardCharsets.UTF_8))) {
+                stats.recordMiss();
+                return null;
+            }
+            if (clock.millis() >= expiresAt) {
+                delete(file);
+                stats.recordEviction();
+                stats.recordMiss();
+                return null;
+            }
+            byte[] value = in.readAllBytes();
+            synchronized (sizes) {
+                sizes.get(file.getFileName().toString());
+            }
+            stats.recordHit();
+            return new String(value, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            stats.recordMiss();
+            return null;
+        } catch (IOException e) {
+            delete(file);
+            stats.recordMiss();
+            return null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(String key, String value) {
+        write(key, value, ttlMillis);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(String key, String value, Duration maxTtl) {
+        write(key, value, Math.min(ttlMillis, Math.max(0, maxTtl.toMillis())));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Reads only the entry's header.
+     */
+    @Override
+    public Duration getTimeToLive(String key) {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(fileFor(key)))) {
+            long expiresAt = in.readLong();
+            byte[] storedKey = new byte[in.readInt()];
+            in.readFully(storedKey);
+            if (!key.equals(new String(storedKey, StandardCharsets.UTF_8))) {
+                return null;
+            }
+            return Duration.ofMillis(Math.max(0, expiresAt - clock.millis()));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void write(String key, String value, long entryTtlMillis) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(12 + keyBytes.length + valueBytes.length);
+        Path file = fileFor(key);
+        Path temp = null;
+        try {
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeLong(clock.millis() + entryTtlMillis);
+                out.writeInt(keyBytes.length);
+                out.write(keyBytes);
+                out.write(valueBytes);
+            }
+            temp = Files.createTempFile(directory, TEMP_PREFIX, TEMP_SUFFIX);
+            Files.write(temp, bytes.toByteArray());
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+            stats.recordWriteError();
+            return;
+        }
+        synchronized (sizes) {
+            Long previous = sizes.put(file.getFileName().toString(), (long) bytes.size());
+            totalBytes += bytes.size() - (previous == null ? 0 : previous);
+            evictOverflow();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidate(String key) {
+        delete(fileFor(key));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    private Path fileFor(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            char[] name = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                name[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+                name[i * 2 + 1] = HEX[digest[i] & 0xf];
+            }
+            return directory.resolve(new String(name));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the total size is within the limit.
+     * Must be called holding the lock on {@code sizes}.
+     */
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Long>> eldest = sizes.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> evicted = eldest.next();
+            totalBytes -= evicted.getValue();
+            eldest.remove();
+            deleteQuietly(directory.resolve(evicted.getKey()));
+            stats.recordEviction();
+        }
+    }
+
+    /**
+     * Indexes the entries already in the directory, oldest first, and deletes expired and
+     * unreadable entries and temporary files orphaned by unfinished writes.
+     */
+    private void sweep() throws IOException {
+        long now = clock.millis();
+        List<Path> entries = new ArrayList<>();
+        Map<Path, Long> modified = new LinkedHashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(TEMP_PREFIX) && name.endsWith(TEMP_SUFFIX)) {
+                    if (now - lastModified(file) >= ORPHAN_AGE_MILLIS) {
+                        deleteQuietly(file);
+                    }
+                } else if (isEntryName(name)) {
+                    try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+                        if (now >= in.readLong()) {
+                            deleteQuietly(file);
+                            stats.recordEviction();
+                            continue;
+                        }
+                    } catch (IOException e) {
+                        deleteQuietly(file);
+                        continue;
+                    }
+                    entries.add(file);
+                    modified.put(file, lastModified(file));
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(modified::get));
+        synchronized (sizes) {
+            for (Path file : entries) {
+                long size = Files.size(file);
+                sizes.put(file.getFileName().toString(), size);
+                totalBytes += size;
+            }
+            evictOverflow();
+        }
+    }
+
+    /**
+     * Deletes an entry file and drops it from the size index.
+     */
+    private void delete(Path file) {
+        deleteQuietly(file);
+        synchronized (sizes) {
+            Long size = sizes.remove(file.getFileName().toString());
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+    }
+
+    private static boolean isEntryName(String name) {
+        if (name.length() != 64) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // A stale entry is only a wasted lookup; the next put overwrites it.
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.agentfactory.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory LRU cache bounded by entry count and total weight, with time-to-live expiry.
+ * The weight of an entry is the number of characters in its key and value.
+ */
+public class InMemoryResponseCache implements ResponseCache {
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final CacheStats stats = new CacheStats();
+    private long weight = 0;
+
+    /**
+     * Creates a new in-memory cache.
+     *
+     * @param maxEntries the maximum number of entries
+     * @param maxWeight the maximum total number of characters held in keys and values
+     * @param ttl how long an entry stays valid after it is stored
+     * @throws IllegalArgumentException if a limit is not positive
+     */
+    public InMemoryResponseCache(int maxEntries, long maxWeight, Duration ttl) {
+        this(maxEntries, maxWeight, ttl, System::nanoTime);
+    }
+
+    InMemoryResponseCache(int maxEntries, long maxWeight, Duration ttl, LongSupplier nanoClock) {
+        if (maxEntries <= 0 || maxWeight <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache limits and TTL must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            stats.recordMiss();
+            return null;
+        }
+        if (nanoClock.getAsLong() - entry.expiresAt >= 0) {
+            remove(key);
+            stats.recordEviction();
+            stats.recordMiss();
+            return null;
+        }
+        stats.recordHit();
+        return entry.value;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Values heavier than the whole cache are not stored.
+     */
+    @Override
+    public synchronized void put(String key, String value) {
+        store(key, value, ttlNanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void put(String key, String value, Duration maxTtl) {
+        store(key, value, Math.min(ttlNanos, Math.max(0, maxTtl.toNanos())));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized Duration getTimeToLive(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(0, entry.expiresAt - nanoClock.getAsLong()));
+    }
+
+    private void store(String key, String value, long entryTtlNanos) {
+        long entryWeight = (long) key.length() + value.length();
+        remove(key);
+        if (entryWeight > maxWeight) {
+            return;
+        }
+        entries.put(key, new Entry(value, nanoClock.getAsLong() + entryTtlNanos));
+        weight += entryWeight;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && eldest.hasNext()) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            weight -= evicted.getKey().length() + evicted.getValue().value.length();
+            eldest.remove();
+            stats.recordEviction();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void invalidate(String key) {
+        remove(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Gets the number of entries currently held, including expired entries not yet evicted.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            weight -= key.length() + removed.value.length();
+        }
+    }
+
+    private static class Entry {
+        private final String value;
+        private final long expiresAt;
+
+        Entry(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
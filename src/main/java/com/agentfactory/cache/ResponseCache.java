@@ -0,0 +1,63 @@
+package com.agentfactory.cache;
+
+import java.time.Duration;
+
+/**
+ * A cache of text responses keyed by a normalized request string.
+ * Implementations must be safe for concurrent use.
+ */
+public interface ResponseCache {
+    /**
+     * Looks up a cached response.
+     *
+     * @param key the cache key
+     * @return the cached response, or null if it is absent or expired
+     */
+    String get(String key);
+
+    /**
+     * Stores a response.
+     *
+     * @param key the cache key
+     * @param value the response to cache
+     */
+    void put(String key, String value);
+
+    /**
+     * Stores a response that must not stay cached longer than the given time, such as an entry
+     * copied from another cache that has less time left. The entry expires after the shorter of
+     * this cache's own time-to-live and the given limit. Caches without expiry ignore the limit.
+     *
+     * @param key the cache key
+     * @param value the response to cache
+     * @param maxTtl the longest time the entry may stay valid
+     */
+    default void put(String key, String value, Duration maxTtl) {
+        put(key, value);
+    }
+
+    /**
+     * Gets how much longer a cached response stays valid, without counting a hit or a miss.
+     *
+     * @param key the cache key
+     * @return the remaining time to live, zero if the entry has expired, or null if there is no
+     *     entry or this cache does not track expiry
+     */
+    default Duration getTimeToLive(String key) {
+        return null;
+    }
+
+    /**
+     * Removes a cached response if present.
+     *
+     * @param key the cache key
+     */
+    void invalidate(String key);
+
+    /**
+     * Gets the hit, miss and eviction counters of this cache.
+     *
+     * @return the cache statistics
+     */
+    CacheStats getStats();
+}
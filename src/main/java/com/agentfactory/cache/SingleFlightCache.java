@@ -0,0 +1,100 @@
+package com.agentfactory.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Loads values through a cache, running at most one load per key at a time.
+ * Concurrent callers asking for the same missing key wait for the single in-flight load
+ * instead of each calling the backend.
+ */
+public class SingleFlightCache {
+    private final ResponseCache cache;
+    private final ConcurrentMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new single-flight loader on top of the given cache.
+     *
+     * @param cache the cache holding loaded values
+     */
+    public SingleFlightCache(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the cached value for a key, loading and caching it if absent.
+     * If the load fails, every caller waiting on it receives the failure and nothing is cached.
+     * If storing the loaded value fails, the value is still returned and the failure is counted in
+     * the cache's {@link CacheStats#getWriteErrors()}.
+     *
+     * @param key the cache key
+     * @param loader computes the value on a miss
+     * @return the cached or loaded value
+     * @throws Exception if the load fails
+     */
+    public String getOrLoad(String key, Callable<String> loader) throws Exception {
+        String cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            String value = cache.get(key);
+            if (value == null) {
+                value = loader.call();
+                store(key, value);
+            }
+            flight.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Gets the underlying cache.
+     *
+     * @return the cache holding loaded values
+     */
+    public ResponseCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Caches a loaded value; a failed write must not fail a load that already succeeded.
+     */
+    private void store(String key, String value) {
+        try {
+            cache.put(key, value);
+        } catch (RuntimeException e) {
+            cache.getStats().recordWriteError();
+        }
+    }
+
+    private static String await(CompletableFuture<String> flight) throws Exception {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.agentfactory.cache;
+
+import java.time.Duration;
+
+/**
+ * Two-level cache, typically a fast in-memory tier in front of a persistent tier.
+ * Lookups try the first tier, then the second; hits in the second tier are promoted to the first,
+ * where they expire no later than in the second tier. Writes go to both tiers; a tier that fails
+ * to store an entry is counted in {@link CacheStats#getWriteErrors()} and does not stop the other.
+ */
+public class TieredResponseCache implements ResponseCache {
+    private final ResponseCache first;
+    private final ResponseCache second;
+    private final CacheStats stats = new CacheStats();
+
+    /**
+     * Creates a new tiered cache.
+     *
+     * @param first the tier consulted first, usually in memory
+     * @param second the tier consulted on a first-tier miss, usually on disk
+     */
+    public TieredResponseCache(ResponseCache first, ResponseCache second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String get(String key) {
+        String value = first.get(key);
+        if (value == null) {
+            value = second.get(key);
+            if (value != null) {
+                promote(key, value);
+            }
+        }
+        if (value == null) {
+            stats.recordMiss();
+        } else {
+            stats.recordHit();
+        }
+        return value;
+    }
+
+    /**
+     * Copies a second-tier hit into the first tier with the time the second tier has left, so
+     * promotion never extends an entry's life. An entry that expired since it was read is not
+     * promoted.
+     */
+    private void promote(String key, String value) {
+        Duration remaining = second.getTimeToLive(key);
+        if (remaining == null || !remaining.isZero()) {
+            store(first, key, value, remaining);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(String key, String value) {
+        store(first, key, value, null);
+        store(second, key, value, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(String key, String value, Duration maxTtl) {
+        store(first, key, value, maxTtl);
+        store(second, key, value, maxTtl);
+    }
+
+    /**
+     * Writes an entry to one tier, counting and dropping a failure.
+     */
+    private void store(ResponseCache tier, String key, String value, Duration maxTtl) {
+        try {
+            if (maxTtl == null) {
+                tier.put(key, value);
+            } else {
+                tier.put(key, value, maxTtl);
+            }
+        } catch (RuntimeException e) {
+            stats.recordWriteError();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Reports the first tier's entry if it has one, and the second tier's otherwise.
+     */
+    @Override
+    public Duration getTimeToLive(String key) {
+        Duration remaining = first.getTimeToLive(key);
+        return remaining != null ? remaining : second.getTimeToLive(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidate(String key) {
+        first.invalidate(key);
+        second.invalidate(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Counts a hit when either tier had the entry; per-tier counters are kept by the tiers.
+     */
+    @Override
+    public CacheStats getStats() {
+        return stats;
+    }
+}
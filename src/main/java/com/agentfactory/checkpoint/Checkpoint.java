@@ -0,0 +1,92 @@
+package com.agentfactory.checkpoint;
+
+import com.agentfactory.memory.ActionStep;
+import com.agentfactory.models.Message;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The state of an agent run after its last completed step: the conversation sent to the model,
+ * the step counter, and the steps recorded so far. A checkpoint of a finished run also holds
+ * the final answer.
+ */
+public class Checkpoint {
+    private final String runId;
+    private final List<Message> messages;
+    private final int stepCounter;
+    private final List<ActionStep> steps;
+    private final String finalAnswer;
+
+    /**
+     * Creates a new checkpoint. The lists are copied.
+     *
+     * @param runId the run identifier
+     * @param messages the conversation so far
+     * @param stepCounter the number of the next step
+     * @param steps the steps completed in this run
+     * @param finalAnswer the final answer, or null if the run has not finished
+     */
+    public Checkpoint(
+            String runId, List<Message> messages, int stepCounter, List<ActionStep> steps, String finalAnswer) {
+        this.runId = runId;
+        this.messages = new ArrayList<>(messages);
+        this.stepCounter = stepCounter;
+        this.steps = new ArrayList<>(steps);
+        this.finalAnswer = finalAnswer;
+    }
+
+    /**
+     * Gets the run identifier.
+     *
+     * @return the run identifier
+     */
+    public String getRunId() {
+        return runId;
+    }
+
+    /**
+     * Gets the conversation so far.
+     *
+     * @return an unmodifiable view of the messages
+     */
+    public List<Message> getMessages() {
+        return Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * Gets the number of the next step.
+     *
+     * @return the step counter
+     */
+    public int getStepCounter() {
+        return stepCounter;
+    }
+
+    /**
+     * Gets the steps completed in this run.
+     *
+     * @return an unmodifiable view of the steps
+     */
+    public List<ActionStep> getSteps() {
+        return Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * Gets the final answer.
+     *
+     * @return the final answer, or null if the run has not finished
+     */
+    public String getFinalAnswer() {
+        return finalAnswer;
+    }
+
+    /**
+     * Returns whether the run has finished.
+     *
+     * @return true if the checkpoint holds a final answer
+     */
+    public boolean isFinished() {
+        return finalAnswer != null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.agentfactory.checkpoint;
+
+/**
+ * Stores the latest checkpoint of each agent run.
+ * Implementations must be safe for concurrent use by agents working on different runs.
+ */
+public interface CheckpointStore {
+    /**
+     * Saves a checkpoint, replacing any earlier checkpoint of the same run.
+     *
+     * @param checkpoint the checkpoint to save
+     */
+    void save(Checkpoint checkpoint);
+
+    /**
+     * Loads the latest checkpoint of a run.
+     *
+     * @param runId the run identifier
+     * @return the checkpoint, or null if the run has none
+     */
+    Checkpoint load(String runId);
+
+    /**
+     * Removes the checkpoint of a run, if there is one.
+     *
+     * @param runId the run identifier
+     */
+    void delete(String runId);
+}
@@ -0,0 +1,118 @@
+package com.agentfactory.checkpoint;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+/**
+ * Stores each run's checkpoint as a JSON file named after the run, so runs can be resumed after
+ * a restart. Writes go to a temporary file that is then moved into place, so a crash while
+ * saving leaves the previous checkpoint intact. A save that fails deletes its temporary file.
+ */
+public class FileCheckpointStore implements CheckpointStore {
+    private static final Pattern RUN_ID = Pattern.compile("[A-Za-z0-9._-]+");
+
+    private final Path directory;
+    private final Gson gson = new Gson();
+
+    /**
+     * Creates a new store in the specified directory, creating the directory if needed.
+     *
+     * @param directory the directory holding checkpoint files
+     * @throws UncheckedIOException if the directory cannot be created
+     */
+    public FileCheckpointStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create checkpoint directory: " + directory, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if the checkpoint cannot be written
+     */
+    @Override
+    public void save(Checkpoint checkpoint) {
+        Path file = fileFor(checkpoint.getRunId());
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, "checkpoint", ".tmp");
+            Files.write(temp, gson.toJson(checkpoint).getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException deleteFailure) {
+                    e.addSuppressed(deleteFailure);
+                }
+            }
+            throw new UncheckedIOException("Failed to write checkpoint for run " + checkpoint.getRunId(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if the checkpoint exists but cannot be read or parsed
+     */
+    @Override
+    public Checkpoint load(String runId) {
+        try {
+            String json = new String(Files.readAllBytes(fileFor(runId)), StandardCharsets.UTF_8);
+            return gson.fromJson(json, Checkpoint.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read checkpoint for run " + runId, e);
+        } catch (JsonParseException e) {
+            throw new UncheckedIOException(
+                    "Corrupt checkpoint for run " + runId, new IOException(e.getMessage(), e));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if the checkpoint cannot be deleted
+     */
+    @Override
+    public void delete(String runId) {
+        try {
+            Files.deleteIfExists(fileFor(runId));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete checkpoint for run " + runId, e);
+        }
+    }
+
+    /**
+     * Resolves the checkpoint file of a run.
+     *
+     * @param runId the run identifier
+     * @return the checkpoint file
+     * @throws IllegalArgumentException if the run identifier is not safe to use as a file name
+     */
+    private Path fileFor(String runId) {
+        if (!RUN_ID.matcher(runId).matches() || runId.startsWith(".")) {
+            throw new IllegalArgumentException(
+                    "Run id may only contain letters, digits, '.', '_' and '-' and must not start with '.': " + runId);
+        }
+        return directory.resolve(runId + ".json");
+    }
+}
@@ -0,0 +1,36 @@
+package com.agentfactory.checkpoint;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps checkpoints on the heap. Survives failures inside the process, such as a network
+ * error ending a run, but not a restart.
+ */
+public class InMemoryCheckpointStore implements CheckpointStore {
+    private final ConcurrentMap<String, Checkpoint> checkpoints = new ConcurrentHashMap<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void save(Checkpoint checkpoint) {
+        checkpoints.put(checkpoint.getRunId(), checkpoint);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Checkpoint load(String runId) {
+        return checkpoints.get(runId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(String runId) {
+        checkpoints.remove(runId);
+    }
+}
@@ -5,18 +5,41 @@ package com.agentfactory.config;
  * Using a configuration object is preferred over hardcoded values or environment variables.
  */
 public class ApiConfig {
+    /** The public OpenAI API, used unless another base URL is configured. */
+    public static final String DEFAULT_OPENAI_BASE_URL = "https://api.openai.com/v1";
+    /** The public Serper search endpoint, used unless another endpoint is configured. */
+    public static final String DEFAULT_SERPER_ENDPOINT = "https://google.serper.dev/search";
+
     private final String openAiApiKey;
     private final String serperApiKey;
+    private final String openAiBaseUrl;
+    private final String serperEndpoint;
 
     /**
-     * Creates a new API configuration with the specified keys.
+     * Creates a new API configuration with the specified keys and the public endpoints.
      *
      * @param openAiApiKey the OpenAI API key
      * @param serperApiKey the Serper API key for web search
      */
     public ApiConfig(String openAiApiKey, String serperApiKey) {
+        this(openAiApiKey, serperApiKey, DEFAULT_OPENAI_BASE_URL, DEFAULT_SERPER_ENDPOINT);
+    }
+
+    /**
+     * Creates a new API configuration with the specified keys and endpoints, for example a proxy,
+     * an OpenAI-compatible server or a local {@code MockApiServer}.
+     *
+     * @param openAiApiKey the OpenAI API key
+     * @param serperApiKey the Serper API key for web search
+     * @param openAiBaseUrl the OpenAI API base URL (e.g., "https://api.openai.com/v1"); trailing slashes
+     *     are removed
+     * @param serperEndpoint the full URL of the Serper search endpoint
+     */
+    public ApiConfig(String openAiApiKey, String serperApiKey, String openAiBaseUrl, String serperEndpoint) {
         this.openAiApiKey = openAiApiKey;
         this.serperApiKey = serperApiKey;
+        this.openAiBaseUrl = stripTrailingSlashes(openAiBaseUrl);
+        this.serperEndpoint = serperEndpoint;
     }
 
     /**
@@ -37,10 +60,29 @@ public class ApiConfig {
         return serperApiKey;
     }
 
+    /**
+     * Gets the OpenAI API base URL.
+     *
+     * @return the base URL, without a trailing slash
+     */
+    public String getOpenAiBaseUrl() {
+        return openAiBaseUrl;
+    }
+
+    /**
+     * Gets the Serper search endpoint.
+     *
+     * @return the full URL of the search endpoint
+     */
+    public String getSerperEndpoint() {
+        return serperEndpoint;
+    }
+
     /**
      * Creates a new configuration from environment variables.
      * This method is provided as a convenience for simple applications.
      * For production use, consider using a proper configuration management system.
+     * The endpoints can be overridden with the optional OPENAI_BASE_URL and SERPER_ENDPOINT variables.
      *
      * @return a new ApiConfig instance with keys from environment variables
      * @throws IllegalStateException if required environment variables are not set
@@ -57,6 +99,29 @@ public class ApiConfig {
             throw new IllegalStateException("SERPER_API_KEY environment variable is not set");
         }
         
-        return new ApiConfig(openAiKey, serperKey);
+        String openAiBaseUrl = System.getenv("OPENAI_BASE_URL");
+        String serperEndpoint = System.getenv("SERPER_ENDPOINT");
+        return new ApiConfig(
+                openAiKey,
+                serperKey,
+                openAiBaseUrl == null || openAiBaseUrl.isEmpty() ? DEFAULT_OPENAI_BASE_URL : openAiBaseUrl,
+                serperEndpoint == null || serperEndpoint.isEmpty() ? DEFAULT_SERPER_ENDPOINT : serperEndpoint);
+    }
+
+    /**
+     * Removes trailing slashes from a base URL, so paths can be appended with a single slash.
+     *
+     * @param url the URL, or null
+     * @return the URL without trailing slashes, or null
+     */
+    private static String stripTrailingSlashes(String url) {
+        if (url == null) {
+            return null;
+        }
+        int end = url.length();
+        while (end > 0 && url.charAt(end - 1) == '/') {
+            end--;
+        }
+        return url.substring(0, end);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,148 @@
+package com.agentfactory.context;
+
+import com.agentfactory.models.Message;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the conversation sent to the model bounded by applying a chain of strategies.
+ * The agent keeps its full history; only the request payload is reduced.
+ * Tracks how many bytes and estimated tokens the strategies removed.
+ */
+public class ContextManager {
+    private final List<ContextStrategy> strategies;
+    private final TokenEstimator estimator;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong tokensIn = new AtomicLong();
+    private final AtomicLong tokensOut = new AtomicLong();
+
+    /**
+     * Creates a new context manager using the default token estimate for its metrics.
+     *
+     * @param strategies the strategies to apply, in order
+     */
+    public ContextManager(List<ContextStrategy> strategies) {
+        this(strategies, TokenEstimator.DEFAULT);
+    }
+
+    /**
+     * Creates a new context manager.
+     *
+     * @param strategies the strategies to apply, in order
+     * @param estimator estimates the tokens of each message for the metrics
+     */
+    public ContextManager(List<ContextStrategy> strategies, TokenEstimator estimator) {
+        this.strategies = new ArrayList<>(strategies);
+        this.estimator = estimator;
+    }
+
+    /**
+     * Creates a context manager that drops repeated steps, truncates observations older than
+     * the latest few steps, and finally enforces a token budget.
+     *
+     * @param maxTokens the token budget for the whole conversation
+     * @return the context manager
+     */
+    public static ContextManager withTokenBudget(int maxTokens) {
+        List<ContextStrategy> strategies = new ArrayList<>();
+        strategies.add(new SupersededStepStrategy());
+        strategies.add(ObservationSummaryStrategy.truncating(2, 1000));
+        strategies.add(new TokenBudgetStrategy(maxTokens));
+        return new ContextManager(strategies);
+    }
+
+    /**
+     * Returns the conversation to send to the model.
+     *
+     * @param messages the full conversation
+     * @return the reduced conversation
+     */
+    public List<Message> prepare(List<Message> messages) {
+        List<Message> prepared = messages;
+        for (ContextStrategy strategy : strategies) {
+            prepared = strategy.apply(prepared);
+        }
+
+        long fullBytes = bytes(messages);
+        long fullTokens = tokens(messages);
+        requests.incrementAndGet();
+        bytesIn.addAndGet(fullBytes);
+        tokensIn.addAndGet(fullTokens);
+        bytesOut.addAndGet(prepared == messages ? fullBytes : bytes(prepared));
+        tokensOut.addAndGet(prepared == messages ? fullTokens : tokens(prepared));
+        return prepared;
+    }
+
+    /**
+     * Gets the number of conversations prepared.
+     *
+     * @return the request count
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Gets the total UTF-8 size of message contents removed across all requests.
+     *
+     * @return the bytes saved
+     */
+    public long getBytesSaved() {
+        return bytesIn.get() - bytesOut.get();
+    }
+
+    /**
+     * Gets the total estimated tokens removed across all requests.
+     *
+     * @return the tokens saved
+     */
+    public long getTokensSaved() {
+        return tokensIn.get() - tokensOut.get();
+    }
+
+    /**
+     * Gets the total estimated tokens actually sent across all requests.
+     *
+     * @return the tokens sent
+     */
+    public long getTokensSent() {
+        return tokensOut.get();
+    }
+
+    private long tokens(List<Message> messages) {
+        long total = 0;
+        for (Message message : messages) {
+            total += estimator.estimate(message.getContent());
+        }
+        return total;
+    }
+
+    private static long bytes(List<Message> messages) {
+        long total = 0;
+        for (Message message : messages) {
+            total += utf8Length(message.getContent());
+        }
+        return total;
+    }
+
+    private static long utf8Length(String text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,19 @@
+package com.agentfactory.context;
+
+import com.agentfactory.models.Message;
+import java.util.List;
+
+/**
+ * A rule for shrinking the conversation sent to the model.
+ * Strategies must not modify the list they are given.
+ */
+@FunctionalInterface
+public interface ContextStrategy {
+    /**
+     * Returns the messages to send in place of the given conversation.
+     *
+     * @param messages the conversation, starting with the system prompt and the task
+     * @return the reduced conversation; may be the same list if nothing changed
+     */
+    List<Message> apply(List<Message> messages);
+}
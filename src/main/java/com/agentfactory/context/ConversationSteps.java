@@ -0,0 +1,42 @@
+package com.agentfactory.context;
+
+import com.agentfactory.models.Message;
+import java.util.List;
+
+/**
+ * Helpers for the agent conversation layout: a prefix of system prompt and task messages,
+ * followed by steps, each an assistant action message and the user observation message after it.
+ */
+final class ConversationSteps {
+    static final String OBSERVATION_PREFIX = "Observation: ";
+
+    private ConversationSteps() {}
+
+    /**
+     * Returns the index of the first step, which is the first assistant message.
+     *
+     * @param messages the conversation
+     * @return the index of the first step, or the list size if there are no steps
+     */
+    static int firstStep(List<Message> messages) {
+        for (int i = 0; i < messages.size(); i++) {
+            if ("assistant".equals(messages.get(i).getRole())) {
+                return i;
+            }
+        }
+        return messages.size();
+    }
+
+    /**
+     * Returns whether a complete step starts at the given index.
+     *
+     * @param messages the conversation
+     * @param index the index of the candidate action message
+     * @return true if an assistant message at the index is followed by a user observation
+     */
+    static boolean isStep(List<Message> messages, int index) {
+        return index + 1 < messages.size()
+                && "assistant".equals(messages.get(index).getRole())
+                && "user".equals(messages.get(index + 1).getRole());
+    }
+}
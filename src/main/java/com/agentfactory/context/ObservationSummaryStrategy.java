@@ -0,0 +1,76 @@
+package com.agentfactory.context;
+
+import com.agentfactory.models.Message;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Replaces observations older than the most recent steps with a summary.
+ * The summarizer is pluggable; {@link #truncating(int, int)} keeps the head of each observation.
+ */
+public class ObservationSummaryStrategy implements ContextStrategy {
+    private final int keepRecentSteps;
+    private final UnaryOperator<String> summarizer;
+
+    /**
+     * Creates a new strategy.
+     *
+     * @param keepRecentSteps the number of latest steps whose observations are left untouched
+     * @param summarizer turns an old observation into a shorter one
+     */
+    public ObservationSummaryStrategy(int keepRecentSteps, UnaryOperator<String> summarizer) {
+        this.keepRecentSteps = keepRecentSteps;
+        this.summarizer = summarizer;
+    }
+
+    /**
+     * Creates a strategy that truncates old observations to a fixed number of characters.
+     *
+     * @param keepRecentSteps the number of latest steps whose observations are left untouched
+     * @param maxChars the maximum length of an old observation
+     * @return the truncating strategy
+     */
+    public static ObservationSummaryStrategy truncating(int keepRecentSteps, int maxChars) {
+        return new ObservationSummaryStrategy(keepRecentSteps, observation -> truncate(observation, maxChars));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Message> apply(List<Message> messages) {
+        List<Integer> observations = new ArrayList<>();
+        for (int i = ConversationSteps.firstStep(messages); i < messages.size(); i++) {
+            if (ConversationSteps.isStep(messages, i)) {
+                observations.add(i + 1);
+                i++;
+            }
+        }
+        int summarized = observations.size() - keepRecentSteps;
+        if (summarized <= 0) {
+            return messages;
+        }
+
+        List<Message> result = new ArrayList<>(messages);
+        for (int n = 0; n < summarized; n++) {
+            int index = observations.get(n);
+            Message observation = messages.get(index);
+            String content = observation.getContent();
+            String prefix = content.startsWith(ConversationSteps.OBSERVATION_PREFIX)
+                    ? ConversationSteps.OBSERVATION_PREFIX
+                    : "";
+            String summary = summarizer.apply(content.substring(prefix.length()));
+            result.set(index, new Message(observation.getRole(), prefix + summary));
+        }
+        return result;
+    }
+
+    private static String truncate(String observation, int maxChars) {
+        if (observation.length() <= maxChars) {
+            return observation;
+        }
+        int removed = observation.length() - maxChars;
+        return observation.substring(0, maxChars) + "... [truncated " + removed + " chars]";
+    }
+}
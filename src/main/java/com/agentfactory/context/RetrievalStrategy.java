@@ -0,0 +1,101 @@
+package com.agentfactory.context;
+
+import com.agentfactory.memory.ActionStep;
+import com.agentfactory.memory.Embedder;
+import com.agentfactory.memory.SemanticMemory;
+import com.agentfactory.models.Message;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Sends only the steps that matter: the latest few steps, plus the older steps most relevant to
+ * the task and the latest observation. Relevance comes from a {@link SemanticMemory} that indexes
+ * each step once, when it first appears in the conversation, so the prompt and the cost of a
+ * lookup stay flat however many steps a run takes.
+ *
+ * <p>The index follows one conversation at a time and is rebuilt when a new task starts.
+ * Kept steps stay in their original order.
+ */
+public class RetrievalStrategy implements ContextStrategy {
+    private final Embedder embedder;
+    private final int topK;
+    private final int keepRecentSteps;
+
+    private SemanticMemory memory;
+    private Message task;
+    private int indexedSteps;
+
+    /**
+     * Creates a new strategy.
+     *
+     * @param embedder embeds steps and queries
+     * @param topK the number of older steps to keep, chosen by relevance
+     * @param keepRecentSteps the number of latest steps that are always kept
+     */
+    public RetrievalStrategy(Embedder embedder, int topK, int keepRecentSteps) {
+        this.embedder = embedder;
+        this.topK = topK;
+        this.keepRecentSteps = keepRecentSteps;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized List<Message> apply(List<Message> messages) {
+        int first = ConversationSteps.firstStep(messages);
+        List<Integer> steps = new ArrayList<>();
+        for (int i = first; i < messages.size(); i++) {
+            if (ConversationSteps.isStep(messages, i)) {
+                steps.add(i);
+                i++;
+            }
+        }
+        int older = steps.size() - keepRecentSteps;
+        if (older <= topK) {
+            return messages;
+        }
+
+        index(messages, first, steps);
+        String query = (first > 0 ? messages.get(first - 1).getContent() : "") + "\n"
+                + messages.get(steps.get(steps.size() - 1) + 1).getContent();
+        TreeSet<Integer> kept = new TreeSet<>();
+        for (ActionStep step : memory.search(query, topK + keepRecentSteps)) {
+            if (step.getStepNumber() < older && kept.size() < topK) {
+                kept.add(step.getStepNumber());
+            }
+        }
+        for (int n = older; n < steps.size(); n++) {
+            kept.add(n);
+        }
+
+        List<Message> result = new ArrayList<>(first + kept.size() * 2);
+        result.addAll(messages.subList(0, first));
+        for (int n : kept) {
+            int index = steps.get(n);
+            result.add(messages.get(index));
+            result.add(messages.get(index + 1));
+        }
+        result.addAll(messages.subList(steps.get(steps.size() - 1) + 2, messages.size()));
+        return result;
+    }
+
+    /**
+     * Adds the steps not yet indexed to the memory, starting over when the task changed.
+     * Steps are numbered by their position in the conversation.
+     */
+    private void index(List<Message> messages, int first, List<Integer> steps) {
+        Message currentTask = first > 0 ? messages.get(first - 1) : null;
+        if (memory == null || currentTask != task || steps.size() < indexedSteps) {
+            memory = new SemanticMemory(embedder);
+            task = currentTask;
+            indexedSteps = 0;
+        }
+        for (; indexedSteps < steps.size(); indexedSteps++) {
+            int index = steps.get(indexedSteps);
+            memory.addStep(new ActionStep(
+                    indexedSteps, messages.get(index).getContent(), messages.get(index + 1).getContent()));
+        }
+    }
+}
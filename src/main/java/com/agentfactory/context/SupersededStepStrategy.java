@@ -0,0 +1,46 @@
+package com.agentfactory.context;
+
+import com.agentfactory.models.Message;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Drops steps whose action is repeated later in the conversation.
+ * When the model issues the same tool call twice, only the latest observation is kept.
+ */
+public class SupersededStepStrategy implements ContextStrategy {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Message> apply(List<Message> messages) {
+        int first = ConversationSteps.firstStep(messages);
+        Set<String> laterActions = new HashSet<>();
+        boolean[] dropped = new boolean[messages.size()];
+        boolean changed = false;
+        for (int i = messages.size() - 2; i >= first; i--) {
+            if (!ConversationSteps.isStep(messages, i)) {
+                continue;
+            }
+            if (!laterActions.add(messages.get(i).getContent())) {
+                dropped[i] = true;
+                dropped[i + 1] = true;
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return messages;
+        }
+
+        List<Message> result = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            if (!dropped[i]) {
+                result.add(messages.get(i));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,66 @@
+package com.agentfactory.context;
+
+import com.agentfactory.models.Message;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drops the oldest steps until the conversation fits a token budget.
+ * The system prompt, the task and the latest step are always kept, so the conversation may
+ * still exceed the budget when those alone are too large.
+ */
+public class TokenBudgetStrategy implements ContextStrategy {
+    private final int maxTokens;
+    private final TokenEstimator estimator;
+
+    /**
+     * Creates a new strategy using the default token estimate.
+     *
+     * @param maxTokens the token budget for the whole conversation
+     */
+    public TokenBudgetStrategy(int maxTokens) {
+        this(maxTokens, TokenEstimator.DEFAULT);
+    }
+
+    /**
+     * Creates a new strategy.
+     *
+     * @param maxTokens the token budget for the whole conversation
+     * @param estimator estimates the tokens of each message
+     */
+    public TokenBudgetStrategy(int maxTokens, TokenEstimator estimator) {
+        this.maxTokens = maxTokens;
+        this.estimator = estimator;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Message> apply(List<Message> messages) {
+        int[] tokens = new int[messages.size()];
+        int total = 0;
+        for (int i = 0; i < messages.size(); i++) {
+            tokens[i] = estimator.estimate(messages.get(i).getContent());
+            total += tokens[i];
+        }
+        if (total <= maxTokens) {
+            return messages;
+        }
+
+        int first = ConversationSteps.firstStep(messages);
+        int keepFrom = first;
+        while (total > maxTokens && ConversationSteps.isStep(messages, keepFrom) && keepFrom + 2 < messages.size()) {
+            total -= tokens[keepFrom] + tokens[keepFrom + 1];
+            keepFrom += 2;
+        }
+        if (keepFrom == first) {
+            return messages;
+        }
+
+        List<Message> result = new ArrayList<>(first + messages.size() - keepFrom);
+        result.addAll(messages.subList(0, first));
+        result.addAll(messages.subList(keepFrom, messages.size()));
+        return result;
+    }
+}
@@ -0,0 +1,21 @@
+package com.agentfactory.context;
+
+/**
+ * Estimates how many model tokens a piece of text uses.
+ * Plug in a real tokenizer when exact counts matter; the default is a cheap approximation.
+ */
+@FunctionalInterface
+public interface TokenEstimator {
+    /**
+     * Approximates English text at four characters per token, rounded up.
+     */
+    TokenEstimator DEFAULT = text -> (text.length() + 3) / 4;
+
+    /**
+     * Estimates the number of tokens in the given text.
+     *
+     * @param text the text to measure
+     * @return the estimated token count
+     */
+    int estimate(String text);
+}
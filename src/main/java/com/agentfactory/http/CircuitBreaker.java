@@ -0,0 +1,99 @@
+package com.agentfactory.http;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks consecutive failures against one host.
+ * After {@code failureThreshold} failures in a row the circuit opens and requests are refused for
+ * the open duration. Then a single probe request is let through: success closes the circuit,
+ * failure opens it again.
+ */
+final class CircuitBreaker {
+    private enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoClock;
+    private State state = State.CLOSED;
+    private int failures = 0;
+    private long openedAt;
+
+    /**
+     * Creates a new, closed circuit breaker.
+     *
+     * @param failureThreshold the number of consecutive failures that opens the circuit
+     * @param openNanos how long the circuit stays open before a probe is allowed
+     * @param nanoClock the time source, in nanoseconds
+     */
+    CircuitBreaker(int failureThreshold, long openNanos, LongSupplier nanoClock) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Asks whether a request may be sent now.
+     *
+     * @return true if the request may proceed
+     */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nanoClock.getAsLong() - openedAt >= openNanos) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Records a successful request, closing the circuit.
+     */
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    /**
+     * Records a failed request.
+     *
+     * @return true if this failure opened the circuit
+     */
+    synchronized boolean onFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records a request that was cancelled by its caller, which says nothing about the host's
+     * health. A cancelled probe lets the next request probe in its place.
+     */
+    synchronized void onCancelled() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+        }
+    }
+
+    /**
+     * Returns whether requests are currently refused.
+     *
+     * @return true if the circuit is open or waiting for a probe to finish
+     */
+    synchronized boolean isOpen() {
+        return state != State.CLOSED;
+    }
+}
@@ -0,0 +1,86 @@
+package com.agentfactory.http;
+
+import com.agentfactory.metrics.MetricNames;
+import com.agentfactory.metrics.MetricsRecorder;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Fails fast against a host that keeps failing, instead of adding load to it.
+ * I/O failures and 5xx responses count as failures; 429 does not, since a throttling server is
+ * healthy, and neither does a call cancelled by its caller. While a host's circuit is open,
+ * requests fail with {@link CircuitOpenException}.
+ */
+public class CircuitBreakerInterceptor implements Interceptor {
+    private final int failureThreshold;
+    private final long openNanos;
+    private final MetricsRecorder metrics;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new circuit breaker interceptor.
+     *
+     * @param failureThreshold the number of consecutive failures that opens a host's circuit
+     * @param openDuration how long a circuit stays open before a probe request is allowed
+     * @param metrics the recorder for opened circuits and refused requests
+     * @throws IllegalArgumentException if failureThreshold is not positive
+     */
+    public CircuitBreakerInterceptor(int failureThreshold, Duration openDuration, MetricsRecorder metrics) {
+        this(failureThreshold, openDuration, metrics, System::nanoTime);
+    }
+
+    CircuitBreakerInterceptor(
+            int failureThreshold, Duration openDuration, MetricsRecorder metrics, LongSupplier nanoClock) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("Failure threshold must be positive: " + failureThreshold);
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.metrics = metrics;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        String host = chain.request().url().host();
+        CircuitBreaker breaker = breakers.computeIfAbsent(
+                host, k -> new CircuitBreaker(failureThreshold, openNanos, nanoClock));
+        if (!breaker.tryAcquire()) {
+            metrics.increment(MetricNames.HTTP_CIRCUIT_REJECTED, 1);
+            throw new CircuitOpenException(host);
+        }
+
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException | RuntimeException e) {
+            if (chain.call().isCanceled()) {
+                breaker.onCancelled();
+            } else {
+                recordFailure(breaker);
+            }
+            throw e;
+        }
+        if (response.code() >= 500) {
+            recordFailure(breaker);
+        } else {
+            breaker.onSuccess();
+        }
+        return response;
+    }
+
+    private void recordFailure(CircuitBreaker breaker) {
+        if (breaker.onFailure()) {
+            metrics.increment(MetricNames.HTTP_CIRCUIT_OPENED, 1);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.agentfactory.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown instead of sending a request while the circuit breaker for its host is open.
+ */
+public class CircuitOpenException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a new exception for the given host.
+     *
+     * @param host the host whose circuit is open
+     */
+    public CircuitOpenException(String host) {
+        super("Circuit open for " + host + " after repeated failures");
+    }
+}
@@ -0,0 +1,289 @@
+package com.agentfactory.http;
+
+import com.agentfactory.metrics.MetricsRecorder;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * Shared HTTP transport for models and tools.
+ * Wraps a single OkHttp client so that every component built with the same transport shares
+ * one connection pool, one dispatcher and one set of warm TLS connections.
+ *
+ * <p>Every request passes through, in order: retry with jittered exponential backoff, a circuit
+ * breaker per host, and a token bucket per API key and host that follows the server's rate limit
+ * headers. They share one state across all components using the transport.
+ */
+public class HttpTransport implements AutoCloseable {
+    private static volatile HttpTransport shared;
+
+    private final OkHttpClient client;
+
+    private HttpTransport(OkHttpClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Returns the process-wide default transport, creating it on first use.
+     * Components constructed without an explicit transport use this instance.
+     *
+     * @return the shared default transport
+     */
+    public static HttpTransport shared() {
+        HttpTransport transport = shared;
+        if (transport == null) {
+            synchronized (HttpTransport.class) {
+                transport = shared;
+                if (transport == null) {
+                    transport = builder().build();
+                    shared = transport;
+                }
+            }
+        }
+        return transport;
+    }
+
+    /**
+     * Creates a builder for a transport with custom pool, dispatcher and timeout settings.
+     *
+     * @return a new builder initialized with default settings
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the underlying HTTP client.
+     *
+     * @return the shared OkHttp client
+     */
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    /**
+     * Releases the transport's threads and idle connections.
+     * Calls still in flight are allowed to finish.
+     */
+    @Override
+    public void close() {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    /**
+     * Builder for {@link HttpTransport} settings.
+     */
+    public static class Builder {
+        private int maxIdleConnections = 32;
+        private Duration keepAlive = Duration.ofMinutes(5);
+        private int maxRequests = 256;
+        private int maxRequestsPerHost = 64;
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Duration readTimeout = Duration.ofSeconds(60);
+        private Duration writeTimeout = Duration.ofSeconds(30);
+        private Duration callTimeout = Duration.ZERO;
+        private boolean http2 = true;
+        private int maxAttempts = 3;
+        private Duration retryBaseDelay = Duration.ofMillis(500);
+        private Duration retryMaxDelay = Duration.ofSeconds(20);
+        private double permitsPerSecond = Double.POSITIVE_INFINITY;
+        private int burst = 1;
+        private int failureThreshold = 5;
+        private Duration circuitOpenDuration = Duration.ofSeconds(30);
+        private MetricsRecorder metrics = MetricsRecorder.NOOP;
+
+        private Builder() {}
+
+        /**
+         * Sets the maximum number of idle connections kept in the pool.
+         *
+         * @param maxIdleConnections the maximum number of idle connections
+         * @return this builder
+         */
+        public Builder maxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        /**
+         * Sets how long an idle connection is kept alive before it is closed.
+         *
+         * @param keepAlive the keep-alive duration
+         * @return this builder
+         */
+        public Builder keepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of asynchronous requests executing at once.
+         *
+         * @param maxRequests the maximum number of concurrent requests
+         * @return this builder
+         */
+        public Builder maxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of asynchronous requests executing at once against one host.
+         *
+         * @param maxRequestsPerHost the maximum number of concurrent requests per host
+         * @return this builder
+         */
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * Sets the connect timeout.
+         *
+         * @param connectTimeout the connect timeout, or zero for none
+         * @return this builder
+         */
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the read timeout. Model responses can take a while, so keep this generous.
+         *
+         * @param readTimeout the read timeout, or zero for none
+         * @return this builder
+         */
+        public Builder readTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the write timeout.
+         *
+         * @param writeTimeout the write timeout, or zero for none
+         * @return this builder
+         */
+        public Builder writeTimeout(Duration writeTimeout) {
+            this.writeTimeout = writeTimeout;
+            return this;
+        }
+
+        /**
+         * Sets the timeout for a complete call, including redirects and reading the body.
+         *
+         * @param callTimeout the call timeout, or zero for none
+         * @return this builder
+         */
+        public Builder callTimeout(Duration callTimeout) {
+            this.callTimeout = callTimeout;
+            return this;
+        }
+
+        /**
+         * Sets whether HTTP/2 may be negotiated, which multiplexes requests over one connection.
+         *
+         * @param http2 true to allow HTTP/2, false to use HTTP/1.1 only
+         * @return this builder
+         */
+        public Builder http2(boolean http2) {
+            this.http2 = http2;
+            return this;
+        }
+
+        /**
+         * Sets how failed requests are retried. Defaults to 3 attempts with delays capped at
+         * 500 ms, doubling up to 20 seconds.
+         *
+         * @param maxAttempts the maximum number of attempts, including the first; 1 disables retries
+         * @param baseDelay the delay cap for the first retry
+         * @param maxDelay the largest delay cap
+         * @return this builder
+         */
+        public Builder retry(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+            this.maxAttempts = maxAttempts;
+            this.retryBaseDelay = baseDelay;
+            this.retryMaxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * Limits the request rate per API key and host. By default there is no fixed limit and
+         * only the server's rate limit headers slow requests down.
+         *
+         * @param permitsPerSecond the sustained request rate
+         * @param burst the number of requests that may be sent back to back
+         * @return this builder
+         */
+        public Builder rateLimit(double permitsPerSecond, int burst) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = burst;
+            return this;
+        }
+
+        /**
+         * Sets when a host's circuit breaker opens. Defaults to 5 consecutive failures and 30 seconds.
+         *
+         * @param failureThreshold the number of consecutive failures that opens the circuit
+         * @param openDuration how long the circuit stays open before a probe request is allowed
+         * @return this builder
+         */
+        public Builder circuitBreaker(int failureThreshold, Duration openDuration) {
+            this.failureThreshold = failureThreshold;
+            this.circuitOpenDuration = openDuration;
+            return this;
+        }
+
+        /**
+         * Sets the recorder for retries, throttling, rate limit waits and circuit breaker events.
+         *
+         * @param metrics the metrics recorder
+         * @return this builder
+         */
+        public Builder metrics(MetricsRecorder metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Builds the transport.
+         *
+         * @return a new transport with its own connection pool and dispatcher
+         * @throws IllegalArgumentException if a limit is not positive
+         */
+        public HttpTransport build() {
+            if (maxRequests <= 0 || maxRequestsPerHost <= 0) {
+                throw new IllegalArgumentException("Request limits must be positive");
+            }
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(maxRequests);
+            dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+            OkHttpClient client = new OkHttpClient.Builder()
+                    .connectionPool(
+                            new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                    .dispatcher(dispatcher)
+                    .protocols(
+                            http2
+                                    ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                                    : Collections.singletonList(Protocol.HTTP_1_1))
+                    .connectTimeout(connectTimeout)
+                    .readTimeout(readTimeout)
+                    .writeTimeout(writeTimeout)
+                    .callTimeout(callTimeout)
+                    .addInterceptor(new RetryInterceptor(maxAttempts, retryBaseDelay, retryMaxDelay, metrics))
+                    .addInterceptor(new CircuitBreakerInterceptor(failureThreshold, circuitOpenDuration, metrics))
+                    .addInterceptor(new RateLimitInterceptor(permitsPerSecond, burst, metrics))
+                    .build();
+            return new HttpTransport(client);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.agentfactory.http;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import okhttp3.Response;
+
+/**
+ * Reads the throttling hints servers attach to responses.
+ * Understands {@code Retry-After} in seconds or as an HTTP date, OpenAI's {@code retry-after-ms},
+ * and OpenAI's {@code x-ratelimit-remaining-requests} / {@code x-ratelimit-reset-requests} pair,
+ * whose reset is a duration such as {@code 6m0s} or {@code 20ms}.
+ */
+final class RateLimitHeaders {
+    static final String REMAINING_REQUESTS = "x-ratelimit-remaining-requests";
+    static final String RESET_REQUESTS = "x-ratelimit-reset-requests";
+
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+    private RateLimitHeaders() {}
+
+    /**
+     * Returns how long the server asked the client to wait before retrying.
+     *
+     * @param response the response
+     * @return the delay in nanoseconds, or -1 if the response carries no usable hint
+     */
+    static long retryAfterNanos(Response response) {
+        String millis = response.header("retry-after-ms");
+        if (millis != null) {
+            try {
+                return (long) (Double.parseDouble(millis.trim()) * 1_000_000L);
+            } catch (NumberFormatException e) {
+                // Fall back to Retry-After.
+            }
+        }
+        String retryAfter = response.header("Retry-After");
+        if (retryAfter == null) {
+            return -1;
+        }
+        try {
+            return (long) (Double.parseDouble(retryAfter.trim()) * 1_000_000_000L);
+        } catch (NumberFormatException e) {
+            // Not a number of seconds, so it should be an HTTP date.
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            long millisUntil = date.toInstant().toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millisUntil));
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the number of requests left in the current rate limit window.
+     *
+     * @param response the response
+     * @return the remaining requests, or -1 if the header is absent or malformed
+     */
+    static long remainingRequests(Response response) {
+        String remaining = response.header(REMAINING_REQUESTS);
+        if (remaining == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(remaining.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns how long until the request rate limit window resets.
+     *
+     * @param response the response
+     * @return the time until reset in nanoseconds, or -1 if the header is absent or malformed
+     */
+    static long resetRequestsNanos(Response response) {
+        String reset = response.header(RESET_REQUESTS);
+        return reset == null ? -1 : parseDuration(reset.trim());
+    }
+
+    /**
+     * Parses a duration such as {@code 1h2m3.5s} or {@code 250ms}.
+     *
+     * @param value the duration text
+     * @return the duration in nanoseconds, or -1 if the text is not a duration
+     */
+    static long parseDuration(String value) {
+        Matcher matcher = DURATION_PART.matcher(value);
+        double nanos = 0;
+        int end = 0;
+        while (matcher.find()) {
+            if (matcher.start() != end) {
+                return -1;
+            }
+            double amount = Double.parseDouble(matcher.group(1));
+            switch (matcher.group(2)) {
+                case "h":
+                    nanos += amount * 3_600_000_000_000L;
+                    break;
+                case "m":
+                    nanos += amount * 60_000_000_000L;
+                    break;
+                case "s":
+                    nanos += amount * 1_000_000_000L;
+                    break;
+                default:
+                    nanos += amount * 1_000_000L;
+                    break;
+            }
+            end = matcher.end();
+        }
+        return end == 0 || end != value.length() ? -1 : (long) nanos;
+    }
+}
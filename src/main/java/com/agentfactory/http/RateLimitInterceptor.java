@@ -0,0 +1,101 @@
+package com.agentfactory.http;
+
+import com.agentfactory.metrics.MetricNames;
+import com.agentfactory.metrics.MetricsRecorder;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Paces requests with a token bucket per API key and host.
+ * The key is read from the {@code Authorization} or {@code X-API-KEY} header, so two keys against
+ * the same API get separate quotas. Throttled responses (429) pause the bucket for the server's
+ * {@code Retry-After} and halve its rate; an exhausted {@code x-ratelimit-remaining-requests}
+ * pauses it until {@code x-ratelimit-reset-requests}. With an unlimited rate, only these server
+ * hints are applied.
+ */
+public class RateLimitInterceptor implements Interceptor {
+    private static final long DEFAULT_THROTTLE_PAUSE_NANOS = 1_000_000_000L;
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final MetricsRecorder metrics;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new rate limit interceptor.
+     *
+     * @param permitsPerSecond the sustained request rate per key and host, or positive infinity
+     *     to apply only the server's hints
+     * @param burst the number of requests that may be sent back to back
+     * @param metrics the recorder for throttled responses and time spent waiting
+     * @throws IllegalArgumentException if the rate or burst is not positive
+     */
+    public RateLimitInterceptor(double permitsPerSecond, int burst, MetricsRecorder metrics) {
+        this(permitsPerSecond, burst, metrics, System::nanoTime);
+    }
+
+    RateLimitInterceptor(double permitsPerSecond, int burst, MetricsRecorder metrics, LongSupplier nanoClock) {
+        if (!(permitsPerSecond > 0) || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.metrics = metrics;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        TokenBucket bucket = bucket(request);
+        long wait = bucket.reserve();
+        if (wait > 0) {
+            metrics.recordTime(MetricNames.HTTP_RATE_LIMIT_WAIT, wait);
+            RetryInterceptor.sleepNanos(wait);
+        }
+
+        Response response = chain.proceed(request);
+        if (response.code() == 429) {
+            metrics.increment(MetricNames.HTTP_THROTTLED, 1);
+            long retryAfter = RateLimitHeaders.retryAfterNanos(response);
+            bucket.onThrottled(retryAfter >= 0 ? retryAfter : DEFAULT_THROTTLE_PAUSE_NANOS);
+        } else if (response.isSuccessful()) {
+            bucket.onSuccess();
+        }
+        if (RateLimitHeaders.remainingRequests(response) == 0) {
+            long reset = RateLimitHeaders.resetRequestsNanos(response);
+            if (reset > 0) {
+                bucket.pause(reset);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Gets the bucket for the request's API key and host, creating it on first use.
+     *
+     * @param request the request
+     * @return the bucket
+     */
+    TokenBucket bucket(Request request) {
+        String credential = request.header("Authorization");
+        if (credential == null) {
+            credential = request.header("X-API-KEY");
+        }
+        String key = request.url().host() + '\n' + (credential == null ? "" : credential);
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(permitsPerSecond, burst, nanoClock));
+        }
+        return bucket;
+    }
+}
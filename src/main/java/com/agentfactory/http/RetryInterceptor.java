@@ -0,0 +1,108 @@
+package com.agentfactory.http;
+
+import com.agentfactory.metrics.MetricNames;
+import com.agentfactory.metrics.MetricsRecorder;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Retries requests that failed with a transient error: an I/O failure, 408, 429 or any 5xx.
+ * Delays grow exponentially with full jitter, so clients that failed together do not retry
+ * together. A {@code Retry-After} hint from the server is used as the minimum delay.
+ * Requests refused by an open circuit breaker and cancelled calls are not retried.
+ * Delays are slept on the calling thread, which for asynchronous calls is a dispatcher thread.
+ */
+public class RetryInterceptor implements Interceptor {
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final MetricsRecorder metrics;
+
+    /**
+     * Creates a new retry interceptor.
+     *
+     * @param maxAttempts the maximum number of attempts, including the first
+     * @param baseDelay the delay cap for the first retry, doubled for each further retry
+     * @param maxDelay the largest delay cap
+     * @param metrics the recorder that counts retries
+     * @throws IllegalArgumentException if maxAttempts is not positive
+     */
+    public RetryInterceptor(int maxAttempts, Duration baseDelay, Duration maxDelay, MetricsRecorder metrics) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be positive: " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayNanos = baseDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.metrics = metrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        for (int attempt = 1; ; attempt++) {
+            long retryAfter = -1;
+            try {
+                Response response = chain.proceed(request);
+                if (attempt >= maxAttempts || !isRetryable(response.code())) {
+                    return response;
+                }
+                retryAfter = RateLimitHeaders.retryAfterNanos(response);
+                response.close();
+            } catch (CircuitOpenException e) {
+                throw e;
+            } catch (IOException e) {
+                if (attempt >= maxAttempts || chain.call().isCanceled()) {
+                    throw e;
+                }
+            }
+            metrics.increment(MetricNames.HTTP_RETRIES, 1);
+            sleepNanos(Math.max(retryAfter, backoffNanos(attempt)));
+        }
+    }
+
+    /**
+     * Computes a full-jitter delay: uniformly random between zero and the exponential cap.
+     *
+     * @param attempt the number of the attempt that just failed, starting at 1
+     * @return the delay in nanoseconds
+     */
+    long backoffNanos(int attempt) {
+        long cap = baseDelayNanos << Math.min(attempt - 1, 30);
+        if (cap <= 0 || cap > maxDelayNanos) {
+            cap = maxDelayNanos;
+        }
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private static boolean isRetryable(int code) {
+        return code == 408 || code == 429 || code >= 500;
+    }
+
+    /**
+     * Sleeps for the given time, translating interruption into an I/O failure.
+     *
+     * @param nanos the time to sleep
+     * @throws InterruptedIOException if the thread is interrupted
+     */
+    static void sleepNanos(long nanos) throws InterruptedIOException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send request");
+        }
+    }
+}
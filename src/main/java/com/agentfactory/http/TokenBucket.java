@@ -0,0 +1,102 @@
+package com.agentfactory.http;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket that hands out reservations instead of blocking.
+ * Each request reserves a permit and is told how long to wait, so concurrent callers are spaced
+ * out at the configured rate rather than released together. The rate adapts to the server:
+ * it is halved when the server throttles and recovers gradually on success, and the bucket can
+ * be paused until the time the server said to come back.
+ */
+final class TokenBucket {
+    private static final double MIN_RATE_FRACTION = 1.0 / 16;
+    private static final double RECOVERY_FRACTION = 1.0 / 20;
+
+    private final double maxRate;
+    private final double burst;
+    private final LongSupplier nanoClock;
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    /**
+     * Creates a new bucket, initially full.
+     *
+     * @param permitsPerSecond the sustained rate, or positive infinity for no limit
+     * @param burst the number of permits that may be used back to back
+     * @param nanoClock the time source, in nanoseconds
+     */
+    TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        this.maxRate = permitsPerSecond;
+        this.rate = permitsPerSecond;
+        this.burst = burst;
+        this.tokens = burst;
+        this.nanoClock = nanoClock;
+        this.lastRefill = nanoClock.getAsLong();
+        this.pausedUntil = lastRefill;
+    }
+
+    /**
+     * Reserves one permit.
+     *
+     * @return how long the caller must wait before using the permit, in nanoseconds
+     */
+    synchronized long reserve() {
+        long now = nanoClock.getAsLong();
+        long wait = Math.max(0, pausedUntil - now);
+        if (Double.isInfinite(rate)) {
+            return wait;
+        }
+        long start = Math.max(now, pausedUntil);
+        if (start > lastRefill) {
+            tokens = Math.min(burst, tokens + (start - lastRefill) * rate / 1e9);
+            lastRefill = start;
+        }
+        tokens -= 1;
+        if (tokens < 0) {
+            wait = Math.max(wait, (lastRefill - now) + (long) (-tokens / rate * 1e9));
+        }
+        return wait;
+    }
+
+    /**
+     * Handles a throttled response: pauses the bucket and halves the rate.
+     *
+     * @param retryAfterNanos how long the server asked to wait
+     */
+    synchronized void onThrottled(long retryAfterNanos) {
+        pause(retryAfterNanos);
+        if (!Double.isInfinite(rate)) {
+            rate = Math.max(maxRate * MIN_RATE_FRACTION, rate / 2);
+        }
+    }
+
+    /**
+     * Handles a successful response by moving the rate back towards its configured value.
+     */
+    synchronized void onSuccess() {
+        if (rate < maxRate) {
+            rate = Math.min(maxRate, rate + maxRate * RECOVERY_FRACTION);
+        }
+    }
+
+    /**
+     * Stops handing out permits without waiting until the given time has passed.
+     *
+     * @param nanos how long to pause, from now
+     */
+    synchronized void pause(long nanos) {
+        pausedUntil = Math.max(pausedUntil, nanoClock.getAsLong() + nanos);
+    }
+
+    /**
+     * Gets the current, possibly reduced, rate.
+     *
+     * @return the rate in permits per second
+     */
+    synchronized double getRate() {
+        return rate;
+    }
+}
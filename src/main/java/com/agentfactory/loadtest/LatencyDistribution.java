@@ -0,0 +1,66 @@
+package com.agentfactory.loadtest;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/**
+ * Samples the artificial delay a {@link MockApiServer} adds before answering a request.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+    /**
+     * Adds no delay.
+     */
+    LatencyDistribution NONE = random -> 0;
+
+    /**
+     * Samples a delay.
+     *
+     * @param random the random source, seeded by the server so runs are repeatable
+     * @return the delay in nanoseconds, not negative
+     */
+    long sampleNanos(SplittableRandom random);
+
+    /**
+     * Creates a distribution that always returns the same delay.
+     *
+     * @param delay the delay
+     * @return the distribution
+     */
+    static LatencyDistribution fixed(Duration delay) {
+        long nanos = delay.toNanos();
+        return random -> nanos;
+    }
+
+    /**
+     * Creates a distribution with delays spread evenly between two bounds.
+     *
+     * @param min the shortest delay
+     * @param max the longest delay
+     * @return the distribution
+     */
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long minNanos = min.toNanos();
+        long maxNanos = max.toNanos();
+        return random -> minNanos + (long) (random.nextDouble() * (maxNanos - minNanos));
+    }
+
+    /**
+     * Creates a log-normal distribution, the usual shape of service latencies: most requests are
+     * close to the median and a long tail is much slower.
+     *
+     * @param median the median delay
+     * @param sigma the standard deviation of the logarithm; 0.5 gives a p99 about 3.2 times the median
+     * @return the distribution
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        double mu = Math.log(median.toNanos());
+        return random -> {
+            // Box-Muller transform of two uniform samples into a standard normal sample.
+            double u1 = 1 - random.nextDouble();
+            double u2 = random.nextDouble();
+            double normal = Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+            return (long) Math.exp(mu + sigma * normal);
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package com.agentfactory.loadtest;
+
+import com.agentfactory.agents.ToolCallingAgent;
+import com.agentfactory.config.ApiConfig;
+import com.agentfactory.http.HttpTransport;
+import com.agentfactory.metrics.Histogram;
+import com.agentfactory.models.OpenAIModel;
+import com.agentfactory.tools.FinalAnswerTool;
+import com.agentfactory.tools.SearchTool;
+import com.agentfactory.tools.ToolRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Drives concurrent {@link ToolCallingAgent} runs and measures how long each one takes.
+ * A fixed number of workers each start a new run as soon as their previous one finishes, until
+ * the requested number of runs has been started, so the load is always the given concurrency.
+ * A new agent is created for every run, since an agent's memory belongs to a single run.
+ *
+ * <p>{@link #main(String[])} runs the agent loop against a {@link MockApiServer}, which makes it
+ * possible to measure the overhead of the agent itself, or its behaviour under slow or failing
+ * APIs, without network access or API keys.
+ */
+public class LoadGenerator {
+    private final Supplier<ToolCallingAgent> agentFactory;
+    private final int concurrency;
+
+    /**
+     * Creates a new load generator.
+     *
+     * @param agentFactory creates the agent for each run
+     * @param concurrency the number of runs in flight at once
+     * @throws IllegalArgumentException if the concurrency is not positive
+     */
+    public LoadGenerator(Supplier<ToolCallingAgent> agentFactory, int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+        }
+        this.agentFactory = agentFactory;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Runs the task the given number of times and waits for all runs to finish.
+     * A run that throws an exception counts as a failure; its latency is recorded too.
+     *
+     * @param task the task given to every agent
+     * @param runs the total number of runs
+     * @return the report
+     * @throws InterruptedException if interrupted while waiting for the runs
+     */
+    public LoadReport run(String task, int runs) throws InterruptedException {
+        Histogram latencyMicros = new Histogram();
+        AtomicInteger started = new AtomicInteger();
+        AtomicLong failures = new AtomicLong();
+        int workers = Math.max(1, Math.min(concurrency, runs));
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "load-generator-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> {
+                    while (started.getAndIncrement() < runs) {
+                        long runStart = System.nanoTime();
+                        try {
+                            agentFactory.get().run(task);
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet();
+                        }
+                        latencyMicros.record((System.nanoTime() - runStart) / 1000);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load generator worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        return new LoadReport(concurrency, Math.max(0, runs), failures.get(), elapsed, latencyMicros);
+    }
+
+    /**
+     * Runs a load test against a local {@link MockApiServer}.
+     * Arguments, all optional: concurrency (default 16), runs (default 1000), median chat latency
+     * in milliseconds (default 50, log-normal with sigma 0.5) and error rate (default 0).
+     * Search latency is a fifth of the chat latency. Failed requests are retried after short
+     * delays, so injected errors show up as retry cost in the latency rather than as failed runs.
+     *
+     * @param args the command line arguments
+     * @throws IOException if the mock server cannot be started
+     * @throws InterruptedException if interrupted while waiting for the runs
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long latencyMillis = args.length > 2 ? Long.parseLong(args[2]) : 50;
+        double errorRate = args.length > 3 ? Double.parseDouble(args[3]) : 0;
+
+        MockApiServer.Builder builder = MockApiServer.builder().errors(errorRate, 500);
+        if (latencyMillis > 0) {
+            builder.chatLatency(LatencyDistribution.logNormal(Duration.ofMillis(latencyMillis), 0.5))
+                    .searchLatency(LatencyDistribution.logNormal(Duration.ofMillis(latencyMillis).dividedBy(5), 0.5));
+        }
+        try (MockApiServer server = builder.start()) {
+            ApiConfig config = server.getApiConfig();
+            HttpTransport transport = HttpTransport.builder()
+                    .retry(3, Duration.ofMillis(10), Duration.ofMillis(100))
+                    .build();
+            ToolRegistry tools =
+                    ToolRegistry.of(Arrays.asList(new SearchTool(config, transport), new FinalAnswerTool()));
+            OpenAIModel model = new OpenAIModel(config, "gpt-4", transport);
+            LoadGenerator generator = new LoadGenerator(() -> new ToolCallingAgent(model, tools), concurrency);
+
+            String task = "Search for 'Java programming' and summarize the results.";
+            generator.run(task, Math.min(runs, concurrency * 4));
+            LoadReport report = generator.run(task, runs);
+            System.out.println(report);
+            System.out.println("chat requests=" + server.getChatRequests() + " search requests="
+                    + server.getSearchRequests() + " injected errors=" + server.getInjectedErrors());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.agentfactory.loadtest;
+
+import com.agentfactory.metrics.Histogram;
+import java.time.Duration;
+
+/**
+ * The result of a {@link LoadGenerator} run: how many agent runs completed, how long the whole
+ * run took and the latency distribution of the individual agent runs.
+ */
+public class LoadReport {
+    private final int concurrency;
+    private final long runs;
+    private final long failures;
+    private final Duration elapsed;
+    private final Histogram latencyMicros;
+
+    /**
+     * Creates a new report.
+     *
+     * @param concurrency the number of agent runs in flight at once
+     * @param runs the number of agent runs, including failed ones
+     * @param failures the number of agent runs that threw an exception
+     * @param elapsed the wall-clock time of the whole load run
+     * @param latencyMicros the latency of each agent run, in microseconds
+     */
+    public LoadReport(int concurrency, long runs, long failures, Duration elapsed, Histogram latencyMicros) {
+        this.concurrency = concurrency;
+        this.runs = runs;
+        this.failures = failures;
+        this.elapsed = elapsed;
+        this.latencyMicros = latencyMicros;
+    }
+
+    /**
+     * Gets the number of agent runs in flight at once.
+     *
+     * @return the concurrency
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Gets the number of agent runs, including failed ones.
+     *
+     * @return the run count
+     */
+    public long getRuns() {
+        return runs;
+    }
+
+    /**
+     * Gets the number of agent runs that threw an exception.
+     *
+     * @return the failure count
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * Gets the wall-clock time of the whole load run.
+     *
+     * @return the elapsed time
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Gets the number of agent runs completed per second, including failed ones.
+     *
+     * @return the throughput
+     */
+    public double getThroughput() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : runs * 1e9 / nanos;
+    }
+
+    /**
+     * Gets a latency percentile of the agent runs.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency, accurate to about 6%
+     */
+    public Duration getLatency(double percentile) {
+        return Duration.ofNanos(latencyMicros.getPercentile(percentile) * 1000);
+    }
+
+    /**
+     * Gets the latency histogram of the agent runs.
+     *
+     * @return the histogram, in microseconds
+     */
+    public Histogram getLatencyMicros() {
+        return latencyMicros;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format(
+                "runs=%d failures=%d concurrency=%d elapsed=%dms throughput=%.1f/s"
+                        + " p50=%.1fms p99=%.1fms p999=%.1fms max=%.1fms",
+                runs,
+                failures,
+                concurrency,
+                elapsed.toMillis(),
+                getThroughput(),
+                latencyMicros.getPercentile(50) / 1000.0,
+                latencyMicros.getPercentile(99) / 1000.0,
+                latencyMicros.getPercentile(99.9) / 1000.0,
+                latencyMicros.getCount() == 0 ? 0 : latencyMicros.getMax() / 1000.0);
+    }
+}
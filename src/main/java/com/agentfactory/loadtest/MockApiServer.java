@@ -0,0 +1,446 @@
+package com.agentfactory.loadtest;
+
+import com.agentfactory.config.ApiConfig;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A local stand-in for the OpenAI chat completions and Serper search APIs, for load tests and
+ * offline runs of the agent loop. It answers with scripted content after a delay drawn from a
+ * {@link LatencyDistribution}, and can inject error responses at a given rate. Both blocking and
+ * streamed ({@code stream: true}) chat completions are supported.
+ *
+ * <p>By default the chat script answers a conversation's first step with a search action and the
+ * next step with a final answer, choosing the reply by the number of assistant messages in the
+ * request. Replies therefore depend only on the request, so concurrent agents each follow the
+ * script. Latencies and injected errors come from a single seeded random source.
+ *
+ * <p>Point clients at the server with {@link #getApiConfig()}.
+ */
+public class MockApiServer implements AutoCloseable {
+    private static final int STREAM_CHUNK_CHARS = 8;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Function<JsonArray, String> chatResponder;
+    private final String searchResponse;
+    private final LatencyDistribution chatLatency;
+    private final LatencyDistribution searchLatency;
+    private final double errorRate;
+    private final int errorStatus;
+    private final SplittableRandom random;
+    private final AtomicLong chatRequests = new AtomicLong();
+    private final AtomicLong searchRequests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong completionIds = new AtomicLong();
+
+    private MockApiServer(Builder builder) throws IOException {
+        this.chatResponder = builder.chatResponder;
+        this.searchResponse = builder.searchResponse;
+        this.chatLatency = builder.chatLatency;
+        this.searchLatency = builder.searchLatency;
+        this.errorRate = builder.errorRate;
+        this.errorStatus = builder.errorStatus;
+        this.random = new SplittableRandom(builder.seed);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "mock-api-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port), 1024);
+        server.createContext("/v1/chat/completions", this::handleChat);
+        server.createContext("/search", this::handleSearch);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Creates a new builder for a server.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the OpenAI base URL of the server.
+     *
+     * @return the base URL, for example {@code http://127.0.0.1:51234/v1}
+     */
+    public String getOpenAiBaseUrl() {
+        return baseUrl() + "/v1";
+    }
+
+    /**
+     * Gets the search endpoint of the server.
+     *
+     * @return the search URL
+     */
+    public String getSearchEndpoint() {
+        return baseUrl() + "/search";
+    }
+
+    /**
+     * Builds the URL of the address the server is bound to, bracketing an IPv6 address.
+     */
+    private String baseUrl() {
+        InetSocketAddress address = server.getAddress();
+        String host = address.getAddress().getHostAddress();
+        return "http://" + (host.indexOf(':') >= 0 ? "[" + host + "]" : host) + ":" + address.getPort();
+    }
+
+    /**
+     * Creates a configuration that points OpenAI and Serper clients at this server.
+     *
+     * @return the configuration, with placeholder API keys
+     */
+    public ApiConfig getApiConfig() {
+        return new ApiConfig("mock-openai-key", "mock-serper-key", getOpenAiBaseUrl(), getSearchEndpoint());
+    }
+
+    /**
+     * Gets the number of chat completion requests received, including failed ones.
+     *
+     * @return the chat request count
+     */
+    public long getChatRequests() {
+        return chatRequests.get();
+    }
+
+    /**
+     * Gets the number of search requests received, including failed ones.
+     *
+     * @return the search request count
+     */
+    public long getSearchRequests() {
+        return searchRequests.get();
+    }
+
+    /**
+     * Gets the number of requests answered with an injected error.
+     *
+     * @return the injected error count
+     */
+    public long getInjectedErrors() {
+        return injectedErrors.get();
+    }
+
+    /**
+     * Stops the server, waiting at most one second for requests in progress.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+
+    private void handleChat(HttpExchange request) throws IOException {
+        try {
+            chatRequests.incrementAndGet();
+            byte[] body = request.getRequestBody().readAllBytes();
+            if (delayOrFail(request, chatLatency)) {
+                return;
+            }
+            JsonObject json = JsonParser.parseString(new String(body, StandardCharsets.UTF_8)).getAsJsonObject();
+            String content = chatResponder.apply(json.getAsJsonArray("messages"));
+            String model = json.has("model") ? json.get("model").getAsString() : "mock";
+            JsonObject usage = usage(body.length, content);
+            String id = "chatcmpl-mock-" + completionIds.incrementAndGet();
+            JsonElement stream = json.get("stream");
+            if (stream != null && stream.getAsBoolean()) {
+                streamChat(request, id, model, content, usage);
+            } else {
+                send(request, 200, completion(id, model, content, usage).toString());
+            }
+        } finally {
+            request.close();
+        }
+    }
+
+    private void handleSearch(HttpExchange request) throws IOException {
+        try {
+            searchRequests.incrementAndGet();
+            request.getRequestBody().readAllBytes();
+            if (delayOrFail(request, searchLatency)) {
+                return;
+            }
+            send(request, 200, searchResponse);
+        } finally {
+            request.close();
+        }
+    }
+
+    /**
+     * Sleeps for a sampled delay, then decides whether to inject an error.
+     *
+     * @return true if an error response was sent
+     */
+    private boolean delayOrFail(HttpExchange request, LatencyDistribution latency) throws IOException {
+        long delayNanos;
+        boolean fail;
+        synchronized (random) {
+            delayNanos = latency.sampleNanos(random);
+            fail = errorRate > 0 && random.nextDouble() < errorRate;
+        }
+        if (delayNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delayNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while delaying response", e);
+            }
+        }
+        if (fail) {
+            injectedErrors.incrementAndGet();
+            send(request, errorStatus, "{\"error\":{\"message\":\"Injected error\",\"type\":\"mock_error\"}}");
+        }
+        return fail;
+    }
+
+    private static void streamChat(HttpExchange request, String id, String model, String content, JsonObject usage)
+            throws IOException {
+        request.getResponseHeaders().set("Content-Type", "text/event-stream");
+        request.sendResponseHeaders(200, 0);
+        OutputStream out = request.getResponseBody();
+        for (int i = 0; i < content.length(); i += STREAM_CHUNK_CHARS) {
+            JsonObject delta = new JsonObject();
+            delta.addProperty("content", content.substring(i, Math.min(content.length(), i + STREAM_CHUNK_CHARS)));
+            JsonObject choice = new JsonObject();
+            choice.addProperty("index", 0);
+            choice.add("delta", delta);
+            JsonArray choices = new JsonArray();
+            choices.add(choice);
+            JsonObject chunk = chunk(id, model);
+            chunk.add("choices", choices);
+            writeEvent(out, chunk.toString());
+        }
+        JsonObject usageChunk = chunk(id, model);
+        usageChunk.add("choices", new JsonArray());
+        usageChunk.add("usage", usage);
+        writeEvent(out, usageChunk.toString());
+        writeEvent(out, "[DONE]");
+    }
+
+    private static JsonObject chunk(String id, String model) {
+        JsonObject chunk = new JsonObject();
+        chunk.addProperty("id", id);
+        chunk.addProperty("object", "chat.completion.chunk");
+        chunk.addProperty("model", model);
+        return chunk;
+    }
+
+    private static void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static JsonObject completion(String id, String model, String content, JsonObject usage) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "assistant");
+        message.addProperty("content", content);
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("message", message);
+        choice.addProperty("finish_reason", "stop");
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+
+        JsonObject completion = new JsonObject();
+        completion.addProperty("id", id);
+        completion.addProperty("object", "chat.completion");
+        completion.addProperty("model", model);
+        completion.add("choices", choices);
+        completion.add("usage", usage);
+        return completion;
+    }
+
+    /**
+     * Estimates token usage at four bytes per token, like the agent's default token estimate.
+     */
+    private static JsonObject usage(int requestBytes, String content) {
+        JsonObject usage = new JsonObject();
+        usage.addProperty("prompt_tokens", (requestBytes + 3) / 4);
+        usage.addProperty("completion_tokens", (content.length() + 3) / 4);
+        usage.addProperty("total_tokens", (requestBytes + 3) / 4 + (content.length() + 3) / 4);
+        return usage;
+    }
+
+    private static void send(HttpExchange request, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        request.getResponseHeaders().set("Content-Type", "application/json");
+        request.sendResponseHeaders(status, bytes.length);
+        request.getResponseBody().write(bytes);
+    }
+
+    /**
+     * Builder for {@link MockApiServer}.
+     */
+    public static class Builder {
+        private static final String DEFAULT_SEARCH_RESPONSE = "{\"organic\":["
+                + "{\"title\":\"Java Programming\",\"link\":\"https://example.com/java\","
+                + "\"snippet\":\"Java is a popular programming language.\"},"
+                + "{\"title\":\"Learn Java\",\"link\":\"https://example.com/learn-java\","
+                + "\"snippet\":\"Resources to learn Java programming.\"}]}";
+
+        private Function<JsonArray, String> chatResponder = scripted(Arrays.asList(
+                "Action:\n{\"name\":\"search\",\"arguments\":{\"query\":\"java programming\"}}",
+                "Action:\n{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"Java is a popular language.\"}}"));
+        private String searchResponse = DEFAULT_SEARCH_RESPONSE;
+        private LatencyDistribution chatLatency = LatencyDistribution.NONE;
+        private LatencyDistribution searchLatency = LatencyDistribution.NONE;
+        private double errorRate = 0;
+        private int errorStatus = 500;
+        private long seed = 42L;
+        private int port = 0;
+
+        /**
+         * Sets the chat replies by step: a conversation with N assistant messages gets reply N,
+         * and conversations longer than the script get its last reply.
+         *
+         * @param replies the assistant message contents, in step order
+         * @return this builder
+         * @throws IllegalArgumentException if no replies are given
+         */
+        public Builder chatScript(List<String> replies) {
+            if (replies.isEmpty()) {
+                throw new IllegalArgumentException("The chat script needs at least one reply");
+            }
+            this.chatResponder = scripted(new ArrayList<>(replies));
+            return this;
+        }
+
+        /**
+         * Sets a function that computes each chat reply from the request's messages.
+         *
+         * @param chatResponder maps the JSON messages array to the assistant message content
+         * @return this builder
+         */
+        public Builder chatResponder(Function<JsonArray, String> chatResponder) {
+            this.chatResponder = chatResponder;
+            return this;
+        }
+
+        /**
+         * Sets the Serper JSON returned for every search. Defaults to two organic results.
+         *
+         * @param searchResponse the response body
+         * @return this builder
+         */
+        public Builder searchResponse(String searchResponse) {
+            this.searchResponse = searchResponse;
+            return this;
+        }
+
+        /**
+         * Sets the delay before each chat completion response. Defaults to none.
+         *
+         * @param chatLatency the latency distribution
+         * @return this builder
+         */
+        public Builder chatLatency(LatencyDistribution chatLatency) {
+            this.chatLatency = chatLatency;
+            return this;
+        }
+
+        /**
+         * Sets the delay before each search response. Defaults to none.
+         *
+         * @param searchLatency the latency distribution
+         * @return this builder
+         */
+        public Builder searchLatency(LatencyDistribution searchLatency) {
+            this.searchLatency = searchLatency;
+            return this;
+        }
+
+        /**
+         * Makes a fraction of all requests fail with the given status, after their delay.
+         *
+         * @param errorRate the probability of failing a request, between 0 and 1
+         * @param errorStatus the HTTP status of injected errors, for example 429 or 500
+         * @return this builder
+         */
+        public Builder errors(double errorRate, int errorStatus) {
+            this.errorRate = errorRate;
+            this.errorStatus = errorStatus;
+            return this;
+        }
+
+        /**
+         * Sets the seed of the random source for latencies and errors. Defaults to 42.
+         *
+         * @param seed the seed
+         * @return this builder
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Sets the port to listen on. Defaults to 0, which picks a free port.
+         *
+         * @param port the port
+         * @return this builder
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Starts the server on the loopback interface.
+         *
+         * @return the running server
+         * @throws IOException if the server cannot be started
+         */
+        public MockApiServer start() throws IOException {
+            return new MockApiServer(this);
+        }
+
+        private static Function<JsonArray, String> scripted(List<String> replies) {
+            return messages -> {
+                int step = 0;
+                if (messages != null) {
+                    for (JsonElement message : messages) {
+                        JsonElement role = message.getAsJsonObject().get("role");
+                        if (role != null && "assistant".equals(role.getAsString())) {
+                            step++;
+                        }
+                    }
+                }
+                return replies.get(Math.min(step, replies.size() - 1));
+            };
+        }
+    }
+}
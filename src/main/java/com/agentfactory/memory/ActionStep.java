@@ -1,5 +1,7 @@
 package com.agentfactory.memory;
 
+import java.io.IOException;
+
 /**
  * Represents an action taken by an agent and the resulting observation.
  * Actions typically correspond to tool calls made by the agent.
@@ -44,6 +46,24 @@ public class ActionStep extends MemoryStep {
      */
     @Override
     public String toString() {
-        return String.format("Step %d:\nAction: %s\nObservation: %s", stepNumber, action, observation);
+        return new StringBuilder(32 + length(action) + length(observation))
+                .append("Step ").append(stepNumber)
+                .append(":\nAction: ").append(action)
+                .append("\nObservation: ").append(observation)
+                .toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void appendTo(Appendable out) throws IOException {
+        out.append("Step ").append(Integer.toString(stepNumber))
+                .append(":\nAction: ").append(String.valueOf(action))
+                .append("\nObservation: ").append(String.valueOf(observation));
+    }
+
+    private static int length(String value) {
+        return value == null ? 4 : value.length();
     }
 }
@@ -1,20 +1,33 @@
 package com.agentfactory.memory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.stream.Stream;
 
 /**
  * Stores and manages the memory of an agent, consisting of a sequence of steps
  * including actions, observations, and thoughts.
+ *
+ * <p>Steps are kept in an append-only array whose size is published through a volatile field.
+ * A step is never moved or replaced once added, so readers take an O(1) {@link #snapshot()} without
+ * locking or copying and iterate it safely while the agent keeps appending.
  */
-public class AgentMemory {
-    private List<MemoryStep> steps;
+public class AgentMemory implements Iterable<MemoryStep> {
+    private volatile MemoryStep[] steps;
+    private volatile int size;
 
     /**
      * Creates a new empty agent memory.
      */
     public AgentMemory() {
-        this.steps = new ArrayList<>();
+        this.steps = new MemoryStep[16];
     }
 
     /**
@@ -22,8 +35,15 @@ public class AgentMemory {
      *
      * @param step the memory step to add
      */
-    public void addStep(MemoryStep step) {
-        steps.add(step);
+    public synchronized void addStep(MemoryStep step) {
+        MemoryStep[] current = steps;
+        int index = size;
+        if (index == current.length) {
+            current = Arrays.copyOf(current, index * 2);
+            steps = current;
+        }
+        current[index] = step;
+        size = index + 1;
     }
 
     /**
@@ -32,7 +52,74 @@ public class AgentMemory {
      * @return a defensive copy of the list of memory steps
      */
     public List<MemoryStep> getSteps() {
-        return new ArrayList<>(steps);
+        return new ArrayList<>(snapshot());
+    }
+
+    /**
+     * Returns a read-only view of the steps added so far. Taking a snapshot copies nothing, and
+     * steps added afterwards are not visible through it.
+     *
+     * @return an unmodifiable list of the steps in the order they were added
+     */
+    public List<MemoryStep> snapshot() {
+        int count = size;
+        return new Snapshot(steps, count);
+    }
+
+    /**
+     * Gets the number of steps in the agent's memory.
+     *
+     * @return the number of steps
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Iterates over a snapshot of the steps.
+     *
+     * @return an iterator that does not support removal
+     */
+    @Override
+    public Iterator<MemoryStep> iterator() {
+        return snapshot().iterator();
+    }
+
+    /**
+     * Streams a snapshot of the steps.
+     *
+     * @return a sequential stream of the steps in the order they were added
+     */
+    public Stream<MemoryStep> stream() {
+        return snapshot().stream();
+    }
+
+    /**
+     * Gets the steps whose step number lies in the given range. Step numbers restart on every run
+     * of an agent, so steps from several runs may match.
+     *
+     * @param fromStep the lowest step number, inclusive
+     * @param toStep the highest step number, exclusive
+     * @return the matching steps in the order they were added
+     */
+    public List<MemoryStep> range(int fromStep, int toStep) {
+        List<MemoryStep> matches = new ArrayList<>();
+        for (MemoryStep step : snapshot()) {
+            if (step.getStepNumber() >= fromStep && step.getStepNumber() < toStep) {
+                matches.add(step);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Renders the steps to a writer, one step at a time, without building the whole text first.
+     *
+     * @param out the writer to render to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(Writer out) throws IOException {
+        appendTo(out);
     }
 
     /**
@@ -43,9 +130,44 @@ public class AgentMemory {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (MemoryStep step : steps) {
-            sb.append(step.toString()).append("\n");
+        try {
+            appendTo(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
         return sb.toString();
     }
+
+    private void appendTo(Appendable out) throws IOException {
+        for (MemoryStep step : snapshot()) {
+            step.appendTo(out);
+            out.append('\n');
+        }
+    }
+
+    /**
+     * An unmodifiable view of the first {@code size} entries of a step array.
+     */
+    private static final class Snapshot extends AbstractList<MemoryStep> implements RandomAccess {
+        private final MemoryStep[] steps;
+        private final int size;
+
+        Snapshot(MemoryStep[] steps, int size) {
+            this.steps = steps;
+            this.size = size;
+        }
+
+        @Override
+        public MemoryStep get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return steps[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
 }
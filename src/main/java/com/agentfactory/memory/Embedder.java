@@ -0,0 +1,23 @@
+package com.agentfactory.memory;
+
+/**
+ * Turns text into a fixed-length vector whose cosine similarity reflects how related two
+ * texts are. Plug in a model-backed embedder for real relevance; {@link HashingEmbedder} is a
+ * deterministic local stand-in.
+ */
+public interface Embedder {
+    /**
+     * Embeds the given text.
+     *
+     * @param text the text to embed
+     * @return a vector of {@link #getDimension()} elements
+     */
+    float[] embed(String text);
+
+    /**
+     * Gets the length of the vectors this embedder produces.
+     *
+     * @return the vector dimension
+     */
+    int getDimension();
+}
@@ -0,0 +1,83 @@
+package com.agentfactory.memory;
+
+/**
+ * Embeds text by hashing its lowercase words into a fixed number of signed buckets.
+ * Texts that share words get similar vectors, with no model, network or training involved, and
+ * the same text always gets the same vector. Suitable for tests and as a lexical fallback.
+ */
+public class HashingEmbedder implements Embedder {
+    private final int dimension;
+
+    /**
+     * Creates a new hashing embedder.
+     *
+     * @param dimension the vector dimension; more buckets mean fewer collisions
+     * @throws IllegalArgumentException if the dimension is not positive
+     */
+    public HashingEmbedder(int dimension) {
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("Dimension must be positive: " + dimension);
+        }
+        this.dimension = dimension;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The vector is normalized to unit length, unless the text contains no words.
+     */
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimension];
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                int hash = mix(hashLowerCase(text, start, i));
+                vector[Math.floorMod(hash, dimension)] += (mix(hash) & 1) == 0 ? 1f : -1f;
+                start = -1;
+            }
+        }
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimension; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    private static int hashLowerCase(String text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + Character.toLowerCase(text.charAt(i));
+        }
+        return hash;
+    }
+
+    /**
+     * Spreads the bits of a hash, using the finalizer of MurmurHash3.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
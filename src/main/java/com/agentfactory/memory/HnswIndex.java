@@ -0,0 +1,357 @@
+package com.agentfactory.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An approximate nearest neighbor index using a hierarchical navigable small world graph (HNSW).
+ * Vectors are compared by cosine similarity and stored normalized in one flat float array, and
+ * neighbor lists are plain int arrays, so the index holds no per-vector objects. Searches visit
+ * a number of vectors that grows roughly logarithmically with the size of the index.
+ *
+ * <p>Vectors are identified by the order in which they were added, starting at zero. Searches run
+ * concurrently with each other; adding a vector briefly excludes them. Level assignment uses a
+ * seeded random generator, so adding the same vectors in the same order builds the same graph.
+ */
+public class HnswIndex {
+    private static final int DEFAULT_M = 16;
+    private static final int DEFAULT_EF_CONSTRUCTION = 100;
+    private static final int DEFAULT_EF_SEARCH = 50;
+    private static final Comparator<Candidate> NEAREST_FIRST = Comparator.comparingDouble(c -> c.distance);
+
+    private final int dimension;
+    private final int m;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private float[] vectors;
+    /** For each vector and level, {@code [count, neighbor...]} with room for the maximum degree. */
+    private int[][][] links;
+    private int size = 0;
+    private int entryPoint = -1;
+    private int topLevel = -1;
+
+    /**
+     * Creates a new index with 16 links per vector and a construction beam width of 100.
+     *
+     * @param dimension the length of the indexed vectors
+     */
+    public HnswIndex(int dimension) {
+        this(dimension, DEFAULT_M, DEFAULT_EF_CONSTRUCTION, 42L);
+    }
+
+    /**
+     * Creates a new index.
+     *
+     * @param dimension the length of the indexed vectors
+     * @param m the number of links per vector on upper levels; the bottom level allows twice as many
+     * @param efConstruction the beam width used to find the links of a new vector
+     * @param seed the seed for level assignment
+     * @throws IllegalArgumentException if a size parameter is not positive, or m is less than 2
+     */
+    public HnswIndex(int dimension, int m, int efConstruction, long seed) {
+        if (dimension <= 0 || m < 2 || efConstruction <= 0) {
+            throw new IllegalArgumentException("Invalid HNSW parameters: dimension=" + dimension + ", m=" + m
+                    + ", efConstruction=" + efConstruction);
+        }
+        this.dimension = dimension;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = new Random(seed);
+        this.vectors = new float[dimension * 16];
+        this.links = new int[16][][];
+    }
+
+    /**
+     * Adds a vector to the index.
+     *
+     * @param vector the vector; it is copied, not kept
+     * @return the identifier of the vector, which is the number of vectors added before it
+     * @throws IllegalArgumentException if the vector has the wrong length
+     */
+    public int add(float[] vector) {
+        float[] query = normalize(vector);
+        lock.writeLock().lock();
+        try {
+            int id = size;
+            ensureCapacity(id + 1);
+            System.arraycopy(query, 0, vectors, id * dimension, dimension);
+            int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+            links[id] = new int[level + 1][];
+            for (int l = 0; l <= level; l++) {
+                links[id][l] = new int[maxDegree(l) + 1];
+            }
+            size++;
+            if (entryPoint < 0) {
+                entryPoint = id;
+                topLevel = level;
+                return id;
+            }
+
+            int nearest = entryPoint;
+            for (int l = topLevel; l > level; l--) {
+                nearest = searchLayer(query, nearest, 1, l).get(0).id;
+            }
+            for (int l = Math.min(level, topLevel); l >= 0; l--) {
+                List<Candidate> candidates = searchLayer(query, nearest, efConstruction, l);
+                List<Candidate> selected = selectNeighbors(candidates, m);
+                int[] list = links[id][l];
+                for (Candidate neighbor : selected) {
+                    list[++list[0]] = neighbor.id;
+                    connect(neighbor.id, id, neighbor.distance, l);
+                }
+                nearest = candidates.get(0).id;
+            }
+            if (level > topLevel) {
+                topLevel = level;
+                entryPoint = id;
+            }
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the vectors most similar to the query, with a search beam width of 50.
+     *
+     * @param query the query vector
+     * @param k the maximum number of results
+     * @return the identifiers of up to k vectors, most similar first
+     * @throws IllegalArgumentException if the query has the wrong length
+     */
+    public int[] search(float[] query, int k) {
+        return search(query, k, Math.max(k, DEFAULT_EF_SEARCH));
+    }
+
+    /**
+     * Finds the vectors most similar to the query.
+     *
+     * @param query the query vector
+     * @param k the maximum number of results
+     * @param ef the search beam width; larger values trade speed for recall
+     * @return the identifiers of up to k vectors, most similar first
+     * @throws IllegalArgumentException if the query has the wrong length
+     */
+    public int[] search(float[] query, int k, int ef) {
+        float[] normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (size == 0 || k <= 0) {
+                return new int[0];
+            }
+            int nearest = entryPoint;
+            for (int l = topLevel; l > 0; l--) {
+                nearest = searchLayer(normalized, nearest, 1, l).get(0).id;
+            }
+            List<Candidate> candidates = searchLayer(normalized, nearest, Math.max(k, ef), 0);
+            int[] ids = new int[Math.min(k, candidates.size())];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = candidates.get(i).id;
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Computes the cosine similarity between the query and an indexed vector.
+     *
+     * @param query the query vector
+     * @param id the identifier of the indexed vector
+     * @return the similarity, between -1 and 1
+     * @throws IndexOutOfBoundsException if no vector has the identifier
+     */
+    public float similarity(float[] query, int id) {
+        float[] normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (id < 0 || id >= size) {
+                throw new IndexOutOfBoundsException("No vector with id " + id);
+            }
+            return 1 - distance(normalized, id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of vectors in the index.
+     *
+     * @return the number of vectors
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a best-first search on one level.
+     *
+     * @return up to ef candidates, nearest first; never empty
+     */
+    private List<Candidate> searchLayer(float[] query, int start, int ef, int level) {
+        BitSet visited = new BitSet(size);
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>(NEAREST_FIRST);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(NEAREST_FIRST.reversed());
+        Candidate first = new Candidate(start, distance(query, start));
+        visited.set(start);
+        frontier.add(first);
+        results.add(first);
+        while (!frontier.isEmpty()) {
+            Candidate current = frontier.poll();
+            if (results.size() >= ef && current.distance > results.peek().distance) {
+                break;
+            }
+            int[] neighbors = links[current.id][level];
+            for (int i = 1; i <= neighbors[0]; i++) {
+                int neighbor = neighbors[i];
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float distance = distance(query, neighbor);
+                if (results.size() < ef || distance < results.peek().distance) {
+                    Candidate candidate = new Candidate(neighbor, distance);
+                    frontier.add(candidate);
+                    results.add(candidate);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        List<Candidate> sorted = new ArrayList<>(results);
+        sorted.sort(NEAREST_FIRST);
+        return sorted;
+    }
+
+    /**
+     * Picks up to max neighbors from candidates sorted nearest first, preferring candidates that
+     * are closer to the base vector than to any neighbor already picked, so links spread out in
+     * different directions. Remaining slots are filled with the nearest skipped candidates.
+     */
+    private List<Candidate> selectNeighbors(List<Candidate> candidates, int max) {
+        List<Candidate> selected = new ArrayList<>(max);
+        List<Candidate> skipped = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (selected.size() >= max) {
+                break;
+            }
+            boolean diverse = true;
+            for (Candidate other : selected) {
+                if (distance(candidate.id, other.id) < candidate.distance) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(candidate);
+            } else {
+                skipped.add(candidate);
+            }
+        }
+        for (int i = 0; i < skipped.size() && selected.size() < max; i++) {
+            selected.add(skipped.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * Links a node back to a new neighbor, re-selecting its neighbors if its list is full.
+     */
+    private void connect(int node, int neighbor, float distance, int level) {
+        int[] list = links[node][level];
+        int count = list[0];
+        if (count < list.length - 1) {
+            list[count + 1] = neighbor;
+            list[0] = count + 1;
+            return;
+        }
+        List<Candidate> candidates = new ArrayList<>(count + 1);
+        candidates.add(new Candidate(neighbor, distance));
+        for (int i = 1; i <= count; i++) {
+            candidates.add(new Candidate(list[i], distance(node, list[i])));
+        }
+        candidates.sort(NEAREST_FIRST);
+        List<Candidate> selected = selectNeighbors(candidates, count);
+        for (int i = 0; i < selected.size(); i++) {
+            list[i + 1] = selected.get(i).id;
+        }
+        list[0] = selected.size();
+    }
+
+    private int maxDegree(int level) {
+        return level == 0 ? 2 * m : m;
+    }
+
+    private float distance(float[] query, int id) {
+        int offset = id * dimension;
+        float dot = 0;
+        for (int i = 0; i < dimension; i++) {
+            dot += query[i] * vectors[offset + i];
+        }
+        return 1 - dot;
+    }
+
+    private float distance(int a, int b) {
+        int offsetA = a * dimension;
+        int offsetB = b * dimension;
+        float dot = 0;
+        for (int i = 0; i < dimension; i++) {
+            dot += vectors[offsetA + i] * vectors[offsetB + i];
+        }
+        return 1 - dot;
+    }
+
+    private void ensureCapacity(int count) {
+        if (count > links.length) {
+            int capacity = Math.max(count, links.length * 2);
+            links = Arrays.copyOf(links, capacity);
+            vectors = Arrays.copyOf(vectors, capacity * dimension);
+        }
+    }
+
+    private float[] normalize(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException(
+                    "Expected a vector of length " + dimension + " but got " + vector.length);
+        }
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float[] normalized = Arrays.copyOf(vector, dimension);
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimension; i++) {
+                normalized[i] *= scale;
+            }
+        }
+        return normalized;
+    }
+
+    private static final class Candidate {
+        final int id;
+        final float distance;
+
+        Candidate(int id, float distance) {
+            this.id = id;
+            this.distance = distance;
+        }
+    }
+}
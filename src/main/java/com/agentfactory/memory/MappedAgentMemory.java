@@ -0,0 +1,266 @@
+package com.agentfactory.memory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.zip.CRC32;
+
+/**
+ * An agent memory that keeps its steps in an append-only log file, memory-mapped with NIO.
+ * Steps live in the page cache rather than on the heap, survive a crash of the process, and are
+ * replayed when the same file is opened again. Only an index of record offsets is kept in memory.
+ *
+ * <p>Each record is {@code [int length][int crc32][int stepNumber][int actionLength][action][observation]},
+ * with strings in UTF-8. Replay stops at the first record that is empty or fails its checksum, so a
+ * record torn by a crash is dropped and later appends overwrite it. The mapping grows by doubling.
+ * Call {@link #force()} to make written steps durable against an operating system crash as well.
+ *
+ * <p>Only {@link ActionStep}s can be stored. Step numbers are not required to be unique: an agent
+ * starts counting again on every run, and {@link #getStep(int)} returns the latest step with a number.
+ * Snapshots, iteration and rendering decode steps lazily from the mapping.
+ */
+public class MappedAgentMemory extends AgentMemory implements AutoCloseable {
+    private static final int HEADER_BYTES = 8;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position = 0;
+    private int[] offsets = new int[64];
+    private int size = 0;
+    private final Map<Integer, Integer> latestByStepNumber = new HashMap<>();
+
+    /**
+     * Opens the log at the given path, creating it if needed, and replays the steps it contains.
+     *
+     * @param file the log file
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MappedAgentMemory(Path file) throws IOException {
+        this.channel = FileChannel.open(
+                file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long length = channel.size();
+        if (length > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Memory log too large to map: " + length + " bytes");
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL_CAPACITY, length));
+        replay();
+    }
+
+    /**
+     * Appends a step to the log.
+     *
+     * @param step the step to add; must be an {@link ActionStep}
+     * @throws IllegalArgumentException if the step is not an action step
+     * @throws UncheckedIOException if the log cannot grow
+     */
+    @Override
+    public synchronized void addStep(MemoryStep step) {
+        if (!(step instanceof ActionStep)) {
+            throw new IllegalArgumentException("Only action steps can be stored: " + step.getClass().getName());
+        }
+        ActionStep actionStep = (ActionStep) step;
+        byte[] action = encode(actionStep.getAction());
+        byte[] observation = encode(actionStep.getObservation());
+        int payloadLength = 8 + action.length + observation.length;
+        ensureCapacity(HEADER_BYTES + payloadLength);
+
+        ByteBuffer record = buffer.duplicate();
+        record.position(position + HEADER_BYTES);
+        record.putInt(step.getStepNumber()).putInt(action.length).put(action).put(observation);
+        CRC32 crc = new CRC32();
+        crc.update(payload(position, payloadLength));
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putInt(position, payloadLength);
+
+        index(position, step.getStepNumber());
+        position += HEADER_BYTES + payloadLength;
+    }
+
+    /**
+     * Returns a read-only view of the steps added so far. Steps are decoded from the mapping when
+     * they are read, so taking a snapshot copies nothing.
+     *
+     * @return an unmodifiable list of the steps in the order they were added
+     */
+    @Override
+    public synchronized List<MemoryStep> snapshot() {
+        return new Snapshot(buffer, offsets, size);
+    }
+
+    /**
+     * Looks up a step by its number without decoding the rest of the log.
+     *
+     * @param stepNumber the step number
+     * @return the latest step with that number, or null if there is none
+     */
+    public synchronized ActionStep getStep(int stepNumber) {
+        Integer index = latestByStepNumber.get(stepNumber);
+        return index == null ? null : decode(offsets[index]);
+    }
+
+    /**
+     * Returns the encoded step without copying it out of the mapping.
+     * The buffer holds {@code [int stepNumber][int actionLength][action][observation]} in UTF-8.
+     *
+     * @param stepNumber the step number
+     * @return a read-only view of the latest step with that number, or null if there is none
+     */
+    public synchronized ByteBuffer getRawStep(int stepNumber) {
+        Integer index = latestByStepNumber.get(stepNumber);
+        if (index == null) {
+            return null;
+        }
+        int offset = offsets[index];
+        return payload(offset, buffer.getInt(offset)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Gets the number of steps in the log.
+     *
+     * @return the number of steps
+     */
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Writes the mapped steps through to the storage device.
+     */
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    /**
+     * Forces written steps to storage and closes the log file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * Rebuilds the index from the log, stopping at the first empty or corrupt record.
+     */
+    private void replay() {
+        int limit = buffer.capacity();
+        while (position + HEADER_BYTES <= limit) {
+            int payloadLength = buffer.getInt(position);
+            if (payloadLength < 8 || payloadLength > limit - position - HEADER_BYTES) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload(position, payloadLength));
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            index(position, buffer.getInt(position + HEADER_BYTES));
+            position += HEADER_BYTES + payloadLength;
+        }
+    }
+
+    private void index(int offset, int stepNumber) {
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+        }
+        offsets[size] = offset;
+        latestByStepNumber.put(stepNumber, size);
+        size++;
+    }
+
+    private ActionStep decode(int offset) {
+        return decode(buffer, offset);
+    }
+
+    private static ActionStep decode(ByteBuffer buffer, int offset) {
+        ByteBuffer payload = payload(buffer, offset, buffer.getInt(offset));
+        int stepNumber = payload.getInt();
+        int actionLength = payload.getInt();
+        String action = decodeString(payload, actionLength);
+        String observation = decodeString(payload, payload.remaining());
+        return new ActionStep(stepNumber, action, observation);
+    }
+
+    private ByteBuffer payload(int offset, int payloadLength) {
+        return payload(buffer, offset, payloadLength);
+    }
+
+    private static ByteBuffer payload(ByteBuffer buffer, int offset, int payloadLength) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset + HEADER_BYTES);
+        view.limit(offset + HEADER_BYTES + payloadLength);
+        return view.slice();
+    }
+
+    private void ensureCapacity(int recordLength) {
+        long needed = (long) position + recordLength + HEADER_BYTES;
+        if (needed <= buffer.capacity()) {
+            return;
+        }
+        if (needed > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Memory log is full");
+        }
+        long capacity = Math.min(Integer.MAX_VALUE, Math.max(needed, (long) buffer.capacity() * 2));
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to grow memory log", e);
+        }
+    }
+
+    private static byte[] encode(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String decodeString(ByteBuffer payload, int length) {
+        ByteBuffer bytes = payload.slice();
+        bytes.limit(length);
+        payload.position(payload.position() + length);
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    /**
+     * A view of the first {@code size} records of the log. Records are never moved or rewritten and
+     * an earlier mapping stays valid after the log grows, so the view needs no lock.
+     */
+    private static final class Snapshot extends AbstractList<MemoryStep> implements RandomAccess {
+        private final ByteBuffer buffer;
+        private final int[] offsets;
+        private final int size;
+
+        Snapshot(ByteBuffer buffer, int[] offsets, int size) {
+            this.buffer = buffer;
+            this.offsets = offsets;
+            this.size = size;
+        }
+
+        @Override
+        public MemoryStep get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return decode(buffer, offsets[index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.agentfactory.memory;
 
+import java.io.IOException;
+
 /**
  * Abstract base class for steps stored in an agent's memory.
  * Each memory step has a step number to track the sequence of actions and thoughts.
@@ -31,4 +33,15 @@ public abstract class MemoryStep {
      * @return a string representation of the step
      */
     public abstract String toString();
+
+    /**
+     * Appends the string representation of this step to the given output.
+     * Subclasses may override this to append their parts directly rather than building a string.
+     *
+     * @param out the output to append to
+     * @throws IOException if appending fails
+     */
+    public void appendTo(Appendable out) throws IOException {
+        out.append(toString());
+    }
 }
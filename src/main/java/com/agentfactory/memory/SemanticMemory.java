@@ -0,0 +1,88 @@
+package com.agentfactory.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An agent memory that can also be searched by meaning. The action and observation of every
+ * {@link ActionStep} are embedded and added to an {@link HnswIndex}, so the steps most relevant
+ * to a query are found without scanning or replaying the whole history.
+ * Other step types are stored but not indexed.
+ */
+public class SemanticMemory extends AgentMemory {
+    private final Embedder embedder;
+    private final HnswIndex index;
+    private int[] positions = new int[16];
+
+    /**
+     * Creates a new semantic memory with a default index.
+     *
+     * @param embedder embeds the steps and queries
+     */
+    public SemanticMemory(Embedder embedder) {
+        this(embedder, new HnswIndex(embedder.getDimension()));
+    }
+
+    /**
+     * Creates a new semantic memory.
+     *
+     * @param embedder embeds the steps and queries
+     * @param index an empty index with the embedder's dimension
+     */
+    public SemanticMemory(Embedder embedder, HnswIndex index) {
+        this.embedder = embedder;
+        this.index = index;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Action steps are embedded before the memory is locked, so slow embedders do not block readers.
+     */
+    @Override
+    public void addStep(MemoryStep step) {
+        float[] vector = step instanceof ActionStep ? embedder.embed(text((ActionStep) step)) : null;
+        synchronized (this) {
+            super.addStep(step);
+            if (vector != null) {
+                int id = index.add(vector);
+                if (id == positions.length) {
+                    positions = Arrays.copyOf(positions, id * 2);
+                }
+                positions[id] = size() - 1;
+            }
+        }
+    }
+
+    /**
+     * Finds the action steps most relevant to the query.
+     *
+     * @param query the text to compare the steps to
+     * @param k the maximum number of steps to return
+     * @return up to k action steps, most relevant first
+     */
+    public List<ActionStep> search(String query, int k) {
+        int[] ids = index.search(embedder.embed(query), k);
+        List<MemoryStep> steps = snapshot();
+        int[] stepPositions;
+        synchronized (this) {
+            stepPositions = positions;
+        }
+        List<ActionStep> results = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            results.add((ActionStep) steps.get(stepPositions[id]));
+        }
+        return results;
+    }
+
+    /**
+     * Gets the text embedded for a step.
+     *
+     * @param step the step
+     * @return the action followed by the observation
+     */
+    static String text(ActionStep step) {
+        return step.getAction() + "\n" + step.getObservation();
+    }
+}
@@ -0,0 +1,87 @@
+package com.agentfactory.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default in-process recorder that keeps a {@link Histogram} per timer and value metric and a
+ * counter per counter metric. Recording only touches atomics after the first use of a name.
+ */
+public class HistogramMetricsRecorder implements MetricsRecorder {
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordTime(String name, long nanos) {
+        histogram(name).record(nanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordValue(String name, long value) {
+        histogram(name).record(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void increment(String name, long delta) {
+        LongAdder counter = counters.get(name);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(name, k -> new LongAdder());
+        }
+        counter.add(delta);
+    }
+
+    /**
+     * Gets the histogram for a timer or value metric.
+     *
+     * @param name the metric name
+     * @return the histogram, or null if nothing was recorded under that name
+     */
+    public Histogram getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    /**
+     * Gets the current value of a counter.
+     *
+     * @param name the metric name
+     * @return the counter value, or 0 if it was never incremented
+     */
+    public long getCounter(String name) {
+        LongAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Renders every metric on its own line, sorted by name.
+     *
+     * @return a human-readable report
+     */
+    public String report() {
+        Map<String, String> lines = new TreeMap<>();
+        histograms.forEach((name, histogram) -> lines.put(name, histogram.toString()));
+        counters.forEach((name, counter) -> lines.put(name, "count=" + counter.sum()));
+        StringBuilder report = new StringBuilder();
+        lines.forEach((name, line) -> report.append(name).append(' ').append(line).append('\n'));
+        return report.toString();
+    }
+
+    private Histogram histogram(String name) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, k -> new Histogram());
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,141 @@
+package com.agentfactory.metrics;
+
+import com.google.gson.Gson;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes every trace event as one JSON object per line, and forwards all metrics to a delegate.
+ * Wrap the recorder you already use to add a trace file without changing what it records.
+ * Lines are buffered; call {@link #flush()} or {@link #close()} to make sure they reach the file.
+ * Tracing never fails the traced operation: lines that cannot be written are dropped and counted
+ * in {@link #getWriteErrors()}, and events traced after {@link #close()} are not written.
+ */
+public class JsonLinesTraceExporter implements MetricsRecorder, AutoCloseable {
+    private final MetricsRecorder delegate;
+    private final Writer writer;
+    private final Gson gson = new Gson();
+    private long writeErrors = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a new exporter that appends to the given file.
+     *
+     * @param file the trace file; created if it does not exist
+     * @param delegate the recorder that receives all metrics
+     * @throws IOException if the file cannot be opened
+     */
+    public JsonLinesTraceExporter(Path file, MetricsRecorder delegate) throws IOException {
+        this(
+                Files.newBufferedWriter(
+                        file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                delegate);
+    }
+
+    /**
+     * Creates a new exporter that writes to the given writer.
+     *
+     * @param writer the destination for trace lines
+     * @param delegate the recorder that receives all metrics
+     */
+    public JsonLinesTraceExporter(Writer writer, MetricsRecorder delegate) {
+        this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+        this.delegate = delegate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordTime(String name, long nanos) {
+        delegate.recordTime(name, nanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordValue(String name, long value) {
+        delegate.recordValue(name, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void increment(String name, long delta) {
+        delegate.increment(name, delta);
+    }
+
+    /**
+     * Writes the event as a JSON line with its type and timestamp first, then forwards it.
+     * Once the exporter is closed the event is only forwarded.
+     *
+     * @param event the trace event
+     */
+    @Override
+    public void trace(TraceEvent event) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", event.getType());
+        line.put("timestamp", event.getTimestampMillis());
+        line.putAll(event.getAttributes());
+        String json = gson.toJson(line);
+        synchronized (writer) {
+            if (!closed) {
+                try {
+                    writer.write(json);
+                    writer.write('\n');
+                } catch (IOException e) {
+                    writeErrors++;
+                }
+            }
+        }
+        delegate.trace(event);
+    }
+
+    /**
+     * Gets the number of trace lines that could not be written and were dropped.
+     *
+     * @return the write error count
+     */
+    public long getWriteErrors() {
+        synchronized (writer) {
+            return writeErrors;
+        }
+    }
+
+    /**
+     * Flushes buffered trace lines to the destination. Does nothing once the exporter is closed.
+     *
+     * @throws IOException if flushing fails
+     */
+    public void flush() throws IOException {
+        synchronized (writer) {
+            if (!closed) {
+                writer.flush();
+            }
+        }
+    }
+
+    /**
+     * Flushes and closes the destination. Closing an exporter more than once has no effect.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (writer) {
+            if (!closed) {
+                closed = true;
+                writer.close();
+            }
+        }
+    }
+}
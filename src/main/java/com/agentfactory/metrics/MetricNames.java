@@ -0,0 +1,73 @@
+package com.agentfactory.metrics;
+
+/**
+ * Names of the metrics recorded by the library.
+ * Times are in nanoseconds, sizes in bytes.
+ */
+public final class MetricNames {
+    /** Time for one agent step, from requesting the action to having the observation. */
+    public static final String AGENT_STEP_TIME = "agent.step.time";
+    /** Time the agent waited for the model's action in one step. */
+    public static final String AGENT_MODEL_TIME = "agent.model.time";
+    /** Time the agent spent executing the tool calls of one step. */
+    public static final String AGENT_TOOL_TIME = "agent.tool.time";
+    /** Number of completed agent steps. */
+    public static final String AGENT_STEPS = "agent.steps";
+    /** Number of tool calls started speculatively while the model was still writing its action. */
+    public static final String AGENT_SPECULATIVE_LAUNCHED = "agent.speculative.launched";
+    /** Number of speculative tool calls whose result was used. */
+    public static final String AGENT_SPECULATIVE_HITS = "agent.speculative.hits";
+    /** Number of speculative tool calls discarded because the final action differed. */
+    public static final String AGENT_SPECULATIVE_WASTED = "agent.speculative.wasted";
+    /** Number of steps on which the model was asked for its final answer because the run's budget ran low. */
+    public static final String AGENT_BUDGET_WRAP_UPS = "agent.budget.wrapups";
+    /** Number of runs that reached a budget limit without a final answer. */
+    public static final String AGENT_BUDGET_EXHAUSTED = "agent.budget.exhausted";
+
+    /** Time an orchestrator spent splitting a task into subtasks. */
+    public static final String ORCHESTRATOR_PLAN_TIME = "orchestrator.plan.time";
+    /** Time an orchestrator waited for all of a task's subtasks to finish. */
+    public static final String ORCHESTRATOR_WORKERS_TIME = "orchestrator.workers.time";
+    /** Time an orchestrator spent merging subtask answers into the final answer. */
+    public static final String ORCHESTRATOR_MERGE_TIME = "orchestrator.merge.time";
+    /** Number of subtasks whose worker failed. */
+    public static final String ORCHESTRATOR_SUBTASK_FAILURES = "orchestrator.subtask.failures";
+
+    /** Time for one chat completion HTTP call. */
+    public static final String MODEL_CALL_TIME = "model.call.time";
+    /** Size of the chat completion request body. */
+    public static final String MODEL_REQUEST_BYTES = "model.request.bytes";
+    /** Size of the chat completion response body. */
+    public static final String MODEL_RESPONSE_BYTES = "model.response.bytes";
+    /** Prompt tokens reported in the response's usage field. */
+    public static final String MODEL_PROMPT_TOKENS = "model.tokens.prompt";
+    /** Completion tokens reported in the response's usage field. */
+    public static final String MODEL_COMPLETION_TOKENS = "model.tokens.completion";
+    /** Number of failed chat completion calls. */
+    public static final String MODEL_ERRORS = "model.errors";
+
+    /** Prefix for per-tool execution time; the tool name is appended. */
+    public static final String TOOL_TIME_PREFIX = "tool.time.";
+    /** Number of failed tool executions. */
+    public static final String TOOL_ERRORS = "tool.errors";
+
+    /** Time for one search HTTP call. */
+    public static final String SEARCH_CALL_TIME = "search.call.time";
+    /** Size of the search request body. */
+    public static final String SEARCH_REQUEST_BYTES = "search.request.bytes";
+    /** Size of the search response body. */
+    public static final String SEARCH_RESPONSE_BYTES = "search.response.bytes";
+
+    /** Number of HTTP requests retried after a failure. */
+    public static final String HTTP_RETRIES = "http.retries";
+    /** Number of responses throttled by the server with a 429. */
+    public static final String HTTP_THROTTLED = "http.throttled";
+    /** Time a request waited for the rate limiter before being sent. */
+    public static final String HTTP_RATE_LIMIT_WAIT = "http.ratelimit.wait";
+    /** Number of times a host's circuit breaker opened. */
+    public static final String HTTP_CIRCUIT_OPENED = "http.circuit.opened";
+    /** Number of requests refused because a host's circuit breaker was open. */
+    public static final String HTTP_CIRCUIT_REJECTED = "http.circuit.rejected";
+
+    private MetricNames() {}
+}
@@ -0,0 +1,53 @@
+package com.agentfactory.metrics;
+
+/**
+ * Receives measurements from agents, models and tools.
+ * Implementations must be safe for concurrent use and cheap to call, since they sit on the
+ * hot path of every step. Metric names are defined in {@link MetricNames}.
+ */
+public interface MetricsRecorder {
+    /**
+     * A recorder that discards everything. Used when no recorder is configured.
+     */
+    MetricsRecorder NOOP = new MetricsRecorder() {
+        @Override
+        public void recordTime(String name, long nanos) {}
+
+        @Override
+        public void recordValue(String name, long value) {}
+
+        @Override
+        public void increment(String name, long delta) {}
+    };
+
+    /**
+     * Records a duration.
+     *
+     * @param name the metric name
+     * @param nanos the duration in nanoseconds
+     */
+    void recordTime(String name, long nanos);
+
+    /**
+     * Records a sampled value such as a payload size or a token count.
+     *
+     * @param name the metric name
+     * @param value the value
+     */
+    void recordValue(String name, long value);
+
+    /**
+     * Adds to a counter.
+     *
+     * @param name the metric name
+     * @param delta the amount to add
+     */
+    void increment(String name, long delta);
+
+    /**
+     * Receives a structured trace event. Ignored unless the recorder exports traces.
+     *
+     * @param event the trace event
+     */
+    default void trace(TraceEvent event) {}
+}
@@ -0,0 +1,64 @@
+package com.agentfactory.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A structured record of one operation, such as an agent step or a model call.
+ * Attributes keep their insertion order so exported traces are easy to read.
+ */
+public class TraceEvent {
+    private final String type;
+    private final long timestampMillis;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+    /**
+     * Creates a new event of the given type, timestamped now.
+     *
+     * @param type the event type, for example "step" or "model_call"
+     */
+    public TraceEvent(String type) {
+        this.type = type;
+        this.timestampMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Adds an attribute.
+     *
+     * @param name the attribute name
+     * @param value the attribute value; strings, numbers, booleans and lists of them export cleanly
+     * @return this event
+     */
+    public TraceEvent with(String name, Object value) {
+        attributes.put(name, value);
+        return this;
+    }
+
+    /**
+     * Gets the event type.
+     *
+     * @return the event type
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Gets when the event was created.
+     *
+     * @return the timestamp in milliseconds since the epoch
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * Gets the attributes in insertion order.
+     *
+     * @return an unmodifiable view of the attributes
+     */
+    public Map<String, Object> getAttributes() {
+        return Collections.unmodifiableMap(attributes);
+    }
+}
@@ -1,6 +1,7 @@
 package com.agentfactory.models;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for AI models that can generate responses from messages.
@@ -14,4 +15,18 @@ public interface AIModel {
      * @return the generated response as a string
      */
     String generateResponse(List<Message> messages);
+
+    /**
+     * Generates a response without blocking the calling thread.
+     * The default implementation runs {@link #generateResponse(List)} on a shared pool, so every
+     * call still occupies a thread while it waits; cancelling the future does not stop that call.
+     * Implementations backed by a non-blocking client should override this to hold no thread
+     * while waiting and to abort the request on cancellation.
+     *
+     * @param messages the list of messages in the conversation
+     * @return a future completed with the generated response, or exceptionally if generation fails
+     */
+    default CompletableFuture<String> generateResponseAsync(List<Message> messages) {
+        return CompletableFuture.supplyAsync(() -> generateResponse(messages), BlockingModelExecutor.INSTANCE);
+    }
 }
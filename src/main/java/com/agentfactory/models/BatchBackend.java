@@ -0,0 +1,18 @@
+package com.agentfactory.models;
+
+import java.util.List;
+
+/**
+ * Produces completions for many conversations in one call.
+ * Used by {@link BatchingAIModel} to send the requests it has gathered.
+ */
+public interface BatchBackend {
+    /**
+     * Generates one response per conversation.
+     *
+     * @param conversations the conversations to complete
+     * @return the responses, in the same order as the conversations
+     * @throws RuntimeException if the batch fails
+     */
+    List<String> generateBatch(List<List<Message>> conversations);
+}
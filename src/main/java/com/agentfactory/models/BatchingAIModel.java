@@ -0,0 +1,214 @@
+package com.agentfactory.models;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An AIModel that gathers requests from concurrent callers and sends them as one batch.
+ * A batch is sent as soon as it reaches the size limit, or when the oldest request in it has
+ * waited for the time window, whichever comes first. Each caller receives its own response.
+ * Batches are sent on a shared pool, so several may be in flight at once.
+ *
+ * <p>Batching trades latency for throughput: every request may wait up to the time window,
+ * and with a backend such as {@link OpenAIBatchBackend} a batch may take hours. Use it for
+ * bulk and offline workloads, not interactive ones.
+ */
+public class BatchingAIModel implements AIModel, AutoCloseable {
+    private final BatchBackend backend;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final Executor executor;
+    private final ScheduledThreadPoolExecutor timer;
+    private List<PendingRequest> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private long generation = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a new batching model.
+     *
+     * @param backend the backend that completes each batch
+     * @param maxBatchSize the number of requests that triggers an immediate send
+     * @param maxWait how long the first request of a batch waits for others to join
+     * @throws IllegalArgumentException if the size limit is not positive or the wait is negative
+     */
+    public BatchingAIModel(BatchBackend backend, int maxBatchSize, Duration maxWait) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max batch size must be positive: " + maxBatchSize);
+        }
+        if (maxWait.isNegative()) {
+            throw new IllegalArgumentException("Max wait must not be negative: " + maxWait);
+        }
+        this.backend = backend;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.executor = BlockingModelExecutor.INSTANCE;
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "model-batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Blocks until the batch containing this request has been completed.
+     *
+     * @throws RuntimeException if the batch fails
+     */
+    @Override
+    public String generateResponse(List<Message> messages) {
+        try {
+            return generateResponseAsync(messages).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The request joins the current batch; the future completes when that batch does.
+     *
+     * @throws IllegalStateException if the model has been closed
+     */
+    @Override
+    public CompletableFuture<String> generateResponseAsync(List<Message> messages) {
+        PendingRequest request = new PendingRequest(new ArrayList<>(messages));
+        List<PendingRequest> full = null;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Batching model is closed");
+            }
+            pending.add(request);
+            if (pending.size() >= maxBatchSize) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                long batch = generation;
+                scheduledFlush = timer.schedule(() -> flushWindow(batch), maxWaitNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return request.future;
+    }
+
+    /**
+     * Sends the requests gathered so far without waiting for the time window to end.
+     */
+    public void flush() {
+        List<PendingRequest> batch;
+        synchronized (this) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * Sends a batch whose time window has ended. A batch already taken by the time the timer gets
+     * the lock was sent when it filled up; the requests gathered since then belong to the next
+     * batch and wait for its own window.
+     *
+     * @param batch the generation of the batch whose window ended
+     */
+    private void flushWindow(long batch) {
+        List<PendingRequest> requests;
+        synchronized (this) {
+            if (generation != batch) {
+                return;
+            }
+            requests = takePending();
+        }
+        if (!requests.isEmpty()) {
+            dispatch(requests);
+        }
+    }
+
+    /**
+     * Sends any gathered requests and stops accepting new ones.
+     * Batches already sent are allowed to complete.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+        timer.shutdown();
+    }
+
+    /**
+     * Removes and returns the current batch; the caller must hold this object's lock.
+     *
+     * @return the pending requests
+     */
+    private List<PendingRequest> takePending() {
+        List<PendingRequest> batch = pending;
+        pending = new ArrayList<>();
+        generation++;
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    /**
+     * Sends a batch on the shared pool and completes its callers' futures, exceptionally if the
+     * backend fails in any way, so no caller is left waiting.
+     *
+     * @param batch the requests to send
+     */
+    private void dispatch(List<PendingRequest> batch) {
+        executor.execute(() -> {
+            List<List<Message>> conversations = new ArrayList<>(batch.size());
+            for (PendingRequest request : batch) {
+                conversations.add(request.messages);
+            }
+            try {
+                List<String> responses = backend.generateBatch(conversations);
+                if (responses.size() != batch.size()) {
+                    throw new IllegalStateException(
+                            "Batch returned " + responses.size() + " responses for " + batch.size() + " requests");
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).future.complete(responses.get(i));
+                }
+            } catch (Throwable e) {
+                for (PendingRequest request : batch) {
+                    request.future.completeExceptionally(e);
+                }
+                if (e instanceof Error) {
+                    throw (Error) e;
+                }
+            }
+        });
+    }
+
+    /**
+     * A request waiting for its batch to be sent.
+     */
+    private static class PendingRequest {
+        private final List<Message> messages;
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+
+        PendingRequest(List<Message> messages) {
+            this.messages = messages;
+        }
+    }
+}
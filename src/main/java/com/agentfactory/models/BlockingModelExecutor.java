@@ -0,0 +1,21 @@
+package com.agentfactory.models;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the shared pool that runs blocking models behind the default asynchronous API.
+ * Threads are daemons, so the pool never keeps the JVM alive.
+ */
+final class BlockingModelExecutor {
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    static final ExecutorService INSTANCE = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "model-blocking-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private BlockingModelExecutor() {}
+}
@@ -0,0 +1,91 @@
+package com.agentfactory.models;
+
+import com.agentfactory.cache.CacheStats;
+import com.agentfactory.cache.ResponseCache;
+import com.agentfactory.cache.SingleFlightCache;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * An AIModel decorator that serves repeated conversations from a cache.
+ * The cache key is a hash of the model name and every message in the conversation, so only
+ * identical inputs share a completion. This makes deterministic replays, such as regression runs
+ * and retries, almost free. Concurrent identical requests share a single model call.
+ *
+ * <p>Each message's hash is computed once and kept on the message, so the key for a growing
+ * conversation costs one hash of the new messages plus a short pass over fixed-size digests.
+ * Responses are always fetched with the blocking call, so a wrapped streaming model is not streamed.
+ */
+public class CachingAIModel implements AIModel {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final AIModel delegate;
+    private final byte[] modelName;
+    private final SingleFlightCache cache;
+
+    /**
+     * Creates a new caching decorator.
+     *
+     * @param delegate the model that produces completions on a miss
+     * @param modelName the model name, included in the key so different models never share entries
+     * @param cache the completion store, for example an in-memory tier in front of a disk tier
+     */
+    public CachingAIModel(AIModel delegate, String modelName, ResponseCache cache) {
+        this.delegate = delegate;
+        this.modelName = modelName.getBytes(StandardCharsets.UTF_8);
+        this.cache = new SingleFlightCache(cache);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws RuntimeException if the delegate fails on a cache miss
+     */
+    @Override
+    public String generateResponse(List<Message> messages) {
+        try {
+            return cache.getOrLoad(cacheKey(messages), () -> delegate.generateResponse(messages));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the hit and miss counters of the completion store.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats getStats() {
+        return cache.getCache().getStats();
+    }
+
+    /**
+     * Computes the cache key for a conversation.
+     *
+     * @param messages the conversation
+     * @return the hex-encoded SHA-256 over the model name and the per-message digests
+     */
+    String cacheKey(List<Message> messages) {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        sha256.update(modelName);
+        for (Message message : messages) {
+            sha256.update(message.digest());
+        }
+        byte[] digest = sha256.digest();
+        char[] key = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            key[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+            key[i * 2 + 1] = HEX[digest[i] & 0xf];
+        }
+        return new String(key);
+    }
+}
@@ -0,0 +1,64 @@
+package com.agentfactory.models;
+
+/**
+ * A tool call made by the model through native function calling, in the OpenAI
+ * {@code tool_calls} format: an identifier, the function name and its arguments as a JSON string.
+ * The result of the call is sent back in a "tool" {@link Message} with the same identifier.
+ */
+public final class FunctionCall {
+    private final String id;
+    private final String type = "function";
+    private final Function function;
+
+    /**
+     * Creates a new function call.
+     *
+     * @param id the call identifier assigned by the model
+     * @param name the name of the function to call
+     * @param arguments the arguments as a JSON object string
+     */
+    public FunctionCall(String id, String name, String arguments) {
+        this.id = id;
+        this.function = new Function(name, arguments);
+    }
+
+    /**
+     * Gets the call identifier assigned by the model.
+     *
+     * @return the identifier
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the name of the function to call.
+     *
+     * @return the function name, or null if the model sent none
+     */
+    public String getName() {
+        return function == null ? null : function.name;
+    }
+
+    /**
+     * Gets the arguments exactly as the model wrote them.
+     *
+     * @return the arguments as a JSON object string, or null if the model sent none
+     */
+    public String getArguments() {
+        return function == null ? null : function.arguments;
+    }
+
+    /**
+     * The function part of a call, as nested in the OpenAI format.
+     */
+    private static final class Function {
+        private final String name;
+        private final String arguments;
+
+        Function(String name, String arguments) {
+            this.name = name;
+            this.arguments = arguments;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.agentfactory.models;
+
+import com.google.gson.JsonArray;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An AI model that supports native function calling: tools are declared in the request and the
+ * model answers with structured tool calls instead of JSON written into its text.
+ * The model spends no output tokens on prose around the call, and calls never fail to parse.
+ */
+public interface FunctionCallingAIModel extends AIModel {
+    /** Lets the model choose whether to call a tool. */
+    String TOOL_CHOICE_AUTO = "auto";
+    /** Requires the model to call at least one tool. */
+    String TOOL_CHOICE_REQUIRED = "required";
+
+    /**
+     * Generates a response that may call the given tools.
+     *
+     * @param messages the list of messages in the conversation, including earlier tool calls and results
+     * @param tools the tool definitions in the OpenAI {@code tools} format
+     * @param toolChoice {@link #TOOL_CHOICE_AUTO}, {@link #TOOL_CHOICE_REQUIRED}, or the name of a
+     *     tool the model must call
+     * @return the assistant message, whose tool calls are set if the model made any
+     */
+    Message generateToolCalls(List<Message> messages, JsonArray tools, String toolChoice);
+
+    /**
+     * Generates a response that may call the given tools without blocking the calling thread.
+     * The default implementation runs {@link #generateToolCalls(List, JsonArray, String)} on a
+     * shared pool, so cancelling the future does not stop that call; implementations backed by a
+     * non-blocking client should override this to abort the request on cancellation.
+     *
+     * @param messages the list of messages in the conversation, including earlier tool calls and results
+     * @param tools the tool definitions in the OpenAI {@code tools} format
+     * @param toolChoice {@link #TOOL_CHOICE_AUTO}, {@link #TOOL_CHOICE_REQUIRED}, or the name of a
+     *     tool the model must call
+     * @return a future completed with the assistant message, or exceptionally if generation fails
+     */
+    default CompletableFuture<Message> generateToolCallsAsync(
+            List<Message> messages, JsonArray tools, String toolChoice) {
+        return CompletableFuture.supplyAsync(
+                () -> generateToolCalls(messages, tools, toolChoice), BlockingModelExecutor.INSTANCE);
+    }
+}
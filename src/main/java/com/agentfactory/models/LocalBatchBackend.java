@@ -0,0 +1,49 @@
+package com.agentfactory.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A stand-in batch backend that sends each conversation of a batch to an ordinary model,
+ * all at once. Useful offline, in tests, and against servers without a batch endpoint.
+ */
+public class LocalBatchBackend implements BatchBackend {
+    private final AIModel model;
+
+    /**
+     * Creates a new local backend.
+     *
+     * @param model the model that completes each conversation
+     */
+    public LocalBatchBackend(AIModel model) {
+        this.model = model;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Conversations are completed concurrently with {@link AIModel#generateResponseAsync(List)}.
+     * If any of them fails, the whole batch fails.
+     */
+    @Override
+    public List<String> generateBatch(List<List<Message>> conversations) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(conversations.size());
+        for (List<Message> conversation : conversations) {
+            futures.add(model.generateResponseAsync(conversation));
+        }
+        List<String> responses = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<String> future : futures) {
+                responses.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return responses;
+    }
+}
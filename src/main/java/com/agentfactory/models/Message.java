@@ -1,13 +1,29 @@
 package com.agentfactory.models;
 
+import com.google.gson.annotations.SerializedName;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
 /**
  * Represents a message in a conversation with an AI model.
  * Each message has a role (e.g., "system", "user", "assistant") and content.
+ * With native function calling, an assistant message can carry tool calls, and the result of
+ * each call is sent back in a "tool" message that refers to the call's identifier.
  */
 public class Message {
     private String role;
     private String content;
 
+    @SerializedName("tool_calls")
+    private List<FunctionCall> toolCalls;
+
+    @SerializedName("tool_call_id")
+    private String toolCallId;
+
+    private transient byte[] digest;
+
     /**
      * Creates a new message with the specified role and content.
      *
@@ -15,8 +31,22 @@ public class Message {
      * @param content the content of the message
      */
     public Message(String role, String content) {
+        this(role, content, null, null);
+    }
+
+    /**
+     * Creates a new message that may carry native function calling fields.
+     *
+     * @param role the role of the message sender (e.g., "assistant", "tool")
+     * @param content the content of the message
+     * @param toolCalls the tool calls made by an assistant message, or null
+     * @param toolCallId the identifier of the call whose result a "tool" message carries, or null
+     */
+    public Message(String role, String content, List<FunctionCall> toolCalls, String toolCallId) {
         this.role = role;
         this.content = content;
+        this.toolCalls = toolCalls;
+        this.toolCallId = toolCallId;
     }
 
     /**
@@ -36,4 +66,59 @@ public class Message {
     public String getContent() {
         return content;
     }
+
+    /**
+     * Gets the tool calls made by an assistant message.
+     *
+     * @return the tool calls, or null if the message makes none
+     */
+    public List<FunctionCall> getToolCalls() {
+        return toolCalls;
+    }
+
+    /**
+     * Gets the identifier of the tool call whose result this message carries.
+     *
+     * @return the tool call identifier, or null if this is not a "tool" message
+     */
+    public String getToolCallId() {
+        return toolCallId;
+    }
+
+    /**
+     * Returns the SHA-256 digest of this message's role, content and function calling fields.
+     * Computed once and reused, so hashing a growing conversation only hashes new messages.
+     *
+     * @return the message digest; callers must not modify it
+     */
+    byte[] digest() {
+        byte[] result = digest;
+        if (result == null) {
+            try {
+                MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+                sha256.update(String.valueOf(role).getBytes(StandardCharsets.UTF_8));
+                sha256.update((byte) 0);
+                sha256.update(String.valueOf(content).getBytes(StandardCharsets.UTF_8));
+                if (toolCallId != null) {
+                    sha256.update((byte) 1);
+                    sha256.update(toolCallId.getBytes(StandardCharsets.UTF_8));
+                }
+                if (toolCalls != null) {
+                    for (FunctionCall call : toolCalls) {
+                        sha256.update((byte) 2);
+                        sha256.update(String.valueOf(call.getId()).getBytes(StandardCharsets.UTF_8));
+                        sha256.update((byte) 0);
+                        sha256.update(String.valueOf(call.getName()).getBytes(StandardCharsets.UTF_8));
+                        sha256.update((byte) 0);
+                        sha256.update(String.valueOf(call.getArguments()).getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                result = sha256.digest();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+            digest = result;
+        }
+        return result;
+    }
 }
@@ -0,0 +1,228 @@
+package com.agentfactory.models;
+
+import com.agentfactory.config.ApiConfig;
+import com.agentfactory.http.HttpTransport;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * A batch backend that uses the OpenAI Batch API.
+ * A batch is uploaded as a JSONL file of chat completion requests, processed by OpenAI within
+ * its completion window, and downloaded once finished. Batched requests are billed at a reduced
+ * rate and count against a separate quota, but may take up to 24 hours, so this backend suits
+ * offline and bulk workloads only. The calling thread polls the batch until it finishes.
+ */
+public class OpenAIBatchBackend implements BatchBackend {
+    private static final String COMPLETIONS_PATH = "/v1/chat/completions";
+    private static final String CUSTOM_ID_PREFIX = "request-";
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final MediaType JSONL = MediaType.parse("application/jsonl");
+
+    private final String apiKey;
+    private final String baseUrl;
+    private final String model;
+    private final OkHttpClient client;
+    private final Duration pollInterval;
+    private final Gson gson = new Gson();
+
+    /**
+     * Creates a new batch backend.
+     *
+     * @param apiKey the OpenAI API key
+     * @param model the model name to use (e.g., "gpt-4")
+     * @param transport the HTTP transport to use
+     * @param pollInterval how often to check whether a batch has finished
+     */
+    public OpenAIBatchBackend(String apiKey, String model, HttpTransport transport, Duration pollInterval) {
+        this(apiKey, ApiConfig.DEFAULT_OPENAI_BASE_URL, model, transport, pollInterval);
+    }
+
+    /**
+     * Creates a new batch backend for an OpenAI-compatible API at the given base URL.
+     *
+     * @param apiKey the API key
+     * @param baseUrl the API base URL, without a trailing slash (e.g., "https://api.openai.com/v1")
+     * @param model the model name to use (e.g., "gpt-4")
+     * @param transport the HTTP transport to use
+     * @param pollInterval how often to check whether a batch has finished
+     */
+    public OpenAIBatchBackend(
+            String apiKey, String baseUrl, String model, HttpTransport transport, Duration pollInterval) {
+        this.apiKey = apiKey;
+        this.baseUrl = baseUrl;
+        this.model = model;
+        this.client = transport.getClient();
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Creates a new batch backend with the API key and base URL from configuration, using the
+     * shared transport and checking for completion every 30 seconds.
+     *
+     * @param config the API configuration containing the OpenAI API key and base URL
+     * @param model the model name to use (e.g., "gpt-4")
+     */
+    public OpenAIBatchBackend(ApiConfig config, String model) {
+        this(
+                config.getOpenAiApiKey(),
+                config.getOpenAiBaseUrl(),
+                model,
+                HttpTransport.shared(),
+                Duration.ofSeconds(30));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws RuntimeException if the upload fails, the batch does not complete, or any request
+     *     in it fails
+     */
+    @Override
+    public List<String> generateBatch(List<List<Message>> conversations) {
+        try {
+            String inputFileId = uploadInput(toBatchInput(conversations));
+            JsonObject batch = createBatch(inputFileId);
+            while (!isFinished(batch.get("status").getAsString())) {
+                Thread.sleep(pollInterval.toMillis());
+                batch = execute(authorized(baseUrl + "/batches/" + batch.get("id").getAsString()).get().build());
+            }
+            String status = batch.get("status").getAsString();
+            if (!"completed".equals(status) || isNull(batch.get("output_file_id"))) {
+                throw new IOException("Batch " + batch.get("id").getAsString() + " ended with status " + status);
+            }
+            String output = download(batch.get("output_file_id").getAsString());
+            return parseBatchOutput(output, conversations.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for batch", e);
+        } catch (IOException e) {
+            throw new RuntimeException("Batch request failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Serializes the conversations as Batch API input, one chat completion request per line.
+     *
+     * @param conversations the conversations to complete
+     * @return the JSONL input file content
+     */
+    String toBatchInput(List<List<Message>> conversations) {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < conversations.size(); i++) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("model", model);
+            body.put("messages", conversations.get(i));
+            Map<String, Object> line = new HashMap<>();
+            line.put("custom_id", CUSTOM_ID_PREFIX + i);
+            line.put("method", "POST");
+            line.put("url", COMPLETIONS_PATH);
+            line.put("body", body);
+            input.append(gson.toJson(line)).append('\n');
+        }
+        return input.toString();
+    }
+
+    /**
+     * Reads Batch API output, whose lines may arrive in any order, back into request order.
+     *
+     * @param output the JSONL output file content
+     * @param count the number of requests in the batch
+     * @return the content of each response, in request order
+     * @throws IOException if a request failed or is missing from the output
+     */
+    List<String> parseBatchOutput(String output, int count) throws IOException {
+        String[] contents = new String[count];
+        for (String line : output.split("\n")) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            JsonObject result = JsonParser.parseString(line).getAsJsonObject();
+            String customId = result.get("custom_id").getAsString();
+            int index = Integer.parseInt(customId.substring(CUSTOM_ID_PREFIX.length()));
+            if (!isNull(result.get("error"))) {
+                throw new IOException("Request " + customId + " failed: " + result.get("error"));
+            }
+            JsonObject response = result.getAsJsonObject("response");
+            if (response.get("status_code").getAsInt() != 200) {
+                throw new IOException("Request " + customId + " failed with status " + response.get("status_code"));
+            }
+            contents[index] = response.getAsJsonObject("body")
+                    .getAsJsonArray("choices").get(0).getAsJsonObject()
+                    .getAsJsonObject("message").get("content").getAsString();
+        }
+        List<String> responses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (contents[i] == null) {
+                throw new IOException("Request " + CUSTOM_ID_PREFIX + i + " is missing from the batch output");
+            }
+            responses.add(contents[i]);
+        }
+        return responses;
+    }
+
+    private String uploadInput(String input) throws IOException {
+        RequestBody body = new MultipartBody.Builder()
+                .setType(MultipartBody.FORM)
+                .addFormDataPart("purpose", "batch")
+                .addFormDataPart("file", "batch.jsonl",
+                        RequestBody.create(input.getBytes(StandardCharsets.UTF_8), JSONL))
+                .build();
+        return execute(authorized(baseUrl + "/files").post(body).build()).get("id").getAsString();
+    }
+
+    private JsonObject createBatch(String inputFileId) throws IOException {
+        JsonObject request = new JsonObject();
+        request.addProperty("input_file_id", inputFileId);
+        request.addProperty("endpoint", COMPLETIONS_PATH);
+        request.addProperty("completion_window", "24h");
+        RequestBody body = RequestBody.create(request.toString(), JSON);
+        return execute(authorized(baseUrl + "/batches").post(body).build());
+    }
+
+    private String download(String fileId) throws IOException {
+        Request request = authorized(baseUrl + "/files/" + fileId + "/content").get().build();
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("API request failed: " + response.code() + " " + response.message());
+            }
+            return response.body().string();
+        }
+    }
+
+    private JsonObject execute(Request request) throws IOException {
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("API request failed: " + response.code() + " " + response.message());
+            }
+            return JsonParser.parseString(response.body().string()).getAsJsonObject();
+        }
+    }
+
+    private Request.Builder authorized(String url) {
+        return new Request.Builder().url(url).header("Authorization", "Bearer " + apiKey);
+    }
+
+    private static boolean isFinished(String status) {
+        return "completed".equals(status) || "failed".equals(status)
+                || "expired".equals(status) || "cancelled".equals(status);
+    }
+
+    private static boolean isNull(JsonElement element) {
+        return element == null || element.isJsonNull();
+    }
+}
@@ -1,31 +1,97 @@
 package com.agentfactory.models;
 
 import com.agentfactory.config.ApiConfig;
+import com.agentfactory.http.HttpTransport;
+import com.agentfactory.metrics.MetricNames;
+import com.agentfactory.metrics.MetricsRecorder;
+import com.agentfactory.metrics.TraceEvent;
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.annotations.SerializedName;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
-import okhttp3.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
 
 /**
  * Implementation of AIModel that uses the OpenAI API to generate responses.
- * Supports chat completion API for models like GPT-4.
+ * Supports chat completion API for models like GPT-4: blocking, streamed, and asynchronous on
+ * OkHttp's dispatcher, where no thread is held while waiting for the response, as well as
+ * native function calling with {@code tools} and {@code tool_choice}.
+ * Every call reports its latency, payload sizes and token usage to the configured {@link MetricsRecorder}.
  */
-public class OpenAIModel implements AIModel {
+public class OpenAIModel implements StreamingAIModel, FunctionCallingAIModel {
+    private static final String SSE_DATA_PREFIX = "data:";
+    private static final String SSE_DONE = "[DONE]";
+
     private final String apiKey;
-    private final String endpoint = "https://api.openai.com/v1/chat/completions";
-    private final OkHttpClient client = new OkHttpClient();
+    private final String endpoint;
+    private final OkHttpClient client;
     private final Gson gson = new Gson();
     private final String model;
+    private MetricsRecorder metrics = MetricsRecorder.NOOP;
 
     /**
-     * Creates a new OpenAI model client with the specified API key and model name.
+     * Creates a new OpenAI model client that sends requests through the given transport.
      *
      * @param apiKey the OpenAI API key
      * @param model the model name to use (e.g., "gpt-4")
+     * @param transport the HTTP transport to use
      */
-    public OpenAIModel(String apiKey, String model) {
+    public OpenAIModel(String apiKey, String model, HttpTransport transport) {
+        this(apiKey, model, transport, ApiConfig.DEFAULT_OPENAI_BASE_URL);
+    }
+
+    /**
+     * Creates a new client for an OpenAI-compatible API at the given base URL.
+     *
+     * @param apiKey the API key
+     * @param model the model name to use (e.g., "gpt-4")
+     * @param transport the HTTP transport to use
+     * @param baseUrl the API base URL, without a trailing slash (e.g., "https://api.openai.com/v1")
+     */
+    public OpenAIModel(String apiKey, String model, HttpTransport transport, String baseUrl) {
         this.apiKey = apiKey;
         this.model = model;
+        this.client = transport.getClient();
+        this.endpoint = baseUrl + "/chat/completions";
+    }
+
+    /**
+     * Creates a new OpenAI model client with the API key and base URL from configuration, the
+     * specified model name and transport.
+     *
+     * @param config the API configuration containing the OpenAI API key and base URL
+     * @param model the model name to use (e.g., "gpt-4")
+     * @param transport the HTTP transport to use
+     */
+    public OpenAIModel(ApiConfig config, String model, HttpTransport transport) {
+        this(config.getOpenAiApiKey(), model, transport, config.getOpenAiBaseUrl());
+    }
+
+    /**
+     * Creates a new OpenAI model client with the specified API key and model name.
+     * Uses the shared default HTTP transport.
+     *
+     * @param apiKey the OpenAI API key
+     * @param model the model name to use (e.g., "gpt-4")
+     */
+    public OpenAIModel(String apiKey, String model) {
+        this(apiKey, model, HttpTransport.shared());
     }
 
     /**
@@ -35,7 +101,7 @@ public class OpenAIModel implements AIModel {
      * @param model the model name to use (e.g., "gpt-4")
      */
     public OpenAIModel(ApiConfig config, String model) {
-        this(config.getOpenAiApiKey(), model);
+        this(config, model, HttpTransport.shared());
     }
 
     /**
@@ -53,7 +119,7 @@ public class OpenAIModel implements AIModel {
      * @param config the API configuration containing the OpenAI API key
      */
     public OpenAIModel(ApiConfig config) {
-        this(config.getOpenAiApiKey(), "gpt-4");
+        this(config, "gpt-4");
     }
 
     /**
@@ -66,6 +132,15 @@ public class OpenAIModel implements AIModel {
         return new OpenAIModel(ApiConfig.fromEnvironment());
     }
 
+    /**
+     * Sets the recorder that receives call latency, payload sizes and token usage.
+     *
+     * @param metrics the metrics recorder
+     */
+    public void setMetrics(MetricsRecorder metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -73,49 +148,372 @@ public class OpenAIModel implements AIModel {
      */
     @Override
     public String generateResponse(List<Message> messages) {
-        RequestBody requestBody = new RequestBody(messages, model);
-        String jsonBody = gson.toJson(requestBody);
+        return execute(toRequestJson(messages, false)).getContent();
+    }
 
-        Request request = new Request.Builder()
-                .url(endpoint)
-                .header("Authorization", "Bearer " + apiKey)
-                .header("Content-Type", "application/json")
-                .post(okhttp3.RequestBody.create(jsonBody, MediaType.parse("application/json")))
-                .build();
+    /**
+     * {@inheritDoc}
+     *
+     * @throws RuntimeException if the API request fails
+     */
+    @Override
+    public Message generateToolCalls(List<Message> messages, JsonArray tools, String toolChoice) {
+        return execute(toRequestJson(messages, tools, toolChoice));
+    }
+
+    /**
+     * Sends a blocking chat completion request.
+     *
+     * @param json the JSON request body
+     * @return the message of the first choice
+     * @throws RuntimeException if the API request fails
+     */
+    private Message execute(String json) {
+        long start = System.nanoTime();
+        byte[] requestBody = json.getBytes(StandardCharsets.UTF_8);
+        Request request = buildRequest(requestBody);
 
         try (Response response = client.newCall(request).execute()) {
+            return readResponse(start, requestBody.length, response);
+        } catch (Exception e) {
+            metrics.increment(MetricNames.MODEL_ERRORS, 1);
+            throw new RuntimeException("Failed to generate response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The request is queued on the transport's dispatcher and the future is completed from
+     * its callback. Cancelling the returned future cancels the HTTP call.
+     */
+    @Override
+    public CompletableFuture<String> generateResponseAsync(List<Message> messages) {
+        return enqueue(toRequestJson(messages, false), Message::getContent);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The request is queued on the transport's dispatcher and the future is completed from
+     * its callback. Cancelling the returned future cancels the HTTP call.
+     */
+    @Override
+    public CompletableFuture<Message> generateToolCallsAsync(
+            List<Message> messages, JsonArray tools, String toolChoice) {
+        return enqueue(toRequestJson(messages, tools, toolChoice), Function.identity());
+    }
+
+    /**
+     * Queues a chat completion request on the transport's dispatcher.
+     *
+     * @param json the JSON request body
+     * @param result extracts the future's value from the message of the first choice
+     * @return a future completed from the call's callback; cancelling it cancels the call
+     */
+    private <T> CompletableFuture<T> enqueue(String json, Function<Message, T> result) {
+        long start = System.nanoTime();
+        byte[] requestBody = json.getBytes(StandardCharsets.UTF_8);
+        Call call = client.newCall(buildRequest(requestBody));
+        CallFuture<T> future = new CallFuture<>(call);
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call failedCall, IOException e) {
+                if (!failedCall.isCanceled()) {
+                    metrics.increment(MetricNames.MODEL_ERRORS, 1);
+                }
+                future.completeExceptionally(
+                        new RuntimeException("Failed to generate response: " + e.getMessage(), e));
+            }
+
+            @Override
+            public void onResponse(Call completedCall, Response response) {
+                try (Response body = response) {
+                    future.complete(result.apply(readResponse(start, requestBody.length, body)));
+                } catch (Exception e) {
+                    metrics.increment(MetricNames.MODEL_ERRORS, 1);
+                    future.completeExceptionally(
+                            new RuntimeException("Failed to generate response: " + e.getMessage(), e));
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Reads a blocking chat completion response and records its metrics.
+     *
+     * @param start the {@link System#nanoTime()} at which the call started
+     * @param requestBytes the size of the request body
+     * @param response the HTTP response
+     * @return the message of the first choice
+     * @throws IOException if the request failed or the body cannot be read
+     */
+    private Message readResponse(long start, long requestBytes, Response response) throws IOException {
+        if (!response.isSuccessful()) {
+            throw new IOException("API request failed: " + response.code() + " " + response.message());
+        }
+
+        byte[] bytes = response.body().bytes();
+        ResponseBody responseBody = gson.fromJson(new String(bytes, StandardCharsets.UTF_8), ResponseBody.class);
+        recordCall(start, false, requestBytes, bytes.length, responseBody.usage);
+        return responseBody.choices.get(0).message;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Uses server-sent events ({@code stream: true}). When the listener stops the stream,
+     * the HTTP call is cancelled so no further tokens are generated or transferred.
+     * Token usage is requested as a final chunk, so it is only reported for streams read to the end.
+     *
+     * @throws RuntimeException if the API request fails
+     */
+    @Override
+    public String generateResponseStream(List<Message> messages, TokenListener listener) {
+        return generateResponseStream(messages, listener, Duration.ZERO);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The timeout is applied as the HTTP call's timeout, unless the transport's own call
+     * timeout is shorter; when it expires the call is cancelled.
+     *
+     * @throws RuntimeException if the API request fails
+     */
+    @Override
+    public String generateResponseStream(List<Message> messages, TokenListener listener, Duration timeout) {
+        long start = System.nanoTime();
+        byte[] requestBody = toRequestJson(messages, true).getBytes(StandardCharsets.UTF_8);
+        Call call = client.newCall(buildRequest(requestBody));
+        long callTimeoutNanos = call.timeout().timeoutNanos();
+        if (!timeout.isZero() && (callTimeoutNanos == 0 || timeout.toNanos() < callTimeoutNanos)) {
+            call.timeout().timeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        StringBuilder content = new StringBuilder();
+        long responseBytes = 0;
+        Usage usage = null;
+
+        try (Response response = call.execute()) {
             if (!response.isSuccessful()) {
                 throw new IOException("API request failed: " + response.code() + " " + response.message());
             }
 
-            ResponseBody responseBody = gson.fromJson(response.body().string(), ResponseBody.class);
-            return responseBody.choices.get(0).message.getContent();
+            BufferedReader reader = new BufferedReader(response.body().charStream());
+            String line;
+            while ((line = reader.readLine()) != null) {
+                responseBytes += line.length() + 1;
+                if (!line.startsWith(SSE_DATA_PREFIX)) {
+                    continue;
+                }
+                String data = line.substring(SSE_DATA_PREFIX.length()).trim();
+                if (data.equals(SSE_DONE)) {
+                    break;
+                }
+                JsonObject chunk = JsonParser.parseString(data).getAsJsonObject();
+                if (chunk.has("usage") && chunk.get("usage").isJsonObject()) {
+                    usage = gson.fromJson(chunk.get("usage"), Usage.class);
+                }
+                String token = extractDeltaContent(chunk);
+                if (token == null || token.isEmpty()) {
+                    continue;
+                }
+                content.append(token);
+                if (!listener.onToken(token)) {
+                    call.cancel();
+                    break;
+                }
+            }
+            recordCall(start, true, requestBody.length, responseBytes, usage);
+            return content.toString();
         } catch (Exception e) {
+            if (call.isCanceled()) {
+                recordCall(start, true, requestBody.length, responseBytes, usage);
+                return content.toString();
+            }
+            metrics.increment(MetricNames.MODEL_ERRORS, 1);
             throw new RuntimeException("Failed to generate response: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Builds the HTTP request for a chat completion call.
+     *
+     * @param jsonBody the UTF-8 encoded JSON request body
+     * @return the HTTP request
+     */
+    private Request buildRequest(byte[] jsonBody) {
+        return new Request.Builder()
+                .url(endpoint)
+                .header("Authorization", "Bearer " + apiKey)
+                .header("Content-Type", "application/json")
+                .post(okhttp3.RequestBody.create(jsonBody, MediaType.parse("application/json")))
+                .build();
+    }
+
+    /**
+     * Reports a completed call to the metrics recorder.
+     *
+     * @param start the {@link System#nanoTime()} at which the call started
+     * @param stream whether the call was streamed
+     * @param requestBytes the size of the request body
+     * @param responseBytes the size of the response body read
+     * @param usage the token usage reported by the API, or null if none was reported
+     */
+    private void recordCall(long start, boolean stream, long requestBytes, long responseBytes, Usage usage) {
+        long elapsed = System.nanoTime() - start;
+        metrics.recordTime(MetricNames.MODEL_CALL_TIME, elapsed);
+        metrics.recordValue(MetricNames.MODEL_REQUEST_BYTES, requestBytes);
+        metrics.recordValue(MetricNames.MODEL_RESPONSE_BYTES, responseBytes);
+        TraceEvent event = new TraceEvent("model_call")
+                .with("model", model)
+                .with("stream", stream)
+                .with("durationMicros", elapsed / 1_000)
+                .with("requestBytes", requestBytes)
+                .with("responseBytes", responseBytes);
+        if (usage != null) {
+            metrics.recordValue(MetricNames.MODEL_PROMPT_TOKENS, usage.promptTokens);
+            metrics.recordValue(MetricNames.MODEL_COMPLETION_TOKENS, usage.completionTokens);
+            event.with("promptTokens", usage.promptTokens).with("completionTokens", usage.completionTokens);
+        }
+        metrics.trace(event);
+    }
+
+    /**
+     * Serializes the chat completion request body.
+     *
+     * @param messages the conversation to send
+     * @param stream whether to request a server-sent event stream
+     * @return the JSON request body
+     */
+    String toRequestJson(List<Message> messages, boolean stream) {
+        StreamOptions streamOptions = stream ? new StreamOptions() : null;
+        return gson.toJson(new RequestBody(messages, model, stream ? Boolean.TRUE : null, streamOptions, null, null));
+    }
+
+    /**
+     * Serializes a blocking chat completion request that declares tools.
+     *
+     * @param messages the conversation to send
+     * @param tools the tool definitions
+     * @param toolChoice "auto", "required", or the name of the tool the model must call
+     * @return the JSON request body
+     */
+    String toRequestJson(List<Message> messages, JsonArray tools, String toolChoice) {
+        JsonElement choice;
+        if (toolChoice == null
+                || toolChoice.equals(TOOL_CHOICE_AUTO)
+                || toolChoice.equals(TOOL_CHOICE_REQUIRED)) {
+            choice = new JsonPrimitive(toolChoice == null ? TOOL_CHOICE_AUTO : toolChoice);
+        } else {
+            JsonObject function = new JsonObject();
+            function.addProperty("name", toolChoice);
+            JsonObject forced = new JsonObject();
+            forced.addProperty("type", "function");
+            forced.add("function", function);
+            choice = forced;
+        }
+        return gson.toJson(new RequestBody(messages, model, null, null, tools, choice));
+    }
+
+    /**
+     * Extracts the content delta from a single streamed chunk.
+     *
+     * @param chunk the JSON payload of an SSE data line
+     * @return the content delta, or null if the chunk carries no content
+     */
+    private static String extractDeltaContent(JsonObject chunk) {
+        JsonArray choices = chunk.getAsJsonArray("choices");
+        if (choices == null || choices.size() == 0) {
+            return null;
+        }
+        JsonObject delta = choices.get(0).getAsJsonObject().getAsJsonObject("delta");
+        if (delta == null) {
+            return null;
+        }
+        JsonElement content = delta.get("content");
+        return content == null || content.isJsonNull() ? null : content.getAsString();
+    }
+
+    /**
+     * A future for an enqueued call that cancels the HTTP call when it is cancelled.
+     */
+    private static class CallFuture<T> extends CompletableFuture<T> {
+        private final Call call;
+
+        CallFuture(Call call) {
+            this.call = call;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            call.cancel();
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+
     /**
      * Inner class representing the request body for the OpenAI API.
      */
     private static class RequestBody {
         private final List<Message> messages;
         private final String model;
+        private final Boolean stream;
+
+        @SerializedName("stream_options")
+        private final StreamOptions streamOptions;
+
+        private final JsonArray tools;
+
+        @SerializedName("tool_choice")
+        private final JsonElement toolChoice;
 
-        RequestBody(List<Message> messages, String model) {
+        RequestBody(
+                List<Message> messages,
+                String model,
+                Boolean stream,
+                StreamOptions streamOptions,
+                JsonArray tools,
+                JsonElement toolChoice) {
             this.messages = messages;
             this.model = model;
+            this.stream = stream;
+            this.streamOptions = streamOptions;
+            this.tools = tools;
+            this.toolChoice = toolChoice;
         }
     }
 
+    /**
+     * Inner class asking the API to append token usage to a stream.
+     */
+    private static class StreamOptions {
+        @SerializedName("include_usage")
+        private final boolean includeUsage = true;
+    }
+
     /**
      * Inner class representing the response body from the OpenAI API.
      */
     private static class ResponseBody {
         private List<Choice> choices;
+        private Usage usage;
 
         static class Choice {
             private Message message;
         }
     }
+
+    /**
+     * Inner class representing the token usage reported by the OpenAI API.
+     */
+    private static class Usage {
+        @SerializedName("prompt_tokens")
+        private long promptTokens;
+
+        @SerializedName("completion_tokens")
+        private long completionTokens;
+    }
 }
@@ -0,0 +1,75 @@
+package com.agentfactory.models;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * An AI model that can stream its response token by token.
+ * Streaming lets callers act on a partial response, for example by dispatching a tool call
+ * as soon as the action is complete, and stop generation early.
+ */
+public interface StreamingAIModel extends AIModel {
+    /**
+     * Generates a response and hands each token to the listener as it arrives.
+     * Streaming stops when the model finishes or when the listener returns false.
+     *
+     * @param messages the list of messages in the conversation
+     * @param listener the listener receiving tokens as they arrive
+     * @return the text received before streaming stopped
+     */
+    String generateResponseStream(List<Message> messages, TokenListener listener);
+
+    /**
+     * Generates a response like {@link #generateResponseStream(List, TokenListener)}, but also
+     * stops streaming once the timeout has elapsed, even if no token arrives, so a stalled stream
+     * cannot hold the caller past it.
+     * The default implementation streams on a shared pool and stops waiting at the timeout; the
+     * listener is not called afterwards, but the stream keeps its thread until the next token or
+     * the end of the response. Implementations backed by a client with call timeouts should
+     * override this to abort the request instead.
+     *
+     * @param messages the list of messages in the conversation
+     * @param listener the listener receiving tokens as they arrive
+     * @param timeout the longest time to stream for, or zero for no limit
+     * @return the text received before streaming stopped
+     */
+    default String generateResponseStream(List<Message> messages, TokenListener listener, Duration timeout) {
+        if (timeout.isZero()) {
+            return generateResponseStream(messages, listener);
+        }
+        StringBuilder received = new StringBuilder();
+        boolean[] stopped = new boolean[1];
+        TokenListener guarded = token -> {
+            synchronized (received) {
+                if (stopped[0]) {
+                    return false;
+                }
+                received.append(token);
+                return listener.onToken(token);
+            }
+        };
+        CompletableFuture<String> stream = CompletableFuture.supplyAsync(
+                () -> generateResponseStream(messages, guarded), BlockingModelExecutor.INSTANCE);
+        try {
+            return stream.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            synchronized (received) {
+                stopped[0] = true;
+                return received.toString();
+            }
+        } catch (InterruptedException e) {
+            synchronized (received) {
+                stopped[0] = true;
+            }
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while streaming the response", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+    }
+}
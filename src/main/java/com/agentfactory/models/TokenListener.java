@@ -0,0 +1,15 @@
+package com.agentfactory.models;
+
+/**
+ * Callback that receives tokens from a streaming model response as they arrive.
+ */
+@FunctionalInterface
+public interface TokenListener {
+    /**
+     * Called for every chunk of text produced by the model.
+     *
+     * @param token the newly generated text chunk
+     * @return true to keep streaming, false to stop and close the underlying connection
+     */
+    boolean onToken(String token);
+}
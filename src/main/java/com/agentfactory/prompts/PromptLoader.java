@@ -1,12 +1,11 @@
 package com.agentfactory.prompts;
 
-import java.io.InputStream;
 import java.util.Map;
-import org.yaml.snakeyaml.Yaml;
 
 /**
  * Utility class for loading prompts from YAML files.
  * Prompts are stored in YAML format with a "system_prompt" key.
+ * Each file is parsed once; see {@link PromptRegistry}.
  */
 public class PromptLoader {
 
@@ -14,19 +13,26 @@ public class PromptLoader {
      * Loads a prompt from a YAML file.
      *
      * @param fileName the name of the YAML file containing the prompt
-     * @return the system prompt string
+     * @return the system prompt string, with any {@code {{variable}}} placeholders left in place;
+     *     the default tool-calling prompt lists its tools through a {@code {{tools}}} placeholder,
+     *     so use {@link #loadPrompt(String, Map)} to get it ready to send
      * @throws RuntimeException if the file is not found or cannot be loaded
      */
     public static String loadPrompt(String fileName) {
-        Yaml yaml = new Yaml();
-        try (InputStream inputStream = PromptLoader.class.getClassLoader().getResourceAsStream(fileName)) {
-            if (inputStream == null) {
-                throw new RuntimeException("Prompt file not found: " + fileName);
-            }
-            Map<String, Object> data = yaml.load(inputStream);
-            return (String) data.get("system_prompt");
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to load prompt: " + e.getMessage(), e);
-        }
+        return PromptRegistry.getDefault().get(fileName).getSource();
+    }
+
+    /**
+     * Loads a prompt from a YAML file and renders its {@code {{variable}}} placeholders.
+     *
+     * @param fileName the name of the YAML file containing the prompt
+     * @param values the variable values, for example the tool descriptions from
+     *     {@link com.agentfactory.tools.ToolRegistry#getDescription()} for {@code tools}
+     * @return the rendered system prompt
+     * @throws RuntimeException if the file is not found or cannot be loaded
+     * @throws IllegalArgumentException if a variable in the prompt has no value
+     */
+    public static String loadPrompt(String fileName, Map<String, ?> values) {
+        return PromptRegistry.getDefault().render(fileName, values);
     }
 }
@@ -0,0 +1,176 @@
+package com.agentfactory.prompts;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * Loads prompt files once and keeps them as compiled {@link PromptTemplate}s.
+ * Prompts are YAML files with a "system_prompt" key, read from the classpath or from a directory.
+ * After the first lookup, getting a prompt is a map lookup.
+ *
+ * <p>A directory registry can {@link #watch()} its directory and reload prompts when their files
+ * change, so prompts can be edited without a restart. A file that fails to load keeps its previous
+ * template, so saving a half-edited prompt does not break running agents.
+ */
+public class PromptRegistry implements AutoCloseable {
+    private static final PromptRegistry DEFAULT = new PromptRegistry();
+
+    private final Path directory;
+    private final Map<String, PromptTemplate> templates = new ConcurrentHashMap<>();
+    private WatchService watchService;
+
+    /**
+     * Creates a registry that reads prompts from the classpath.
+     */
+    public PromptRegistry() {
+        this.directory = null;
+    }
+
+    /**
+     * Creates a registry that reads prompts from a directory.
+     *
+     * @param directory the directory containing the prompt files
+     */
+    public PromptRegistry(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the shared registry that reads prompts from the classpath.
+     *
+     * @return the default registry
+     */
+    public static PromptRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets the compiled prompt from a file, loading it on first use.
+     *
+     * @param fileName the name of the YAML file containing the prompt
+     * @return the prompt template
+     * @throws RuntimeException if the file is not found or cannot be loaded
+     */
+    public PromptTemplate get(String fileName) {
+        PromptTemplate template = templates.get(fileName);
+        return template != null ? template : templates.computeIfAbsent(fileName, this::load);
+    }
+
+    /**
+     * Renders the prompt from a file with the given variables.
+     *
+     * @param fileName the name of the YAML file containing the prompt
+     * @param values the variable values
+     * @return the rendered prompt
+     * @throws RuntimeException if the file is not found or cannot be loaded
+     * @throws IllegalArgumentException if a variable in the prompt has no value
+     */
+    public String render(String fileName, Map<String, ?> values) {
+        return get(fileName).render(values);
+    }
+
+    /**
+     * Starts reloading prompts when their files in the directory are modified.
+     * Only prompts that were already loaded are reloaded; the others are read on first use anyway.
+     * Does nothing if the registry is already watching.
+     *
+     * @throws IllegalStateException if the registry reads from the classpath
+     * @throws UncheckedIOException if the directory cannot be watched
+     */
+    public synchronized void watch() {
+        if (directory == null) {
+            throw new IllegalStateException("Only a directory registry can be watched");
+        }
+        if (watchService != null) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(
+                    watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to watch prompt directory: " + directory, e);
+        }
+        WatchService service = watchService;
+        Thread thread = new Thread(() -> watchLoop(service), "prompt-registry-watch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching the directory. Loaded prompts remain available.
+     *
+     * @throws IOException if the watch service cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+    }
+
+    private void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        templates.keySet().forEach(this::reload);
+                    } else {
+                        reload(event.context().toString());
+                    }
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // The registry was closed; stop watching.
+        }
+    }
+
+    private void reload(String fileName) {
+        templates.computeIfPresent(fileName, (name, current) -> {
+            try {
+                return load(name);
+            } catch (RuntimeException e) {
+                return current;
+            }
+        });
+    }
+
+    private PromptTemplate load(String fileName) {
+        try (InputStream inputStream = open(fileName)) {
+            if (inputStream == null) {
+                throw new RuntimeException("Prompt file not found: " + fileName);
+            }
+            Map<String, Object> data = new Yaml().load(inputStream);
+            Object prompt = data == null ? null : data.get("system_prompt");
+            if (!(prompt instanceof String)) {
+                throw new RuntimeException("No system_prompt in " + fileName);
+            }
+            return PromptTemplate.compile((String) prompt);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load prompt: " + e.getMessage(), e);
+        }
+    }
+
+    private InputStream open(String fileName) throws IOException {
+        if (directory == null) {
+            return PromptRegistry.class.getClassLoader().getResourceAsStream(fileName);
+        }
+        Path file = directory.resolve(fileName);
+        return Files.exists(file) ? Files.newInputStream(file) : null;
+    }
+}
@@ -0,0 +1,111 @@
+package com.agentfactory.prompts;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A prompt with {@code {{name}}} placeholders, parsed once into literal and variable parts.
+ * Rendering appends the parts to a buffer sized in advance, without scanning the text again.
+ * Whitespace inside the braces is ignored, so {@code {{ tools }}} names the variable "tools".
+ * A template without placeholders renders to its source string without allocating.
+ */
+public final class PromptTemplate {
+    private final String source;
+    private final String[] literals;
+    private final String[] variables;
+    private final int literalLength;
+
+    private PromptTemplate(String source, String[] literals, String[] variables) {
+        this.source = source;
+        this.literals = literals;
+        this.variables = variables;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Parses a template. An opening {@code {{} without a matching {@code }}} is kept as text.
+     *
+     * @param source the template text
+     * @return the compiled template
+     */
+    public static PromptTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf("{{", position);
+            int close = open < 0 ? -1 : source.indexOf("}}", open + 2);
+            if (close < 0) {
+                literals.add(source.substring(position));
+                break;
+            }
+            literals.add(source.substring(position, open));
+            variables.add(source.substring(open + 2, close).trim());
+            position = close + 2;
+        }
+        return new PromptTemplate(source, literals.toArray(new String[0]), variables.toArray(new String[0]));
+    }
+
+    /**
+     * Substitutes the variables into the template.
+     *
+     * @param values the variable values; each is converted with {@link String#valueOf(Object)}
+     * @return the rendered prompt
+     * @throws IllegalArgumentException if a variable in the template has no value
+     */
+    public String render(Map<String, ?> values) {
+        if (variables.length == 0) {
+            return source;
+        }
+        String[] rendered = new String[variables.length];
+        int length = literalLength;
+        for (int i = 0; i < variables.length; i++) {
+            if (!values.containsKey(variables[i])) {
+                throw new IllegalArgumentException("Missing prompt variable: " + variables[i]);
+            }
+            rendered[i] = String.valueOf(values.get(variables[i]));
+            length += rendered[i].length();
+        }
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < variables.length; i++) {
+            sb.append(literals[i]).append(rendered[i]);
+        }
+        return sb.append(literals[variables.length]).toString();
+    }
+
+    /**
+     * Gets the names of the variables in the template.
+     *
+     * @return the variable names, in order of first appearance
+     */
+    public Set<String> getVariables() {
+        Set<String> names = new LinkedHashSet<>();
+        Collections.addAll(names, variables);
+        return names;
+    }
+
+    /**
+     * Gets the template text as it was compiled.
+     *
+     * @return the template source
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return source;
+    }
+}
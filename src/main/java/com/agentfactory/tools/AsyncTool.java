@@ -0,0 +1,42 @@
+package com.agentfactory.tools;
+
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A tool that executes without blocking the caller, for example by issuing a non-blocking
+ * HTTP request. Agents dispatch asynchronous tools through {@link ToolInvoker}, which applies
+ * the tool's {@link ToolPolicy}. Cancelling the returned stage's future should abort the call.
+ */
+public interface AsyncTool extends Tool {
+    /**
+     * Starts executing the tool with the provided arguments.
+     *
+     * @param args a map of argument names to their values
+     * @return a stage completed with the result of the tool execution
+     */
+    CompletionStage<Object> executeAsync(Map<String, Object> args);
+
+    /**
+     * Executes the tool and waits for the result.
+     *
+     * @param args a map of argument names to their values
+     * @return the result of the tool execution
+     * @throws RuntimeException if the tool fails or the calling thread is interrupted
+     */
+    @Override
+    default Object execute(Map<String, Object> args) {
+        try {
+            return executeAsync(args).toCompletableFuture().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for tool " + getName(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
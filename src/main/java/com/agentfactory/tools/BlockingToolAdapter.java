@@ -0,0 +1,123 @@
+package com.agentfactory.tools;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a blocking {@link Tool} as an {@link AsyncTool} on an executor.
+ * Cancelling the returned future interrupts the thread running the tool.
+ */
+public class BlockingToolAdapter implements AsyncTool {
+    private final Tool tool;
+    private final Executor executor;
+
+    /**
+     * Creates a new adapter.
+     *
+     * @param tool the blocking tool
+     * @param executor the executor that runs the tool's calls
+     */
+    public BlockingToolAdapter(Tool tool, Executor executor) {
+        this.tool = tool;
+        this.executor = executor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return tool.getName();
+    }
+
+    /**
+     * Returns the policy declared by the wrapped tool.
+     *
+     * @return the wrapped tool's policy
+     */
+    @Override
+    public ToolPolicy getPolicy() {
+        return tool.getPolicy();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletionStage<Object> executeAsync(Map<String, Object> args) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        run(tool, executor, args, result);
+        return result;
+    }
+
+    /**
+     * Runs a blocking call on the executor, completing the given result with its outcome.
+     * Cancelling the result interrupts the thread running the call, but the call only stops when
+     * the tool notices; the returned future tells when it actually has.
+     *
+     * @param tool the blocking tool
+     * @param executor the executor that runs the call
+     * @param args a map of argument names to their values
+     * @param result completed with the tool result; cancelling it interrupts the call
+     * @return a future completed once the tool has returned or thrown, or the call was cancelled
+     *     or rejected before it started
+     */
+    static CompletableFuture<Void> run(
+            Tool tool, Executor executor, Map<String, Object> args, CompletableFuture<Object> result) {
+        CompletableFuture<Void> finished = new CompletableFuture<>();
+        AtomicBoolean started = new AtomicBoolean();
+        Thread[] runner = new Thread[1];
+        Runnable task = () -> {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            synchronized (runner) {
+                runner[0] = Thread.currentThread();
+            }
+            try {
+                result.complete(tool.execute(args));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                synchronized (runner) {
+                    runner[0] = null;
+                }
+                // Clear an interrupt aimed at this call so it does not leak into the pool's next task.
+                Thread.interrupted();
+                finished.complete(null);
+            }
+        };
+        result.whenComplete((value, error) -> {
+            if (started.compareAndSet(false, true)) {
+                finished.complete(null);
+            } else if (result.isCancelled()) {
+                synchronized (runner) {
+                    if (runner[0] != null) {
+                        runner[0].interrupt();
+                    }
+                }
+            }
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return finished;
+    }
+
+    /**
+     * Runs the wrapped tool on the calling thread.
+     *
+     * @param args a map of argument names to their values
+     * @return the result of the tool execution
+     */
+    @Override
+    public Object execute(Map<String, Object> args) {
+        return tool.execute(args);
+    }
+}
@@ -1,5 +1,7 @@
 package com.agentfactory.tools;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -16,6 +18,23 @@ public class FinalAnswerTool implements Tool {
         return "final_answer";
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getDescription() {
+        return "Submits the final answer to the task and ends the run.";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ToolParameter> getParameters() {
+        return Collections.singletonList(
+                ToolParameter.required("answer", ToolParameter.Type.STRING, "The final answer to the task"));
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -1,10 +1,22 @@
 package com.agentfactory.tools;
 
+import com.agentfactory.cache.ResponseCache;
+import com.agentfactory.cache.SingleFlightCache;
 import com.agentfactory.config.ApiConfig;
+import com.agentfactory.http.HttpTransport;
+import com.agentfactory.metrics.MetricNames;
+import com.agentfactory.metrics.MetricsRecorder;
+import com.agentfactory.metrics.TraceEvent;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.regex.Pattern;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -14,31 +26,114 @@ import okhttp3.Response;
 /**
  * A tool that performs search operations using the Serper API.
  * Provides real search results from Google Search via the Serper service.
+ * Results can optionally be cached, keyed on the normalized query.
+ * Each Serper request reports its latency and payload sizes to the configured {@link MetricsRecorder}.
  */
 public class SearchTool implements Tool {
+    /**
+     * The execution limits of searches unless others are given: a search times out after 20
+     * seconds, with up to 32 running and 128 queued, and is idempotent, so agents may start it
+     * speculatively.
+     */
+    public static final ToolPolicy DEFAULT_POLICY = ToolPolicy.builder()
+            .timeout(Duration.ofSeconds(20))
+            .maxConcurrency(32)
+            .queueCapacity(128)
+            .idempotent(true)
+            .build();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     private final OkHttpClient client;
     private final Gson gson;
     private final String apiKey;
-    private final String endpoint = "https://google.serper.dev/search";
+    private final String endpoint;
+    private final SingleFlightCache cache;
+    private MetricsRecorder metrics = MetricsRecorder.NOOP;
+    private final ToolPolicy policy;
 
     /**
-     * Creates a new SearchTool with the specified API key.
+     * Creates a new SearchTool that sends requests through the given transport and caches results.
+     * Concurrent searches for the same normalized query share a single Serper request.
      *
      * @param apiKey the Serper API key
+     * @param transport the HTTP transport to use
+     * @param cache the cache for formatted search results, or null to disable caching
      */
-    public SearchTool(String apiKey) {
+    public SearchTool(String apiKey, HttpTransport transport, ResponseCache cache) {
+        this(apiKey, transport, cache, ApiConfig.DEFAULT_SERPER_ENDPOINT);
+    }
+
+    /**
+     * Creates a new SearchTool that sends requests to the given Serper-compatible endpoint.
+     *
+     * @param apiKey the Serper API key
+     * @param transport the HTTP transport to use
+     * @param cache the cache for formatted search results, or null to disable caching
+     * @param endpoint the full URL of the search endpoint
+     */
+    public SearchTool(String apiKey, HttpTransport transport, ResponseCache cache, String endpoint) {
+        this(apiKey, transport, cache, endpoint, DEFAULT_POLICY);
+    }
+
+    /**
+     * Creates a new SearchTool with its own execution limits, for example to match the Serper
+     * plan's rate limit.
+     *
+     * @param apiKey the Serper API key
+     * @param transport the HTTP transport to use
+     * @param cache the cache for formatted search results, or null to disable caching
+     * @param endpoint the full URL of the search endpoint
+     * @param policy the execution limits of searches
+     */
+    public SearchTool(
+            String apiKey, HttpTransport transport, ResponseCache cache, String endpoint, ToolPolicy policy) {
         this.apiKey = apiKey;
-        this.client = new OkHttpClient();
+        this.endpoint = endpoint;
+        this.client = transport.getClient();
         this.gson = new Gson();
+        this.cache = cache == null ? null : new SingleFlightCache(cache);
+        this.policy = policy;
+    }
+
+    /**
+     * Creates a new SearchTool that sends requests through the given transport.
+     *
+     * @param apiKey the Serper API key
+     * @param transport the HTTP transport to use
+     */
+    public SearchTool(String apiKey, HttpTransport transport) {
+        this(apiKey, transport, null);
+    }
+
+    /**
+     * Creates a new SearchTool using the API key and endpoint from the provided configuration and
+     * the given transport.
+     *
+     * @param config the API configuration containing the Serper API key and endpoint
+     * @param transport the HTTP transport to use
+     */
+    public SearchTool(ApiConfig config, HttpTransport transport) {
+        this(config.getSerperApiKey(), transport, null, config.getSerperEndpoint());
+    }
+
+    /**
+     * Creates a new SearchTool with the specified API key.
+     * Uses the shared default HTTP transport.
+     *
+     * @param apiKey the Serper API key
+     */
+    public SearchTool(String apiKey) {
+        this(apiKey, HttpTransport.shared());
     }
 
     /**
-     * Creates a new SearchTool using the API key from the provided configuration.
+     * Creates a new SearchTool using the API key and endpoint from the provided configuration.
      *
-     * @param config the API configuration containing the Serper API key
+     * @param config the API configuration containing the Serper API key and endpoint
      */
     public SearchTool(ApiConfig config) {
-        this(config.getSerperApiKey());
+        this(config, HttpTransport.shared());
     }
 
     /**
@@ -52,6 +147,15 @@ public class SearchTool implements Tool {
         this(ApiConfig.fromEnvironment());
     }
 
+    /**
+     * Sets the recorder that receives search latency and payload sizes.
+     *
+     * @param metrics the metrics recorder
+     */
+    public void setMetrics(MetricsRecorder metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -60,6 +164,33 @@ public class SearchTool implements Tool {
         return "search";
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getDescription() {
+        return "Searches the web with Google and returns the top results with titles, links and snippets.";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<ToolParameter> getParameters() {
+        return Collections.singletonList(
+                ToolParameter.required("query", ToolParameter.Type.STRING, "The search query"));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>{@link #DEFAULT_POLICY} unless another policy was given to the constructor.
+     */
+    @Override
+    public ToolPolicy getPolicy() {
+        return policy;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -74,13 +205,25 @@ public class SearchTool implements Tool {
         }
 
         try {
-            String results = performSearch(query);
-            return results;
+            if (cache == null) {
+                return performSearch(query);
+            }
+            return cache.getOrLoad(normalizeQuery(query), () -> performSearch(query));
         } catch (Exception e) {
             throw new RuntimeException("Search failed: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Normalizes a query into a cache key, so trivially different spellings share an entry.
+     *
+     * @param query the search query
+     * @return the query trimmed, lower-cased and with whitespace runs collapsed
+     */
+    static String normalizeQuery(String query) {
+        return WHITESPACE.matcher(query.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Performs a search using the Serper API.
      *
@@ -89,11 +232,13 @@ public class SearchTool implements Tool {
      * @throws IOException if the API request fails
      */
     private String performSearch(String query) throws IOException {
+        long start = System.nanoTime();
         JsonObject requestJson = new JsonObject();
         requestJson.addProperty("q", query);
 
         MediaType mediaType = MediaType.parse("application/json");
-        RequestBody body = RequestBody.create(requestJson.toString(), mediaType);
+        byte[] requestBytes = requestJson.toString().getBytes(StandardCharsets.UTF_8);
+        RequestBody body = RequestBody.create(requestBytes, mediaType);
 
         Request request = new Request.Builder()
                 .url(endpoint)
@@ -107,8 +252,17 @@ public class SearchTool implements Tool {
                 throw new IOException("Serper API request failed: " + response.code() + " " + response.message());
             }
 
-            String responseBody = response.body().string();
-            return formatResults(responseBody);
+            byte[] responseBytes = response.body().bytes();
+            String results = formatResults(new String(responseBytes, StandardCharsets.UTF_8));
+            long elapsed = System.nanoTime() - start;
+            metrics.recordTime(MetricNames.SEARCH_CALL_TIME, elapsed);
+            metrics.recordValue(MetricNames.SEARCH_REQUEST_BYTES, requestBytes.length);
+            metrics.recordValue(MetricNames.SEARCH_RESPONSE_BYTES, responseBytes.length);
+            metrics.trace(new TraceEvent("search_call")
+                    .with("durationMicros", elapsed / 1_000)
+                    .with("requestBytes", requestBytes.length)
+                    .with("responseBytes", responseBytes.length));
+            return results;
         }
     }
 
@@ -118,7 +272,7 @@ public class SearchTool implements Tool {
      * @param jsonResponse the raw JSON response from the API
      * @return a formatted string with search results
      */
-    private String formatResults(String jsonResponse) {
+    String formatResults(String jsonResponse) {
         // Parse the JSON response and extract relevant information
         JsonObject responseObj = gson.fromJson(jsonResponse, JsonObject.class);
 
@@ -1,5 +1,7 @@
 package com.agentfactory.tools;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -14,6 +16,24 @@ public interface Tool {
      */
     String getName();
 
+    /**
+     * Returns what the tool does, shown to the model.
+     *
+     * @return the tool's description; empty unless overridden
+     */
+    default String getDescription() {
+        return "";
+    }
+
+    /**
+     * Returns the arguments the tool accepts. Calls are validated against them before dispatch.
+     *
+     * @return the tool's parameters; empty unless overridden, which disables validation
+     */
+    default List<ToolParameter> getParameters() {
+        return Collections.emptyList();
+    }
+
     /**
      * Executes the tool with the provided arguments.
      *
@@ -21,4 +41,14 @@ public interface Tool {
      * @return the result of the tool execution
      */
     Object execute(Map<String, Object> args);
+
+    /**
+     * Returns the execution limits for this tool: timeout, concurrency and queueing.
+     * The policy is read once, when the tool is registered, so it must not change afterwards.
+     *
+     * @return the tool's policy; {@link ToolPolicy#DEFAULT} unless overridden
+     */
+    default ToolPolicy getPolicy() {
+        return ToolPolicy.DEFAULT;
+    }
 }
@@ -0,0 +1,199 @@
+package com.agentfactory.tools;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Dispatches calls to one tool under the tool's {@link ToolPolicy}.
+ * At most {@code maxConcurrency} calls run at once; further calls wait in a bounded queue and are
+ * rejected with a {@link RejectedExecutionException} once it is full. A call that has not finished
+ * within the timeout completes with a {@link TimeoutException} and the underlying call is cancelled.
+ * A timed-out call keeps its slot until it actually stops, so a degraded tool cannot pile up work:
+ * a blocking tool's slot is freed when its thread returns from the tool, and an asynchronous
+ * tool's when the future it returned completes, which cancelling it should do promptly.
+ * Waiting for a slot never blocks a thread.
+ *
+ * <p>The limits hold across every caller of one invoker, so agents that share a
+ * {@link ToolRegistry} share its invokers and with them each tool's limits.
+ */
+public class ToolInvoker {
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private final Tool tool;
+    private final AsyncTool asyncTool;
+    private final Executor executor;
+    private final ToolPolicy policy;
+    private final Deque<Runnable> queue = new ArrayDeque<>();
+    private int running = 0;
+
+    /**
+     * Creates a new invoker whose callers name the executor for blocking tools on every call, with
+     * {@link #invoke(Map, Executor)}.
+     *
+     * @param tool the tool to invoke
+     */
+    public ToolInvoker(Tool tool) {
+        this(tool, null);
+    }
+
+    /**
+     * Creates a new invoker. Blocking tools are run on the executor.
+     *
+     * @param tool the tool to invoke
+     * @param executor the executor for blocking tools
+     */
+    public ToolInvoker(Tool tool, Executor executor) {
+        this.tool = tool;
+        this.asyncTool = tool instanceof AsyncTool ? (AsyncTool) tool : null;
+        this.executor = executor;
+        ToolPolicy declared = tool.getPolicy();
+        this.policy = declared == null ? ToolPolicy.DEFAULT : declared;
+    }
+
+    /**
+     * Gets the policy this invoker enforces.
+     *
+     * @return the tool's policy, or the default policy if the tool declares none
+     */
+    public ToolPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Requests a call to the tool.
+     *
+     * @param args a map of argument names to their values
+     * @return a future completed with the tool result, or exceptionally if the tool fails, the
+     *     call times out or the tool is saturated; cancelling it cancels the call
+     * @throws IllegalStateException if the tool is blocking and the invoker was created without
+     *     an executor
+     */
+    public CompletableFuture<Object> invoke(Map<String, Object> args) {
+        if (executor == null && asyncTool == null) {
+            throw new IllegalStateException("No executor for blocking tool " + tool.getName());
+        }
+        return invoke(args, executor);
+    }
+
+    /**
+     * Requests a call to the tool, running it on the given executor if the tool is blocking.
+     *
+     * @param args a map of argument names to their values
+     * @param executor the executor for the call if the tool is blocking
+     * @return a future completed with the tool result, or exceptionally if the tool fails, the
+     *     call times out or the tool is saturated; cancelling it cancels the call
+     */
+    public CompletableFuture<Object> invoke(Map<String, Object> args, Executor executor) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        Runnable start = () -> start(args, executor, result);
+        synchronized (queue) {
+            if (running < policy.getMaxConcurrency()) {
+                running++;
+            } else if (queue.size() < policy.getQueueCapacity()) {
+                queue.add(start);
+                result.whenComplete((value, error) -> {
+                    synchronized (queue) {
+                        queue.remove(start);
+                    }
+                });
+                scheduleTimeout(result);
+                return result;
+            } else {
+                result.completeExceptionally(new RejectedExecutionException(
+                        "Tool " + tool.getName() + " is saturated: " + policy.getMaxConcurrency()
+                                + " calls running and " + policy.getQueueCapacity() + " queued"));
+                return result;
+            }
+        }
+        scheduleTimeout(result);
+        start.run();
+        return result;
+    }
+
+    /**
+     * Starts a call that holds a slot, unless it already timed out or was cancelled while queued.
+     */
+    private void start(Map<String, Object> args, Executor executor, CompletableFuture<Object> result) {
+        if (result.isDone()) {
+            release();
+            return;
+        }
+        CompletableFuture<Object> call;
+        CompletableFuture<?> finished;
+        if (asyncTool == null) {
+            call = new CompletableFuture<>();
+            finished = BlockingToolAdapter.run(tool, executor, args, call);
+        } else {
+            try {
+                call = asyncTool.executeAsync(args).toCompletableFuture();
+            } catch (RuntimeException e) {
+                call = new CompletableFuture<>();
+                call.completeExceptionally(e);
+            }
+            finished = call;
+        }
+        finished.whenComplete((value, error) -> release());
+        CompletableFuture<Object> started = call;
+        started.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(
+                        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (!started.isDone()) {
+                started.cancel(true);
+            }
+        });
+    }
+
+    /**
+     * Frees a slot, handing it straight to the next queued call if there is one.
+     */
+    private void release() {
+        Runnable next;
+        synchronized (queue) {
+            next = queue.poll();
+            if (next == null) {
+                running--;
+            }
+        }
+        if (next != null) {
+            next.run();
+        }
+    }
+
+    private void scheduleTimeout(CompletableFuture<Object> result) {
+        long timeoutMillis = policy.getTimeout().toMillis();
+        if (timeoutMillis <= 0) {
+            return;
+        }
+        ScheduledFuture<?> timeout = TIMER.schedule(
+                () -> result.completeExceptionally(new TimeoutException(
+                        "Tool " + tool.getName() + " timed out after " + timeoutMillis + " ms")),
+                timeoutMillis,
+                TimeUnit.MILLISECONDS);
+        result.whenComplete((value, error) -> timeout.cancel(false));
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "tool-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+}
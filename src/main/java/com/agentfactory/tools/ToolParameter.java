@@ -0,0 +1,136 @@
+package com.agentfactory.tools;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes one argument of a tool: its name, JSON type, description and whether it is required.
+ * Used to advertise the tool to the model and to validate calls before they are dispatched.
+ */
+public final class ToolParameter {
+
+    /**
+     * The JSON Schema types an argument can have.
+     */
+    public enum Type {
+        STRING("string"),
+        NUMBER("number"),
+        INTEGER("integer"),
+        BOOLEAN("boolean"),
+        OBJECT("object"),
+        ARRAY("array");
+
+        private final String jsonName;
+
+        Type(String jsonName) {
+            this.jsonName = jsonName;
+        }
+
+        /**
+         * Gets the JSON Schema name of this type.
+         *
+         * @return the type name, for example "string"
+         */
+        public String getJsonName() {
+            return jsonName;
+        }
+
+        /**
+         * Checks whether a decoded JSON value has this type. Integers may be decoded as doubles,
+         * so any number without a fractional part is accepted as an integer.
+         *
+         * @param value the decoded argument value, not null
+         * @return true if the value has this type
+         */
+        boolean accepts(Object value) {
+            switch (this) {
+                case STRING:
+                    return value instanceof String;
+                case NUMBER:
+                    return value instanceof Number;
+                case INTEGER:
+                    return value instanceof Number && ((Number) value).doubleValue() % 1 == 0;
+                case BOOLEAN:
+                    return value instanceof Boolean;
+                case OBJECT:
+                    return value instanceof Map;
+                case ARRAY:
+                    return value instanceof List;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private final String name;
+    private final Type type;
+    private final String description;
+    private final boolean required;
+
+    private ToolParameter(String name, Type type, String description, boolean required) {
+        this.name = name;
+        this.type = type;
+        this.description = description;
+        this.required = required;
+    }
+
+    /**
+     * Creates a required parameter.
+     *
+     * @param name the argument name
+     * @param type the argument type
+     * @param description what the argument means, shown to the model
+     * @return the parameter
+     */
+    public static ToolParameter required(String name, Type type, String description) {
+        return new ToolParameter(name, type, description, true);
+    }
+
+    /**
+     * Creates an optional parameter.
+     *
+     * @param name the argument name
+     * @param type the argument type
+     * @param description what the argument means, shown to the model
+     * @return the parameter
+     */
+    public static ToolParameter optional(String name, Type type, String description) {
+        return new ToolParameter(name, type, description, false);
+    }
+
+    /**
+     * Gets the argument name.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the argument type.
+     *
+     * @return the type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the argument description.
+     *
+     * @return the description
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns whether a call must provide this argument.
+     *
+     * @return true if the argument is required
+     */
+    public boolean isRequired() {
+        return required;
+    }
+}
@@ -0,0 +1,150 @@
+package com.agentfactory.tools;
+
+import java.time.Duration;
+
+/**
+ * Execution limits a tool declares for itself: how long a call may take, how many calls may run
+ * at once, and how many further calls may wait for a free slot before new calls are rejected.
+ * Enforced by {@link ToolInvoker}. A policy also declares whether calls are idempotent, which
+ * allows an agent to start them speculatively.
+ */
+public final class ToolPolicy {
+    /**
+     * The policy used by tools that declare none: a 60 second timeout and no concurrency limit.
+     */
+    public static final ToolPolicy DEFAULT = builder().build();
+
+    private final Duration timeout;
+    private final int maxConcurrency;
+    private final int queueCapacity;
+    private final boolean idempotent;
+
+    private ToolPolicy(Duration timeout, int maxConcurrency, int queueCapacity, boolean idempotent) {
+        this.timeout = timeout;
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.idempotent = idempotent;
+    }
+
+    /**
+     * Creates a builder initialized with the default limits.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the maximum time a call may take, measured from the moment it is requested, so time
+     * spent waiting for a free slot counts too.
+     *
+     * @return the timeout, or zero for none
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Gets the maximum number of calls running at the same time.
+     *
+     * @return the concurrency limit
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Gets the maximum number of calls waiting for a free slot. Calls beyond this are rejected.
+     *
+     * @return the queue capacity, or zero to reject as soon as all slots are busy
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Returns whether calls have no side effects, so a call may be made and its result discarded,
+     * or made twice with the same arguments.
+     *
+     * @return true if the tool's calls are idempotent
+     */
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
+    /**
+     * Builder for {@link ToolPolicy} limits.
+     */
+    public static class Builder {
+        private Duration timeout = Duration.ofSeconds(60);
+        private int maxConcurrency = Integer.MAX_VALUE;
+        private int queueCapacity = 0;
+        private boolean idempotent = false;
+
+        private Builder() {}
+
+        /**
+         * Sets the maximum time a call may take, including time spent queued.
+         *
+         * @param timeout the timeout, or zero for none
+         * @return this builder
+         */
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of calls running at the same time.
+         *
+         * @param maxConcurrency the concurrency limit
+         * @return this builder
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of calls waiting for a free slot.
+         *
+         * @param queueCapacity the queue capacity, or zero to reject when all slots are busy
+         * @return this builder
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Declares whether calls have no side effects. Defaults to false.
+         *
+         * @param idempotent true if a call may be made and its result discarded
+         * @return this builder
+         */
+        public Builder idempotent(boolean idempotent) {
+            this.idempotent = idempotent;
+            return this;
+        }
+
+        /**
+         * Builds the policy.
+         *
+         * @return a new policy
+         * @throws IllegalArgumentException if a limit is out of range
+         */
+        public ToolPolicy build() {
+            if (timeout == null || timeout.isNegative()) {
+                throw new IllegalArgumentException("Timeout must not be negative: " + timeout);
+            }
+            if (maxConcurrency <= 0) {
+                throw new IllegalArgumentException("Max concurrency must be positive: " + maxConcurrency);
+            }
+            if (queueCapacity < 0) {
+                throw new IllegalArgumentException("Queue capacity must not be negative: " + queueCapacity);
+            }
+            return new ToolPolicy(timeout, maxConcurrency, queueCapacity, idempotent);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.agentfactory.tools;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * An immutable set of tools, indexed by name and built once so it can be shared by any number of
+ * agents. Besides dispatch lookups, the registry validates calls against each tool's declared
+ * {@link ToolParameter}s, so a malformed call is answered with an error the model can correct
+ * instead of reaching the tool, and it describes the tools for the prompt and for OpenAI's
+ * {@code tools} request field. Both descriptions are generated when the registry is built.
+ * The registry also holds one {@link ToolInvoker} per tool, so each tool's concurrency limit and
+ * queue apply across all the agents sharing the registry.
+ */
+public final class ToolRegistry {
+    private final Map<String, Tool> tools;
+    private final Map<String, List<ToolParameter>> parameters;
+    private final Map<String, ToolInvoker> invokers;
+    private final String description;
+    private final JsonArray openAITools;
+
+    private ToolRegistry(Map<String, Tool> tools) {
+        this.tools = Collections.unmodifiableMap(tools);
+        this.parameters = new LinkedHashMap<>();
+        this.invokers = new LinkedHashMap<>();
+        for (Tool tool : tools.values()) {
+            List<ToolParameter> declared = tool.getParameters();
+            parameters.put(tool.getName(), declared == null ? Collections.emptyList() : new ArrayList<>(declared));
+            invokers.put(tool.getName(), new ToolInvoker(tool));
+        }
+        this.description = describe();
+        this.openAITools = buildOpenAITools();
+    }
+
+    /**
+     * Builds a registry from the given tools. If several tools share a name, the last one wins.
+     *
+     * @param tools the tools
+     * @return the registry
+     */
+    public static ToolRegistry of(Collection<? extends Tool> tools) {
+        Map<String, Tool> byName = new LinkedHashMap<>();
+        for (Tool tool : tools) {
+            byName.put(tool.getName(), tool);
+        }
+        return new ToolRegistry(byName);
+    }
+
+    /**
+     * Looks up a tool by name.
+     *
+     * @param name the tool name
+     * @return the tool, or null if there is none with that name
+     */
+    public Tool get(String name) {
+        return tools.get(name);
+    }
+
+    /**
+     * Gets the invoker that dispatches calls to a tool under its policy. Every caller gets the same
+     * invoker, and names the executor for blocking tools with {@link ToolInvoker#invoke(Map, Executor)}.
+     *
+     * @param name the tool name
+     * @return the invoker, or null if there is no tool with that name
+     */
+    public ToolInvoker getInvoker(String name) {
+        return invokers.get(name);
+    }
+
+    /**
+     * Returns whether a tool with the given name is registered.
+     *
+     * @param name the tool name
+     * @return true if the tool is registered
+     */
+    public boolean contains(String name) {
+        return tools.containsKey(name);
+    }
+
+    /**
+     * Gets the registered tools in the order they were given.
+     *
+     * @return an unmodifiable view of the tools
+     */
+    public Collection<Tool> getTools() {
+        return tools.values();
+    }
+
+    /**
+     * Checks a call's arguments against the tool's parameters: every required argument must be
+     * present and every declared argument must have the declared type. Undeclared arguments are
+     * ignored, and tools that declare no parameters accept any arguments.
+     *
+     * @param name the tool name
+     * @param args the call's arguments
+     * @return a message describing every problem found, or null if the call is valid
+     * @throws IllegalArgumentException if no tool has the given name
+     */
+    public String validate(String name, Map<String, Object> args) {
+        List<ToolParameter> declared = parameters.get(name);
+        if (declared == null) {
+            throw new IllegalArgumentException("Unknown tool: " + name);
+        }
+        List<String> problems = new ArrayList<>();
+        for (ToolParameter parameter : declared) {
+            Object value = args == null ? null : args.get(parameter.getName());
+            if (value == null) {
+                if (parameter.isRequired()) {
+                    problems.add("missing required argument '" + parameter.getName() + "'");
+                }
+            } else if (!parameter.getType().accepts(value)) {
+                problems.add("argument '" + parameter.getName() + "' must be of type "
+                        + parameter.getType().getJsonName());
+            }
+        }
+        return problems.isEmpty() ? null : "Invalid call to " + name + ": " + String.join(", ", problems);
+    }
+
+    /**
+     * Describes the tools for a system prompt, one line per tool with its arguments.
+     *
+     * @return the tool descriptions
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Describes the tools in the format of the OpenAI chat completions {@code tools} field.
+     *
+     * @return a new array of function definitions with JSON Schema parameters
+     */
+    public JsonArray getOpenAITools() {
+        return openAITools.deepCopy();
+    }
+
+    private String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (Tool tool : tools.values()) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append("- ").append(tool.getName());
+            String toolDescription = tool.getDescription();
+            if (toolDescription != null && !toolDescription.isEmpty()) {
+                sb.append(": ").append(toolDescription);
+            }
+            List<ToolParameter> declared = parameters.get(tool.getName());
+            if (!declared.isEmpty()) {
+                sb.append(" Arguments:");
+                for (int i = 0; i < declared.size(); i++) {
+                    ToolParameter parameter = declared.get(i);
+                    sb.append(i == 0 ? " " : "; ")
+                            .append(parameter.getName())
+                            .append(" (")
+                            .append(parameter.getType().getJsonName())
+                            .append(parameter.isRequired() ? ", required" : ", optional")
+                            .append(")");
+                    if (parameter.getDescription() != null && !parameter.getDescription().isEmpty()) {
+                        sb.append(": ").append(parameter.getDescription());
+                    }
+                }
+                sb.append('.');
+            }
+        }
+        return sb.toString();
+    }
+
+    private JsonArray buildOpenAITools() {
+        JsonArray array = new JsonArray();
+        for (Tool tool : tools.values()) {
+            JsonObject properties = new JsonObject();
+            JsonArray required = new JsonArray();
+            for (ToolParameter parameter : parameters.get(tool.getName())) {
+                JsonObject property = new JsonObject();
+                property.addProperty("type", parameter.getType().getJsonName());
+                if (parameter.getDescription() != null) {
+                    property.addProperty("description", parameter.getDescription());
+                }
+                properties.add(parameter.getName(), property);
+                if (parameter.isRequired()) {
+                    required.add(parameter.getName());
+                }
+            }
+            JsonObject schema = new JsonObject();
+            schema.addProperty("type", "object");
+            schema.add("properties", properties);
+            schema.add("required", required);
+
+            JsonObject function = new JsonObject();
+            function.addProperty("name", tool.getName());
+            String toolDescription = tool.getDescription();
+            if (toolDescription != null && !toolDescription.isEmpty()) {
+                function.addProperty("description", toolDescription);
+            }
+            function.add("parameters", schema);
+
+            JsonObject definition = new JsonObject();
+            definition.addProperty("type", "function");
+            definition.add("function", function);
+            array.add(definition);
+        }
+        return array;
+    }
+}
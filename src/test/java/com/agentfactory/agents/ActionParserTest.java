@@ -0,0 +1,64 @@
+package com.agentfactory.agents;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class ActionParserTest {
+
+    @Test
+    public void parse_WithPreamble_ShouldDecodeActionInOnePass() {
+        String action = "{\"name\":\"search\",\"arguments\":{\"query\":\"java\",\"limit\":5,\"exact\":true}}";
+
+        ParsedAction parsed = ActionParser.parse("Thought: I should search.\nAction:\n" + action + "\nDone.");
+
+        assertThat(parsed.getJson()).isEqualTo(action);
+        assertThat(parsed.getCalls()).hasSize(1);
+        ToolCall call = parsed.getCalls().get(0);
+        assertThat(call.getName()).isEqualTo("search");
+        assertThat(call.getString("query")).isEqualTo("java");
+        assertThat(call.getArguments()).containsEntry("limit", 5.0).containsEntry("exact", true);
+    }
+
+    @Test
+    public void parse_WithBracesAndEscapesInStrings_ShouldDecodeThem() {
+        ParsedAction parsed = ActionParser.parse(
+                "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"a } \\\"quoted\\\" {\\n\\u00e9\"}}");
+
+        assertThat(parsed.getCalls().get(0).getString("answer")).isEqualTo("a } \"quoted\" {\n\u00e9");
+    }
+
+    @Test
+    public void parse_WithBraceInPreamble_ShouldSkipInvalidCandidate() {
+        ParsedAction parsed = ActionParser.parse("Use {braces} wisely: {\"name\":\"search\",\"arguments\":{}}");
+
+        assertThat(parsed.getCalls().get(0).getName()).isEqualTo("search");
+        assertThat(parsed.getCalls().get(0).getArguments()).isEmpty();
+    }
+
+    @Test
+    public void parse_WithArray_ShouldReturnCallsInOrder() {
+        ParsedAction parsed = ActionParser.parse("[{\"name\":\"a\",\"arguments\":{\"n\":[1,2]}}, {\"name\":\"b\"}]");
+
+        assertThat(parsed.getCalls()).extracting(ToolCall::getName).containsExactly("a", "b");
+        assertThat(parsed.getCalls().get(0).getArguments().get("n")).isEqualTo(Arrays.asList(1.0, 2.0));
+    }
+
+    @Test
+    public void parse_WithOpenAiToolCalls_ShouldDecodeStringArguments() {
+        ParsedAction parsed = ActionParser.parse("{\"tool_calls\":[{\"id\":\"call_1\",\"type\":\"function\","
+                + "\"function\":{\"name\":\"search\",\"arguments\":\"{\\\"query\\\":\\\"java\\\"}\"}}]}");
+
+        assertThat(parsed.getCalls().get(0).getName()).isEqualTo("search");
+        assertThat(parsed.getCalls().get(0).getString("query")).isEqualTo("java");
+    }
+
+    @Test
+    public void parse_WithoutAction_ShouldThrowException() {
+        assertThatThrownBy(() -> ActionParser.parse("{\"thought\": \"no tool here\"}"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("valid action JSON");
+    }
+}
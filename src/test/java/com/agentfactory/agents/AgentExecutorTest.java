@@ -0,0 +1,119 @@
+package com.agentfactory.agents;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.agentfactory.metrics.HistogramMetricsRecorder;
+import com.agentfactory.metrics.MetricNames;
+import com.agentfactory.models.AIModel;
+import com.agentfactory.models.Message;
+import com.agentfactory.tools.FinalAnswerTool;
+import com.agentfactory.tools.Tool;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class AgentExecutorTest {
+
+    private static final String SYSTEM_PROMPT = "You are a helpful assistant";
+
+    private final List<Tool> tools = Collections.singletonList(new FinalAnswerTool());
+
+    @Test
+    public void submitAll_ShouldRunEachTaskInItsOwnSession() throws Exception {
+        AIModel echoModel = messages -> finalAnswer(lastUserMessage(messages));
+
+        try (AgentExecutor executor = new AgentExecutor(echoModel, SYSTEM_PROMPT, tools, 4, 16)) {
+            List<CompletableFuture<String>> results = executor.submitAll(Arrays.asList("a", "b", "c", "d", "e"));
+
+            CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+            assertThat(results).extracting(CompletableFuture::join).containsExactly("a", "b", "c", "d", "e");
+        }
+    }
+
+    @Test
+    public void trySubmit_WhenSaturated_ShouldReturnNull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AIModel blockingModel = messages -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return finalAnswer("done");
+        };
+
+        try (AgentExecutor executor = new AgentExecutor(blockingModel, SYSTEM_PROMPT, tools, 1, 1)) {
+            CompletableFuture<String> running = executor.trySubmit("first");
+            CompletableFuture<String> queued = executor.trySubmit("second");
+
+            assertThat(running).isNotNull();
+            assertThat(queued).isNotNull();
+            assertThat(executor.trySubmit("third")).isNull();
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        }
+    }
+
+    @Test
+    public void setMetrics_ShouldApplyOnlyToTasksSubmittedAfterwards() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AIModel blockingModel = messages -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return finalAnswer("done");
+        };
+        HistogramMetricsRecorder metrics = new HistogramMetricsRecorder();
+
+        try (AgentExecutor executor = new AgentExecutor(blockingModel, SYSTEM_PROMPT, tools, 1, 1)) {
+            CompletableFuture<String> running = executor.submit("first");
+            CompletableFuture<String> queued = executor.submit("second");
+            executor.setMetrics(metrics);
+            release.countDown();
+            running.get(5, TimeUnit.SECONDS);
+            queued.get(5, TimeUnit.SECONDS);
+            assertThat(metrics.getCounter(MetricNames.AGENT_STEPS)).isZero();
+
+            executor.submit("third").get(5, TimeUnit.SECONDS);
+            assertThat(metrics.getCounter(MetricNames.AGENT_STEPS)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void submit_WhenRunFails_ShouldCompleteExceptionally() {
+        AIModel invalidModel = messages -> "no action";
+
+        try (AgentExecutor executor = new AgentExecutor(invalidModel, SYSTEM_PROMPT, tools, 1, 0)) {
+            CompletableFuture<String> result = executor.submit("task");
+
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasMessageContaining("valid action JSON");
+        }
+    }
+
+    @Test
+    public void constructor_WithNonPositiveConcurrency_ShouldThrowException() {
+        assertThatThrownBy(() -> new AgentExecutor(messages -> "", SYSTEM_PROMPT, tools, 0, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Concurrency");
+    }
+
+    private static String lastUserMessage(List<Message> messages) {
+        return messages.get(messages.size() - 1).getContent();
+    }
+
+    private static String finalAnswer(String answer) {
+        return "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"" + answer + "\"}}";
+    }
+}
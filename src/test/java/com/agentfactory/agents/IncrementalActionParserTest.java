@@ -0,0 +1,108 @@
+package com.agentfactory.agents;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class IncrementalActionParserTest {
+
+    @Test
+    public void append_WithCompleteResponse_ShouldExtractAction() {
+        IncrementalActionParser parser = new IncrementalActionParser();
+
+        String action = "{\"name\":\"search\",\"arguments\":{\"query\":\"java\"}}";
+
+        boolean complete = parser.append("Thought: search\nAction:\n" + action + " done");
+
+        assertThat(complete).isTrue();
+        assertThat(parser.getAction()).isEqualTo(action);
+    }
+
+    @Test
+    public void append_WithChunks_ShouldCompleteOnClosingBrace() {
+        IncrementalActionParser parser = new IncrementalActionParser();
+
+        assertThat(parser.append("Action: {\"name\":")).isFalse();
+        assertThat(parser.append("\"final_answer\",\"arguments\":{\"answer\":")).isFalse();
+        assertThat(parser.append("\"42\"}")).isFalse();
+        assertThat(parser.append("}")).isTrue();
+
+        assertThat(parser.getAction()).isEqualTo("{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"42\"}}");
+    }
+
+    @Test
+    public void append_WithBracesInsideStrings_ShouldIgnoreThem() {
+        IncrementalActionParser parser = new IncrementalActionParser();
+
+        String action = "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"use } and \\\" {\"}}";
+
+        parser.append(action + " trailing }");
+
+        assertThat(parser.getAction()).isEqualTo(action);
+    }
+
+    @Test
+    public void append_WithInvalidCandidateBeforeAction_ShouldSkipItAndKeepScanning() {
+        IncrementalActionParser parser = new IncrementalActionParser();
+        String action = "{\"name\":\"search\",\"arguments\":{\"query\":\"java\"}}";
+
+        assertThat(parser.append("Results look like {\"title\": \"...\"} [1, 2]. ")).isFalse();
+        assertThat(parser.append("Action: " + action.substring(0, 20))).isFalse();
+        assertThat(parser.append(action.substring(20))).isTrue();
+
+        assertThat(parser.getAction()).isEqualTo(action);
+        assertThat(ActionParser.parse(parser.getAction()).getCalls().get(0).getName()).isEqualTo("search");
+    }
+
+    @Test
+    public void append_WithoutAction_ShouldNotComplete() {
+        IncrementalActionParser parser = new IncrementalActionParser();
+
+        assertThat(parser.append("No action here")).isFalse();
+        assertThat(parser.isComplete()).isFalse();
+        assertThat(parser.getAction()).isNull();
+    }
+
+    @Test
+    public void append_WithCallListener_ShouldReportArrayElementsAsTheyClose() {
+        List<String> calls = new ArrayList<>();
+        IncrementalActionParser parser = new IncrementalActionParser(
+                (call, index) -> calls.add(index + ":" + call), () -> {});
+
+        parser.append("[{\"name\":\"search\",\"arguments\":{\"query\":\"a\"}},");
+        assertThat(calls).containsExactly("0:{\"name\":\"search\",\"arguments\":{\"query\":\"a\"}}");
+
+        parser.append("{\"name\":\"search\",\"arguments\":{\"query\":\"b\"}}]");
+        assertThat(calls).hasSize(2).last().isEqualTo("1:{\"name\":\"search\",\"arguments\":{\"query\":\"b\"}}");
+    }
+
+    @Test
+    public void append_WithCallListener_ShouldReportObjectOnceArgumentsAreComplete() {
+        List<String> calls = new ArrayList<>();
+        IncrementalActionParser parser = new IncrementalActionParser((call, index) -> calls.add(call), () -> {});
+
+        parser.append("{\"name\":\"search\",\"arguments\":{\"query\":\"a\"},\"thought\":\"still writ");
+
+        assertThat(parser.isComplete()).isFalse();
+        assertThat(calls)
+                .extracting(ActionParser::parseCall)
+                .filteredOn(call -> call != null)
+                .singleElement()
+                .satisfies(call -> assertThat(call.getString("query")).isEqualTo("a"));
+    }
+
+    @Test
+    public void append_WithInvalidCandidate_ShouldReportResetBeforeNextCandidate() {
+        List<String> events = new ArrayList<>();
+        IncrementalActionParser parser = new IncrementalActionParser(
+                (call, index) -> events.add(index + ":" + call), () -> events.add("reset"));
+
+        parser.append("Example: {\"note\":\"x\"} Action: {\"name\":\"search\",\"arguments\":{\"query\":\"b\"}}");
+
+        assertThat(parser.isComplete()).isTrue();
+        assertThat(events.get(0)).isEqualTo("0:{\"note\":\"x\"}");
+        assertThat(events.lastIndexOf("reset")).isLessThan(events.indexOf("0:{\"name\":\"search\"}"));
+    }
+}
@@ -0,0 +1,220 @@
+package com.agentfactory.agents;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.agentfactory.metrics.HistogramMetricsRecorder;
+import com.agentfactory.metrics.MetricNames;
+import com.agentfactory.models.AIModel;
+import com.agentfactory.models.Message;
+import com.agentfactory.prompts.PromptRegistry;
+import com.agentfactory.tools.FinalAnswerTool;
+import com.agentfactory.tools.ToolRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OrchestratorAgentTest {
+
+    private static final String TASK = "Compare Java and Kotlin";
+
+    @TempDir
+    Path promptDirectory;
+
+    @Test
+    public void run_WithPlannedSubtasks_ShouldRunWorkersConcurrentlyAndMergeAnswers() {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        List<String> mergeInputs = Collections.synchronizedList(new ArrayList<>());
+        AIModel model = messages -> {
+            String user = lastContent(messages);
+            if (isPlanner(messages)) {
+                return "Subtasks:\n[\"Research Java\", \"Research Kotlin\"]";
+            }
+            if (isMerge(messages)) {
+                mergeInputs.add(user);
+                return "  Merged answer  ";
+            }
+            bothRunning.countDown();
+            boolean concurrent = await(bothRunning);
+            return finalAnswer(user.substring(0, user.indexOf('\n')) + (concurrent ? " done" : " alone"));
+        };
+        HistogramMetricsRecorder metrics = new HistogramMetricsRecorder();
+
+        String result;
+        try (OrchestratorAgent orchestrator =
+                new OrchestratorAgent(model, Collections.singletonList(new FinalAnswerTool()), 2)) {
+            orchestrator.setMetrics(metrics);
+            result = orchestrator.run(TASK);
+        }
+
+        assertThat(result).isEqualTo("Merged answer");
+        assertThat(mergeInputs).singleElement().asString()
+                .contains(TASK, "[1] Research Java\nResearch Java done", "[2] Research Kotlin\nResearch Kotlin done");
+        assertThat(metrics.getHistogram(MetricNames.ORCHESTRATOR_WORKERS_TIME).getCount()).isEqualTo(1);
+        assertThat(metrics.getCounter(MetricNames.AGENT_STEPS)).isEqualTo(2);
+    }
+
+    @Test
+    public void run_WithFailingSubtask_ShouldPassErrorToMerge() {
+        List<String> mergeInputs = Collections.synchronizedList(new ArrayList<>());
+        AIModel model = messages -> {
+            String user = lastContent(messages);
+            if (isPlanner(messages)) {
+                return "[\"Research Java\", \"Research Kotlin\"]";
+            }
+            if (isMerge(messages)) {
+                mergeInputs.add(user);
+                return "Partial answer";
+            }
+            if (user.startsWith("Research Kotlin")) {
+                throw new IllegalStateException("model unavailable");
+            }
+            return finalAnswer("Java facts");
+        };
+        HistogramMetricsRecorder metrics = new HistogramMetricsRecorder();
+
+        String result;
+        try (OrchestratorAgent orchestrator =
+                new OrchestratorAgent(model, Collections.singletonList(new FinalAnswerTool()), 2)) {
+            orchestrator.setMetrics(metrics);
+            result = orchestrator.run(TASK);
+        }
+
+        assertThat(result).isEqualTo("Partial answer");
+        assertThat(mergeInputs).singleElement().asString().contains("Java facts", "Error: model unavailable");
+        assertThat(metrics.getCounter(MetricNames.ORCHESTRATOR_SUBTASK_FAILURES)).isEqualTo(1);
+    }
+
+    @Test
+    public void run_WithUnsplitTask_ShouldReturnWorkerAnswerWithoutMerging() {
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        AIModel model = messages -> {
+            if (isPlanner(messages)) {
+                return "This task is simple enough to do at once.";
+            }
+            if (isMerge(messages)) {
+                throw new AssertionError("merge not expected");
+            }
+            seen.add(lastContent(messages));
+            return finalAnswer("Single answer");
+        };
+
+        String result;
+        try (OrchestratorAgent orchestrator =
+                new OrchestratorAgent(model, Collections.singletonList(new FinalAnswerTool()), 2)) {
+            result = orchestrator.run(TASK);
+        }
+
+        assertThat(result).isEqualTo("Single answer");
+        assertThat(seen).containsExactly(TASK);
+    }
+
+    @Test
+    public void run_WithFailingSubtaskWithoutMessage_ShouldPassExceptionToMerge() {
+        List<String> mergeInputs = Collections.synchronizedList(new ArrayList<>());
+        AIModel model = messages -> {
+            String user = lastContent(messages);
+            if (isPlanner(messages)) {
+                return "[\"Research Java\", \"Research Kotlin\"]";
+            }
+            if (isMerge(messages)) {
+                mergeInputs.add(user);
+                return "Partial answer";
+            }
+            if (user.startsWith("Research Kotlin")) {
+                throw new IllegalStateException();
+            }
+            return finalAnswer("Java facts");
+        };
+
+        try (OrchestratorAgent orchestrator =
+                new OrchestratorAgent(model, Collections.singletonList(new FinalAnswerTool()), 2)) {
+            orchestrator.run(TASK);
+        }
+
+        assertThat(mergeInputs).singleElement().asString()
+                .contains("Error: java.lang.IllegalStateException")
+                .doesNotContain("Error: null");
+    }
+
+    @Test
+    public void run_WithPromptRegistry_ShouldReadEveryPromptFromIt() throws IOException {
+        copyPrompt("orchestrator_plan.yaml", "CUSTOM PLAN");
+        copyPrompt("orchestrator_merge.yaml", "CUSTOM MERGE");
+        copyPrompt("toolcalling_agent.yaml", "CUSTOM WORKER");
+        Set<String> systemPrompts = ConcurrentHashMap.newKeySet();
+        AIModel model = messages -> {
+            systemPrompts.add(messages.get(0).getContent().split("\n", 2)[0]);
+            if (isPlanner(messages)) {
+                return "[\"Research Java\", \"Research Kotlin\"]";
+            }
+            if (isMerge(messages)) {
+                return "Merged answer";
+            }
+            return finalAnswer("facts");
+        };
+
+        try (OrchestratorAgent orchestrator = new OrchestratorAgent(model, new PromptRegistry(promptDirectory),
+                ToolRegistry.of(Collections.singletonList(new FinalAnswerTool())), 2, 8)) {
+            assertThat(orchestrator.run(TASK)).isEqualTo("Merged answer");
+        }
+
+        assertThat(systemPrompts).containsExactlyInAnyOrder("CUSTOM PLAN", "CUSTOM MERGE", "CUSTOM WORKER");
+    }
+
+    @Test
+    public void parseSubtasks_ShouldReadStringArrayAndRejectOtherContent() {
+        assertThat(OrchestratorAgent.parseSubtasks("Plan: [\"a\", \" \", \"b\"] done")).containsExactly("a", "b");
+        assertThat(OrchestratorAgent.parseSubtasks("[{\"task\": \"a\"}]")).isEmpty();
+        assertThat(OrchestratorAgent.parseSubtasks("[\"unterminated")).isEmpty();
+        assertThat(OrchestratorAgent.parseSubtasks(null)).isEmpty();
+    }
+
+    /**
+     * Copies a bundled prompt into the prompt directory with a marker line in front.
+     */
+    private void copyPrompt(String fileName, String marker) throws IOException {
+        String source;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(fileName)) {
+            source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Files.write(promptDirectory.resolve(fileName),
+                source.replaceFirst("system_prompt: \\|\n", "system_prompt: |\n  " + marker + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isPlanner(List<Message> messages) {
+        return messages.get(0).getContent().contains("You are a planner");
+    }
+
+    private static boolean isMerge(List<Message> messages) {
+        return messages.get(0).getContent().contains("answers to its subtasks");
+    }
+
+    private static String lastContent(List<Message> messages) {
+        return messages.get(messages.size() - 1).getContent();
+    }
+
+    private static String finalAnswer(String answer) {
+        return "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"" + answer + "\"}}";
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
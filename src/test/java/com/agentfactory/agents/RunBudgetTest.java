@@ -0,0 +1,71 @@
+package com.agentfactory.agents;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.agentfactory.models.Message;
+import java.time.Duration;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+public class RunBudgetTest {
+
+    @Test
+    public void builder_WithDefaults_ShouldLimitOnlySteps() {
+        RunBudget budget = RunBudget.builder().build();
+
+        assertThat(budget.getMaxSteps()).isEqualTo(10);
+        assertThat(budget.getMaxDuration()).isEqualTo(Duration.ZERO);
+        assertThat(budget.getMaxPromptTokens()).isZero();
+        assertThat(budget.getMaxCompletionTokens()).isZero();
+        assertThat(budget.getMaxCost()).isZero();
+    }
+
+    @Test
+    public void build_WithCostLimitButNoPrices_ShouldThrowException() {
+        assertThatThrownBy(() -> RunBudget.builder().maxCost(1).build())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("token prices");
+    }
+
+    @Test
+    public void build_WithNonPositiveSteps_ShouldThrowException() {
+        assertThatThrownBy(() -> RunBudget.builder().maxSteps(0).build())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Max steps");
+    }
+
+    @Test
+    public void cost_ShouldApplyPricesPerMillionTokens() {
+        RunBudget budget = RunBudget.builder().tokenPrices(2.5, 10).build();
+
+        assertThat(budget.cost(1_000_000, 100_000)).isEqualTo(3.5);
+    }
+
+    @Test
+    public void exhausted_WhenCompletionTokensReachLimit_ShouldReportLimit() {
+        BudgetTracker tracker = new BudgetTracker(RunBudget.builder()
+                .maxCompletionTokens(2)
+                .tokenEstimator(String::length)
+                .build());
+
+        tracker.recordModelCall(Collections.singletonList(new Message("user", "task")), "ab");
+
+        assertThat(tracker.getPromptTokens()).isEqualTo(4);
+        assertThat(tracker.exhausted(1)).isEqualTo("Completion token budget of 2 reached without final answer.");
+    }
+
+    @Test
+    public void isLow_WhenNextTwoStepsWouldExceedTokens_ShouldReturnTrue() {
+        BudgetTracker tracker = new BudgetTracker(RunBudget.builder()
+                .maxPromptTokens(100)
+                .tokenEstimator(String::length)
+                .build());
+        tracker.startStep();
+        tracker.recordModelCall(Collections.singletonList(new Message("user", "x".repeat(40))), "");
+        tracker.endStep();
+
+        assertThat(tracker.isLow(1)).isTrue();
+        assertThat(tracker.exhausted(1)).isNull();
+    }
+}
@@ -5,19 +5,53 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.agentfactory.checkpoint.Checkpoint;
+import com.agentfactory.checkpoint.InMemoryCheckpointStore;
+import com.agentfactory.memory.ActionStep;
 import com.agentfactory.memory.AgentMemory;
+import com.agentfactory.memory.MemoryStep;
+import com.agentfactory.metrics.HistogramMetricsRecorder;
+import com.agentfactory.metrics.MetricNames;
 import com.agentfactory.models.AIModel;
+import com.agentfactory.models.FunctionCall;
+import com.agentfactory.models.FunctionCallingAIModel;
+import com.agentfactory.models.Message;
+import com.agentfactory.models.StreamingAIModel;
+import com.agentfactory.models.TokenListener;
+import com.agentfactory.prompts.PromptRegistry;
 import com.agentfactory.tools.FinalAnswerTool;
 import com.agentfactory.tools.Tool;
+import com.agentfactory.tools.ToolParameter;
+import com.agentfactory.tools.ToolPolicy;
+import com.agentfactory.tools.ToolRegistry;
+import com.google.gson.JsonArray;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -113,14 +147,598 @@ public class ToolCallingAgentTest {
     }
 
     @Test
-    public void run_WithUnknownTool_ShouldThrowException() {
-        // Mock the model to return a response with an unknown tool
-        String modelResponse = "{\"name\":\"unknown_tool\",\"arguments\":{}}";
-        when(mockModel.generateResponse(any())).thenReturn(modelResponse);
+    public void run_WithUnknownTool_ShouldAnswerWithErrorObservation() {
+        // The model first calls a tool that does not exist, then gives the final answer
+        String firstResponse = "{\"name\":\"unknown_tool\",\"arguments\":{}}";
+        String secondResponse = "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"" + FINAL_ANSWER + "\"}}";
+        when(mockModel.generateResponse(any()))
+            .thenReturn(firstResponse)
+            .thenReturn(secondResponse);
+
+        // The run continues, and the model is told the tool is unknown
+        String result = agent.run(TASK);
+
+        assertThat(result).isEqualTo(FINAL_ANSWER);
+        ActionStep step = (ActionStep) agent.getMemory().getSteps().get(0);
+        assertThat(step.getObservation()).isEqualTo("Error: Unknown tool: unknown_tool");
+    }
+
+    @Test
+    public void run_WithStreamingModel_ShouldStopStreamOnceActionIsComplete() {
+        List<String> tokens = Arrays.asList(
+                "Action: {\"name\":\"final_answer\",",
+                "\"arguments\":{\"answer\":\"" + FINAL_ANSWER + "\"}}",
+                " and some trailing text",
+                " that should never be read");
+        AtomicInteger delivered = new AtomicInteger();
+        StreamingAIModel streamingModel = new StreamingAIModel() {
+            @Override
+            public String generateResponse(List<Message> messages) {
+                throw new AssertionError("blocking call not expected");
+            }
+
+            @Override
+            public String generateResponseStream(List<Message> messages, TokenListener listener) {
+                StringBuilder text = new StringBuilder();
+                for (String token : tokens) {
+                    delivered.incrementAndGet();
+                    text.append(token);
+                    if (!listener.onToken(token)) {
+                        break;
+                    }
+                }
+                return text.toString();
+            }
+        };
+        ToolCallingAgent streamingAgent =
+                new ToolCallingAgent(streamingModel, SYSTEM_PROMPT, Arrays.asList(mockTool, finalAnswerTool));
+
+        String result = streamingAgent.run(TASK);
+
+        assertThat(result).isEqualTo(FINAL_ANSWER);
+        assertThat(delivered.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void run_WithSpeculativeExecution_ShouldStartIdempotentCallBeforeActionIsComplete() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        when(mockTool.getPolicy()).thenReturn(ToolPolicy.builder().idempotent(true).build());
+        when(mockTool.execute(any())).thenAnswer(invocation -> {
+            started.countDown();
+            return "result";
+        });
+        AtomicBoolean startedDuringStream = new AtomicBoolean();
+        StreamingAIModel streamingModel = streamingModel(
+                Arrays.asList(
+                        "Action: [{\"name\":\"mock_tool\",\"arguments\":{\"param\":\"a\"}},",
+                        "{\"name\":\"mock_tool\",\"arguments\":{\"param\":\"b\"}}]"),
+                Collections.singletonList(
+                        "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"" + FINAL_ANSWER + "\"}}"),
+                () -> startedDuringStream.compareAndSet(false, await(started)));
+        ToolCallingAgent speculativeAgent =
+                new ToolCallingAgent(streamingModel, SYSTEM_PROMPT, Arrays.asList(mockTool, finalAnswerTool));
+        speculativeAgent.setSpeculativeExecution(true);
+        HistogramMetricsRecorder metrics = new HistogramMetricsRecorder();
+        speculativeAgent.setMetrics(metrics);
+
+        String result = speculativeAgent.run(TASK);
+
+        assertThat(result).isEqualTo(FINAL_ANSWER);
+        assertThat(startedDuringStream).isTrue();
+        verify(mockTool, times(2)).execute(any());
+        assertThat(metrics.getCounter(MetricNames.AGENT_SPECULATIVE_LAUNCHED)).isEqualTo(2);
+        assertThat(metrics.getCounter(MetricNames.AGENT_SPECULATIVE_HITS)).isEqualTo(2);
+        assertThat(metrics.getCounter(MetricNames.AGENT_SPECULATIVE_WASTED)).isZero();
+    }
+
+    @Test
+    public void run_WithSpeculativeCallNotInFinalAction_ShouldCountItAsWasted() {
+        when(mockTool.getPolicy()).thenReturn(ToolPolicy.builder().idempotent(true).build());
+        StreamingAIModel streamingModel = streamingModel(
+                Arrays.asList(
+                        "[{\"name\":\"mock_tool\",\"arguments\":{\"param\":\"a\"}},",
+                        "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"" + FINAL_ANSWER + "\"}}]"),
+                Collections.emptyList(),
+                () -> {});
+        ToolCallingAgent speculativeAgent =
+                new ToolCallingAgent(streamingModel, SYSTEM_PROMPT, Arrays.asList(mockTool, finalAnswerTool));
+        speculativeAgent.setSpeculativeExecution(true);
+        HistogramMetricsRecorder metrics = new HistogramMetricsRecorder();
+        speculativeAgent.setMetrics(metrics);
+
+        String result = speculativeAgent.run(TASK);
+
+        assertThat(result).isEqualTo(FINAL_ANSWER);
+        assertThat(metrics.getCounter(MetricNames.AGENT_SPECULATIVE_LAUNCHED)).isEqualTo(1);
+        assertThat(metrics.getCounter(MetricNames.AGENT_SPECULATIVE_HITS)).isZero();
+        assertThat(metrics.getCounter(MetricNames.AGENT_SPECULATIVE_WASTED)).isEqualTo(1);
+    }
+
+    @Test
+    public void run_WithFunctionCalling_ShouldAnswerEachToolCallWithToolMessage() {
+        List<List<Message>> requests = new ArrayList<>();
+        List<String> toolChoices = new ArrayList<>();
+        FunctionCallingAIModel functionModel = functionModel(requests, toolChoices, toolChoice -> requests.size() == 1
+                ? Arrays.asList(
+                        new FunctionCall("call_1", "mock_tool", "{\"param\":\"a\"}"),
+                        new FunctionCall("call_2", "mock_tool", "{\"param\":\"b\"}"))
+                : Collections.singletonList(
+                        new FunctionCall("call_3", "final_answer", "{\"answer\":\"" + FINAL_ANSWER + "\"}")));
+        when(mockTool.execute(any())).thenAnswer(invocation -> "result for "
+                + ((Map<?, ?>) invocation.getArgument(0)).get("param"));
+        ToolCallingAgent functionAgent =
+                new ToolCallingAgent(functionModel, SYSTEM_PROMPT, Arrays.asList(mockTool, finalAnswerTool));
+        functionAgent.setFunctionCalling(true);
+
+        String result = functionAgent.run(TASK);
+
+        assertThat(result).isEqualTo(FINAL_ANSWER);
+        assertThat(toolChoices).containsOnly(FunctionCallingAIModel.TOOL_CHOICE_REQUIRED);
+        List<Message> second = requests.get(1);
+        assertThat(second).hasSize(5);
+        assertThat(second.get(2).getToolCalls()).hasSize(2);
+        assertThat(second.get(3).getRole()).isEqualTo("tool");
+        assertThat(second.get(3).getToolCallId()).isEqualTo("call_1");
+        assertThat(second.get(3).getContent()).isEqualTo("result for a");
+        assertThat(second.get(4).getToolCallId()).isEqualTo("call_2");
+        assertThat(second.get(4).getContent()).isEqualTo("result for b");
+        ActionStep step = (ActionStep) functionAgent.getMemory().getSteps().get(0);
+        assertThat(step.getObservation()).isEqualTo("[1] mock_tool: result for a\n[2] mock_tool: result for b\n");
+    }
+
+    @Test
+    public void run_WithDeadline_ShouldCutOffStalledFunctionCall() {
+        CountDownLatch stalled = new CountDownLatch(1);
+        FunctionCallingAIModel stalledModel = new FunctionCallingAIModel() {
+            @Override
+            public String generateResponse(List<Message> messages) {
+                throw new AssertionError("text call not expected");
+            }
+
+            @Override
+            public Message generateToolCalls(List<Message> messages, JsonArray tools, String toolChoice) {
+                await(stalled);
+                return new Message("assistant", null, Collections.emptyList(), null);
+            }
+        };
+        ToolCallingAgent functionAgent =
+                new ToolCallingAgent(stalledModel, SYSTEM_PROMPT, Arrays.asList(mockTool, finalAnswerTool));
+        functionAgent.setFunctionCalling(true);
+        functionAgent.setBudget(RunBudget.builder().maxDuration(Duration.ofMillis(200)).build());
+        long start = System.nanoTime();
+
+        try {
+            assertThatThrownBy(() -> functionAgent.run(TASK))
+                    .isInstanceOf(BudgetExceededException.class)
+                    .hasMessageContaining("Deadline of 200 ms");
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        } finally {
+            stalled.countDown();
+        }
+    }
+
+    @Test
+    public void run_WithUnknownToolCall_ShouldAnswerWithErrorToolMessage() {
+        List<List<Message>> requests = new ArrayList<>();
+        FunctionCallingAIModel functionModel = functionModel(requests, new ArrayList<>(), toolChoice ->
+                Collections.singletonList(requests.size() == 1
+                        ? new FunctionCall("call_1", "unknown_tool", "{}")
+                        : new FunctionCall("call_2", "final_answer", "{\"answer\":\"" + FINAL_ANSWER + "\"}")));
+        ToolCallingAgent functionAgent =
+                new ToolCallingAgent(functionModel, SYSTEM_PROMPT, Arrays.asList(mockTool, finalAnswerTool));
+        functionAgent.setFunctionCalling(true);
+
+        String result = functionAgent.run(TASK);
+
+        assertThat(result).isEqualTo(FINAL_ANSWER);
+        Message toolMessage = requests.get(1).get(3);
+        assertThat(toolMessage.getToolCallId()).isEqualTo("call_1");
+        assertThat(toolMessage.getContent()).isEqualTo("Error: Unknown tool: unknown_tool");
+    }
+
+    @Test
+    public void run_WithMalformedToolCallArguments_ShouldAnswerWithErrorToolMessage() {
+        List<List<Message>> requests = new ArrayList<>();
+        FunctionCallingAIModel functionModel = functionModel(requests, new ArrayList<>(), toolChoice ->
+                Collections.singletonList(requests.size() == 1
+                        ? new FunctionCall("call_1", "mock_tool", "{\"param\":")
+                        : new FunctionCall("call_2", "final_answer", "{\"answer\":\"" + FINAL_ANSWER + "\"}")));
+        ToolCallingAgent functionAgent =
+                new ToolCallingAgent(functionModel, SYSTEM_PROMPT, Arrays.asList(mockTool, finalAnswerTool));
+        functionAgent.setFunctionCalling(true);
+
+        String result = functionAgent.run(TASK);
+
+        assertThat(result).isEqualTo(FINAL_ANSWER);
+        Message toolMessage = requests.get(1).get(3);
+        assertThat(toolMessage.getToolCallId()).isEqualTo("call_1");
+        assertThat(toolMessage.getContent())
+                .isEqualTo("Error: Invalid call to mock_tool: arguments are not a JSON object: {\"param\":");
+        verify(mockTool, never()).execute(any());
+    }
+
+    @Test
+    public void run_WithFunctionCalling_ShouldForceFinalAnswerOnLastStep() {
+        List<String> toolChoices = new ArrayList<>();
+        FunctionCallingAIModel functionModel = functionModel(new ArrayList<>(), toolChoices, toolChoice ->
+                Collections.singletonList(toolChoice.equals("final_answer")
+                        ? new FunctionCall("call", "final_answer", "{\"answer\":\"" + FINAL_ANSWER + "\"}")
+                        : new FunctionCall("call", "mock_tool", "{}")));
+        ToolCallingAgent functionAgent =
+                new ToolCallingAgent(functionModel, SYSTEM_PROMPT, Arrays.asList(mockTool, finalAnswerTool));
+        functionAgent.setFunctionCalling(true);
+
+        String result = functionAgent.run(TASK);
+
+        assertThat(result).isEqualTo(FINAL_ANSWER);
+        assertThat(toolChoices).hasSize(10);
+        assertThat(toolChoices.subList(0, 9)).containsOnly(FunctionCallingAIModel.TOOL_CHOICE_REQUIRED);
+        assertThat(toolChoices.get(9)).isEqualTo("final_answer");
+    }
+
+    @Test
+    public void setFunctionCalling_WithTextOnlyModel_ShouldThrowException() {
+        assertThatThrownBy(() -> agent.setFunctionCalling(true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("does not support function calling");
+    }
+
+    @Test
+    public void run_WithStepBudget_ShouldAskForFinalAnswerOnLastStep() {
+        AIModel model = messages -> messages.get(messages.size() - 1).getContent().contains("run out of budget")
+                ? "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"" + FINAL_ANSWER + "\"}}"
+                : "{\"name\":\"mock_tool\",\"arguments\":{}}";
+        ToolCallingAgent budgetAgent =
+                new ToolCallingAgent(model, SYSTEM_PROMPT, Arrays.asList(mockTool, finalAnswerTool));
+        budgetAgent.setBudget(RunBudget.builder().maxSteps(3).build());
+        HistogramMetricsRecorder metrics = new HistogramMetricsRecorder();
+        budgetAgent.setMetrics(metrics);
+
+        String result = budgetAgent.run(TASK);
+
+        assertThat(result).isEqualTo(FINAL_ANSWER);
+        verify(mockTool, times(2)).execute(any());
+        assertThat(metrics.getCounter(MetricNames.AGENT_BUDGET_WRAP_UPS)).isEqualTo(1);
+    }
+
+    @Test
+    public void run_WithExhaustedStepBudget_ShouldThrowBudgetExceededException() {
+        when(mockModel.generateResponse(any())).thenReturn("{\"name\":\"mock_tool\",\"arguments\":{}}");
+        agent.setBudget(RunBudget.builder().maxSteps(2).build());
+        HistogramMetricsRecorder metrics = new HistogramMetricsRecorder();
+        agent.setMetrics(metrics);
+
+        assertThatThrownBy(() -> agent.run(TASK))
+                .isInstanceOf(BudgetExceededException.class)
+                .hasMessageContaining("Max steps reached");
+        verify(mockModel, times(2)).generateResponse(any());
+        assertThat(metrics.getCounter(MetricNames.AGENT_BUDGET_EXHAUSTED)).isEqualTo(1);
+    }
+
+    @Test
+    public void run_WithDeadline_ShouldCancelSlowToolAndThrowBudgetExceededException() {
+        when(mockModel.generateResponse(any())).thenReturn("{\"name\":\"mock_tool\",\"arguments\":{}}");
+        when(mockModel.generateResponseAsync(any())).thenCallRealMethod();
+        when(mockTool.execute(any())).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return "late";
+        });
+        agent.setBudget(RunBudget.builder().maxDuration(Duration.ofMillis(200)).build());
+        long start = System.nanoTime();
 
-        // Run the agent and verify exception
         assertThatThrownBy(() -> agent.run(TASK))
+                .isInstanceOf(BudgetExceededException.class)
+                .hasMessageContaining("Deadline of 200 ms");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    public void run_WithDeadline_ShouldCutOffStalledStream() {
+        CountDownLatch stalled = new CountDownLatch(1);
+        StreamingAIModel stalledModel = new StreamingAIModel() {
+            @Override
+            public String generateResponse(List<Message> messages) {
+                throw new AssertionError("blocking call not expected");
+            }
+
+            @Override
+            public String generateResponseStream(List<Message> messages, TokenListener listener) {
+                listener.onToken("{\"name\":\"mock_tool\",");
+                await(stalled);
+                listener.onToken("\"arguments\":{}}");
+                return "";
+            }
+        };
+        ToolCallingAgent streamingAgent =
+                new ToolCallingAgent(stalledModel, SYSTEM_PROMPT, Arrays.asList(mockTool, finalAnswerTool));
+        streamingAgent.setBudget(RunBudget.builder().maxDuration(Duration.ofMillis(200)).build());
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> streamingAgent.run(TASK))
+                .isInstanceOf(BudgetExceededException.class)
+                .hasMessageContaining("Deadline of 200 ms");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        verify(mockTool, never()).execute(any());
+    }
+
+    @Test
+    public void run_WithPromptTokenBudget_ShouldAskForFinalAnswerBeforeExceedingIt() {
+        AIModel model = messages -> messages.get(messages.size() - 1).getContent().contains("run out of budget")
+                ? "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"" + FINAL_ANSWER + "\"}}"
+                : "{\"name\":\"mock_tool\",\"arguments\":{}}";
+        ToolCallingAgent budgetAgent =
+                new ToolCallingAgent(model, SYSTEM_PROMPT, Arrays.asList(mockTool, finalAnswerTool));
+        budgetAgent.setBudget(RunBudget.builder().maxPromptTokens(300).build());
+
+        String result = budgetAgent.run(TASK);
+
+        assertThat(result).isEqualTo(FINAL_ANSWER);
+        assertThat(budgetAgent.getMemory().getSteps()).hasSizeBetween(2, 9);
+    }
+
+    @Test
+    public void run_WithTwoAgentsSharingRegistry_ShouldShareToolConcurrencyLimit() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Tool slowTool = new Tool() {
+            @Override
+            public String getName() {
+                return "slow_tool";
+            }
+
+            @Override
+            public ToolPolicy getPolicy() {
+                return ToolPolicy.builder().maxConcurrency(1).build();
+            }
+
+            @Override
+            public Object execute(Map<String, Object> args) {
+                entered.countDown();
+                await(release);
+                return "slow result";
+            }
+        };
+        ToolRegistry registry = ToolRegistry.of(Arrays.asList(slowTool, new FinalAnswerTool()));
+        ToolCallingAgent first = new ToolCallingAgent(slowThenFinal(), SYSTEM_PROMPT, registry, new AgentMemory());
+        ToolCallingAgent second = new ToolCallingAgent(slowThenFinal(), SYSTEM_PROMPT, registry, new AgentMemory());
+        ExecutorService runner = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> firstRun = runner.submit(() -> first.run(TASK));
+            assertThat(await(entered)).isTrue();
+
+            assertThat(second.run(TASK)).isEqualTo(FINAL_ANSWER);
+            ActionStep rejected = (ActionStep) second.getMemory().getSteps().get(0);
+            assertThat(rejected.getObservation()).contains("Tool slow_tool is saturated");
+
+            release.countDown();
+            assertThat(firstRun.get(5, TimeUnit.SECONDS)).isEqualTo(FINAL_ANSWER);
+            ActionStep completed = (ActionStep) first.getMemory().getSteps().get(0);
+            assertThat(completed.getObservation()).isEqualTo("slow result");
+        } finally {
+            release.countDown();
+            runner.shutdownNow();
+        }
+    }
+
+    @Test
+    public void run_WithPromptRegistry_ShouldRenderPromptWithToolsAndTask(@TempDir Path directory) throws Exception {
+        Files.write(directory.resolve("toolcalling_agent.yaml"),
+                "system_prompt: \"Tools: {{tools}} Task: {{task}}\"\n".getBytes(StandardCharsets.UTF_8));
+        List<List<Message>> requests = new ArrayList<>();
+        AIModel model = messages -> {
+            requests.add(new ArrayList<>(messages));
+            return "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"" + FINAL_ANSWER + "\"}}";
+        };
+        ToolCallingAgent promptAgent = new ToolCallingAgent(model, new PromptRegistry(directory),
+                ToolRegistry.of(Collections.singletonList(new FinalAnswerTool())), new AgentMemory());
+
+        assertThat(promptAgent.run(TASK)).isEqualTo(FINAL_ANSWER);
+        assertThat(requests.get(0).get(0).getContent())
+                .startsWith("Tools: - final_answer")
+                .endsWith("Task: " + TASK);
+    }
+
+    /**
+     * Creates a model that calls the slow tool once and then gives the final answer.
+     */
+    private static AIModel slowThenFinal() {
+        AtomicInteger calls = new AtomicInteger();
+        return messages -> calls.getAndIncrement() == 0
+                ? "{\"name\":\"slow_tool\",\"arguments\":{}}"
+                : "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"" + FINAL_ANSWER + "\"}}";
+    }
+
+    /**
+     * Creates a function calling model that records each request and tool choice and answers with
+     * the tool calls chosen for the tool choice.
+     */
+    private static FunctionCallingAIModel functionModel(
+            List<List<Message>> requests,
+            List<String> toolChoices,
+            Function<String, List<FunctionCall>> responses) {
+        return new FunctionCallingAIModel() {
+            @Override
+            public String generateResponse(List<Message> messages) {
+                throw new AssertionError("text call not expected");
+            }
+
+            @Override
+            public Message generateToolCalls(List<Message> messages, JsonArray tools, String toolChoice) {
+                requests.add(new ArrayList<>(messages));
+                toolChoices.add(toolChoice);
+                return new Message("assistant", null, responses.apply(toolChoice), null);
+            }
+        };
+    }
+
+    /**
+     * Creates a streaming model that streams the first response, running the callback after its
+     * first token, and then the second response.
+     */
+    private static StreamingAIModel streamingModel(
+            List<String> firstTokens, List<String> secondTokens, Runnable afterFirstToken) {
+        AtomicInteger calls = new AtomicInteger();
+        return new StreamingAIModel() {
+            @Override
+            public String generateResponse(List<Message> messages) {
+                throw new AssertionError("blocking call not expected");
+            }
+
+            @Override
+            public String generateResponseStream(List<Message> messages, TokenListener listener) {
+                List<String> tokens = calls.getAndIncrement() == 0 ? firstTokens : secondTokens;
+                StringBuilder text = new StringBuilder();
+                for (int i = 0; i < tokens.size(); i++) {
+                    text.append(tokens.get(i));
+                    if (!listener.onToken(tokens.get(i))) {
+                        break;
+                    }
+                    if (i == 0 && tokens == firstTokens) {
+                        afterFirstToken.run();
+                    }
+                }
+                return text.toString();
+            }
+        };
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Test
+    public void run_WithArrayOfActions_ShouldExecuteAllAndMergeObservationsInOrder() {
+        String parallelResponse = "Action: ["
+                + "{\"name\":\"mock_tool\",\"arguments\":{\"param\":\"first\"}},"
+                + "{\"name\":\"mock_tool\",\"arguments\":{\"param\":\"second\"}}]";
+        String finalResponse = "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"" + FINAL_ANSWER + "\"}}";
+        when(mockModel.generateResponse(any())).thenReturn(parallelResponse).thenReturn(finalResponse);
+        when(mockTool.execute(any())).thenAnswer(invocation -> "result for "
+                + ((Map<?, ?>) invocation.getArgument(0)).get("param"));
+
+        String result = agent.run(TASK);
+
+        assertThat(result).isEqualTo(FINAL_ANSWER);
+        ActionStep parallelStep = (ActionStep) agent.getMemory().getSteps().get(0);
+        assertThat(parallelStep.getObservation())
+                .isEqualTo("[1] mock_tool: result for first\n[2] mock_tool: result for second\n");
+    }
+
+    @Test
+    public void run_WithFailingParallelCall_ShouldReportErrorInObservation() {
+        String parallelResponse = "[{\"name\":\"mock_tool\",\"arguments\":{\"param\":\"ok\"}},"
+                + "{\"name\":\"mock_tool\",\"arguments\":{\"param\":\"fail\"}}]";
+        String finalResponse = "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"" + FINAL_ANSWER + "\"}}";
+        when(mockModel.generateResponse(any())).thenReturn(parallelResponse).thenReturn(finalResponse);
+        when(mockTool.execute(any())).thenAnswer(invocation -> {
+            if ("fail".equals(((Map<?, ?>) invocation.getArgument(0)).get("param"))) {
+                throw new IllegalStateException("boom");
+            }
+            return "fine";
+        });
+
+        agent.run(TASK);
+
+        ActionStep parallelStep = (ActionStep) agent.getMemory().getSteps().get(0);
+        assertThat(parallelStep.getObservation()).contains("[1] mock_tool: fine", "[2] mock_tool: Error: boom");
+    }
+
+    @Test
+    public void run_WithMetrics_ShouldRecordEveryStep() {
+        String toolResponse = "{\"name\":\"mock_tool\",\"arguments\":{\"param\":\"value\"}}";
+        String finalResponse = "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"" + FINAL_ANSWER + "\"}}";
+        when(mockModel.generateResponse(any())).thenReturn(toolResponse).thenReturn(finalResponse);
+        HistogramMetricsRecorder metrics = new HistogramMetricsRecorder();
+        agent.setMetrics(metrics);
+
+        agent.run(TASK);
+
+        assertThat(metrics.getCounter(MetricNames.AGENT_STEPS)).isEqualTo(2);
+        assertThat(metrics.getHistogram(MetricNames.AGENT_MODEL_TIME).getCount()).isEqualTo(2);
+        assertThat(metrics.getHistogram(MetricNames.TOOL_TIME_PREFIX + "mock_tool").getCount()).isEqualTo(1);
+        assertThat(metrics.getHistogram(MetricNames.TOOL_TIME_PREFIX + "final_answer").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void resume_AfterModelFailure_ShouldContinueFromLastCheckpoint() {
+        String toolResponse = "{\"name\":\"mock_tool\",\"arguments\":{\"param\":\"value\"}}";
+        String finalResponse = "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"" + FINAL_ANSWER + "\"}}";
+        when(mockModel.generateResponse(any()))
+                .thenReturn(toolResponse)
+                .thenThrow(new RuntimeException("connection reset"))
+                .thenReturn(finalResponse);
+        InMemoryCheckpointStore store = new InMemoryCheckpointStore();
+        agent.setCheckpointStore(store);
+
+        assertThatThrownBy(() -> agent.run("run-1", TASK)).hasMessageContaining("connection reset");
+        Checkpoint checkpoint = store.load("run-1");
+        assertThat(checkpoint.getStepCounter()).isEqualTo(1);
+        assertThat(checkpoint.isFinished()).isFalse();
+
+        ToolCallingAgent resumed =
+                new ToolCallingAgent(mockModel, SYSTEM_PROMPT, Arrays.asList(mockTool, finalAnswerTool));
+        resumed.setCheckpointStore(store);
+        String result = resumed.resume("run-1");
+
+        assertThat(result).isEqualTo(FINAL_ANSWER);
+        assertThat(resumed.getMemory().getSteps()).hasSize(2);
+        assertThat(store.load("run-1").getFinalAnswer()).isEqualTo(FINAL_ANSWER);
+        verify(mockModel, times(3)).generateResponse(any());
+        verify(mockTool, times(1)).execute(any());
+    }
+
+    @Test
+    public void resume_WithMemoryHoldingCompletedSteps_ShouldNotDuplicateThem() {
+        String finalResponse = "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"" + FINAL_ANSWER + "\"}}";
+        when(mockModel.generateResponse(any())).thenReturn(finalResponse);
+        ActionStep completed = new ActionStep(0, "{\"name\":\"mock_tool\",\"arguments\":{}}", "Tool execution result");
+        InMemoryCheckpointStore store = new InMemoryCheckpointStore();
+        store.save(new Checkpoint("run-1",
+                Arrays.asList(new Message("system", SYSTEM_PROMPT), new Message("user", TASK)),
+                1, Collections.singletonList(completed), null));
+        // A memory reopened from disk already holds the steps written before the interruption.
+        AgentMemory reopened = new AgentMemory();
+        reopened.addStep(completed);
+        ToolCallingAgent resumed = new ToolCallingAgent(
+                mockModel, SYSTEM_PROMPT, Arrays.asList(mockTool, finalAnswerTool), reopened);
+        resumed.setCheckpointStore(store);
+
+        String result = resumed.resume("run-1");
+
+        assertThat(result).isEqualTo(FINAL_ANSWER);
+        assertThat(reopened.getSteps()).extracting(MemoryStep::getStepNumber).containsExactly(0, 1);
+    }
+
+    @Test
+    public void resume_WithoutCheckpoint_ShouldThrowException() {
+        agent.setCheckpointStore(new InMemoryCheckpointStore());
+
+        assertThatThrownBy(() -> agent.resume("missing"))
                 .isInstanceOf(IllegalArgumentException.class)
-                .hasMessageContaining("Unknown tool");
+                .hasMessageContaining("No checkpoint for run");
+    }
+
+    @Test
+    public void run_WithMissingRequiredArgument_ShouldReturnErrorObservationWithoutCallingTool() {
+        when(mockTool.getParameters()).thenReturn(Collections.singletonList(
+                ToolParameter.required("param", ToolParameter.Type.STRING, "A parameter")));
+        ToolCallingAgent validatingAgent =
+                new ToolCallingAgent(mockModel, SYSTEM_PROMPT, Arrays.asList(mockTool, finalAnswerTool));
+        String invalidResponse = "{\"name\":\"mock_tool\",\"arguments\":{\"other\":\"value\"}}";
+        String finalResponse = "{\"name\":\"final_answer\",\"arguments\":{\"answer\":\"" + FINAL_ANSWER + "\"}}";
+        when(mockModel.generateResponse(any())).thenReturn(invalidResponse).thenReturn(finalResponse);
+
+        String result = validatingAgent.run(TASK);
+
+        assertThat(result).isEqualTo(FINAL_ANSWER);
+        ActionStep step = (ActionStep) validatingAgent.getMemory().getSteps().get(0);
+        assertThat(step.getObservation())
+                .isEqualTo("Error: Invalid call to mock_tool: missing required argument 'param'");
+        verify(mockTool, never()).execute(any());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,145 @@
+package com.agentfactory.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DiskResponseCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void get_FromNewInstance_ShouldReturnPersistedValue() {
+        new DiskResponseCache(directory, Duration.ofHours(1)).put("java programming", "results");
+
+        DiskResponseCache reopened = new DiskResponseCache(directory, Duration.ofHours(1));
+
+        assertThat(reopened.get("java programming")).isEqualTo("results");
+        assertThat(reopened.get("python")).isNull();
+    }
+
+    @Test
+    public void get_AfterTtl_ShouldReturnNull() {
+        Clock start = Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC);
+        new DiskResponseCache(directory, Duration.ofMinutes(10), start).put("key", "value");
+
+        DiskResponseCache later = new DiskResponseCache(
+                directory, Duration.ofMinutes(10), Clock.offset(start, Duration.ofMinutes(11)));
+
+        assertThat(later.get("key")).isNull();
+        assertThat(later.getStats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidate_ShouldRemoveEntry() {
+        DiskResponseCache cache = new DiskResponseCache(directory, Duration.ofHours(1));
+        cache.put("key", "value");
+
+        cache.invalidate("key");
+
+        assertThat(cache.get("key")).isNull();
+    }
+
+    @Test
+    public void tieredGet_WithDiskHit_ShouldPromoteToMemory() {
+        DiskResponseCache disk = new DiskResponseCache(directory, Duration.ofHours(1));
+        disk.put("key", "value");
+        InMemoryResponseCache memory = new InMemoryResponseCache(10, 1000, Duration.ofHours(1));
+        TieredResponseCache tiered = new TieredResponseCache(memory, disk);
+
+        assertThat(tiered.get("key")).isEqualTo("value");
+        assertThat(memory.get("key")).isEqualTo("value");
+    }
+
+    @Test
+    public void tieredGet_WithDiskHitNearExpiry_ShouldPromoteWithRemainingTtl() {
+        Clock start = Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC);
+        new DiskResponseCache(directory, Duration.ofMinutes(10), start).put("key", "value");
+        DiskResponseCache disk = new DiskResponseCache(
+                directory, Duration.ofMinutes(10), Clock.offset(start, Duration.ofMinutes(9)));
+        AtomicLong nanos = new AtomicLong();
+        InMemoryResponseCache memory = new InMemoryResponseCache(10, 1000, Duration.ofHours(1), nanos::get);
+        TieredResponseCache tiered = new TieredResponseCache(memory, disk);
+
+        assertThat(tiered.get("key")).isEqualTo("value");
+        assertThat(memory.getTimeToLive("key")).isEqualTo(Duration.ofMinutes(1));
+
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertThat(memory.get("key")).isNull();
+    }
+
+    @Test
+    public void put_WhenMoveFails_ShouldCountErrorAndRemoveTempFile() throws IOException {
+        DiskResponseCache cache = new DiskResponseCache(directory, Duration.ofHours(1));
+        cache.put("key", "value");
+        Path entry = onlyFile();
+        Files.delete(entry);
+        Files.createDirectories(entry.resolve("blocker"));
+
+        cache.put("key", "other");
+
+        assertThat(cache.getStats().getWriteErrors()).isEqualTo(1);
+        assertThat(cache.get("key")).isNull();
+        assertThat(onlyFile()).isEqualTo(entry);
+    }
+
+    @Test
+    public void put_OverMaxBytes_ShouldEvictLeastRecentlyUsed() {
+        DiskResponseCache cache = new DiskResponseCache(directory, Duration.ofHours(1), 100);
+        cache.put("a", "x".repeat(30));
+        cache.put("b", "x".repeat(30));
+        cache.get("a");
+
+        cache.put("c", "x".repeat(30));
+
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isNotNull();
+        assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void open_WithOrphanTempFile_ShouldDeleteIt() throws IOException {
+        Path orphan = Files.createTempFile(directory, "entry", ".tmp");
+        Files.setLastModifiedTime(orphan, FileTime.fromMillis(0));
+        Path fresh = Files.createTempFile(directory, "entry", ".tmp");
+
+        new DiskResponseCache(directory, Duration.ofHours(1));
+
+        assertThat(orphan).doesNotExist();
+        assertThat(fresh).exists();
+    }
+
+    @Test
+    public void open_OverMaxBytes_ShouldEvictOldestEntries() throws IOException {
+        DiskResponseCache cache = new DiskResponseCache(directory, Duration.ofHours(1));
+        cache.put("old", "x".repeat(30));
+        Files.setLastModifiedTime(onlyFile(), FileTime.fromMillis(0));
+        cache.put("new", "x".repeat(30));
+
+        DiskResponseCache reopened = new DiskResponseCache(directory, Duration.ofHours(1), 60);
+
+        assertThat(reopened.get("old")).isNull();
+        assertThat(reopened.get("new")).isNotNull();
+    }
+
+    private Path onlyFile() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.reduce((a, b) -> {
+                throw new AssertionError("More than one file in " + directory);
+            }).orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.agentfactory.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class InMemoryResponseCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void get_AfterPut_ShouldReturnValueAndCountHit() {
+        InMemoryResponseCache cache = new InMemoryResponseCache(10, 1000, Duration.ofMinutes(1), now::get);
+
+        cache.put("java", "results");
+
+        assertThat(cache.get("java")).isEqualTo("results");
+        assertThat(cache.get("python")).isNull();
+        assertThat(cache.getStats().getHits()).isEqualTo(1);
+        assertThat(cache.getStats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    public void put_OverEntryLimit_ShouldEvictLeastRecentlyUsed() {
+        InMemoryResponseCache cache = new InMemoryResponseCache(2, 1000, Duration.ofMinutes(1), now::get);
+
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+        cache.put("c", "3");
+
+        assertThat(cache.get("a")).isEqualTo("1");
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo("3");
+        assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void put_OverWeightLimit_ShouldEvictUntilWithinLimit() {
+        InMemoryResponseCache cache = new InMemoryResponseCache(100, 10, Duration.ofMinutes(1), now::get);
+
+        cache.put("a", "1234");
+        cache.put("b", "1234");
+        cache.put("c", "1234");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("a")).isNull();
+    }
+
+    @Test
+    public void get_AfterTtl_ShouldReturnNull() {
+        InMemoryResponseCache cache = new InMemoryResponseCache(10, 1000, Duration.ofSeconds(5), now::get);
+
+        cache.put("java", "results");
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        assertThat(cache.get("java")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+}
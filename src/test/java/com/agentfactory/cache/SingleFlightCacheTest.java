@@ -0,0 +1,84 @@
+package com.agentfactory.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightCacheTest {
+
+    private final SingleFlightCache cache =
+            new SingleFlightCache(new InMemoryResponseCache(10, 10_000, Duration.ofMinutes(1)));
+
+    @Test
+    public void getOrLoad_WithConcurrentCallers_ShouldLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> cache.getOrLoad("query", () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return "value";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            }
+            assertThat(loads.get()).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void getOrLoad_WhenCached_ShouldNotCallLoader() throws Exception {
+        cache.getOrLoad("query", () -> "value");
+
+        String result = cache.getOrLoad("query", () -> {
+            throw new AssertionError("loader should not be called");
+        });
+
+        assertThat(result).isEqualTo("value");
+    }
+
+    @Test
+    public void getOrLoad_WhenLoaderFails_ShouldPropagateAndNotCache() throws Exception {
+        assertThatThrownBy(() -> cache.getOrLoad("query", () -> {
+            throw new IOException("backend down");
+        }))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("backend down");
+
+        assertThat(cache.getOrLoad("query", () -> "recovered")).isEqualTo("recovered");
+    }
+
+    @Test
+    public void getOrLoad_WhenCacheWriteFails_ShouldReturnLoadedValue() throws Exception {
+        InMemoryResponseCache failing = new InMemoryResponseCache(10, 10_000, Duration.ofMinutes(1)) {
+            @Override
+            public void put(String key, String value) {
+                throw new IllegalStateException("disk full");
+            }
+        };
+        SingleFlightCache flights = new SingleFlightCache(failing);
+
+        assertThat(flights.getOrLoad("query", () -> "value")).isEqualTo("value");
+        assertThat(failing.getStats().getWriteErrors()).isEqualTo(1);
+    }
+}
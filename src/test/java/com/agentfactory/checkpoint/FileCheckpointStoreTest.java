@@ -0,0 +1,77 @@
+package com.agentfactory.checkpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.agentfactory.memory.ActionStep;
+import com.agentfactory.models.Message;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileCheckpointStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void load_AfterSave_ShouldRestoreCheckpoint() {
+        FileCheckpointStore store = new FileCheckpointStore(directory);
+        Checkpoint checkpoint = new Checkpoint(
+                "run-1",
+                Arrays.asList(new Message("system", "prompt"), new Message("user", "task")),
+                1,
+                Collections.singletonList(new ActionStep(0, "{\"name\":\"search\"}", "results")),
+                null);
+
+        store.save(checkpoint);
+        Checkpoint loaded = new FileCheckpointStore(directory).load("run-1");
+
+        assertThat(loaded.getRunId()).isEqualTo("run-1");
+        assertThat(loaded.getStepCounter()).isEqualTo(1);
+        assertThat(loaded.getMessages()).extracting(Message::getContent).containsExactly("prompt", "task");
+        assertThat(loaded.getSteps().get(0).getObservation()).isEqualTo("results");
+        assertThat(loaded.isFinished()).isFalse();
+    }
+
+    @Test
+    public void load_WithUnknownRun_ShouldReturnNull() {
+        assertThat(new FileCheckpointStore(directory).load("unknown")).isNull();
+    }
+
+    @Test
+    public void delete_ShouldRemoveCheckpoint() {
+        FileCheckpointStore store = new FileCheckpointStore(directory);
+        store.save(new Checkpoint("run-1", Collections.emptyList(), 0, Collections.emptyList(), "done"));
+
+        store.delete("run-1");
+
+        assertThat(store.load("run-1")).isNull();
+    }
+
+    @Test
+    public void save_WhenMoveFails_ShouldDeleteTempFile() throws IOException {
+        FileCheckpointStore store = new FileCheckpointStore(directory);
+        Files.createDirectories(directory.resolve("run-1.json").resolve("blocker"));
+        Checkpoint checkpoint = new Checkpoint("run-1", Collections.emptyList(), 0, Collections.emptyList(), null);
+
+        assertThatThrownBy(() -> store.save(checkpoint)).isInstanceOf(UncheckedIOException.class);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).extracting(file -> file.getFileName().toString()).containsExactly("run-1.json");
+        }
+    }
+
+    @Test
+    public void save_WithPathInRunId_ShouldThrowException() {
+        FileCheckpointStore store = new FileCheckpointStore(directory);
+        Checkpoint checkpoint = new Checkpoint("../escape", Collections.emptyList(), 0, Collections.emptyList(), null);
+
+        assertThatThrownBy(() -> store.save(checkpoint)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -17,4 +17,29 @@ public class ApiConfigTest {
         assertThat(config.getOpenAiApiKey()).isEqualTo(TEST_OPENAI_KEY);
         assertThat(config.getSerperApiKey()).isEqualTo(TEST_SERPER_KEY);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void constructor_WithoutEndpoints_ShouldUsePublicEndpoints() {
+        ApiConfig config = new ApiConfig(TEST_OPENAI_KEY, TEST_SERPER_KEY);
+
+        assertThat(config.getOpenAiBaseUrl()).isEqualTo("https://api.openai.com/v1");
+        assertThat(config.getSerperEndpoint()).isEqualTo("https://google.serper.dev/search");
+    }
+
+    @Test
+    public void constructor_WithEndpoints_ShouldSetEndpoints() {
+        ApiConfig config = new ApiConfig(
+                TEST_OPENAI_KEY, TEST_SERPER_KEY, "http://localhost:8080/v1", "http://localhost:8080/search");
+
+        assertThat(config.getOpenAiBaseUrl()).isEqualTo("http://localhost:8080/v1");
+        assertThat(config.getSerperEndpoint()).isEqualTo("http://localhost:8080/search");
+    }
+
+    @Test
+    public void constructor_WithTrailingSlash_ShouldStripItFromBaseUrl() {
+        ApiConfig config = new ApiConfig(
+                TEST_OPENAI_KEY, TEST_SERPER_KEY, "http://localhost:8080/v1//", "http://localhost:8080/search");
+
+        assertThat(config.getOpenAiBaseUrl()).isEqualTo("http://localhost:8080/v1");
+    }
+}
@@ -0,0 +1,60 @@
+package com.agentfactory.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.agentfactory.models.Message;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ContextManagerTest {
+
+    @Test
+    public void prepare_WithRepeatedAction_ShouldKeepOnlyLatestStep() {
+        List<Message> messages = Arrays.asList(
+                new Message("system", "sys"),
+                new Message("user", "task"),
+                new Message("assistant", "Action:\nsearch java"),
+                new Message("user", "Observation: old"),
+                new Message("assistant", "Action:\nsearch python"),
+                new Message("user", "Observation: other"),
+                new Message("assistant", "Action:\nsearch java"),
+                new Message("user", "Observation: new"));
+        ContextManager manager = new ContextManager(Collections.singletonList(new SupersededStepStrategy()));
+
+        List<Message> result = manager.prepare(messages);
+
+        assertThat(result).extracting(Message::getContent)
+                .containsExactly(
+                        "sys",
+                        "task",
+                        "Action:\nsearch python",
+                        "Observation: other",
+                        "Action:\nsearch java",
+                        "Observation: new");
+    }
+
+    @Test
+    public void prepare_ShouldTrackSavedBytesAndTokens() {
+        ContextManager manager = new ContextManager(Collections.singletonList(new TokenBudgetStrategy(15)));
+        List<Message> messages = TokenBudgetStrategyTest.conversation(4);
+
+        List<Message> result = manager.prepare(messages);
+
+        assertThat(result.size()).isLessThan(messages.size());
+        assertThat(manager.getRequests()).isEqualTo(1);
+        assertThat(manager.getBytesSaved()).isPositive();
+        assertThat(manager.getTokensSaved()).isPositive();
+    }
+
+    @Test
+    public void prepare_WithoutReduction_ShouldSaveNothing() {
+        ContextManager manager = ContextManager.withTokenBudget(10_000);
+
+        manager.prepare(TokenBudgetStrategyTest.conversation(1));
+
+        assertThat(manager.getBytesSaved()).isZero();
+        assertThat(manager.getTokensSaved()).isZero();
+    }
+}
@@ -0,0 +1,32 @@
+package com.agentfactory.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.agentfactory.models.Message;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ObservationSummaryStrategyTest {
+
+    @Test
+    public void truncating_ShouldShortenOnlyOlderObservations() {
+        List<Message> messages = TokenBudgetStrategyTest.conversation(3);
+
+        List<Message> result = ObservationSummaryStrategy.truncating(1, 3).apply(messages);
+
+        assertThat(result.get(3).getContent()).isEqualTo("Observation: res... [truncated 4 chars]");
+        assertThat(result.get(5).getContent()).isEqualTo("Observation: res... [truncated 4 chars]");
+        assertThat(result.get(7).getContent()).isEqualTo("Observation: result2");
+        assertThat(messages.get(3).getContent()).isEqualTo("Observation: result0");
+    }
+
+    @Test
+    public void apply_WithCustomSummarizer_ShouldUseIt() {
+        List<Message> messages = TokenBudgetStrategyTest.conversation(2);
+
+        List<Message> result = new ObservationSummaryStrategy(0, observation -> "summary").apply(messages);
+
+        assertThat(result.get(3).getContent()).isEqualTo("Observation: summary");
+        assertThat(result.get(5).getContent()).isEqualTo("Observation: summary");
+    }
+}
@@ -0,0 +1,46 @@
+package com.agentfactory.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.agentfactory.memory.HashingEmbedder;
+import com.agentfactory.models.Message;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class RetrievalStrategyTest {
+
+    @Test
+    public void apply_ShouldKeepRecentStepsAndMostRelevantOlderStep() {
+        List<Message> messages = new ArrayList<>();
+        messages.add(new Message("system", "sys"));
+        messages.add(new Message("user", "What is the population of Paris?"));
+        addStep(messages, "search weather", "Sunny with light wind");
+        addStep(messages, "search paris population", "The population of Paris is 2.1 million");
+        addStep(messages, "search stock prices", "Markets closed higher");
+        addStep(messages, "search football scores", "The match ended in a draw");
+        addStep(messages, "search train times", "Trains leave every hour");
+
+        List<Message> result = new RetrievalStrategy(new HashingEmbedder(256), 1, 2).apply(messages);
+
+        assertThat(result).hasSize(2 + 3 * 2);
+        assertThat(result.subList(0, 2)).isEqualTo(messages.subList(0, 2));
+        assertThat(result.get(2).getContent()).isEqualTo("Action:\nsearch paris population");
+        assertThat(result.get(4).getContent()).isEqualTo("Action:\nsearch football scores");
+        assertThat(result.get(6).getContent()).isEqualTo("Action:\nsearch train times");
+    }
+
+    @Test
+    public void apply_WithFewSteps_ShouldReturnSameList() {
+        List<Message> messages = TokenBudgetStrategyTest.conversation(3);
+
+        List<Message> result = new RetrievalStrategy(new HashingEmbedder(64), 1, 2).apply(messages);
+
+        assertThat(result).isSameAs(messages);
+    }
+
+    private static void addStep(List<Message> messages, String action, String observation) {
+        messages.add(new Message("assistant", "Action:\n" + action));
+        messages.add(new Message("user", "Observation: " + observation));
+    }
+}
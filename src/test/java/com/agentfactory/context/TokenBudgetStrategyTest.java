@@ -0,0 +1,51 @@
+package com.agentfactory.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.agentfactory.models.Message;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TokenBudgetStrategyTest {
+
+    private static final TokenEstimator ONE_TOKEN_PER_CHAR = String::length;
+
+    @Test
+    public void apply_WithinBudget_ShouldReturnSameList() {
+        List<Message> messages = conversation(2);
+
+        assertThat(new TokenBudgetStrategy(1000, ONE_TOKEN_PER_CHAR).apply(messages)).isSameAs(messages);
+    }
+
+    @Test
+    public void apply_OverBudget_ShouldDropOldestStepsAndKeepPrefix() {
+        List<Message> messages = conversation(3);
+
+        List<Message> result = new TokenBudgetStrategy(30, ONE_TOKEN_PER_CHAR).apply(messages);
+
+        assertThat(result).extracting(Message::getContent)
+                .containsExactly("sys", "task", "Action:\nstep2", "Observation: result2");
+    }
+
+    @Test
+    public void apply_WhenLatestStepAloneExceedsBudget_ShouldKeepIt() {
+        List<Message> messages = conversation(2);
+
+        List<Message> result = new TokenBudgetStrategy(1, ONE_TOKEN_PER_CHAR).apply(messages);
+
+        assertThat(result).hasSize(4);
+        assertThat(result.get(3).getContent()).isEqualTo("Observation: result1");
+    }
+
+    static List<Message> conversation(int steps) {
+        List<Message> messages = new ArrayList<>();
+        messages.add(new Message("system", "sys"));
+        messages.add(new Message("user", "task"));
+        for (int i = 0; i < steps; i++) {
+            messages.add(new Message("assistant", "Action:\nstep" + i));
+            messages.add(new Message("user", "Observation: result" + i));
+        }
+        return messages;
+    }
+}
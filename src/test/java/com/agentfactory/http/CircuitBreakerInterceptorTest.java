@@ -0,0 +1,121 @@
+package com.agentfactory.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.agentfactory.metrics.HistogramMetricsRecorder;
+import com.agentfactory.metrics.MetricNames;
+import java.io.IOException;
+import java.time.Duration;
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class CircuitBreakerInterceptorTest {
+
+    private static final Request REQUEST = new Request.Builder().url("https://api.example.com/v1").build();
+
+    @Mock
+    private Interceptor.Chain chain;
+
+    @Mock
+    private Call call;
+
+    private long now = 0;
+    private HistogramMetricsRecorder metrics;
+    private CircuitBreakerInterceptor interceptor;
+
+    @BeforeEach
+    public void setUp() {
+        when(chain.request()).thenReturn(REQUEST);
+        when(chain.call()).thenReturn(call);
+        metrics = new HistogramMetricsRecorder();
+        interceptor = new CircuitBreakerInterceptor(2, Duration.ofSeconds(30), metrics, () -> now);
+    }
+
+    @Test
+    public void intercept_AfterConsecutiveFailures_ShouldFailFast() throws IOException {
+        when(chain.proceed(any())).thenReturn(response(502));
+
+        interceptor.intercept(chain);
+        interceptor.intercept(chain);
+
+        assertThatThrownBy(() -> interceptor.intercept(chain)).isInstanceOf(CircuitOpenException.class);
+        assertThat(metrics.getCounter(MetricNames.HTTP_CIRCUIT_OPENED)).isEqualTo(1);
+        assertThat(metrics.getCounter(MetricNames.HTTP_CIRCUIT_REJECTED)).isEqualTo(1);
+    }
+
+    @Test
+    public void intercept_AfterOpenDuration_ShouldCloseOnSuccessfulProbe() throws IOException {
+        when(chain.proceed(any())).thenReturn(response(500)).thenReturn(response(500)).thenReturn(response(200));
+        interceptor.intercept(chain);
+        interceptor.intercept(chain);
+
+        now += Duration.ofSeconds(30).toNanos();
+
+        assertThat(interceptor.intercept(chain).code()).isEqualTo(200);
+        assertThat(interceptor.intercept(chain).code()).isEqualTo(200);
+    }
+
+    @Test
+    public void intercept_WithThrottledResponses_ShouldStayClosed() throws IOException {
+        when(chain.proceed(any())).thenReturn(response(429));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(interceptor.intercept(chain).code()).isEqualTo(429);
+        }
+    }
+
+    @Test
+    public void intercept_WithCancelledCalls_ShouldStayClosed() throws IOException {
+        when(call.isCanceled()).thenReturn(true);
+        when(chain.proceed(any())).thenThrow(new IOException("Canceled"));
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> interceptor.intercept(chain)).isInstanceOf(IOException.class)
+                    .isNotInstanceOf(CircuitOpenException.class);
+        }
+        assertThat(metrics.getCounter(MetricNames.HTTP_CIRCUIT_OPENED)).isZero();
+    }
+
+    @Test
+    public void intercept_WithCancelledProbe_ShouldLetNextRequestProbe() throws IOException {
+        when(chain.proceed(any())).thenReturn(response(500)).thenReturn(response(500))
+                .thenThrow(new IOException("Canceled")).thenReturn(response(200));
+        interceptor.intercept(chain);
+        interceptor.intercept(chain);
+        now += Duration.ofSeconds(30).toNanos();
+
+        when(call.isCanceled()).thenReturn(true);
+        assertThatThrownBy(() -> interceptor.intercept(chain)).isInstanceOf(IOException.class)
+                .isNotInstanceOf(CircuitOpenException.class);
+        when(call.isCanceled()).thenReturn(false);
+
+        assertThat(interceptor.intercept(chain).code()).isEqualTo(200);
+    }
+
+    private static Response response(int code) {
+        return new Response.Builder()
+                .request(REQUEST)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("status " + code)
+                .body(ResponseBody.create("", MediaType.parse("text/plain")))
+                .build();
+    }
+}
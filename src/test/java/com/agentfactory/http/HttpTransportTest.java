@@ -0,0 +1,49 @@
+package com.agentfactory.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.junit.jupiter.api.Test;
+
+public class HttpTransportTest {
+
+    @Test
+    public void shared_ShouldReturnSameInstance() {
+        assertThat(HttpTransport.shared()).isSameAs(HttpTransport.shared());
+    }
+
+    @Test
+    public void build_ShouldApplyDispatcherAndTimeoutSettings() {
+        HttpTransport transport = HttpTransport.builder()
+                .maxRequests(100)
+                .maxRequestsPerHost(20)
+                .readTimeout(Duration.ofSeconds(90))
+                .connectTimeout(Duration.ofSeconds(3))
+                .build();
+
+        OkHttpClient client = transport.getClient();
+
+        assertThat(client.dispatcher().getMaxRequests()).isEqualTo(100);
+        assertThat(client.dispatcher().getMaxRequestsPerHost()).isEqualTo(20);
+        assertThat(client.readTimeoutMillis()).isEqualTo(90_000);
+        assertThat(client.connectTimeoutMillis()).isEqualTo(3_000);
+        transport.close();
+    }
+
+    @Test
+    public void build_WithoutHttp2_ShouldUseHttp11Only() {
+        HttpTransport transport = HttpTransport.builder().http2(false).build();
+
+        assertThat(transport.getClient().protocols()).containsExactly(Protocol.HTTP_1_1);
+        transport.close();
+    }
+
+    @Test
+    public void build_WithNonPositiveLimit_ShouldThrowException() {
+        assertThatThrownBy(() -> HttpTransport.builder().maxRequestsPerHost(0).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,64 @@
+package com.agentfactory.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.agentfactory.metrics.MetricsRecorder;
+import okhttp3.Request;
+import org.junit.jupiter.api.Test;
+
+public class RateLimitInterceptorTest {
+
+    private long now = 0;
+
+    @Test
+    public void reserve_BeyondBurst_ShouldSpaceRequestsAtConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(10, 2, () -> now);
+
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isEqualTo(100_000_000L);
+        assertThat(bucket.reserve()).isEqualTo(200_000_000L);
+    }
+
+    @Test
+    public void onThrottled_ShouldPauseAndHalveRateThenRecover() {
+        TokenBucket bucket = new TokenBucket(10, 1, () -> now);
+
+        bucket.onThrottled(2_000_000_000L);
+
+        assertThat(bucket.getRate()).isEqualTo(5.0);
+        assertThat(bucket.reserve()).isEqualTo(2_000_000_000L);
+        for (int i = 0; i < 20; i++) {
+            bucket.onSuccess();
+        }
+        assertThat(bucket.getRate()).isEqualTo(10.0);
+    }
+
+    @Test
+    public void reserve_WithUnlimitedRate_ShouldOnlyApplyPauses() {
+        TokenBucket bucket = new TokenBucket(Double.POSITIVE_INFINITY, 1, () -> now);
+
+        assertThat(bucket.reserve()).isZero();
+        bucket.pause(500);
+        assertThat(bucket.reserve()).isEqualTo(500);
+    }
+
+    @Test
+    public void bucket_ShouldBeSeparatePerApiKey() {
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(1, 1, MetricsRecorder.NOOP, () -> now);
+        Request first = new Request.Builder().url("https://api.example.com/a").header("X-API-KEY", "one").build();
+        Request second = new Request.Builder().url("https://api.example.com/b").header("X-API-KEY", "two").build();
+        Request sameKey = new Request.Builder().url("https://api.example.com/c").header("X-API-KEY", "one").build();
+
+        assertThat(interceptor.bucket(first)).isNotSameAs(interceptor.bucket(second));
+        assertThat(interceptor.bucket(first)).isSameAs(interceptor.bucket(sameKey));
+    }
+
+    @Test
+    public void parseDuration_ShouldReadRateLimitResetFormats() {
+        assertThat(RateLimitHeaders.parseDuration("20ms")).isEqualTo(20_000_000L);
+        assertThat(RateLimitHeaders.parseDuration("6m0s")).isEqualTo(360_000_000_000L);
+        assertThat(RateLimitHeaders.parseDuration("1.5s")).isEqualTo(1_500_000_000L);
+        assertThat(RateLimitHeaders.parseDuration("soon")).isEqualTo(-1L);
+    }
+}
@@ -0,0 +1,114 @@
+package com.agentfactory.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.agentfactory.metrics.HistogramMetricsRecorder;
+import com.agentfactory.metrics.MetricNames;
+import java.io.IOException;
+import java.time.Duration;
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class RetryInterceptorTest {
+
+    private static final Request REQUEST = new Request.Builder().url("https://api.example.com/v1").build();
+
+    @Mock
+    private Interceptor.Chain chain;
+
+    @Mock
+    private Call call;
+
+    private HistogramMetricsRecorder metrics;
+    private RetryInterceptor interceptor;
+
+    @BeforeEach
+    public void setUp() {
+        when(chain.request()).thenReturn(REQUEST);
+        when(chain.call()).thenReturn(call);
+        metrics = new HistogramMetricsRecorder();
+        interceptor = new RetryInterceptor(3, Duration.ZERO, Duration.ZERO, metrics);
+    }
+
+    @Test
+    public void intercept_WithTransientErrors_ShouldRetryUntilSuccess() throws IOException {
+        when(chain.proceed(any())).thenReturn(response(503)).thenReturn(response(429)).thenReturn(response(200));
+
+        Response response = interceptor.intercept(chain);
+
+        assertThat(response.code()).isEqualTo(200);
+        assertThat(metrics.getCounter(MetricNames.HTTP_RETRIES)).isEqualTo(2);
+    }
+
+    @Test
+    public void intercept_WhenAttemptsRunOut_ShouldReturnLastResponse() throws IOException {
+        when(chain.proceed(any())).thenReturn(response(500));
+
+        Response response = interceptor.intercept(chain);
+
+        assertThat(response.code()).isEqualTo(500);
+        verify(chain, times(3)).proceed(any());
+    }
+
+    @Test
+    public void intercept_WithClientError_ShouldNotRetry() throws IOException {
+        when(chain.proceed(any())).thenReturn(response(401));
+
+        assertThat(interceptor.intercept(chain).code()).isEqualTo(401);
+        verify(chain, times(1)).proceed(any());
+    }
+
+    @Test
+    public void intercept_WithOpenCircuit_ShouldFailWithoutRetry() throws IOException {
+        when(chain.proceed(any())).thenThrow(new CircuitOpenException("api.example.com"));
+
+        assertThatThrownBy(() -> interceptor.intercept(chain)).isInstanceOf(CircuitOpenException.class);
+        verify(chain, times(1)).proceed(any());
+    }
+
+    @Test
+    public void intercept_WithIoFailure_ShouldRetry() throws IOException {
+        when(chain.proceed(any())).thenThrow(new IOException("reset")).thenReturn(response(200));
+
+        assertThat(interceptor.intercept(chain).code()).isEqualTo(200);
+    }
+
+    @Test
+    public void backoffNanos_ShouldStayWithinExponentialCap() {
+        RetryInterceptor backoff = new RetryInterceptor(5, Duration.ofMillis(100), Duration.ofMillis(300), metrics);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(backoff.backoffNanos(1)).isBetween(0L, Duration.ofMillis(100).toNanos());
+            assertThat(backoff.backoffNanos(4)).isBetween(0L, Duration.ofMillis(300).toNanos());
+        }
+    }
+
+    private static Response response(int code) {
+        return new Response.Builder()
+                .request(REQUEST)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("status " + code)
+                .body(ResponseBody.create("", MediaType.parse("text/plain")))
+                .build();
+    }
+}
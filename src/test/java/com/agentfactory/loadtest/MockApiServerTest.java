@@ -0,0 +1,86 @@
+package com.agentfactory.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.agentfactory.agents.ToolCallingAgent;
+import com.agentfactory.config.ApiConfig;
+import com.agentfactory.http.HttpTransport;
+import com.agentfactory.models.Message;
+import com.agentfactory.models.OpenAIModel;
+import com.agentfactory.tools.FinalAnswerTool;
+import com.agentfactory.tools.SearchTool;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+public class MockApiServerTest {
+
+    private static HttpTransport transport() {
+        return HttpTransport.builder()
+                .retry(1, Duration.ofMillis(1), Duration.ofMillis(1))
+                .build();
+    }
+
+    @Test
+    public void run_WithDefaultScript_ShouldSearchThenAnswer() throws Exception {
+        try (MockApiServer server = MockApiServer.builder().start()) {
+            ApiConfig config = server.getApiConfig();
+            HttpTransport transport = transport();
+            ToolCallingAgent agent = new ToolCallingAgent(
+                    new OpenAIModel(config, "gpt-4", transport),
+                    Arrays.asList(new SearchTool(config, transport), new FinalAnswerTool()));
+
+            String result = agent.run("Search for 'Java programming' and summarize the results.");
+
+            assertThat(result).isEqualTo("Java is a popular language.");
+            assertThat(server.getChatRequests()).isEqualTo(2);
+            assertThat(server.getSearchRequests()).isEqualTo(1);
+            assertThat(agent.getMemory().getSteps().get(0).toString()).contains("Java Programming");
+        }
+    }
+
+    @Test
+    public void generateResponse_WithLatency_ShouldDelayResponse() throws Exception {
+        try (MockApiServer server = MockApiServer.builder()
+                .chatScript(Collections.singletonList("Hello"))
+                .chatLatency(LatencyDistribution.fixed(Duration.ofMillis(100)))
+                .start()) {
+            OpenAIModel model = new OpenAIModel(server.getApiConfig(), "gpt-4", transport());
+
+            long start = System.nanoTime();
+            String response = model.generateResponse(Collections.singletonList(new Message("user", "Hi")));
+
+            assertThat(response).isEqualTo("Hello");
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+        }
+    }
+
+    @Test
+    public void execute_WithErrorRateOne_ShouldFailEveryRequest() throws Exception {
+        try (MockApiServer server = MockApiServer.builder().errors(1.0, 500).start()) {
+            SearchTool tool = new SearchTool(server.getApiConfig(), transport());
+            Map<String, Object> args = new HashMap<>();
+            args.put("query", "java");
+
+            assertThatThrownBy(() -> tool.execute(args)).isInstanceOf(RuntimeException.class);
+            assertThat(server.getInjectedErrors()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void logNormal_WithSameSeed_ShouldSampleSameDelays() {
+        LatencyDistribution latency = LatencyDistribution.logNormal(Duration.ofMillis(50), 0.5);
+        SplittableRandom first = new SplittableRandom(7);
+        SplittableRandom second = new SplittableRandom(7);
+
+        for (int i = 0; i < 100; i++) {
+            long sample = latency.sampleNanos(first);
+            assertThat(sample).isEqualTo(latency.sampleNanos(second)).isPositive();
+        }
+    }
+}
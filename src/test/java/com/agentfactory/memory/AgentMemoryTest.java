@@ -1,8 +1,11 @@
 package com.agentfactory.memory;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.StringWriter;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -82,4 +85,40 @@ public class AgentMemoryTest {
         assertThat(result).contains("action 2");
         assertThat(result).contains("observation 2");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void snapshot_ShouldNotSeeLaterSteps() {
+        ActionStep step1 = new ActionStep(1, "action 1", "observation 1");
+        memory.addStep(step1);
+
+        List<MemoryStep> snapshot = memory.snapshot();
+        memory.addStep(new ActionStep(2, "action 2", "observation 2"));
+
+        assertThat(snapshot).containsExactly(step1);
+        assertThat(memory.size()).isEqualTo(2);
+        assertThatThrownBy(() -> snapshot.add(step1)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void range_ShouldReturnStepsWithNumbersInRange() {
+        for (int i = 0; i < 5; i++) {
+            memory.addStep(new ActionStep(i, "action " + i, "observation " + i));
+        }
+
+        assertThat(memory.range(1, 3)).extracting(MemoryStep::getStepNumber).containsExactly(1, 2);
+        assertThat(memory.stream().map(MemoryStep::getStepNumber).collect(Collectors.toList()))
+                .containsExactly(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    public void writeTo_ShouldRenderSameTextAsToString() throws Exception {
+        memory.addStep(new ActionStep(1, "action 1", "observation 1"));
+        memory.addStep(new ActionStep(2, "action 2", null));
+        StringWriter out = new StringWriter();
+
+        memory.writeTo(out);
+
+        assertThat(out.toString()).isEqualTo(memory.toString());
+        assertThat(out.toString()).endsWith("Observation: null\n");
+    }
+}
@@ -0,0 +1,53 @@
+package com.agentfactory.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class HnswIndexTest {
+
+    @Test
+    public void search_ShouldFindExactMatchFirst() {
+        Random random = new Random(7);
+        HnswIndex index = new HnswIndex(16);
+        float[][] vectors = new float[500][16];
+        for (float[] vector : vectors) {
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+            index.add(vector);
+        }
+
+        for (int id = 0; id < vectors.length; id += 50) {
+            assertThat(index.search(vectors[id], 1)).containsExactly(id);
+        }
+        assertThat(index.size()).isEqualTo(500);
+    }
+
+    @Test
+    public void search_WithEmptyIndex_ShouldReturnNoResults() {
+        assertThat(new HnswIndex(4).search(new float[] {1, 0, 0, 0}, 3)).isEmpty();
+    }
+
+    @Test
+    public void add_WithWrongDimension_ShouldThrowException() {
+        assertThatThrownBy(() -> new HnswIndex(4).add(new float[3]))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("length 4");
+    }
+
+    @Test
+    public void search_WithSemanticMemory_ShouldReturnRelevantStep() {
+        SemanticMemory memory = new SemanticMemory(new HashingEmbedder(256));
+        memory.addStep(new ActionStep(0, "search weather in paris", "Sunny, 22 degrees"));
+        memory.addStep(new ActionStep(1, "search java release", "Java 21 was released in September"));
+        memory.addStep(new ActionStep(2, "search stock price", "ACME trades at 42"));
+
+        assertThat(memory.search("when was java released", 1))
+                .extracting(MemoryStep::getStepNumber)
+                .containsExactly(1);
+        assertThat(memory.getSteps()).hasSize(3);
+    }
+}
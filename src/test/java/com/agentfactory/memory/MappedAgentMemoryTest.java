@@ -0,0 +1,112 @@
+package com.agentfactory.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedAgentMemoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void addStep_ShouldBeReplayedAfterReopening() throws Exception {
+        Path file = directory.resolve("memory.log");
+        try (MappedAgentMemory memory = new MappedAgentMemory(file)) {
+            memory.addStep(new ActionStep(0, "{\"name\":\"search\"}", "Search results"));
+            memory.addStep(new ActionStep(1, "{\"name\":\"final_answer\"}", "Done"));
+        }
+
+        try (MappedAgentMemory memory = new MappedAgentMemory(file)) {
+            List<MemoryStep> steps = memory.getSteps();
+            assertThat(steps).hasSize(2);
+            ActionStep first = (ActionStep) steps.get(0);
+            assertThat(first.getAction()).isEqualTo("{\"name\":\"search\"}");
+            assertThat(first.getObservation()).isEqualTo("Search results");
+            assertThat(memory.toString()).contains("Step 1:", "Observation: Done");
+        }
+    }
+
+    @Test
+    public void getStep_ShouldReturnLatestStepWithNumber() throws Exception {
+        try (MappedAgentMemory memory = new MappedAgentMemory(directory.resolve("memory.log"))) {
+            memory.addStep(new ActionStep(0, "first run", "a"));
+            memory.addStep(new ActionStep(1, "first run", "b"));
+            memory.addStep(new ActionStep(0, "second run", "c"));
+
+            assertThat(memory.getStep(0).getAction()).isEqualTo("second run");
+            assertThat(memory.getStep(1).getObservation()).isEqualTo("b");
+            assertThat(memory.getStep(7)).isNull();
+        }
+    }
+
+    @Test
+    public void getRawStep_ShouldExposeEncodedStep() throws Exception {
+        try (MappedAgentMemory memory = new MappedAgentMemory(directory.resolve("memory.log"))) {
+            memory.addStep(new ActionStep(3, "act", "obs"));
+
+            ByteBuffer raw = memory.getRawStep(3);
+
+            assertThat(raw.isReadOnly()).isTrue();
+            assertThat(raw.getInt()).isEqualTo(3);
+            assertThat(raw.getInt()).isEqualTo(3);
+            byte[] rest = new byte[raw.remaining()];
+            raw.get(rest);
+            assertThat(new String(rest, StandardCharsets.UTF_8)).isEqualTo("actobs");
+        }
+    }
+
+    @Test
+    public void addStep_BeyondInitialMapping_ShouldGrowLog() throws Exception {
+        String observation = new String(new char[10_000]).replace('\0', 'x');
+        try (MappedAgentMemory memory = new MappedAgentMemory(directory.resolve("memory.log"))) {
+            for (int i = 0; i < 300; i++) {
+                memory.addStep(new ActionStep(i, "action " + i, observation));
+            }
+
+            assertThat(memory.size()).isEqualTo(300);
+            assertThat(memory.getStep(299).getAction()).isEqualTo("action 299");
+        }
+    }
+
+    @Test
+    public void replay_WithTornRecord_ShouldDropItAndKeepEarlierSteps() throws Exception {
+        Path file = directory.resolve("memory.log");
+        try (MappedAgentMemory memory = new MappedAgentMemory(file)) {
+            memory.addStep(new ActionStep(0, "kept", "a"));
+            memory.addStep(new ActionStep(1, "torn", "b"));
+        }
+        int secondRecord = 8 + 8 + "kept".length() + "a".length();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), secondRecord + 16);
+        }
+
+        try (MappedAgentMemory memory = new MappedAgentMemory(file)) {
+            assertThat(memory.size()).isEqualTo(1);
+            memory.addStep(new ActionStep(1, "rewritten", "c"));
+            assertThat(memory.getStep(1).getAction()).isEqualTo("rewritten");
+        }
+    }
+
+    @Test
+    public void addStep_WithOtherStepType_ShouldThrowException() throws Exception {
+        try (MappedAgentMemory memory = new MappedAgentMemory(directory.resolve("memory.log"))) {
+            MemoryStep thought = new MemoryStep(0) {
+                @Override
+                public String toString() {
+                    return "thought";
+                }
+            };
+
+            assertThatThrownBy(() -> memory.addStep(thought)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.agentfactory.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class HistogramTest {
+
+    @Test
+    public void record_ShouldTrackCountSumMinAndMax() {
+        Histogram histogram = new Histogram();
+
+        histogram.record(5);
+        histogram.record(100);
+        histogram.record(1_000);
+
+        assertThat(histogram.getCount()).isEqualTo(3);
+        assertThat(histogram.getSum()).isEqualTo(1_105);
+        assertThat(histogram.getMin()).isEqualTo(5);
+        assertThat(histogram.getMax()).isEqualTo(1_000);
+    }
+
+    @Test
+    public void getPercentile_ShouldBeWithinBucketPrecision() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1_000L);
+        }
+
+        assertThat(histogram.getPercentile(50)).isBetween(5_000_000L, 5_350_000L);
+        assertThat(histogram.getPercentile(99)).isBetween(9_900_000L, 10_000_000L);
+        assertThat(histogram.getPercentile(100)).isEqualTo(10_000_000L);
+    }
+
+    @Test
+    public void getPercentile_WithNoValues_ShouldReturnZero() {
+        assertThat(new Histogram().getPercentile(99)).isZero();
+    }
+
+    @Test
+    public void bucketIndex_ShouldMapEachValueIntoItsBucket() {
+        long[] values = {0, 1, 15, 16, 17, 31, 32, 33, 1_000, 123_456_789, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = Histogram.bucketIndex(value);
+            assertThat(Histogram.lowerBound(index)).isLessThanOrEqualTo(value);
+            if (value < Long.MAX_VALUE) {
+                assertThat(Histogram.lowerBound(index + 1)).isGreaterThan(value);
+            }
+        }
+    }
+
+    @Test
+    public void record_FromManyThreads_ShouldNotLoseValues() throws Exception {
+        Histogram histogram = new Histogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(80_000);
+        assertThat(histogram.getPercentile(100)).isEqualTo(9_999);
+    }
+}
@@ -0,0 +1,91 @@
+package com.agentfactory.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JsonLinesTraceExporterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void trace_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        Path file = directory.resolve("trace.jsonl");
+        try (JsonLinesTraceExporter exporter = new JsonLinesTraceExporter(file, MetricsRecorder.NOOP)) {
+            exporter.trace(new TraceEvent("step").with("step", 0).with("tools", Arrays.asList("search")));
+            exporter.trace(new TraceEvent("model_call").with("promptTokens", 42L));
+        }
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(2);
+        JsonObject step = JsonParser.parseString(lines.get(0)).getAsJsonObject();
+        assertThat(step.get("type").getAsString()).isEqualTo("step");
+        assertThat(step.has("timestamp")).isTrue();
+        assertThat(step.getAsJsonArray("tools").get(0).getAsString()).isEqualTo("search");
+        JsonObject call = JsonParser.parseString(lines.get(1)).getAsJsonObject();
+        assertThat(call.get("promptTokens").getAsLong()).isEqualTo(42L);
+    }
+
+    @Test
+    public void recordTime_ShouldForwardToDelegate() throws Exception {
+        HistogramMetricsRecorder delegate = new HistogramMetricsRecorder();
+        try (JsonLinesTraceExporter exporter =
+                new JsonLinesTraceExporter(directory.resolve("trace.jsonl"), delegate)) {
+            exporter.recordTime(MetricNames.MODEL_CALL_TIME, 1_000);
+            exporter.increment(MetricNames.MODEL_ERRORS, 1);
+        }
+
+        assertThat(delegate.getHistogram(MetricNames.MODEL_CALL_TIME).getCount()).isEqualTo(1);
+        assertThat(delegate.getCounter(MetricNames.MODEL_ERRORS)).isEqualTo(1);
+    }
+
+    @Test
+    public void trace_WhenWriteFails_ShouldCountErrorAndDropLine() throws Exception {
+        Writer failing = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void flush() {
+                // Nothing is buffered.
+            }
+
+            @Override
+            public void close() {
+                // Nothing to release.
+            }
+        };
+        JsonLinesTraceExporter exporter = new JsonLinesTraceExporter(failing, MetricsRecorder.NOOP);
+
+        exporter.trace(new TraceEvent("step").with("detail", "x".repeat(10_000)));
+
+        assertThat(exporter.getWriteErrors()).isEqualTo(1);
+    }
+
+    @Test
+    public void trace_AfterClose_ShouldNotWrite() throws Exception {
+        Path file = directory.resolve("trace.jsonl");
+        JsonLinesTraceExporter exporter = new JsonLinesTraceExporter(file, MetricsRecorder.NOOP);
+        exporter.close();
+
+        exporter.trace(new TraceEvent("step"));
+        exporter.flush();
+        exporter.close();
+
+        assertThat(Files.readAllLines(file, StandardCharsets.UTF_8)).isEmpty();
+        assertThat(exporter.getWriteErrors()).isZero();
+    }
+}
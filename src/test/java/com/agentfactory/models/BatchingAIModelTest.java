@@ -0,0 +1,164 @@
+package com.agentfactory.models;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.agentfactory.http.HttpTransport;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class BatchingAIModelTest {
+
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    private final BatchBackend echoBackend = conversations -> {
+        batchSizes.add(conversations.size());
+        List<String> responses = new ArrayList<>();
+        for (List<Message> conversation : conversations) {
+            responses.add("echo: " + conversation.get(0).getContent());
+        }
+        return responses;
+    };
+
+    @Test
+    public void generateResponseAsync_WhenBatchIsFull_ShouldSendImmediately() throws Exception {
+        try (BatchingAIModel model = new BatchingAIModel(echoBackend, 3, Duration.ofHours(1))) {
+            CompletableFuture<String> first = model.generateResponseAsync(conversation("a"));
+            CompletableFuture<String> second = model.generateResponseAsync(conversation("b"));
+            CompletableFuture<String> third = model.generateResponseAsync(conversation("c"));
+
+            assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("echo: a");
+            assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("echo: b");
+            assertThat(third.get(1, TimeUnit.SECONDS)).isEqualTo("echo: c");
+            assertThat(batchSizes).containsExactly(3);
+        }
+    }
+
+    @Test
+    public void generateResponseAsync_WhenWindowEnds_ShouldSendPartialBatch() throws Exception {
+        try (BatchingAIModel model = new BatchingAIModel(echoBackend, 100, Duration.ofMillis(20))) {
+            CompletableFuture<String> first = model.generateResponseAsync(conversation("a"));
+            CompletableFuture<String> second = model.generateResponseAsync(conversation("b"));
+
+            assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("echo: a");
+            assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo("echo: b");
+            assertThat(batchSizes).containsExactly(2);
+        }
+    }
+
+    @Test
+    public void generateResponse_WhenBackendFails_ShouldFailEveryCaller() {
+        BatchBackend failing = conversations -> {
+            throw new IllegalStateException("batch rejected");
+        };
+        try (BatchingAIModel model = new BatchingAIModel(failing, 2, Duration.ofHours(1))) {
+            CompletableFuture<String> first = model.generateResponseAsync(conversation("a"));
+
+            assertThatThrownBy(() -> model.generateResponse(conversation("b")))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("batch rejected");
+            assertThatThrownBy(() -> first.get(1, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    public void generateResponse_WhenBackendThrowsError_ShouldFailEveryCaller() {
+        BatchBackend failing = conversations -> {
+            throw new AssertionError("backend crashed");
+        };
+        try (BatchingAIModel model = new BatchingAIModel(failing, 1, Duration.ofHours(1))) {
+            CompletableFuture<String> result = model.generateResponseAsync(conversation("a"));
+
+            assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(AssertionError.class);
+        }
+    }
+
+    @Test
+    public void generateResponseAsync_WhenStaleWindowEnds_ShouldNotSendNextBatchEarly() throws Exception {
+        try (BatchingAIModel model = new BatchingAIModel(echoBackend, 2, Duration.ofMillis(300))) {
+            CompletableFuture<String> next;
+            synchronized (model) {
+                model.generateResponseAsync(conversation("a"));
+                // Let the first window end while its flush waits for the lock held here.
+                Thread.sleep(400);
+                model.generateResponseAsync(conversation("b"));
+                next = model.generateResponseAsync(conversation("c"));
+            }
+
+            Thread.sleep(100);
+            assertThat(next).isNotDone();
+            assertThat(next.get(1, TimeUnit.SECONDS)).isEqualTo("echo: c");
+            assertThat(batchSizes).containsExactly(2, 1);
+        }
+    }
+
+    @Test
+    public void close_ShouldSendPendingRequests() throws Exception {
+        BatchingAIModel model = new BatchingAIModel(echoBackend, 100, Duration.ofHours(1));
+        CompletableFuture<String> pending = model.generateResponseAsync(conversation("a"));
+
+        model.close();
+
+        assertThat(pending.get(1, TimeUnit.SECONDS)).isEqualTo("echo: a");
+        assertThatThrownBy(() -> model.generateResponseAsync(conversation("b")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void generateBatch_WithLocalBackend_ShouldKeepRequestOrder() {
+        AIModel model = messages -> messages.get(0).getContent().toUpperCase();
+        LocalBatchBackend backend = new LocalBatchBackend(model);
+
+        List<String> responses = backend.generateBatch(Arrays.asList(conversation("x"), conversation("y")));
+
+        assertThat(responses).containsExactly("X", "Y");
+    }
+
+    @Test
+    public void toBatchInput_ShouldWriteOneCompletionRequestPerLine() {
+        OpenAIBatchBackend backend =
+                new OpenAIBatchBackend("test-key", "gpt-4", HttpTransport.shared(), Duration.ofSeconds(1));
+
+        String input = backend.toBatchInput(Arrays.asList(conversation("a"), conversation("b")));
+
+        String[] lines = input.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[1]).contains("\"custom_id\":\"request-1\"", "\"url\":\"/v1/chat/completions\"",
+                "\"model\":\"gpt-4\"", "\"content\":\"b\"");
+    }
+
+    @Test
+    public void parseBatchOutput_ShouldRestoreRequestOrder() throws IOException {
+        OpenAIBatchBackend backend =
+                new OpenAIBatchBackend("test-key", "gpt-4", HttpTransport.shared(), Duration.ofSeconds(1));
+        String output = outputLine(1, "second") + "\n" + outputLine(0, "first") + "\n";
+
+        assertThat(backend.parseBatchOutput(output, 2)).containsExactly("first", "second");
+        assertThatThrownBy(() -> backend.parseBatchOutput(outputLine(0, "only"), 2))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("request-1");
+    }
+
+    private static List<Message> conversation(String content) {
+        return Collections.singletonList(new Message("user", content));
+    }
+
+    private static String outputLine(int index, String content) {
+        return "{\"custom_id\":\"request-" + index + "\",\"response\":{\"status_code\":200,\"body\":"
+                + "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\"" + content + "\"}}]}},"
+                + "\"error\":null}";
+    }
+}
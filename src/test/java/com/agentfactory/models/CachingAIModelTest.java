@@ -0,0 +1,63 @@
+package com.agentfactory.models;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.agentfactory.cache.InMemoryResponseCache;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CachingAIModelTest {
+
+    private AIModel delegate;
+    private CachingAIModel model;
+
+    @BeforeEach
+    public void setUp() {
+        delegate = mock(AIModel.class);
+        when(delegate.generateResponse(any())).thenReturn("completion");
+        model = new CachingAIModel(delegate, "gpt-4", new InMemoryResponseCache(100, 100_000, Duration.ofHours(1)));
+    }
+
+    @Test
+    public void generateResponse_WithIdenticalConversation_ShouldCallDelegateOnce() {
+        String first = model.generateResponse(conversation("task"));
+        String second = model.generateResponse(conversation("task"));
+
+        assertThat(first).isEqualTo("completion");
+        assertThat(second).isEqualTo("completion");
+        verify(delegate, times(1)).generateResponse(any());
+        assertThat(model.getStats().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void generateResponse_WithDifferentConversation_ShouldMiss() {
+        model.generateResponse(conversation("task one"));
+        model.generateResponse(conversation("task two"));
+
+        verify(delegate, times(2)).generateResponse(any());
+    }
+
+    @Test
+    public void cacheKey_ShouldDependOnModelNameAndMessageBoundaries() {
+        CachingAIModel otherModel =
+                new CachingAIModel(delegate, "gpt-3.5", new InMemoryResponseCache(1, 1, Duration.ofHours(1)));
+        List<Message> joined = Arrays.asList(new Message("user", "ab"));
+        List<Message> split = Arrays.asList(new Message("user", "a"), new Message("user", "b"));
+
+        assertThat(model.cacheKey(conversation("task"))).isEqualTo(model.cacheKey(conversation("task")));
+        assertThat(model.cacheKey(conversation("task"))).isNotEqualTo(otherModel.cacheKey(conversation("task")));
+        assertThat(model.cacheKey(joined)).isNotEqualTo(model.cacheKey(split));
+    }
+
+    private static List<Message> conversation(String task) {
+        return Arrays.asList(new Message("system", "You are a helpful assistant"), new Message("user", task));
+    }
+}
@@ -0,0 +1,179 @@
+package com.agentfactory.models;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.agentfactory.http.HttpTransport;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class OpenAIModelTest {
+
+    private static final String ENDPOINT = "https://api.openai.com/v1/chat/completions";
+    private static final List<Message> MESSAGES = Collections.singletonList(new Message("user", "Hello"));
+
+    @Mock
+    private OkHttpClient mockClient;
+
+    @Mock
+    private Call mockCall;
+
+    private OpenAIModel model;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        model = new OpenAIModel("test-key", "gpt-4", HttpTransport.shared());
+        java.lang.reflect.Field clientField = OpenAIModel.class.getDeclaredField("client");
+        clientField.setAccessible(true);
+        clientField.set(model, mockClient);
+        when(mockClient.newCall(any())).thenReturn(mockCall);
+    }
+
+    @Test
+    public void generateResponseAsync_WhenResponseArrives_ShouldCompleteWithContent() throws Exception {
+        CompletableFuture<String> future = model.generateResponseAsync(MESSAGES);
+        assertThat(future).isNotDone();
+
+        captureCallback().onResponse(mockCall, createResponse(200, "{\"choices\":[{\"message\":"
+                + "{\"role\":\"assistant\",\"content\":\"Hi there\"}}]}"));
+
+        assertThat(future.get(1, TimeUnit.SECONDS)).isEqualTo("Hi there");
+    }
+
+    @Test
+    public void generateResponseAsync_WithFailedRequest_ShouldCompleteExceptionally() throws Exception {
+        CompletableFuture<String> future = model.generateResponseAsync(MESSAGES);
+
+        captureCallback().onResponse(mockCall, createResponse(500, "Error"));
+
+        assertThatThrownBy(() -> future.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("API request failed: 500");
+    }
+
+    @Test
+    public void generateResponseAsync_WhenCancelled_ShouldCancelHttpCall() {
+        CompletableFuture<String> future = model.generateResponseAsync(MESSAGES);
+
+        future.cancel(true);
+        when(mockCall.isCanceled()).thenReturn(true);
+        captureCallback().onFailure(mockCall, new IOException("Canceled"));
+
+        verify(mockCall).cancel();
+        assertThat(future).isCancelled();
+    }
+
+    @Test
+    public void generateResponseAsync_WithBlockingModel_ShouldUseDefaultAdapter() throws Exception {
+        AIModel blockingModel = messages -> "Blocking answer";
+
+        assertThat(blockingModel.generateResponseAsync(MESSAGES).get(1, TimeUnit.SECONDS))
+                .isEqualTo("Blocking answer");
+    }
+
+    @Test
+    public void generateToolCalls_WhenModelCallsTools_ShouldReturnToolCalls() throws Exception {
+        when(mockCall.execute()).thenReturn(createResponse(200, "{\"choices\":[{\"message\":"
+                + "{\"role\":\"assistant\",\"content\":null,\"tool_calls\":[{\"id\":\"call_1\","
+                + "\"type\":\"function\",\"function\":{\"name\":\"search\","
+                + "\"arguments\":\"{\\\"query\\\":\\\"Java\\\"}\"}}]}}]}"));
+
+        Message message = model.generateToolCalls(MESSAGES, new JsonArray(), FunctionCallingAIModel.TOOL_CHOICE_AUTO);
+
+        assertThat(message.getContent()).isNull();
+        assertThat(message.getToolCalls()).hasSize(1);
+        assertThat(message.getToolCalls().get(0).getId()).isEqualTo("call_1");
+        assertThat(message.getToolCalls().get(0).getName()).isEqualTo("search");
+        assertThat(message.getToolCalls().get(0).getArguments()).isEqualTo("{\"query\":\"Java\"}");
+    }
+
+    @Test
+    public void toRequestJson_WithToolName_ShouldForceThatFunction() {
+        JsonObject tool = new JsonObject();
+        tool.addProperty("type", "function");
+        JsonArray tools = new JsonArray();
+        tools.add(tool);
+
+        JsonObject request = JsonParser.parseString(model.toRequestJson(MESSAGES, tools, "final_answer"))
+                .getAsJsonObject();
+
+        assertThat(request.getAsJsonArray("tools")).hasSize(1);
+        assertThat(request.getAsJsonObject("tool_choice").get("type").getAsString()).isEqualTo("function");
+        assertThat(request.getAsJsonObject("tool_choice").getAsJsonObject("function").get("name").getAsString())
+                .isEqualTo("final_answer");
+        assertThat(request.has("stream")).isFalse();
+    }
+
+    @Test
+    public void toRequestJson_WithRequiredChoice_ShouldSendString() {
+        JsonObject request = JsonParser.parseString(
+                        model.toRequestJson(MESSAGES, new JsonArray(), FunctionCallingAIModel.TOOL_CHOICE_REQUIRED))
+                .getAsJsonObject();
+
+        assertThat(request.get("tool_choice").getAsString()).isEqualTo("required");
+    }
+
+    @Test
+    public void toRequestJson_WithToolMessages_ShouldSerializeToolCallsAndIds() {
+        Message assistant = new Message(
+                "assistant", "", Collections.singletonList(new FunctionCall("call_1", "search", "{}")), null);
+        Message tool = new Message("tool", "Results", null, "call_1");
+
+        JsonArray messages = JsonParser.parseString(
+                        model.toRequestJson(Arrays.asList(assistant, tool), false))
+                .getAsJsonObject()
+                .getAsJsonArray("messages");
+
+        JsonObject call = messages.get(0).getAsJsonObject().getAsJsonArray("tool_calls").get(0).getAsJsonObject();
+        assertThat(call.get("id").getAsString()).isEqualTo("call_1");
+        assertThat(call.get("type").getAsString()).isEqualTo("function");
+        assertThat(call.getAsJsonObject("function").get("name").getAsString()).isEqualTo("search");
+        assertThat(messages.get(1).getAsJsonObject().get("tool_call_id").getAsString()).isEqualTo("call_1");
+        assertThat(messages.get(0).getAsJsonObject().has("tool_call_id")).isFalse();
+    }
+
+    private Callback captureCallback() {
+        ArgumentCaptor<Callback> callback = ArgumentCaptor.forClass(Callback.class);
+        verify(mockCall).enqueue(callback.capture());
+        return callback.getValue();
+    }
+
+    private Response createResponse(int code, String body) {
+        return new Response.Builder()
+                .request(new Request.Builder().url(ENDPOINT).build())
+                .protocol(Protocol.HTTP_2)
+                .code(code)
+                .message(code == 200 ? "OK" : "Server Error")
+                .body(ResponseBody.create(body, MediaType.parse("application/json")))
+                .build();
+    }
+}
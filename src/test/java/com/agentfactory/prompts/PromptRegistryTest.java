@@ -0,0 +1,62 @@
+package com.agentfactory.prompts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PromptRegistryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void get_ShouldCompileClasspathPromptOnce() {
+        PromptRegistry registry = new PromptRegistry();
+
+        PromptTemplate template = registry.get("toolcalling_agent.yaml");
+
+        assertThat(registry.get("toolcalling_agent.yaml")).isSameAs(template);
+        assertThat(template.getVariables()).containsExactly("tools");
+        assertThat(PromptLoader.loadPrompt("toolcalling_agent.yaml")).isEqualTo(template.getSource());
+    }
+
+    @Test
+    public void loadPrompt_WithValues_ShouldRenderPlaceholders() {
+        String prompt =
+                PromptLoader.loadPrompt("toolcalling_agent.yaml", Collections.singletonMap("tools", "- search"));
+
+        assertThat(prompt).contains("the following tools:\n- search\n").doesNotContain("{{");
+    }
+
+    @Test
+    public void get_WithMissingFile_ShouldThrowException() {
+        assertThatThrownBy(() -> new PromptRegistry().get("missing.yaml"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Prompt file not found");
+    }
+
+    @Test
+    public void watch_ShouldReloadModifiedPrompt() throws Exception {
+        Path file = directory.resolve("agent.yaml");
+        Files.write(file, "system_prompt: first {{name}}\n".getBytes(StandardCharsets.UTF_8));
+        try (PromptRegistry registry = new PromptRegistry(directory)) {
+            assertThat(registry.render("agent.yaml", Collections.singletonMap("name", "a"))).isEqualTo("first a");
+            registry.watch();
+
+            Files.write(file, "system_prompt: second {{name}}\n".getBytes(StandardCharsets.UTF_8));
+
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (registry.get("agent.yaml").getSource().startsWith("first")
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(registry.render("agent.yaml", Collections.singletonMap("name", "b"))).isEqualTo("second b");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.agentfactory.prompts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class PromptTemplateTest {
+
+    @Test
+    public void render_ShouldSubstituteVariables() {
+        PromptTemplate template = PromptTemplate.compile("Tools: {{ tools }}. Task: {{task}}.");
+        Map<String, Object> values = new HashMap<>();
+        values.put("tools", "search, final_answer");
+        values.put("task", "summarize");
+
+        assertThat(template.render(values)).isEqualTo("Tools: search, final_answer. Task: summarize.");
+        assertThat(template.getVariables()).containsExactly("tools", "task");
+    }
+
+    @Test
+    public void render_WithoutPlaceholders_ShouldReturnSource() {
+        String source = "Plain prompt with {{ an unclosed brace";
+        PromptTemplate template = PromptTemplate.compile(source);
+
+        assertThat(template.render(Collections.emptyMap())).isSameAs(source);
+        assertThat(template.getVariables()).isEmpty();
+    }
+
+    @Test
+    public void render_WithMissingVariable_ShouldThrowException() {
+        PromptTemplate template = PromptTemplate.compile("Hello {{name}}");
+
+        assertThatThrownBy(() -> template.render(Collections.emptyMap()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("name");
+    }
+}
@@ -3,12 +3,18 @@ package com.agentfactory.tools;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.agentfactory.cache.InMemoryResponseCache;
+import com.agentfactory.http.HttpTransport;
+
 import com.agentfactory.config.ApiConfig;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import okhttp3.Call;
@@ -91,6 +97,38 @@ public class SearchToolTest {
         assertThat(configTool.getName()).isEqualTo("search");
     }
 
+    @Test
+    public void execute_WithCache_ShouldReuseResultForNormalizedQuery() throws Exception {
+        SearchTool cachingTool = new SearchTool(
+                TEST_API_KEY, HttpTransport.shared(), new InMemoryResponseCache(10, 100_000, Duration.ofMinutes(5)));
+        injectMockClient(cachingTool);
+        setupMockClientResponse(createSuccessResponse());
+
+        Object first = cachingTool.execute(createQueryArgs());
+        Map<String, Object> args = new HashMap<>();
+        args.put("query", "  Java   Programming ");
+        Object second = cachingTool.execute(args);
+
+        assertThat(second).isEqualTo(first);
+        verify(mockClient, times(1)).newCall(any());
+    }
+
+    @Test
+    public void getPolicy_ShouldReturnPolicyGivenToConstructor() {
+        ToolPolicy policy = ToolPolicy.builder().timeout(Duration.ofSeconds(5)).maxConcurrency(2).build();
+
+        SearchTool limitedTool = new SearchTool(
+                TEST_API_KEY, HttpTransport.shared(), null, SEARCH_ENDPOINT, policy);
+
+        assertThat(limitedTool.getPolicy()).isSameAs(policy);
+        assertThat(searchTool.getPolicy()).isSameAs(SearchTool.DEFAULT_POLICY);
+    }
+
+    @Test
+    public void normalizeQuery_ShouldTrimLowercaseAndCollapseWhitespace() {
+        assertThat(SearchTool.normalizeQuery("  Java \t Programming\n")).isEqualTo("java programming");
+    }
+
     private SearchTool createSearchToolWithMockClient(String apiKey) throws Exception {
         SearchTool tool = new SearchTool(apiKey);
         injectMockClient(tool);
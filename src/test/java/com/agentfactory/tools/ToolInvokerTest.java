@@ -0,0 +1,180 @@
+package com.agentfactory.tools;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+
+public class ToolInvokerTest {
+
+    private static final Map<String, Object> ARGS = new HashMap<>();
+
+    @Test
+    public void invoke_WithBlockingTool_ShouldRunOnExecutor() throws Exception {
+        Tool tool = new FinalAnswerTool();
+        Map<String, Object> args = new HashMap<>();
+        args.put("answer", "42");
+        ToolInvoker invoker = new ToolInvoker(tool, Runnable::run);
+
+        assertThat(invoker.invoke(args).get(1, TimeUnit.SECONDS)).isEqualTo("42");
+        assertThat(invoker.getPolicy()).isSameAs(ToolPolicy.DEFAULT);
+    }
+
+    @Test
+    public void invoke_WhenToolIsTooSlow_ShouldTimeOutAndCancelCall() {
+        PendingTool tool = new PendingTool(ToolPolicy.builder().timeout(Duration.ofMillis(50)).build());
+        ToolInvoker invoker = new ToolInvoker(tool, Runnable::run);
+
+        CompletableFuture<Object> result = invoker.invoke(ARGS);
+
+        assertThatThrownBy(() -> result.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class)
+                .hasMessageContaining("timed out after 50 ms");
+        CompletableFuture<Object> call = tool.calls.get(0);
+        assertThatThrownBy(() -> call.get(1, TimeUnit.SECONDS)).isInstanceOf(CancellationException.class);
+    }
+
+    @Test
+    public void invoke_WhenSaturated_ShouldQueueThenReject() throws Exception {
+        ToolPolicy policy = ToolPolicy.builder().maxConcurrency(1).queueCapacity(1).build();
+        PendingTool tool = new PendingTool(policy);
+        ToolInvoker invoker = new ToolInvoker(tool, Runnable::run);
+
+        CompletableFuture<Object> running = invoker.invoke(ARGS);
+        CompletableFuture<Object> queued = invoker.invoke(ARGS);
+        CompletableFuture<Object> rejected = invoker.invoke(ARGS);
+
+        assertThat(tool.calls).hasSize(1);
+        assertThatThrownBy(() -> rejected.get(1, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+
+        tool.calls.get(0).complete("first");
+        assertThat(running.get(1, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(tool.calls).hasSize(2);
+        tool.calls.get(1).complete("second");
+        assertThat(queued.get(1, TimeUnit.SECONDS)).isEqualTo("second");
+    }
+
+    @Test
+    public void invoke_WhenToolFails_ShouldReleaseSlot() throws Exception {
+        PendingTool tool = new PendingTool(ToolPolicy.builder().maxConcurrency(1).build());
+        ToolInvoker invoker = new ToolInvoker(tool, Runnable::run);
+
+        CompletableFuture<Object> failed = invoker.invoke(ARGS);
+        tool.calls.get(0).completeExceptionally(new IllegalStateException("boom"));
+        CompletableFuture<Object> next = invoker.invoke(ARGS);
+        tool.calls.get(1).complete("ok");
+
+        assertThatThrownBy(failed::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(next.get(1, TimeUnit.SECONDS)).isEqualTo("ok");
+    }
+
+    @Test
+    public void invoke_WhenBlockingCallTimesOut_ShouldKeepSlotUntilThreadReturns() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        CountDownLatch returned = new CountDownLatch(1);
+        ToolPolicy policy = ToolPolicy.builder().timeout(Duration.ofMillis(50)).maxConcurrency(1).build();
+        Tool tool = new Tool() {
+            @Override
+            public String getName() {
+                return "stubborn";
+            }
+
+            @Override
+            public ToolPolicy getPolicy() {
+                return policy;
+            }
+
+            @Override
+            public Object execute(Map<String, Object> args) {
+                entered.countDown();
+                boolean interrupted = false;
+                while (true) {
+                    try {
+                        unblock.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                returned.countDown();
+                return interrupted ? "interrupted" : "done";
+            }
+        };
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            ToolInvoker invoker = new ToolInvoker(tool, executor);
+
+            CompletableFuture<Object> timedOut = invoker.invoke(ARGS);
+            assertThat(entered.await(1, TimeUnit.SECONDS)).isTrue();
+            assertThatThrownBy(() -> timedOut.get(1, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(TimeoutException.class);
+            CompletableFuture<Object> rejected = invoker.invoke(ARGS);
+            assertThatThrownBy(() -> rejected.get(1, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(RejectedExecutionException.class);
+
+            unblock.countDown();
+            assertThat(returned.await(1, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<Object> next = null;
+            for (int i = 0; i < 100 && (next == null || next.isCompletedExceptionally()); i++) {
+                Thread.sleep(10);
+                next = invoker.invoke(ARGS);
+            }
+            assertThat(next.get(1, TimeUnit.SECONDS)).isEqualTo("done");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void build_WithNonPositiveConcurrency_ShouldThrowException() {
+        assertThatThrownBy(() -> ToolPolicy.builder().maxConcurrency(0).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * An asynchronous tool whose calls complete only when the test completes them.
+     */
+    private static class PendingTool implements AsyncTool {
+        private final ToolPolicy policy;
+        private final List<CompletableFuture<Object>> calls = new ArrayList<>();
+
+        PendingTool(ToolPolicy policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public String getName() {
+            return "pending";
+        }
+
+        @Override
+        public ToolPolicy getPolicy() {
+            return policy;
+        }
+
+        @Override
+        public CompletionStage<Object> executeAsync(Map<String, Object> args) {
+            CompletableFuture<Object> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.agentfactory.tools;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class ToolRegistryTest {
+
+    private final ToolRegistry registry = ToolRegistry.of(Arrays.asList(new SearchTool("key"), new FinalAnswerTool()));
+
+    @Test
+    public void get_ShouldReturnToolByName() {
+        assertThat(registry.get("search")).isInstanceOf(SearchTool.class);
+        assertThat(registry.contains("final_answer")).isTrue();
+        assertThat(registry.get("missing")).isNull();
+    }
+
+    @Test
+    public void validate_WithValidArguments_ShouldReturnNull() {
+        Map<String, Object> args = new HashMap<>();
+        args.put("query", "java");
+
+        assertThat(registry.validate("search", args)).isNull();
+    }
+
+    @Test
+    public void validate_WithMissingOrMistypedArguments_ShouldDescribeProblems() {
+        Map<String, Object> args = new HashMap<>();
+        args.put("answer", 42.0);
+
+        assertThat(registry.validate("search", new HashMap<>()))
+                .isEqualTo("Invalid call to search: missing required argument 'query'");
+        assertThat(registry.validate("final_answer", args))
+                .isEqualTo("Invalid call to final_answer: argument 'answer' must be of type string");
+        assertThatThrownBy(() -> registry.validate("missing", args)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void getOpenAITools_ShouldDescribeFunctionsWithJsonSchema() {
+        JsonArray tools = registry.getOpenAITools();
+
+        JsonObject search = tools.get(0).getAsJsonObject();
+        assertThat(search.get("type").getAsString()).isEqualTo("function");
+        JsonObject function = search.getAsJsonObject("function");
+        assertThat(function.get("name").getAsString()).isEqualTo("search");
+        JsonObject parameters = function.getAsJsonObject("parameters");
+        assertThat(parameters.getAsJsonObject("properties").getAsJsonObject("query").get("type").getAsString())
+                .isEqualTo("string");
+        assertThat(parameters.getAsJsonArray("required").get(0).getAsString()).isEqualTo("query");
+    }
+
+    @Test
+    public void getDescription_ShouldListToolsWithArguments() {
+        assertThat(registry.getDescription())
+                .contains("- search: ")
+                .contains("query (string, required): The search query")
+                .contains("- final_answer: ");
+    }
+}